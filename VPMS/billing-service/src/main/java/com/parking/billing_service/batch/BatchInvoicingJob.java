@@ -0,0 +1,245 @@
+package com.parking.billing_service.batch;
+
+import com.parking.billing_service.dto.BatchStatusDTO;
+import com.parking.billing_service.entity.BatchCheckpoint;
+import com.parking.billing_service.entity.InvoiceStatus;
+import com.parking.billing_service.entity.PaymentMethod;
+import com.parking.billing_service.feign.ReservationClient;
+import com.parking.billing_service.feign.VehicleLogClient;
+import com.parking.billing_service.repository.BatchCheckpointRepository;
+import com.parking.billing_service.repository.InvoiceRepository;
+import com.parking.billing_service.security.ServiceTokenProvider;
+import com.parking.billing_service.tariff.TariffEngine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Invoices completed reservations and walk-in exits in bulk, instead of one POST per stay.
+ *
+ * Each source is read in pages of (changedAt, id) keyset order from the upstream feed, starting
+ * at its checkpoint, so a stay is read when it is completed or closed, however late that is
+ * after it ended. A page is priced with the tariff engine, rows that already have an invoice
+ * (looked up for the whole page at once) are skipped, and the rest are inserted with one
+ * batched statement that also skips any invoice created meanwhile (live invoices are unique
+ * per reservation and per log). A stay whose invoice was cancelled is not invoiced again here. The checkpoint moves past the page in the same transaction, and
+ * only while this run still owns the source's lease, so a run that fails, is killed or was
+ * taken over resumes with the first page it didn't finish. Only rows last changed
+ * settle-minutes ago are read, so every change before the cursor has committed.
+ *
+ * Runs nightly when billing.service-account names an account to call the other services as,
+ * or on demand with the caller's token.
+ */
+@Slf4j
+@Component
+public class BatchInvoicingJob {
+
+    public static final String RESERVATIONS = "reservations";
+    public static final String VEHICLE_LOGS = "vehicle-logs";
+
+    private static final String INSERT_SQL = "INSERT INTO invoices"
+            + " (user_id, reservation_id, log_id, amount, payment_method, status, timestamp, type,"
+            + " active_reservation_id, active_log_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE invoice_id = invoice_id";
+
+    // One stay read from a source; cursorTime is the feed's ordering time (changedAt)
+    private record Billable(Long sourceId, Long userId, String type, LocalDateTime start, LocalDateTime end,
+                            LocalDateTime cursorTime) {
+    }
+
+    private record Priced(Billable stay, double amount) {
+    }
+
+    private final ReservationClient reservationClient;
+    private final VehicleLogClient vehicleLogClient;
+    private final InvoiceRepository invoiceRepository;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TariffEngine tariffEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ServiceTokenProvider serviceToken;
+    private final int pageSize;
+    private final long settleMinutes;
+    private final long lookbackHours;
+    private final long leaseMinutes;
+    private final PaymentMethod paymentMethod;
+
+    public BatchInvoicingJob(ReservationClient reservationClient,
+                             VehicleLogClient vehicleLogClient,
+                             InvoiceRepository invoiceRepository,
+                             BatchCheckpointRepository checkpointRepository,
+                             TariffEngine tariffEngine,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ServiceTokenProvider serviceToken,
+                             @Value("${billing.batch.page-size:500}") int pageSize,
+                             @Value("${billing.batch.settle-minutes:15}") long settleMinutes,
+                             @Value("${billing.batch.initial-lookback-hours:24}") long lookbackHours,
+                             @Value("${billing.batch.lease-minutes:30}") long leaseMinutes,
+                             @Value("${billing.batch.payment-method:UPI}") String paymentMethod) {
+        if (pageSize <= 0 || pageSize > 1000) {
+            throw new IllegalArgumentException("billing.batch.page-size must be between 1 and 1000");
+        }
+        this.reservationClient = reservationClient;
+        this.vehicleLogClient = vehicleLogClient;
+        this.invoiceRepository = invoiceRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.tariffEngine = tariffEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.serviceToken = serviceToken;
+        this.pageSize = pageSize;
+        this.settleMinutes = settleMinutes;
+        this.lookbackHours = lookbackHours;
+        this.leaseMinutes = leaseMinutes;
+        this.paymentMethod = PaymentMethod.valueOf(paymentMethod.trim());
+    }
+
+    @Scheduled(cron = "${billing.batch.cron:0 30 2 * * *}")
+    public void runNightly() {
+        if (!serviceToken.isConfigured()) {
+            log.warn("Skipping nightly batch invoicing: billing.service-account is not set");
+            return;
+        }
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Nightly batch invoicing failed, the next run resumes from the checkpoint: {}", e.getMessage());
+        }
+    }
+
+    public List<BatchStatusDTO> run() {
+        String authorization = serviceToken.authorization();
+        LocalDateTime until = LocalDateTime.now().minusMinutes(settleMinutes);
+
+        runSource(RESERVATIONS, true, (since, afterId) ->
+                reservationClient.getCompletedReservations(authorization, since, afterId, until, pageSize).stream()
+                        .map(r -> new Billable(r.getReservationId(), r.getUserId(), r.getType(),
+                                r.getStartTime(), r.getEndTime(), r.getChangedAt()))
+                        .collect(Collectors.toList()));
+        runSource(VEHICLE_LOGS, false, (since, afterId) ->
+                vehicleLogClient.getClosedWalkIns(authorization, since, afterId, until, pageSize).stream()
+                        .map(l -> new Billable(l.getLogId(), l.getUserId(), l.getSlotType(),
+                                l.getEntryTime(), l.getExitTime(), l.getChangedAt()))
+                        .collect(Collectors.toList()));
+        return status();
+    }
+
+    public List<BatchStatusDTO> status() {
+        LocalDateTime now = LocalDateTime.now();
+        return checkpointRepository.findAll().stream()
+                .map(c -> new BatchStatusDTO(c.getName(), c.getWatermark(), c.getLastId(),
+                        c.getLeaseUntil() != null && c.getLeaseUntil().isAfter(now), c.getLastRunAt(),
+                        c.getLastRunRows(), c.getLastRunInvoiced(), c.getLastRunRowsPerSecond()))
+                .collect(Collectors.toList());
+    }
+
+    private void runSource(String name, boolean reservations, BiFunction<LocalDateTime, Long, List<Billable>> fetch) {
+        LocalDateTime now = LocalDateTime.now();
+        String owner = UUID.randomUUID().toString();
+        checkpointRepository.create(name, now.minusHours(lookbackHours));
+        if (checkpointRepository.claim(name, owner, now, now.plusMinutes(leaseMinutes)) == 0) {
+            log.info("Batch invoicing of {} is already running elsewhere, skipping it", name);
+            return;
+        }
+        BatchCheckpoint checkpoint = checkpointRepository.findById(name)
+                .orElseThrow(() -> new RuntimeException("Checkpoint missing for " + name));
+        LocalDateTime since = checkpoint.getWatermark();
+        long afterId = checkpoint.getLastId();
+
+        long rows = 0;
+        long invoiced = 0;
+        long started = System.nanoTime();
+        try {
+            while (true) {
+                List<Billable> page = fetch.apply(since, afterId);
+                if (page.isEmpty()) {
+                    break;
+                }
+                Integer written = transactionTemplate.execute(tx -> writePage(name, owner, reservations, page));
+                rows += page.size();
+                invoiced += written != null ? written : 0;
+                Billable last = page.get(page.size() - 1);
+                since = last.cursorTime();
+                afterId = last.sourceId();
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+        } finally {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            double rate = seconds > 0 ? rows / seconds : 0;
+            checkpointRepository.release(name, owner, LocalDateTime.now(), rows, invoiced, rate);
+            log.info("Batch invoicing of {}: {} rows read, {} invoiced in {} s ({} rows/sec)",
+                    name, rows, invoiced, String.format("%.1f", seconds), String.format("%.0f", rate));
+        }
+    }
+
+    // Moves the checkpoint past the page and inserts invoices for its uninvoiced stays
+    private int writePage(String name, String owner, boolean reservations, List<Billable> page) {
+        // First, so a run that lost its lease writes nothing and stops
+        Billable last = page.get(page.size() - 1);
+        if (checkpointRepository.advance(name, owner, last.cursorTime(), last.sourceId(),
+                LocalDateTime.now().plusMinutes(leaseMinutes)) == 0) {
+            throw new IllegalStateException("Batch invoicing of " + name + " was taken over by another run");
+        }
+
+        Set<Long> ids = page.stream().map(Billable::sourceId).collect(Collectors.toSet());
+        Set<Long> done = reservations
+                ? invoiceRepository.findInvoicedReservationIds(ids)
+                : invoiceRepository.findInvoicedLogIds(ids);
+
+        List<Priced> rows = new ArrayList<>(page.size());
+        for (Billable stay : page) {
+            if (done.contains(stay.sourceId())) {
+                continue;
+            }
+            if (stay.userId() == null || stay.start() == null || stay.end() == null) {
+                log.warn("Not invoicing {} {}: user or times missing", name, stay.sourceId());
+                continue;
+            }
+            try {
+                rows.add(new Priced(stay, tariffEngine.price(stay.type(), stay.start(), stay.end())));
+            } catch (IllegalArgumentException e) {
+                log.warn("Not invoicing {} {}: {}", name, stay.sourceId(), e.getMessage());
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            // Bind like Hibernate does with hibernate.jdbc.time_zone=UTC so both paths store the same value
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+                Billable stay = row.stay();
+                ps.setLong(1, stay.userId());
+                ps.setObject(2, reservations ? stay.sourceId() : null, Types.BIGINT);
+                ps.setObject(3, reservations ? null : stay.sourceId(), Types.BIGINT);
+                ps.setDouble(4, row.amount());
+                ps.setString(5, paymentMethod.name());
+                ps.setString(6, InvoiceStatus.UNPAID.name());
+                ps.setTimestamp(7, now, utc);
+                ps.setString(8, stay.type());
+                ps.setObject(9, reservations ? stay.sourceId() : null, Types.BIGINT);
+                ps.setObject(10, reservations ? null : stay.sourceId(), Types.BIGINT);
+            });
+        }
+        return rows.size();
+    }
+}
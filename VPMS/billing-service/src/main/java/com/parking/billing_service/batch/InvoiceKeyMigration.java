@@ -0,0 +1,69 @@
+package com.parking.billing_service.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Moves invoices written before the active_* keys existed onto them. ddl-auto adds the columns
+ * (empty, so their unique keys apply cleanly) but neither fills them nor drops the earlier
+ * all-status unique keys, which would keep a cancelled invoice from ever being replaced.
+ *
+ * For each stay with several live invoices, the paid one (or else the oldest) gets the active
+ * key; the other UNPAID ones are cancelled as duplicates. Paid or pending duplicates can't be
+ * cancelled here and are only reported. Every statement only touches rows still without a
+ * key, so after the first start this changes nothing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InvoiceKeyMigration {
+
+    private static final List<String> LEGACY_KEYS = List.of("uk_invoice_reservation", "uk_invoice_log");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrate() {
+        for (String key : LEGACY_KEYS) {
+            Integer present = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics"
+                    + " WHERE table_schema = DATABASE() AND table_name = 'invoices' AND index_name = ?",
+                    Integer.class, key);
+            if (present != null && present > 0) {
+                jdbcTemplate.execute("ALTER TABLE invoices DROP INDEX " + key);
+                log.info("Dropped unique key {}; live invoices are unique on the active_* keys instead", key);
+            }
+        }
+        int keyed = 0;
+        int cancelled = 0;
+        for (String column : List.of("reservation_id", "log_id")) {
+            String active = "active_" + column;
+            // GROUP BY keeps MySQL from merging the derived table into the UPDATE (error 1093)
+            keyed += jdbcTemplate.update("UPDATE invoices i JOIN (SELECT COALESCE(MIN(CASE WHEN status = 'PAID'"
+                    + " THEN invoice_id END), MIN(invoice_id)) AS keep FROM invoices WHERE " + column + " IS NOT NULL"
+                    + " AND status <> 'CANCELLED' GROUP BY " + column + " HAVING MAX(" + active + ") IS NULL) k"
+                    + " ON i.invoice_id = k.keep SET i." + active + " = i." + column);
+            cancelled += jdbcTemplate.update("UPDATE invoices i JOIN (SELECT " + active + " AS stay FROM invoices"
+                    + " WHERE " + active + " IS NOT NULL GROUP BY " + active + ") a ON i." + column + " = a.stay"
+                    + " SET i.status = 'CANCELLED', i.payment_error = 'Duplicate invoice for this stay'"
+                    + " WHERE i." + active + " IS NULL AND i.status = 'UNPAID'");
+        }
+        Integer unresolved = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoices WHERE status <> 'CANCELLED'"
+                + " AND ((reservation_id IS NOT NULL AND active_reservation_id IS NULL)"
+                + " OR (log_id IS NOT NULL AND active_log_id IS NULL))", Integer.class);
+        if (keyed + cancelled > 0) {
+            log.info("Keyed {} live invoices and cancelled {} unpaid duplicates", keyed, cancelled);
+        }
+        if (unresolved != null && unresolved > 0) {
+            log.warn("{} paid or pending invoices duplicate another invoice for the same stay and need review",
+                    unresolved);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.parking.billing_service.controller;
  
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.parking.billing_service.dto.ApiResponse;
+import com.parking.billing_service.dto.BatchStatusDTO;
 import com.parking.billing_service.dto.CreateInvoiceRequest;
 import com.parking.billing_service.dto.InvoiceResponseDTO;
 import com.parking.billing_service.dto.PaymentRequestDTO;
+import com.parking.billing_service.dto.PaymentResponseDTO;
+import com.parking.billing_service.dto.TariffPlanDTO;
+import com.parking.billing_service.dto.TariffQuoteDTO;
+import com.parking.billing_service.idempotency.IdempotencyStore;
 import com.parking.billing_service.service.BillingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
  
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
  
 @RestController
@@ -18,14 +27,19 @@ import java.util.List;
 public class BillingController {
  
     private final BillingService billingService;
+    private final IdempotencyStore idempotencyStore;
  
-    // 1. Create Invoice (ADMIN, STAFF, CUSTOMER)
+    // 1. Create Invoice (ADMIN, STAFF, CUSTOMER); retries with the same Idempotency-Key replay the first response
     @PostMapping
     @PreAuthorize("hasAnyAuthority('ADMIN','STAFF','CUSTOMER')")
     public ResponseEntity<ApiResponse<InvoiceResponseDTO>> createInvoice(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @RequestBody CreateInvoiceRequest request) {
-        InvoiceResponseDTO response = billingService.createInvoice(request);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Invoice created successfully", response));
+        return idempotencyStore.execute(idempotencyKey, "create-invoice", request,
+                new TypeReference<ApiResponse<InvoiceResponseDTO>>() { }, () -> {
+                    InvoiceResponseDTO response = billingService.createInvoice(request);
+                    return ResponseEntity.ok(new ApiResponse<>(true, "Invoice created successfully", response));
+                });
     }
  
     // 2. Get Invoice by ID (ADMIN, STAFF, CUSTOMER)
@@ -54,19 +68,77 @@ public class BillingController {
  
     }
 
+    // 5. Pay Invoice (ADMIN, STAFF, CUSTOMER); answers 202 once the invoice is PENDING, poll the Location for the outcome
     @PostMapping("/{id}/pay")
     @PreAuthorize("hasAnyAuthority('ADMIN','STAFF','CUSTOMER')")
-    public ResponseEntity<ApiResponse<InvoiceResponseDTO>> payInvoice(
-        @PathVariable Long id,
-        @RequestBody PaymentRequestDTO paymentRequest) {
-    InvoiceResponseDTO response = billingService.payInvoice(id, paymentRequest);
-    return ResponseEntity.ok(new ApiResponse<>(true, "Invoice paid successfully", response));
-}
+    public ResponseEntity<ApiResponse<PaymentResponseDTO>> payInvoice(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id,
+            @RequestBody PaymentRequestDTO paymentRequest) {
+        return idempotencyStore.execute(idempotencyKey, "pay-invoice", List.of(id, paymentRequest),
+                new TypeReference<ApiResponse<PaymentResponseDTO>>() { }, () -> {
+                    PaymentResponseDTO response = billingService.payInvoice(id, paymentRequest);
+                    return ResponseEntity.accepted()
+                            .location(URI.create("/api/billing/" + id + "/payment"))
+                            .body(new ApiResponse<>(true, "Payment accepted", response));
+                });
+    }
+
+    // 6. Payment status of an invoice (ADMIN, STAFF, CUSTOMER)
+    @GetMapping("/{id}/payment")
+    @PreAuthorize("hasAnyAuthority('ADMIN','STAFF','CUSTOMER')")
+    public ResponseEntity<ApiResponse<PaymentResponseDTO>> getPaymentStatus(@PathVariable Long id) {
+        PaymentResponseDTO response = billingService.getPaymentStatus(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Payment status fetched successfully", response));
+    }
+
 @PostMapping("/{id}/cancel")
 @PreAuthorize("hasAnyAuthority('ADMIN','STAFF','CUSTOMER')")
 public ResponseEntity<ApiResponse<InvoiceResponseDTO>> cancelInvoice(@PathVariable Long id) {
     InvoiceResponseDTO response = billingService.cancelInvoice(id);
     return ResponseEntity.ok(new ApiResponse<>(true, "Invoice cancelled successfully", response));
 }
+
+    // 7. Quote a stay with the current tariff plans (ADMIN, STAFF, CUSTOMER)
+    @GetMapping("/tariffs/quote")
+    @PreAuthorize("hasAnyAuthority('ADMIN','STAFF','CUSTOMER')")
+    public ResponseEntity<ApiResponse<TariffQuoteDTO>> quote(
+            @RequestParam String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        TariffQuoteDTO response = billingService.quote(type, start, end);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Quote calculated", response));
+    }
+
+    // 8. Get Tariff Plans (ADMIN, STAFF)
+    @GetMapping("/tariffs")
+    @PreAuthorize("hasAnyAuthority('ADMIN','STAFF')")
+    public ResponseEntity<ApiResponse<List<TariffPlanDTO>>> getTariffPlans() {
+        List<TariffPlanDTO> list = billingService.getTariffPlans();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Tariff plans retrieved", list));
+    }
+
+    // 9. Create or replace the tariff plan of a slot type (ADMIN); takes effect immediately
+    @PutMapping("/tariffs")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ApiResponse<TariffPlanDTO>> saveTariffPlan(@RequestBody TariffPlanDTO plan) {
+        TariffPlanDTO response = billingService.saveTariffPlan(plan);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Tariff plan saved", response));
+    }
+
+    // 10. Batch invoicing checkpoints and last-run throughput per source (ADMIN, STAFF)
+    @GetMapping("/batch")
+    @PreAuthorize("hasAnyAuthority('ADMIN','STAFF')")
+    public ResponseEntity<ApiResponse<List<BatchStatusDTO>>> getBatchStatus() {
+        List<BatchStatusDTO> list = billingService.getBatchStatus();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Batch invoicing status", list));
+    }
+
+    // 11. Run batch invoicing now (ADMIN); each source resumes from its checkpoint
+    @PostMapping("/batch/run")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ApiResponse<List<BatchStatusDTO>>> runBatchInvoicing() {
+        List<BatchStatusDTO> list = billingService.runBatchInvoicing();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Batch invoicing finished", list));
+    }
 }
- 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.parking.billing_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStatusDTO {
+    private String source;              // "reservations" or "vehicle-logs"
+    private LocalDateTime watermark;    // rows up to (watermark, lastId) are done
+    private Long lastId;
+    private boolean running;
+    private LocalDateTime lastRunAt;
+    private Long lastRunRows;           // rows read from the source
+    private Long lastRunInvoiced;       // of which became invoices
+    private Double lastRunRowsPerSecond;
+}
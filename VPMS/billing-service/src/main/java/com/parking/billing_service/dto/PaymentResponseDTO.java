@@ -7,7 +7,8 @@ import lombok.*;
 @AllArgsConstructor
 public class PaymentResponseDTO {
     private Long invoiceId;
-    private String status;       // "PAID" or "FAILED"
+    private String status;       // "PENDING", "PAID", "FAILED", "UNPAID" or "CANCELLED"
     private String paymentMethod;
+    private String message;      // failure reason when FAILED
 }
  
\ No newline at end of file
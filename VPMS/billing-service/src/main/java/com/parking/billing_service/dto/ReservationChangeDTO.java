@@ -0,0 +1,17 @@
+package com.parking.billing_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationChangeDTO {
+    private Long reservationId;
+    private Long userId;
+    private String type;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LocalDateTime changedAt;
+}
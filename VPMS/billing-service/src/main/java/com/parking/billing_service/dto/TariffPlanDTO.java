@@ -0,0 +1,22 @@
+package com.parking.billing_service.dto;
+ 
+import com.parking.billing_service.entity.TariffBand;
+import com.parking.billing_service.entity.TariffTier;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffPlanDTO {
+    private String slotType;          // "2W", "4W"
+    private String name;
+    private Integer graceMinutes;
+    private Double baseRatePerMinute; // outside every band
+    private Double dailyMax;          // per 24 hours from entry, null for none
+    private List<TariffBand> bands;
+    private List<TariffTier> tiers;
+    private LocalDateTime updatedAt;
+}
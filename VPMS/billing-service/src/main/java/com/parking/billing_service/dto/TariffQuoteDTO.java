@@ -0,0 +1,16 @@
+package com.parking.billing_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffQuoteDTO {
+    private String slotType;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private long minutes;
+    private Double amount;
+}
@@ -0,0 +1,18 @@
+package com.parking.billing_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleLogChangeDTO {
+    private Long logId;
+    private Long userId;
+    private String slotType;
+    private Long reservationId;
+    private LocalDateTime entryTime;
+    private LocalDateTime exitTime;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,44 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * Progress of batch invoicing for one source. The watermark and lastId are the cursor of the
+ * last row invoiced (or skipped), advanced in the same transaction as the invoices, so a run
+ * that dies picks up exactly where it stopped. leaseUntil keeps two replicas off one source;
+ * leaseOwner names the run holding it, and only that run may move the cursor.
+ */
+@Entity
+@Table(name = "batch_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCheckpoint {
+ 
+    @Id
+    @Column(name = "name", length = 50)
+    private String name; // "reservations", "vehicle-logs"
+ 
+    @Column(name = "watermark", nullable = false)
+    private LocalDateTime watermark;
+ 
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+ 
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+ 
+    private LocalDateTime lastRunAt;
+ 
+    private Long lastRunRows;
+ 
+    private Long lastRunInvoiced;
+ 
+    private Double lastRunRowsPerSecond;
+}
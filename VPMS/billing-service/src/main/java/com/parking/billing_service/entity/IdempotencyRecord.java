@@ -0,0 +1,40 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header, so a retry can be
+ * answered with the original response instead of being executed again. The row is
+ * inserted before the work starts (completed = false) to claim the key across replicas.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+ 
+    // operation + hash of (user, client key)
+    @Id
+    @Column(name = "record_key", length = 255)
+    private String recordKey;
+ 
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+ 
+    @Column(nullable = false)
+    private boolean completed;
+ 
+    private Integer statusCode;
+ 
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+ 
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -5,7 +5,12 @@ import lombok.*;
 import java.time.LocalDateTime;
  
 @Entity
-@Table(name = "invoices")
+// One live invoice per reservation and per log, however many runs or requests race to create it;
+// the active_* keys are cleared on cancel, so a cancelled invoice can be replaced
+@Table(name = "invoices", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_invoice_active_reservation", columnNames = "active_reservation_id"),
+        @UniqueConstraint(name = "uk_invoice_active_log", columnNames = "active_log_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +30,13 @@ public class Invoice {
     
     @Column(nullable = true)
     private Long logId;
+
+    // reservationId / logId while the invoice is not CANCELLED, otherwise null
+    @Column(name = "active_reservation_id")
+    private Long activeReservationId;
+
+    @Column(name = "active_log_id")
+    private Long activeLogId;
  
     @Column(nullable = false)
     private Double amount;
@@ -35,11 +47,15 @@ public class Invoice {
  
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private InvoiceStatus status;  // PAID, UNPAID, CANCELLED
+    private InvoiceStatus status;  // PAID, PENDING, UNPAID, CANCELLED
  
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
     private String type; // e.g. "2W", "4W"
+
+    private LocalDateTime paymentStartedAt; // when the invoice last went PENDING
+
+    private String paymentError; // why the last payment attempt failed, if it did
 }
  
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.parking.billing_service.entity;
  
 public enum InvoiceStatus {
     PAID,
+    PENDING,
     UNPAID,
     CANCELLED
 }
@@ -0,0 +1,33 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * Billing's copy of what it needs from a reservation, kept current from reservation-service's
+ * change feed. changedAt is the upstream change this row reflects (null if it was fetched
+ * directly on a miss).
+ */
+@Entity
+@Table(name = "reservation_facts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationFact {
+ 
+    @Id
+    @Column(name = "reservation_id")
+    private Long reservationId;
+ 
+    private Long userId;
+ 
+    private String type; // "2W", "4W"
+ 
+    private LocalDateTime startTime;
+ 
+    private LocalDateTime endTime;
+ 
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,27 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+ 
+import java.time.LocalTime;
+ 
+/**
+ * Time-of-day rate. A band whose end is not after its start wraps past midnight
+ * (22:00-06:00); an end of 00:00 means midnight.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffBand {
+ 
+    @Column(nullable = false)
+    private LocalTime startTime;
+ 
+    @Column(nullable = false)
+    private LocalTime endTime;
+ 
+    @Column(nullable = false)
+    private Double ratePerMinute;
+}
@@ -0,0 +1,54 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+ 
+/**
+ * Pricing rules for one slot type. A stay is charged per minute at the band rate for that
+ * time of day (baseRatePerMinute outside every band), each hour of the stay is capped by its
+ * tier, and each 24 hours from entry by dailyMax. Stays up to graceMinutes are free.
+ */
+@Entity
+@Table(name = "tariff_plans")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TariffPlan {
+ 
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+ 
+    @Column(nullable = false, unique = true)
+    private String slotType; // e.g. "2W", "4W"
+ 
+    private String name;
+ 
+    @Column(nullable = false)
+    private Integer graceMinutes;
+ 
+    @Column(nullable = false)
+    private Double baseRatePerMinute;
+ 
+    private Double dailyMax; // null for no daily maximum
+ 
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "tariff_bands", joinColumns = @JoinColumn(name = "plan_id"))
+    @OrderColumn(name = "position")
+    private List<TariffBand> bands = new ArrayList<>();
+ 
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "tariff_tiers", joinColumns = @JoinColumn(name = "plan_id"))
+    @OrderColumn(name = "position")
+    private List<TariffTier> tiers = new ArrayList<>();
+ 
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
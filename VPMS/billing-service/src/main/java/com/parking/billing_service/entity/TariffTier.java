@@ -0,0 +1,22 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+ 
+/**
+ * Hourly cap: from the fromHour-th hour of a stay (0 = the first) until the next tier,
+ * no hour costs more than maxPerHour.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffTier {
+ 
+    @Column(nullable = false)
+    private Integer fromHour;
+ 
+    @Column(nullable = false)
+    private Double maxPerHour;
+}
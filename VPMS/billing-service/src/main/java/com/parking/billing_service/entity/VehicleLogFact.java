@@ -0,0 +1,34 @@
+package com.parking.billing_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * Billing's copy of what it needs from a vehicle log, kept current from vehicle-log-service's
+ * change feed. exitTime is null while the vehicle is still parked.
+ */
+@Entity
+@Table(name = "vehicle_log_facts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleLogFact {
+ 
+    @Id
+    @Column(name = "log_id")
+    private Long logId;
+ 
+    private Long userId;
+ 
+    private String slotType;
+ 
+    private Long reservationId;
+ 
+    private LocalDateTime entryTime;
+ 
+    private LocalDateTime exitTime;
+ 
+    private LocalDateTime changedAt;
+}
@@ -12,6 +12,10 @@ import jakarta.servlet.http.HttpServletRequest;
 public class FeignClientInterceptor implements RequestInterceptor {
     @Override
     public void apply(RequestTemplate template) {
+        // Calls that carry their own token (batch jobs) keep it
+        if (template.headers().containsKey("Authorization")) {
+            return;
+        }
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attributes != null) {
             HttpServletRequest request = attributes.getRequest();
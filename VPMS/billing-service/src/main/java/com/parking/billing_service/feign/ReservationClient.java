@@ -1,8 +1,13 @@
 package com.parking.billing_service.feign;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import com.parking.billing_service.dto.ReservationChangeDTO;
 import com.parking.billing_service.dto.ReservationResponseDTO;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -11,5 +16,21 @@ public interface ReservationClient {
 
     @GetMapping("/api/reservations/{id}")
     ReservationResponseDTO getReservationById(@PathVariable Long id);
+
+    // Completed reservations after the (changedAt, afterId) cursor, last changed before "until", oldest first
+    @GetMapping("/api/reservations/completed")
+    List<ReservationChangeDTO> getCompletedReservations(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam("since") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam("afterId") Long afterId,
+            @RequestParam("until") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam("size") int size);
+
+    // Reservations changed after the (since, afterId) cursor, oldest change first
+    @GetMapping("/api/reservations/changes")
+    List<ReservationChangeDTO> getReservationChanges(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam("since") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam("afterId") Long afterId,
+            @RequestParam("size") int size);
 }
-    
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.parking.billing_service.feign;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import com.parking.billing_service.dto.VehicleLogChangeDTO;
 import com.parking.billing_service.dto.VehicleLogResponse;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @FeignClient(name = "vehicle-log-service")
@@ -12,4 +17,20 @@ public interface VehicleLogClient {
     @GetMapping("/api/vehicle-log/{logId}")
     VehicleLogResponse getLogById(@PathVariable Long logId);
 
+    // Closed walk-in logs after the (changedAt, afterId) cursor, last changed before "until", oldest first
+    @GetMapping("/api/vehicle-log/closed")
+    List<VehicleLogChangeDTO> getClosedWalkIns(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam("since") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam("afterId") Long afterId,
+            @RequestParam("until") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam("size") int size);
+
+    // Logs changed after the (since, afterId) cursor, oldest change first
+    @GetMapping("/api/vehicle-log/changes")
+    List<VehicleLogChangeDTO> getLogChanges(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam("since") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam("afterId") Long afterId,
+            @RequestParam("size") int size);
 }
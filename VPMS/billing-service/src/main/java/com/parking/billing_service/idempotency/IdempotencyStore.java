@@ -0,0 +1,233 @@
+package com.parking.billing_service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.billing_service.entity.IdempotencyRecord;
+import com.parking.billing_service.repository.IdempotencyRecordRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per (user, operation, Idempotency-Key) and replays the
+ * stored response to retries.
+ *
+ * Duplicates that arrive while the first execution is still running on this instance wait
+ * for it and get its response. Completed responses stay in memory for a few minutes and in
+ * the idempotency_keys table until the TTL ends. The table row is claimed before the work
+ * starts, so a duplicate that reaches another replica gets 409 instead of running twice.
+ * That claim is only leased for in-flight-seconds (longer than any request runs) and gets
+ * the full TTL once the response is stored, so a key left behind by an instance that died
+ * mid-request can be used again after the lease instead of answering 409 for a day.
+ * Failed executions are not stored and can be retried with the same key.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long WAIT_SECONDS = 30;
+
+    private record Stored(int status, String body) {
+    }
+
+    private static final class InFlight {
+        final String requestHash;
+        final long createdAtMillis = System.currentTimeMillis();
+        final CompletableFuture<Stored> result = new CompletableFuture<>();
+
+        InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final IdempotencyRecordRepository recordRepo;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inFlightLease;
+    private final long memoryTtlMillis;
+    private final ConcurrentHashMap<String, InFlight> memory = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepo,
+                            ObjectMapper objectMapper,
+                            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${idempotency.in-flight-seconds:120}") long inFlightSeconds,
+                            @Value("${idempotency.memory-ttl-minutes:10}") long memoryTtlMinutes) {
+        if (inFlightSeconds <= 0) {
+            throw new IllegalArgumentException("idempotency.in-flight-seconds must be positive");
+        }
+        this.recordRepo = recordRepo;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inFlightLease = Duration.ofSeconds(inFlightSeconds);
+        this.memoryTtlMillis = Duration.ofMinutes(memoryTtlMinutes).toMillis();
+    }
+
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Object request,
+                                         TypeReference<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must be at most 100 characters.");
+        }
+        // Hashed so long user names and keys always fit the column
+        String recordKey = operation + "|" + sha256(currentUser() + "|" + idempotencyKey);
+        String requestHash = sha256(toJson(request));
+
+        InFlight mine = new InFlight(requestHash);
+        while (true) {
+            InFlight existing = memory.putIfAbsent(recordKey, mine);
+            if (existing == null) {
+                break;
+            }
+            if (isStale(existing)) {
+                memory.remove(recordKey, existing);
+                continue;
+            }
+            checkSameRequest(existing.requestHash, requestHash);
+            return replay(await(existing), responseType);
+        }
+
+        ResponseEntity<T> response = null;
+        Stored stored;
+        try {
+            Optional<Stored> previous = claimOrFetch(recordKey, requestHash);
+            if (previous.isPresent()) {
+                stored = previous.get();
+            } else {
+                try {
+                    response = action.get();
+                } catch (RuntimeException e) {
+                    recordRepo.release(recordKey);
+                    throw e;
+                }
+                stored = new Stored(response.getStatusCode().value(), toJson(response.getBody()));
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    recordRepo.complete(recordKey, stored.status(), stored.body(), LocalDateTime.now().plus(ttl));
+                } else {
+                    recordRepo.release(recordKey);
+                    memory.remove(recordKey, mine);
+                }
+            }
+            mine.result.complete(stored);
+        } catch (RuntimeException e) {
+            memory.remove(recordKey, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+        return response != null ? response : replay(stored, responseType);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-ms:600000}")
+    public void purgeExpired() {
+        memory.entrySet().removeIf(e -> isStale(e.getValue()));
+        try {
+            recordRepo.deleteExpired(LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Could not purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    // Empty if we claimed the key and should run the request, otherwise the stored outcome
+    private Optional<Stored> claimOrFetch(String recordKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        if (recordRepo.claim(recordKey, requestHash, now.plus(inFlightLease)) == 1) {
+            return Optional.empty();
+        }
+        // An expired record is either a stored response past its TTL or an abandoned claim
+        if (recordRepo.releaseIfExpired(recordKey, now) == 1
+                && recordRepo.claim(recordKey, requestHash, now.plus(inFlightLease)) == 1) {
+            return Optional.empty();
+        }
+        IdempotencyRecord record = recordRepo.findById(recordKey).orElse(null);
+        if (record == null || !record.isCompleted()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed.");
+        }
+        checkSameRequest(record.getRequestHash(), requestHash);
+        return Optional.of(new Stored(record.getStatusCode(), record.getResponseBody()));
+    }
+
+    private Stored await(InFlight inFlight) {
+        try {
+            return inFlight.result.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", e);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(Stored stored, TypeReference<T> responseType) {
+        try {
+            T body = stored.body() == null ? null : objectMapper.readValue(stored.body(), responseType);
+            return ResponseEntity.status(stored.status()).header("Idempotent-Replayed", "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request.");
+        }
+    }
+
+    private boolean isStale(InFlight inFlight) {
+        return inFlight.result.isDone() && System.currentTimeMillis() - inFlight.createdAtMillis > memoryTtlMillis;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent request or response", e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null ? "anonymous" : auth.getName();
+    }
+}
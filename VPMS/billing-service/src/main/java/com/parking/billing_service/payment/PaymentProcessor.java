@@ -0,0 +1,117 @@
+package com.parking.billing_service.payment;
+
+import com.parking.billing_service.entity.Invoice;
+import com.parking.billing_service.entity.InvoiceStatus;
+import com.parking.billing_service.repository.InvoiceRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs provider charges for invoices that payInvoice has moved to PENDING.
+ *
+ * Each charge gets its own thread (a virtual one when billing.payment.virtual-threads is on),
+ * with at most max-concurrent in flight. A submission beyond that is rejected at once rather
+ * than parking the request thread, and payInvoice answers 503 so the client retries. No
+ * transaction or connection is held while the provider is working: the outcome is written
+ * afterwards with one conditional UPDATE, PENDING to PAID, or back to UNPAID with the reason
+ * so the payment can be retried. Invoices left PENDING by a crash are released after
+ * stuck-after-minutes.
+ */
+@Slf4j
+@Component
+public class PaymentProcessor {
+
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentProvider paymentProvider;
+    private final Duration stuckAfter;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final SimpleAsyncTaskExecutor executor;
+
+    public PaymentProcessor(InvoiceRepository invoiceRepository,
+                            PaymentProvider paymentProvider,
+                            @Value("${billing.payment.virtual-threads:true}") boolean virtualThreads,
+                            @Value("${billing.payment.max-concurrent:500}") int maxConcurrent,
+                            @Value("${billing.payment.stuck-after-minutes:10}") long stuckAfterMinutes) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("billing.payment.max-concurrent must be positive");
+        }
+        this.invoiceRepository = invoiceRepository;
+        this.paymentProvider = paymentProvider;
+        this.stuckAfter = Duration.ofMinutes(stuckAfterMinutes);
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = new SimpleAsyncTaskExecutor("payment-");
+        this.executor.setVirtualThreads(virtualThreads);
+        this.executor.setTaskTerminationTimeout(5000);
+    }
+
+    // The invoice must already be PENDING; throws TaskRejectedException when max-concurrent charges are in flight
+    public void submit(Invoice invoice) {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("Too many payments in progress");
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(invoice);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.close();
+    }
+
+    void process(Invoice invoice) {
+        Long invoiceId = invoice.getInvoiceId();
+        String error = null;
+        try {
+            paymentProvider.charge(invoiceId, invoice.getAmount(), invoice.getPaymentMethod());
+        } catch (RuntimeException e) {
+            log.warn("Payment for invoice {} failed: {}", invoiceId, e.getMessage());
+            error = e.getMessage() != null ? e.getMessage() : "Payment failed";
+        }
+
+        int updated = error == null
+                ? invoiceRepository.transition(invoiceId, InvoiceStatus.PENDING, InvoiceStatus.PAID, null)
+                : invoiceRepository.transition(invoiceId, InvoiceStatus.PENDING, InvoiceStatus.UNPAID, error);
+        if (updated == 0) {
+            log.warn("Invoice {} was no longer pending when its payment finished", invoiceId);
+        }
+    }
+
+    // A real provider would be asked for the charge's outcome here; the stand-in never has one to report
+    @Scheduled(fixedDelayString = "${billing.payment.recovery-interval-ms:60000}")
+    public void releaseStuck() {
+        LocalDateTime before = LocalDateTime.now().minus(stuckAfter);
+        for (Invoice invoice : invoiceRepository.findByStatusAndPaymentStartedAtBefore(InvoiceStatus.PENDING, before)) {
+            if (invoiceRepository.transition(invoice.getInvoiceId(), InvoiceStatus.PENDING, InvoiceStatus.UNPAID,
+                    "Payment timed out, please retry") == 1) {
+                log.warn("Released invoice {} stuck in PENDING since {}", invoice.getInvoiceId(),
+                        invoice.getPaymentStartedAt());
+            }
+        }
+    }
+}
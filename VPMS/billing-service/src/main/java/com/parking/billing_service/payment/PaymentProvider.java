@@ -0,0 +1,28 @@
+package com.parking.billing_service.payment;
+
+import com.parking.billing_service.entity.PaymentMethod;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in for the external payment provider: a charge takes provider-latency-ms and succeeds.
+ * Throws if the charge did not go through.
+ */
+@Component
+public class PaymentProvider {
+
+    private final long latencyMillis;
+
+    public PaymentProvider(@Value("${billing.payment.provider-latency-ms:1500}") long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void charge(Long invoiceId, Double amount, PaymentMethod method) {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payment was interrupted");
+        }
+    }
+}
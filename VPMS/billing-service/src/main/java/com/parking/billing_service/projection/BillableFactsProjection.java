@@ -0,0 +1,285 @@
+package com.parking.billing_service.projection;
+
+import com.parking.billing_service.dto.ReservationChangeDTO;
+import com.parking.billing_service.dto.ReservationResponseDTO;
+import com.parking.billing_service.dto.VehicleLogChangeDTO;
+import com.parking.billing_service.dto.VehicleLogResponse;
+import com.parking.billing_service.entity.BatchCheckpoint;
+import com.parking.billing_service.entity.ReservationFact;
+import com.parking.billing_service.entity.VehicleLogFact;
+import com.parking.billing_service.feign.ReservationClient;
+import com.parking.billing_service.feign.VehicleLogClient;
+import com.parking.billing_service.repository.BatchCheckpointRepository;
+import com.parking.billing_service.repository.ReservationFactRepository;
+import com.parking.billing_service.repository.VehicleLogFactRepository;
+import com.parking.billing_service.security.ServiceTokenProvider;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Local copy of the reservation and vehicle-log fields invoices are priced from, so creating
+ * an invoice doesn't need reservation-service or vehicle-log-service to be up.
+ *
+ * Both services stamp every row change with a database-maintained changed_at and serve the
+ * changes in (changed_at, id) order. The sync polls each feed from its cursor (kept in
+ * batch_checkpoints, leased so one replica polls at a time) and upserts the page with one
+ * batched statement, moving the cursor in the same transaction. Each poll starts overlap
+ * seconds before the cursor, since a change stamped earlier can commit after the previous
+ * poll read past it; re-applying a change is harmless.
+ *
+ * Reads fall back to the owning service on a miss (and for logs still open here, whose exit
+ * may not have synced yet) and keep what they fetched. They also go to the owning service
+ * while the projection is behind: when no sync (on any replica) has read a feed to its end
+ * within max-lag-seconds, e.g. because billing.service-account is not set, cached facts may
+ * be stale and are not served.
+ */
+@Slf4j
+@Component
+public class BillableFactsProjection {
+
+    public static final String RESERVATION_CHANGES = "reservation-changes";
+    public static final String VEHICLE_LOG_CHANGES = "vehicle-log-changes";
+
+    private static final long LEASE_MINUTES = 1;
+
+    private static final String UPSERT_RESERVATION_SQL = "INSERT INTO reservation_facts"
+            + " (reservation_id, user_id, type, start_time, end_time, changed_at) VALUES (?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), type = VALUES(type),"
+            + " start_time = VALUES(start_time), end_time = VALUES(end_time), changed_at = VALUES(changed_at)";
+
+    private static final String UPSERT_LOG_SQL = "INSERT INTO vehicle_log_facts"
+            + " (log_id, user_id, slot_type, reservation_id, entry_time, exit_time, changed_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE user_id = VALUES(user_id), slot_type = VALUES(slot_type),"
+            + " reservation_id = VALUES(reservation_id), entry_time = VALUES(entry_time),"
+            + " exit_time = VALUES(exit_time), changed_at = VALUES(changed_at)";
+
+    private final ReservationFactRepository reservationFacts;
+    private final VehicleLogFactRepository logFacts;
+    private final ReservationClient reservationClient;
+    private final VehicleLogClient vehicleLogClient;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final ServiceTokenProvider serviceToken;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int pageSize;
+    private final long overlapSeconds;
+    private final long backfillDays;
+    private final Duration maxLag;
+
+    // Start of the last sync, here or on another replica, that read each feed to its end
+    private final Map<String, LocalDateTime> syncedAt = new ConcurrentHashMap<>();
+    private volatile boolean warnedUnconfigured;
+
+    public BillableFactsProjection(ReservationFactRepository reservationFacts,
+                                   VehicleLogFactRepository logFacts,
+                                   ReservationClient reservationClient,
+                                   VehicleLogClient vehicleLogClient,
+                                   BatchCheckpointRepository checkpointRepository,
+                                   ServiceTokenProvider serviceToken,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${billing.projection.enabled:true}") boolean enabled,
+                                   @Value("${billing.projection.page-size:500}") int pageSize,
+                                   @Value("${billing.projection.overlap-seconds:10}") long overlapSeconds,
+                                   @Value("${billing.projection.backfill-days:30}") long backfillDays,
+                                   @Value("${billing.projection.max-lag-seconds:60}") long maxLagSeconds) {
+        if (pageSize <= 0 || pageSize > 1000) {
+            throw new IllegalArgumentException("billing.projection.page-size must be between 1 and 1000");
+        }
+        this.reservationFacts = reservationFacts;
+        this.logFacts = logFacts;
+        this.reservationClient = reservationClient;
+        this.vehicleLogClient = vehicleLogClient;
+        this.checkpointRepository = checkpointRepository;
+        this.serviceToken = serviceToken;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.overlapSeconds = overlapSeconds;
+        this.backfillDays = backfillDays;
+        this.maxLag = Duration.ofSeconds(maxLagSeconds);
+    }
+
+    public ReservationFact reservation(Long reservationId) {
+        if (enabled && isCurrent(RESERVATION_CHANGES)) {
+            ReservationFact fact = reservationFacts.findById(reservationId).orElse(null);
+            if (fact != null) {
+                return fact;
+            }
+            log.debug("Reservation {} not in the projection, fetching it", reservationId);
+        }
+        ReservationResponseDTO r = reservationClient.getReservationById(reservationId);
+        ReservationFact fact = new ReservationFact(r.getReservationId(), r.getUserId(), r.getType(),
+                r.getStartTime(), r.getEndTime(), null);
+        if (enabled) {
+            remember(() -> reservationFacts.save(fact));
+        }
+        return fact;
+    }
+
+    public VehicleLogFact vehicleLog(Long logId) {
+        VehicleLogFact known = null;
+        if (enabled) {
+            known = logFacts.findById(logId).orElse(null);
+            if (known != null && known.getExitTime() != null && isCurrent(VEHICLE_LOG_CHANGES)) {
+                return known;
+            }
+            log.debug("Vehicle log {} not closed in the projection, fetching it", logId);
+        }
+        VehicleLogResponse l = vehicleLogClient.getLogById(logId);
+        VehicleLogFact fact = new VehicleLogFact(l.getLogId(), l.getUserId(), l.getSlotType(),
+                known != null ? known.getReservationId() : null, l.getEntryTime(), l.getExitTime(), null);
+        if (enabled) {
+            remember(() -> logFacts.save(fact));
+        }
+        return fact;
+    }
+
+    private boolean isCurrent(String feed) {
+        LocalDateTime at = syncedAt.get(feed);
+        return at != null && at.isAfter(LocalDateTime.now().minus(maxLag));
+    }
+
+    // The feed may have stored the row meanwhile; either copy will do
+    private void remember(Runnable save) {
+        try {
+            save.run();
+        } catch (RuntimeException e) {
+            log.debug("Could not keep a fetched fact: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${billing.projection.poll-ms:5000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        if (!serviceToken.isConfigured()) {
+            if (!warnedUnconfigured) {
+                warnedUnconfigured = true;
+                log.warn("billing.service-account is not set; billable facts are fetched from their services until it is");
+            }
+            return;
+        }
+        try {
+            String authorization = serviceToken.authorization();
+            // Bind like Hibernate does with hibernate.jdbc.time_zone=UTC, so the facts read back through JPA match
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            syncSource(RESERVATION_CHANGES,
+                    (since, afterId) -> reservationClient.getReservationChanges(authorization, since, afterId, pageSize),
+                    ReservationChangeDTO::getReservationId, ReservationChangeDTO::getChangedAt,
+                    UPSERT_RESERVATION_SQL, (ps, c) -> {
+                        ps.setLong(1, c.getReservationId());
+                        ps.setObject(2, c.getUserId(), Types.BIGINT);
+                        ps.setString(3, c.getType());
+                        ps.setTimestamp(4, timestamp(c.getStartTime()), utc);
+                        ps.setTimestamp(5, timestamp(c.getEndTime()), utc);
+                        ps.setTimestamp(6, timestamp(c.getChangedAt()), utc);
+                    });
+            syncSource(VEHICLE_LOG_CHANGES,
+                    (since, afterId) -> vehicleLogClient.getLogChanges(authorization, since, afterId, pageSize),
+                    VehicleLogChangeDTO::getLogId, VehicleLogChangeDTO::getChangedAt,
+                    UPSERT_LOG_SQL, (ps, c) -> {
+                        ps.setLong(1, c.getLogId());
+                        ps.setObject(2, c.getUserId(), Types.BIGINT);
+                        ps.setString(3, c.getSlotType());
+                        ps.setObject(4, c.getReservationId(), Types.BIGINT);
+                        ps.setTimestamp(5, timestamp(c.getEntryTime()), utc);
+                        ps.setTimestamp(6, timestamp(c.getExitTime()), utc);
+                        ps.setTimestamp(7, timestamp(c.getChangedAt()), utc);
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Could not sync billable facts, retrying with the next poll: {}", e.getMessage());
+        }
+    }
+
+    private <T> void syncSource(String name, BiFunction<LocalDateTime, Long, List<T>> fetch,
+                                Function<T, Long> idOf, Function<T, LocalDateTime> changedAtOf,
+                                String upsertSql, ParameterizedPreparedStatementSetter<T> setter) {
+        LocalDateTime now = LocalDateTime.now();
+        String owner = UUID.randomUUID().toString();
+        checkpointRepository.create(name, now.minusDays(backfillDays));
+        if (checkpointRepository.claim(name, owner, now, now.plusMinutes(LEASE_MINUTES)) == 0) {
+            // Another replica is syncing this feed; its last complete run counts here too
+            checkpointRepository.findById(name).map(BatchCheckpoint::getLastRunAt)
+                    .ifPresent(at -> syncedAt.put(name, at));
+            return;
+        }
+        BatchCheckpoint checkpoint = checkpointRepository.findById(name)
+                .orElseThrow(() -> new RuntimeException("Checkpoint missing for " + name));
+        LocalDateTime high = checkpoint.getWatermark();
+        long highId = checkpoint.getLastId();
+        LocalDateTime since = high.minusSeconds(overlapSeconds);
+        long afterId = 0;
+
+        long rows = 0;
+        long started = System.nanoTime();
+        boolean complete = false;
+        try {
+            while (true) {
+                List<T> page = fetch.apply(since, afterId);
+                if (page.isEmpty()) {
+                    break;
+                }
+                T last = page.get(page.size() - 1);
+                since = changedAtOf.apply(last);
+                afterId = idOf.apply(last);
+                // Pages inside the overlap are behind the cursor; never move it back
+                if (since.isAfter(high) || (since.equals(high) && afterId > highId)) {
+                    high = since;
+                    highId = afterId;
+                }
+                LocalDateTime cursor = high;
+                long cursorId = highId;
+                transactionTemplate.executeWithoutResult(tx -> {
+                    if (checkpointRepository.advance(name, owner, cursor, cursorId,
+                            LocalDateTime.now().plusMinutes(LEASE_MINUTES)) == 0) {
+                        throw new IllegalStateException("Sync of " + name + " was taken over by another replica");
+                    }
+                    jdbcTemplate.batchUpdate(upsertSql, page, page.size(), setter);
+                });
+                rows += page.size();
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            complete = true;
+        } finally {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            // lastRunAt only moves when the feed was read to its end, since reads judge freshness by it
+            checkpointRepository.release(name, owner, complete ? now : checkpoint.getLastRunAt(),
+                    rows, rows, seconds > 0 ? rows / seconds : 0);
+            if (complete) {
+                syncedAt.put(name, now);
+            }
+            log.debug("Synced {} {} in {} s", rows, name, String.format("%.2f", seconds));
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+}
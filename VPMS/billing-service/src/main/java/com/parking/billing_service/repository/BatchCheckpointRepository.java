@@ -0,0 +1,45 @@
+package com.parking.billing_service.repository;
+ 
+import com.parking.billing_service.entity.BatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+ 
+import java.time.LocalDateTime;
+ 
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+ 
+    // Starts a source at "watermark" unless it already has a checkpoint
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO batch_checkpoints (name, watermark, last_id) VALUES (:name, :watermark, 0)",
+            nativeQuery = true)
+    int create(@Param("name") String name, @Param("watermark") LocalDateTime watermark);
+ 
+    // 1 if this run (owner) now holds the source, 0 if another run's lease is still live
+    @Transactional
+    @Modifying
+    @Query("update BatchCheckpoint c set c.leaseUntil = :until, c.leaseOwner = :owner"
+            + " where c.name = :name and (c.leaseUntil is null or c.leaseUntil < :now)")
+    int claim(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("until") LocalDateTime until);
+ 
+    // Moves the cursor past a written page and renews the lease; 0 if another run has taken the source over
+    @Transactional
+    @Modifying
+    @Query("update BatchCheckpoint c set c.watermark = :watermark, c.lastId = :lastId, c.leaseUntil = :until"
+            + " where c.name = :name and c.leaseOwner = :owner")
+    int advance(@Param("name") String name, @Param("owner") String owner, @Param("watermark") LocalDateTime watermark,
+                @Param("lastId") Long lastId, @Param("until") LocalDateTime until);
+ 
+    // Only the owner's release counts. Cleared so status read in the same request sees the new values
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update BatchCheckpoint c set c.leaseUntil = null, c.leaseOwner = null, c.lastRunAt = :at,"
+            + " c.lastRunRows = :rows, c.lastRunInvoiced = :invoiced, c.lastRunRowsPerSecond = :rate"
+            + " where c.name = :name and c.leaseOwner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("at") LocalDateTime at,
+                @Param("rows") long rows, @Param("invoiced") long invoiced, @Param("rate") double rate);
+}
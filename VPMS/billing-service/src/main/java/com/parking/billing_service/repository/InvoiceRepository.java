@@ -1,10 +1,19 @@
 package com.parking.billing_service.repository;
  
 import com.parking.billing_service.entity.Invoice;
+import com.parking.billing_service.entity.InvoiceStatus;
+import com.parking.billing_service.entity.PaymentMethod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
  
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
  
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
@@ -12,5 +21,42 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findByUserId(Long userId);
     
     List<Invoice> findByReservationId(Long reservationId);
+
+    // A stay is invoiced while it has an invoice that isn't CANCELLED
+    boolean existsByActiveReservationId(Long reservationId);
+
+    boolean existsByActiveLogId(Long logId);
+
+    // Which of these reservations / logs already have an invoice (of any status)
+    @Query("select i.reservationId from Invoice i where i.reservationId in :ids")
+    Set<Long> findInvoicedReservationIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.logId from Invoice i where i.logId in :ids")
+    Set<Long> findInvoicedLogIds(@Param("ids") Collection<Long> ids);
+
+    List<Invoice> findByStatusAndPaymentStartedAtBefore(InvoiceStatus status, LocalDateTime before);
+
+    // 1 if the invoice was UNPAID and is now PENDING for this payment, 0 if its status had changed
+    @Transactional
+    @Modifying
+    @Query("update Invoice i set i.status = com.parking.billing_service.entity.InvoiceStatus.PENDING,"
+            + " i.paymentMethod = :method, i.paymentStartedAt = :now, i.paymentError = null"
+            + " where i.invoiceId = :id and i.status = com.parking.billing_service.entity.InvoiceStatus.UNPAID")
+    int startPayment(@Param("id") Long id, @Param("method") PaymentMethod method, @Param("now") LocalDateTime now);
+
+    // 1 if the UNPAID invoice is now CANCELLED and its stay free to be invoiced again, 0 if its status had changed
+    @Transactional
+    @Modifying
+    @Query("update Invoice i set i.status = com.parking.billing_service.entity.InvoiceStatus.CANCELLED,"
+            + " i.activeReservationId = null, i.activeLogId = null"
+            + " where i.invoiceId = :id and i.status = com.parking.billing_service.entity.InvoiceStatus.UNPAID")
+    int cancel(@Param("id") Long id);
+
+    // 1 if the invoice was still in "from" and has moved to "to", 0 otherwise
+    @Transactional
+    @Modifying
+    @Query("update Invoice i set i.status = :to, i.paymentError = :error where i.invoiceId = :id and i.status = :from")
+    int transition(@Param("id") Long id, @Param("from") InvoiceStatus from, @Param("to") InvoiceStatus to,
+                   @Param("error") String error);
 }
  
\ No newline at end of file
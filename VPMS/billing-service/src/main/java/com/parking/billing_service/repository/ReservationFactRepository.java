@@ -0,0 +1,9 @@
+package com.parking.billing_service.repository;
+ 
+import com.parking.billing_service.entity.ReservationFact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+ 
+@Repository
+public interface ReservationFactRepository extends JpaRepository<ReservationFact, Long> {
+}
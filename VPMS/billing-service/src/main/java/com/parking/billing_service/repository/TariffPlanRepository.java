@@ -0,0 +1,19 @@
+package com.parking.billing_service.repository;
+ 
+import com.parking.billing_service.entity.TariffPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+ 
+import java.time.LocalDateTime;
+import java.util.Optional;
+ 
+@Repository
+public interface TariffPlanRepository extends JpaRepository<TariffPlan, Long> {
+ 
+    Optional<TariffPlan> findBySlotType(String slotType);
+ 
+    // Changes whenever a plan is saved, so replicas can tell their compiled plans are stale
+    @Query("select max(p.updatedAt) from TariffPlan p")
+    LocalDateTime findLastUpdate();
+}
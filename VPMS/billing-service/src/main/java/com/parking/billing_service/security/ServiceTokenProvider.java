@@ -0,0 +1,51 @@
+package com.parking.billing_service.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization header for calls billing makes on its own behalf (scheduled jobs), issued
+ * for the billing.service-account user with the secret the services share. The token is
+ * reused for an hour, well inside its lifetime.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private static final long REUSE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private record Issued(String header, long issuedAtMillis) {
+    }
+
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    private final String account;
+    private volatile Issued issued;
+
+    public ServiceTokenProvider(CustomUserDetailsService userDetailsService,
+                                JwtUtil jwtUtil,
+                                @Value("${billing.service-account:}") String account) {
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+        this.account = account.trim();
+    }
+
+    public boolean isConfigured() {
+        return !account.isEmpty();
+    }
+
+    // "Bearer ..." for the service account, or null when none is configured
+    public String authorization() {
+        if (!isConfigured()) {
+            return null;
+        }
+        Issued current = issued;
+        if (current == null || System.currentTimeMillis() - current.issuedAtMillis() > REUSE_MILLIS) {
+            current = new Issued("Bearer " + jwtUtil.generateToken(userDetailsService.loadUserByUsername(account)),
+                    System.currentTimeMillis());
+            issued = current;
+        }
+        return current.header();
+    }
+}
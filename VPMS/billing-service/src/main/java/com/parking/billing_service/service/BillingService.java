@@ -1,9 +1,14 @@
 package com.parking.billing_service.service;
  
+import com.parking.billing_service.dto.BatchStatusDTO;
 import com.parking.billing_service.dto.CreateInvoiceRequest;
 import com.parking.billing_service.dto.InvoiceResponseDTO;
 import com.parking.billing_service.dto.PaymentRequestDTO;
+import com.parking.billing_service.dto.PaymentResponseDTO;
+import com.parking.billing_service.dto.TariffPlanDTO;
+import com.parking.billing_service.dto.TariffQuoteDTO;
  
+import java.time.LocalDateTime;
 import java.util.List;
  
 public interface BillingService {
@@ -16,8 +21,20 @@ public interface BillingService {
 
     List<InvoiceResponseDTO> getInvoicesByUserId(Long userId);
 
-    InvoiceResponseDTO payInvoice(Long invoiceId, PaymentRequestDTO payment);
+    PaymentResponseDTO payInvoice(Long invoiceId, PaymentRequestDTO payment);
+
+    PaymentResponseDTO getPaymentStatus(Long invoiceId);
 
     InvoiceResponseDTO cancelInvoice(Long invoiceId);
+
+    TariffQuoteDTO quote(String slotType, LocalDateTime start, LocalDateTime end);
+
+    List<TariffPlanDTO> getTariffPlans();
+
+    TariffPlanDTO saveTariffPlan(TariffPlanDTO plan);
+
+    List<BatchStatusDTO> runBatchInvoicing();
+
+    List<BatchStatusDTO> getBatchStatus();
 }
  
\ No newline at end of file
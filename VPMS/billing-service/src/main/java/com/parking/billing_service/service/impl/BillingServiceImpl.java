@@ -1,25 +1,38 @@
 package com.parking.billing_service.service.impl;
 
+import com.parking.billing_service.batch.BatchInvoicingJob;
+import com.parking.billing_service.dto.BatchStatusDTO;
 import com.parking.billing_service.dto.CreateInvoiceRequest;
 import com.parking.billing_service.dto.InvoiceResponseDTO;
 import com.parking.billing_service.entity.Invoice;
 import com.parking.billing_service.entity.InvoiceStatus;
 import com.parking.billing_service.entity.PaymentMethod;
+import com.parking.billing_service.entity.ReservationFact;
+import com.parking.billing_service.entity.TariffPlan;
+import com.parking.billing_service.entity.VehicleLogFact;
+import com.parking.billing_service.payment.PaymentProcessor;
+import com.parking.billing_service.projection.BillableFactsProjection;
 import com.parking.billing_service.repository.InvoiceRepository;
+import com.parking.billing_service.repository.TariffPlanRepository;
 import com.parking.billing_service.service.BillingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.parking.billing_service.dto.PaymentRequestDTO;
-import com.parking.billing_service.dto.ReservationResponseDTO;
-import com.parking.billing_service.dto.VehicleLogResponse;
+import com.parking.billing_service.dto.PaymentResponseDTO;
+import com.parking.billing_service.dto.TariffPlanDTO;
+import com.parking.billing_service.dto.TariffQuoteDTO;
 
-import com.parking.billing_service.feign.ReservationClient;
-import com.parking.billing_service.feign.VehicleLogClient;
+import com.parking.billing_service.tariff.CompiledTariff;
+import com.parking.billing_service.tariff.TariffEngine;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,8 +41,11 @@ import java.util.stream.Collectors;
 public class BillingServiceImpl implements BillingService {
 
     private final InvoiceRepository invoiceRepository;
-    private final ReservationClient reservationClient;
-    private final VehicleLogClient vehicleLogClient;
+    private final BillableFactsProjection billableFacts;
+    private final PaymentProcessor paymentProcessor;
+    private final TariffPlanRepository tariffPlanRepository;
+    private final TariffEngine tariffEngine;
+    private final BatchInvoicingJob batchInvoicingJob;
 
     @Override
     public InvoiceResponseDTO createInvoice(CreateInvoiceRequest request) {
@@ -38,37 +54,40 @@ public class BillingServiceImpl implements BillingService {
             (request.getReservationId() != null && request.getLogId() != null)) {
             throw new IllegalArgumentException("Provide exactly one of reservationId or logId");
         }
+        if (request.getReservationId() != null
+                ? invoiceRepository.existsByActiveReservationId(request.getReservationId())
+                : invoiceRepository.existsByActiveLogId(request.getLogId())) {
+            throw new IllegalArgumentException("An invoice already exists for this stay");
+        }
 
         String type;
-        long durationMinutes;
+        LocalDateTime start;
+        LocalDateTime end;
 
         if (request.getReservationId() != null) {
-            // Fetch reservation details
-            ReservationResponseDTO reservation = reservationClient.getReservationById(request.getReservationId());
+            // Reservation details, from the local projection (fetched on a miss)
+            ReservationFact reservation = billableFacts.reservation(request.getReservationId());
             type = reservation.getType(); // e.g. "2W" or "4W"
-            LocalDateTime start = reservation.getStartTime();
-            LocalDateTime end = reservation.getEndTime();
+            start = reservation.getStartTime();
+            end = reservation.getEndTime();
             if (start == null || end == null) {
                 throw new IllegalArgumentException("Reservation times cannot be null");
             }
-            durationMinutes = Duration.between(start, end).toMinutes();
         } else {
-            // Fetch vehicle log details
-            VehicleLogResponse log = vehicleLogClient.getLogById(request.getLogId());
+            // Vehicle log details, from the local projection (fetched on a miss)
+            VehicleLogFact log = billableFacts.vehicleLog(request.getLogId());
             type = log.getSlotType(); // or log.getType() depending on your DTO
-            LocalDateTime entry = log.getEntryTime();
-            LocalDateTime exit = log.getExitTime();
-            if (entry == null || exit == null) {
+            start = log.getEntryTime();
+            end = log.getExitTime();
+            if (start == null || end == null) {
                 throw new IllegalArgumentException("Log times cannot be null");
             }
-            if (exit == null) {
+            if (end == null) {
                 throw new IllegalArgumentException("Vehicle has not exited yet");
             }
-            durationMinutes = Duration.between(entry, exit).toMinutes();
         }
 
-        double ratePerMinute = type.equalsIgnoreCase("2W") ? 1.0 : 2.0;
-        double amount = ratePerMinute * durationMinutes;
+        double amount = tariffEngine.price(type, start, end);
 
         Invoice invoice = Invoice.builder()
             .userId(request.getUserId())
@@ -78,10 +97,17 @@ public class BillingServiceImpl implements BillingService {
             .type(type)
             .reservationId(request.getReservationId())
             .logId(request.getLogId())
+            .activeReservationId(request.getReservationId())
+            .activeLogId(request.getLogId())
             .timestamp(request.getTimestamp() != null ? request.getTimestamp() : LocalDateTime.now())
             .build();
 
-        invoice = invoiceRepository.save(invoice);
+        try {
+            invoice = invoiceRepository.save(invoice);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with another request or the batch run for the same stay
+            throw new IllegalArgumentException("An invoice already exists for this stay");
+        }
         return mapToDto(invoice);
     }
 
@@ -120,9 +146,9 @@ public class BillingServiceImpl implements BillingService {
         );
     }
 
+    // Claims the invoice for this payment and hands the provider call to the payment processor
     @Override
-    @Transactional
-    public InvoiceResponseDTO payInvoice(Long invoiceId, PaymentRequestDTO req) {
+    public PaymentResponseDTO payInvoice(Long invoiceId, PaymentRequestDTO req) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
             .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
 
@@ -132,23 +158,53 @@ public class BillingServiceImpl implements BillingService {
         if (invoice.getStatus() == InvoiceStatus.PAID) {
             throw new RuntimeException("Invoice already paid");
         }
+        if (invoice.getStatus() == InvoiceStatus.PENDING) {
+            throw new RuntimeException("Payment already in progress");
+        }
+
+        PaymentMethod method = PaymentMethod.valueOf(req.getPaymentMethod());
+        LocalDateTime now = LocalDateTime.now();
+        if (invoiceRepository.startPayment(invoiceId, method, now) == 0) {
+            throw new RuntimeException("Invoice was updated concurrently, please retry");
+        }
+        invoice.setStatus(InvoiceStatus.PENDING);
+        invoice.setPaymentMethod(method);
+        invoice.setPaymentStartedAt(now);
+        invoice.setPaymentError(null);
 
-        // Simulate payment delay (consider using asynchronous processing)
         try {
-            Thread.sleep(1500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            paymentProcessor.submit(invoice);
+        } catch (TaskRejectedException e) {
+            invoiceRepository.transition(invoiceId, InvoiceStatus.PENDING, InvoiceStatus.UNPAID, null);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many payments in progress, please retry");
+        } catch (RuntimeException e) {
+            invoiceRepository.transition(invoiceId, InvoiceStatus.PENDING, InvoiceStatus.UNPAID,
+                "Payment could not be started");
+            throw new RuntimeException("Payment could not be started, please retry");
         }
+        return mapToPaymentDto(invoice);
+    }
 
-        invoice.setPaymentMethod(PaymentMethod.valueOf(req.getPaymentMethod()));
-        invoice.setStatus(InvoiceStatus.PAID);
-        invoiceRepository.save(invoice);
+    @Override
+    public PaymentResponseDTO getPaymentStatus(Long invoiceId) {
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+            .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
+        return mapToPaymentDto(invoice);
+    }
 
-        return mapToDto(invoice);
+    private PaymentResponseDTO mapToPaymentDto(Invoice inv) {
+        // A failed attempt leaves the invoice UNPAID with the reason recorded
+        String status = inv.getStatus() == InvoiceStatus.UNPAID && inv.getPaymentError() != null
+            ? "FAILED" : inv.getStatus().name();
+        return new PaymentResponseDTO(
+            inv.getInvoiceId(),
+            status,
+            inv.getPaymentMethod() != null ? inv.getPaymentMethod().name() : null,
+            inv.getPaymentError()
+        );
     }
 
     @Override
-    @Transactional
     public InvoiceResponseDTO cancelInvoice(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
             .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
@@ -156,10 +212,81 @@ public class BillingServiceImpl implements BillingService {
         if (invoice.getStatus() == InvoiceStatus.PAID) {
             throw new RuntimeException("Cannot cancel a paid invoice");
         }
+        if (invoice.getStatus() == InvoiceStatus.PENDING) {
+            throw new RuntimeException("Cannot cancel an invoice while its payment is in progress");
+        }
 
+        // Conditional, so a payment that starts meanwhile is never cancelled underneath
+        if (invoice.getStatus() == InvoiceStatus.UNPAID
+                && invoiceRepository.cancel(invoiceId) == 0) {
+            throw new RuntimeException("Invoice was updated concurrently, please retry");
+        }
         invoice.setStatus(InvoiceStatus.CANCELLED);
-        invoiceRepository.save(invoice);
+        invoice.setActiveReservationId(null);
+        invoice.setActiveLogId(null);
 
         return mapToDto(invoice);
     }
+
+    @Override
+    public TariffQuoteDTO quote(String slotType, LocalDateTime start, LocalDateTime end) {
+        if (slotType == null || start == null || end == null) {
+            throw new IllegalArgumentException("Slot type, start and end are required");
+        }
+        double amount = tariffEngine.price(slotType, start, end);
+        return new TariffQuoteDTO(slotType, start, end, start.until(end, ChronoUnit.MINUTES), amount);
+    }
+
+    @Override
+    public List<TariffPlanDTO> getTariffPlans() {
+        return tariffPlanRepository.findAll().stream()
+            .map(this::mapToTariffDto)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public TariffPlanDTO saveTariffPlan(TariffPlanDTO dto) {
+        if (dto.getSlotType() == null || dto.getSlotType().isBlank()) {
+            throw new IllegalArgumentException("Slot type is required");
+        }
+        String slotType = TariffEngine.normalize(dto.getSlotType());
+        TariffPlan plan = tariffPlanRepository.findBySlotType(slotType).orElseGet(TariffPlan::new);
+        plan.setSlotType(slotType);
+        plan.setName(dto.getName());
+        plan.setGraceMinutes(dto.getGraceMinutes() != null ? dto.getGraceMinutes() : 0);
+        plan.setBaseRatePerMinute(dto.getBaseRatePerMinute());
+        plan.setDailyMax(dto.getDailyMax());
+        plan.setBands(dto.getBands() != null ? new ArrayList<>(dto.getBands()) : new ArrayList<>());
+        plan.setTiers(dto.getTiers() != null ? new ArrayList<>(dto.getTiers()) : new ArrayList<>());
+        plan.setUpdatedAt(LocalDateTime.now());
+
+        // Rejects the plan before it can reach the table
+        CompiledTariff.compile(plan);
+        plan = tariffPlanRepository.save(plan);
+        tariffEngine.reload();
+        return mapToTariffDto(plan);
+    }
+
+    private TariffPlanDTO mapToTariffDto(TariffPlan plan) {
+        return new TariffPlanDTO(
+            plan.getSlotType(),
+            plan.getName(),
+            plan.getGraceMinutes(),
+            plan.getBaseRatePerMinute(),
+            plan.getDailyMax(),
+            plan.getBands(),
+            plan.getTiers(),
+            plan.getUpdatedAt()
+        );
+    }
+
+    @Override
+    public List<BatchStatusDTO> runBatchInvoicing() {
+        return batchInvoicingJob.run();
+    }
+
+    @Override
+    public List<BatchStatusDTO> getBatchStatus() {
+        return batchInvoicingJob.status();
+    }
 }
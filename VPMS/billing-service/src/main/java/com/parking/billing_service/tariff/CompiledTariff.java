@@ -0,0 +1,190 @@
+package com.parking.billing_service.tariff;
+
+import com.parking.billing_service.entity.TariffBand;
+import com.parking.billing_service.entity.TariffPlan;
+import com.parking.billing_service.entity.TariffTier;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link TariffPlan} flattened into arrays for pricing.
+ *
+ * Money is held in ten-thousandths of a currency unit. The bands become a prefix sum of the
+ * per-minute rate over the 1440 minutes of a day, so the charge for any stretch of at most a
+ * day is two lookups. A stay is priced hour by hour (each hour capped by its tier), in blocks
+ * of 24 hours (each capped by the daily maximum). Every 24-hour block starts at the same time
+ * of day, so once the tiers stop changing all further full blocks cost the same and are
+ * multiplied rather than walked. Pricing does not allocate.
+ */
+public final class CompiledTariff {
+
+    static final long SCALE = 10_000;
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private final int graceMinutes;
+    private final long dailyMax;
+    // ratePrefix[m] = charge for minutes [0, m) of a day
+    private final long[] ratePrefix;
+    private final int[] tierFromHour;
+    private final long[] tierCap;
+    private final long stableFromHour;
+
+    private CompiledTariff(int graceMinutes, long dailyMax, long[] ratePrefix, int[] tierFromHour, long[] tierCap) {
+        this.graceMinutes = graceMinutes;
+        this.dailyMax = dailyMax;
+        this.ratePrefix = ratePrefix;
+        this.tierFromHour = tierFromHour;
+        this.tierCap = tierCap;
+        this.stableFromHour = tierFromHour.length == 0 ? 0 : tierFromHour[tierFromHour.length - 1];
+    }
+
+    // A flat per-minute rate with no grace or caps
+    public static CompiledTariff flat(double ratePerMinute) {
+        return compile(TariffPlan.builder()
+                .graceMinutes(0)
+                .baseRatePerMinute(ratePerMinute)
+                .build());
+    }
+
+    // Throws IllegalArgumentException describing the first problem with the plan
+    public static CompiledTariff compile(TariffPlan plan) {
+        int grace = plan.getGraceMinutes() != null ? plan.getGraceMinutes() : 0;
+        if (grace < 0) {
+            throw new IllegalArgumentException("Grace minutes cannot be negative");
+        }
+        if (plan.getBaseRatePerMinute() == null) {
+            throw new IllegalArgumentException("Base rate per minute is required");
+        }
+        long base = toUnits(plan.getBaseRatePerMinute(), "Base rate per minute");
+
+        long[] rate = new long[MINUTES_PER_DAY];
+        Arrays.fill(rate, base);
+        boolean[] banded = new boolean[MINUTES_PER_DAY];
+        for (TariffBand band : plan.getBands() != null ? plan.getBands() : List.<TariffBand>of()) {
+            if (band.getStartTime() == null || band.getEndTime() == null || band.getRatePerMinute() == null) {
+                throw new IllegalArgumentException("Bands need a start time, end time and rate per minute");
+            }
+            int start = minuteOfDay(band.getStartTime());
+            int end = band.getEndTime().equals(LocalTime.MIDNIGHT) ? MINUTES_PER_DAY : minuteOfDay(band.getEndTime());
+            if (start == end) {
+                throw new IllegalArgumentException("Band " + band.getStartTime() + " has no length");
+            }
+            long bandRate = toUnits(band.getRatePerMinute(), "Band rate per minute");
+            // end <= start wraps past midnight
+            for (int m = start; m != end; m = (m + 1) % MINUTES_PER_DAY) {
+                if (banded[m]) {
+                    throw new IllegalArgumentException("Band " + band.getStartTime() + "-" + band.getEndTime()
+                            + " overlaps another band");
+                }
+                banded[m] = true;
+                rate[m] = bandRate;
+                if (end == MINUTES_PER_DAY && m == MINUTES_PER_DAY - 1) {
+                    break;
+                }
+            }
+        }
+        long[] prefix = new long[MINUTES_PER_DAY + 1];
+        for (int m = 0; m < MINUTES_PER_DAY; m++) {
+            prefix[m + 1] = prefix[m] + rate[m];
+        }
+
+        List<TariffTier> tiers = new ArrayList<>(plan.getTiers() != null ? plan.getTiers() : List.of());
+        for (TariffTier tier : tiers) {
+            if (tier.getFromHour() == null || tier.getFromHour() < 0 || tier.getMaxPerHour() == null) {
+                throw new IllegalArgumentException("Tiers need a from hour of at least 0 and a maximum per hour");
+            }
+        }
+        tiers.sort(Comparator.comparing(TariffTier::getFromHour));
+        int[] fromHour = new int[tiers.size()];
+        long[] cap = new long[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            fromHour[i] = tiers.get(i).getFromHour();
+            cap[i] = toUnits(tiers.get(i).getMaxPerHour(), "Maximum per hour");
+            if (i > 0 && fromHour[i] == fromHour[i - 1]) {
+                throw new IllegalArgumentException("Two tiers start at hour " + fromHour[i]);
+            }
+        }
+
+        long dailyMax = plan.getDailyMax() != null ? toUnits(plan.getDailyMax(), "Daily maximum") : Long.MAX_VALUE;
+        return new CompiledTariff(grace, dailyMax, prefix, fromHour, cap);
+    }
+
+    // Price of a stay of "minutes" entering at minute-of-day "entryMinute", rounded to cents
+    public double price(int entryMinute, long minutes) {
+        long units = priceUnits(entryMinute, minutes);
+        return ((units + SCALE / 200) / (SCALE / 100)) / 100.0;
+    }
+
+    long priceUnits(int entryMinute, long minutes) {
+        if (entryMinute < 0 || entryMinute >= MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Entry minute must be within the day");
+        }
+        if (minutes < 0) {
+            throw new IllegalArgumentException("End time must not be before start time");
+        }
+        if (minutes <= graceMinutes) {
+            return 0;
+        }
+        long fullDays = minutes / MINUTES_PER_DAY;
+        int rest = (int) (minutes % MINUTES_PER_DAY);
+        long total = 0;
+        for (long day = 0; day < fullDays; day++) {
+            long charge = dayCharge(entryMinute, day, MINUTES_PER_DAY);
+            if (day * 24 >= stableFromHour) {
+                // Same caps and same times of day from here on
+                total += charge * (fullDays - day);
+                break;
+            }
+            total += charge;
+        }
+        if (rest > 0) {
+            total += dayCharge(entryMinute, fullDays, rest);
+        }
+        return total;
+    }
+
+    // Charge for the first "minutes" of the day-th 24-hour block of the stay
+    private long dayCharge(int entryMinute, long day, int minutes) {
+        long total = 0;
+        int from = entryMinute;
+        for (int hour = 0; hour * 60 < minutes; hour++) {
+            int length = Math.min(60, minutes - hour * 60);
+            total += Math.min(span(from, length), capFor(day * 24 + hour));
+            from = (from + 60) % MINUTES_PER_DAY;
+        }
+        return Math.min(total, dailyMax);
+    }
+
+    // Charge for "length" (at most a day) minutes starting at minute-of-day "from"
+    private long span(int from, int length) {
+        int end = from + length;
+        if (end <= MINUTES_PER_DAY) {
+            return ratePrefix[end] - ratePrefix[from];
+        }
+        return ratePrefix[MINUTES_PER_DAY] - ratePrefix[from] + ratePrefix[end - MINUTES_PER_DAY];
+    }
+
+    private long capFor(long hourOfStay) {
+        for (int i = tierFromHour.length - 1; i >= 0; i--) {
+            if (hourOfStay >= tierFromHour[i]) {
+                return tierCap[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static long toUnits(double amount, String what) {
+        if (amount < 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException(what + " must be a non-negative amount");
+        }
+        return Math.round(amount * SCALE);
+    }
+}
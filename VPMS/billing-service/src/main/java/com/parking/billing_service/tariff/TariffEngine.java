@@ -0,0 +1,95 @@
+package com.parking.billing_service.tariff;
+
+import com.parking.billing_service.entity.TariffPlan;
+import com.parking.billing_service.repository.TariffPlanRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Prices stays with the compiled tariff plans.
+ *
+ * All plans are compiled together and published as one immutable snapshot through a
+ * volatile field, so a price is always computed against a single consistent set of plans
+ * and a reload never blocks pricing. A plan that fails to compile keeps the previous
+ * snapshot in place. Replicas pick up plans saved elsewhere by polling the latest
+ * updatedAt. Slot types without a plan keep the old flat rates.
+ */
+@Slf4j
+@Component
+public class TariffEngine {
+
+    private static final CompiledTariff DEFAULT_2W = CompiledTariff.flat(1.0);
+    private static final CompiledTariff DEFAULT_OTHER = CompiledTariff.flat(2.0);
+
+    private record Snapshot(Map<String, CompiledTariff> plans, LocalDateTime version) {
+    }
+
+    private final TariffPlanRepository planRepository;
+    private volatile Snapshot current = new Snapshot(Map.of(), null);
+
+    public TariffEngine(TariffPlanRepository planRepository) {
+        this.planRepository = planRepository;
+    }
+
+    public double price(String slotType, LocalDateTime start, LocalDateTime end) {
+        return tariffFor(slotType).price(start.getHour() * 60 + start.getMinute(), start.until(end, ChronoUnit.MINUTES));
+    }
+
+    CompiledTariff tariffFor(String slotType) {
+        if (slotType == null) {
+            return DEFAULT_OTHER;
+        }
+        Map<String, CompiledTariff> plans = current.plans();
+        CompiledTariff tariff = plans.get(slotType);
+        if (tariff == null && !plans.isEmpty()) {
+            tariff = plans.get(normalize(slotType));
+        }
+        if (tariff != null) {
+            return tariff;
+        }
+        return slotType.equalsIgnoreCase("2W") ? DEFAULT_2W : DEFAULT_OTHER;
+    }
+
+    public static String normalize(String slotType) {
+        return slotType.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        LocalDateTime version = planRepository.findLastUpdate();
+        Map<String, CompiledTariff> plans = new HashMap<>();
+        for (TariffPlan plan : planRepository.findAll()) {
+            try {
+                plans.put(normalize(plan.getSlotType()), CompiledTariff.compile(plan));
+            } catch (IllegalArgumentException e) {
+                log.error("Tariff plan for {} does not compile, keeping the previous plans: {}",
+                        plan.getSlotType(), e.getMessage());
+                return;
+            }
+        }
+        current = new Snapshot(Map.copyOf(plans), version);
+        log.info("Loaded {} tariff plans", plans.size());
+    }
+
+    @Scheduled(fixedDelayString = "${billing.tariff.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            if (!Objects.equals(planRepository.findLastUpdate(), current.version())) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not check tariff plans for changes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.parking.billing_service.batch;
+
+import com.parking.billing_service.dto.ReservationChangeDTO;
+import com.parking.billing_service.entity.BatchCheckpoint;
+import com.parking.billing_service.feign.ReservationClient;
+import com.parking.billing_service.feign.VehicleLogClient;
+import com.parking.billing_service.repository.BatchCheckpointRepository;
+import com.parking.billing_service.repository.InvoiceRepository;
+import com.parking.billing_service.security.ServiceTokenProvider;
+import com.parking.billing_service.tariff.TariffEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchInvoicingJobTest {
+
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private ReservationClient reservationClient;
+
+    @Mock
+    private VehicleLogClient vehicleLogClient;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Mock
+    private TariffEngine tariffEngine;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ServiceTokenProvider serviceToken;
+
+    private BatchInvoicingJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        job = new BatchInvoicingJob(reservationClient, vehicleLogClient, invoiceRepository, checkpointRepository,
+                tariffEngine, jdbcTemplate, transactionManager, serviceToken, 10, 15, 24, 30, "UPI");
+        when(serviceToken.authorization()).thenReturn("Bearer service");
+        when(checkpointRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(checkpointRepository.advance(anyString(), anyString(), any(), any(), any())).thenReturn(1);
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.of(checkpoint(invocation.getArgument(0))));
+        when(tariffEngine.price(any(), any(), any())).thenReturn(100.0);
+        when(vehicleLogClient.getClosedWalkIns(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+    }
+
+    // 1: The feed is read from the checkpoint's (changedAt, id) cursor, which moves to the page's last change
+    @Test
+    void run_reservationsPage_cursorOnChangedAt() {
+        when(reservationClient.getCompletedReservations(any(), eq(WATERMARK), eq(0L), any(), eq(10)))
+                .thenReturn(List.of(completed(1L, WATERMARK.plusMinutes(5)), completed(2L, WATERMARK.plusMinutes(9))));
+        when(invoiceRepository.findInvoicedReservationIds(any())).thenReturn(Set.of());
+
+        job.run();
+
+        verify(checkpointRepository).advance(eq(BatchInvoicingJob.RESERVATIONS), anyString(),
+                eq(WATERMARK.plusMinutes(9)), eq(2L), any());
+    }
+
+    // 2: Stays that already have an invoice are skipped, and the insert leaves rows created meanwhile alone
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_alreadyInvoiced_skippedAndInsertIgnoresDuplicates() {
+        when(reservationClient.getCompletedReservations(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(completed(1L, WATERMARK.plusMinutes(5)), completed(2L, WATERMARK.plusMinutes(9))));
+        when(invoiceRepository.findInvoicedReservationIds(any())).thenReturn(Set.of(1L));
+
+        job.run();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), rows.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertTrue(sql.getValue().contains("ON DUPLICATE KEY UPDATE"));
+        assertEquals(1, rows.getValue().size());
+    }
+
+    // 3: The invoice timestamp is bound in UTC, as Hibernate writes it
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_insert_bindsTimestampInUtc() throws Exception {
+        when(reservationClient.getCompletedReservations(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(completed(1L, WATERMARK.plusMinutes(5))));
+        when(invoiceRepository.findInvoicedReservationIds(any())).thenReturn(Set.of());
+
+        job.run();
+
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, rows.getValue().iterator().next());
+        verify(ps).setTimestamp(eq(7), any(Timestamp.class),
+                argThat((Calendar c) -> "UTC".equals(c.getTimeZone().getID())));
+    }
+
+    // 4: A run whose lease was taken over writes nothing and doesn't move the cursor
+    @Test
+    void run_leaseTakenOver_pageNotWritten() {
+        when(reservationClient.getCompletedReservations(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(completed(1L, WATERMARK.plusMinutes(5))));
+        when(checkpointRepository.advance(eq(BatchInvoicingJob.RESERVATIONS), anyString(), any(), any(), any()))
+                .thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> job.run());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(transactionManager).rollback(any());
+    }
+
+    // 5: A source leased by another run is left alone; the lease is claimed and released under one owner token
+    @Test
+    void run_leaseHeldElsewhere_sourceSkipped() {
+        when(checkpointRepository.claim(eq(BatchInvoicingJob.RESERVATIONS), anyString(), any(), any())).thenReturn(0);
+
+        job.run();
+
+        verifyNoInteractions(reservationClient);
+        ArgumentCaptor<String> claimed = ArgumentCaptor.forClass(String.class);
+        verify(checkpointRepository).claim(eq(BatchInvoicingJob.VEHICLE_LOGS), claimed.capture(), any(), any());
+        verify(checkpointRepository).release(eq(BatchInvoicingJob.VEHICLE_LOGS), eq(claimed.getValue()), any(),
+                anyLong(), anyLong(), anyDouble());
+        verify(checkpointRepository, never()).release(eq(BatchInvoicingJob.RESERVATIONS), any(), any(),
+                anyLong(), anyLong(), anyDouble());
+    }
+
+    // 6: Batch invoices carry the live-invoice key, so one created meanwhile by hand is a duplicate
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_insert_bindsActiveKey() throws Exception {
+        when(reservationClient.getCompletedReservations(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(completed(1L, WATERMARK.plusMinutes(5))));
+        when(invoiceRepository.findInvoicedReservationIds(any())).thenReturn(Set.of());
+
+        job.run();
+
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, rows.getValue().iterator().next());
+        verify(ps).setObject(2, 1L, Types.BIGINT);
+        verify(ps).setObject(9, 1L, Types.BIGINT);
+        verify(ps).setObject(10, null, Types.BIGINT);
+    }
+
+    private static ReservationChangeDTO completed(Long id, LocalDateTime changedAt) {
+        return new ReservationChangeDTO(id, 100L, "4W", WATERMARK.minusHours(3), WATERMARK.minusHours(1), changedAt);
+    }
+
+    private static BatchCheckpoint checkpoint(String name) {
+        BatchCheckpoint checkpoint = new BatchCheckpoint();
+        checkpoint.setName(name);
+        checkpoint.setWatermark(WATERMARK);
+        checkpoint.setLastId(0L);
+        return checkpoint;
+    }
+}
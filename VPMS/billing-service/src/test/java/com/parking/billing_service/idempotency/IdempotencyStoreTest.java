@@ -0,0 +1,143 @@
+package com.parking.billing_service.idempotency;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parking.billing_service.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() { };
+
+    @Mock
+    private IdempotencyRecordRepository recordRepo;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new IdempotencyStore(recordRepo, new ObjectMapper(), 24, 120, 10);
+        when(recordRepo.claim(anyString(), anyString(), any())).thenReturn(1);
+    }
+
+    // 1: A retry with the same key replays the first response without running the work again
+    @Test
+    void execute_sameKeyTwice_executedOnce() {
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<Map<String, Object>> first = store.execute("k1", "op", Map.of("reservationId", 1), MAP,
+                () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet())));
+        ResponseEntity<Map<String, Object>> second = store.execute("k1", "op", Map.of("reservationId", 1), MAP,
+                () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet())));
+
+        assertEquals(1, runs.get());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    // 2: Reusing a key with a different body is rejected
+    @Test
+    void execute_sameKeyDifferentRequest_rejected() {
+        store.execute("k1", "op", Map.of("reservationId", 1), MAP, () -> ResponseEntity.ok(Map.of()));
+
+        assertThrows(ResponseStatusException.class, () ->
+                store.execute("k1", "op", Map.of("reservationId", 2), MAP, () -> ResponseEntity.ok(Map.of())));
+    }
+
+    // 3: Concurrent duplicates wait for the first execution instead of running in parallel
+    @Test
+    void execute_concurrentDuplicates_coalesced() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<Map<String, Object>>>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(pool.submit(() -> store.execute("k1", "op", Map.of("reservationId", 1), MAP, () -> {
+                    runs.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok(Map.of("ok", true));
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<ResponseEntity<Map<String, Object>>> call : calls) {
+                assertEquals(Map.of("ok", true), call.get(5, TimeUnit.SECONDS).getBody());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+    }
+
+    // 4: A failed execution is not stored, so the client can retry with the same key
+    @Test
+    void execute_failure_notCached() {
+        assertThrows(RuntimeException.class, () -> store.execute("k1", "op", Map.of(), MAP, () -> {
+            throw new RuntimeException("Invoice already exists for this reservation.");
+        }));
+        ResponseEntity<Map<String, Object>> retry = store.execute("k1", "op", Map.of(), MAP,
+                () -> ResponseEntity.ok(Map.of("ok", true)));
+
+        assertEquals(Map.of("ok", true), retry.getBody());
+        verify(recordRepo).release(anyString());
+    }
+
+    // 5: The claim is only leased while the request runs; the stored response gets the full TTL
+    @Test
+    void execute_claimLeasedThenStoredForTtl() {
+        LocalDateTime before = LocalDateTime.now();
+
+        store.execute("k1", "op", Map.of(), MAP, () -> ResponseEntity.ok(Map.of("ok", true)));
+
+        ArgumentCaptor<LocalDateTime> lease = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(recordRepo).claim(anyString(), anyString(), lease.capture());
+        assertTrue(lease.getValue().isBefore(before.plusMinutes(3)));
+        ArgumentCaptor<LocalDateTime> expiry = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(recordRepo).complete(anyString(), eq(200), anyString(), expiry.capture());
+        assertFalse(expiry.getValue().isBefore(before.plusHours(24)));
+    }
+
+    // 6: A claim abandoned by another instance is taken over once its lease ran out
+    @Test
+    void execute_abandonedClaim_takenOver() {
+        when(recordRepo.claim(anyString(), anyString(), any())).thenReturn(0, 1);
+        when(recordRepo.releaseIfExpired(anyString(), any())).thenReturn(1);
+
+        ResponseEntity<Map<String, Object>> response = store.execute("k1", "op", Map.of(), MAP,
+                () -> ResponseEntity.ok(Map.of("ok", true)));
+
+        assertEquals(Map.of("ok", true), response.getBody());
+        verify(recordRepo, times(2)).claim(anyString(), anyString(), any());
+    }
+
+    // 7: A claim still inside its lease elsewhere answers 409 without running the work
+    @Test
+    void execute_claimHeldElsewhere_conflict() {
+        when(recordRepo.claim(anyString(), anyString(), any())).thenReturn(0);
+        when(recordRepo.releaseIfExpired(anyString(), any())).thenReturn(0);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(ResponseStatusException.class, () -> store.execute("k1", "op", Map.of(), MAP,
+                () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet()))));
+        assertEquals(0, runs.get());
+    }
+}
@@ -0,0 +1,117 @@
+package com.parking.billing_service.payment;
+
+import com.parking.billing_service.entity.Invoice;
+import com.parking.billing_service.entity.InvoiceStatus;
+import com.parking.billing_service.entity.PaymentMethod;
+import com.parking.billing_service.repository.InvoiceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PaymentProcessorTest {
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private PaymentProvider paymentProvider;
+
+    private PaymentProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        processor = new PaymentProcessor(invoiceRepository, paymentProvider, false, 2, 10);
+        when(invoiceRepository.transition(any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.stop();
+    }
+
+    // 1: A charge that goes through settles the invoice from PENDING to PAID
+    @Test
+    void process_chargeSucceeds_pendingToPaid() {
+        processor.process(pending(1L));
+
+        verify(paymentProvider).charge(1L, 120.0, PaymentMethod.UPI);
+        verify(invoiceRepository).transition(1L, InvoiceStatus.PENDING, InvoiceStatus.PAID, null);
+    }
+
+    // 2: A declined charge puts the invoice back to UNPAID with the reason, so it can be retried
+    @Test
+    void process_chargeFails_pendingToUnpaidWithReason() {
+        doThrow(new RuntimeException("Card declined")).when(paymentProvider).charge(any(), any(), any());
+
+        processor.process(pending(1L));
+
+        verify(invoiceRepository).transition(1L, InvoiceStatus.PENDING, InvoiceStatus.UNPAID, "Card declined");
+    }
+
+    // 3: Invoices left PENDING past the stuck threshold are released for another attempt
+    @Test
+    void releaseStuck_pendingTooLong_releasedToUnpaid() {
+        Invoice stuck = pending(1L);
+        stuck.setPaymentStartedAt(LocalDateTime.now().minusMinutes(30));
+        when(invoiceRepository.findByStatusAndPaymentStartedAtBefore(eq(InvoiceStatus.PENDING), any()))
+                .thenReturn(List.of(stuck));
+
+        processor.releaseStuck();
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(invoiceRepository).findByStatusAndPaymentStartedAtBefore(eq(InvoiceStatus.PENDING), before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusMinutes(9)));
+        verify(invoiceRepository).transition(1L, InvoiceStatus.PENDING, InvoiceStatus.UNPAID, "Payment timed out, please retry");
+    }
+
+    // 4: Beyond max-concurrent charges a submission is turned away at once instead of blocking the caller
+    @Test
+    void submit_limitReached_rejectedUntilChargesFinish() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch provider = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            provider.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(paymentProvider).charge(any(), any(), any());
+
+        processor.submit(pending(1L));
+        processor.submit(pending(2L));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TaskRejectedException.class, () -> processor.submit(pending(3L)));
+        assertEquals(2, processor.inFlight());
+
+        provider.countDown();
+        verify(invoiceRepository, timeout(5000).times(2)).transition(any(), eq(InvoiceStatus.PENDING), eq(InvoiceStatus.PAID), isNull());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (processor.inFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, processor.inFlight());
+        assertDoesNotThrow(() -> processor.submit(pending(3L)));
+    }
+
+    private static Invoice pending(Long invoiceId) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceId(invoiceId);
+        invoice.setUserId(100L);
+        invoice.setAmount(120.0);
+        invoice.setPaymentMethod(PaymentMethod.UPI);
+        invoice.setStatus(InvoiceStatus.PENDING);
+        invoice.setPaymentStartedAt(LocalDateTime.now());
+        return invoice;
+    }
+}
@@ -0,0 +1,188 @@
+package com.parking.billing_service.projection;
+
+import com.parking.billing_service.dto.ReservationChangeDTO;
+import com.parking.billing_service.dto.ReservationResponseDTO;
+import com.parking.billing_service.dto.VehicleLogResponse;
+import com.parking.billing_service.entity.BatchCheckpoint;
+import com.parking.billing_service.entity.ReservationFact;
+import com.parking.billing_service.entity.VehicleLogFact;
+import com.parking.billing_service.feign.ReservationClient;
+import com.parking.billing_service.feign.VehicleLogClient;
+import com.parking.billing_service.repository.BatchCheckpointRepository;
+import com.parking.billing_service.repository.ReservationFactRepository;
+import com.parking.billing_service.repository.VehicleLogFactRepository;
+import com.parking.billing_service.security.ServiceTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BillableFactsProjectionTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Mock
+    private ReservationFactRepository reservationFacts;
+
+    @Mock
+    private VehicleLogFactRepository logFacts;
+
+    @Mock
+    private ReservationClient reservationClient;
+
+    @Mock
+    private VehicleLogClient vehicleLogClient;
+
+    @Mock
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ServiceTokenProvider serviceToken;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BillableFactsProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        projection = new BillableFactsProjection(reservationFacts, logFacts, reservationClient, vehicleLogClient,
+                checkpointRepository, serviceToken, jdbcTemplate, transactionManager, true, 500, 10, 30, 60);
+        when(serviceToken.isConfigured()).thenReturn(true);
+        when(serviceToken.authorization()).thenReturn("Bearer service");
+        when(checkpointRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(checkpointRepository.advance(anyString(), anyString(), any(), any(), any())).thenReturn(1);
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.of(checkpoint(invocation.getArgument(0), null)));
+        when(reservationFacts.findById(1L)).thenReturn(Optional.of(
+                new ReservationFact(1L, 100L, "4W", START, START.plusHours(2), START)));
+        when(reservationClient.getReservationById(1L)).thenReturn(new ReservationResponseDTO(
+                1L, 100L, 7L, "KA01AB1234", START, START.plusHours(3), null, "4W"));
+    }
+
+    // 1: A page of changes is upserted with its times bound in UTC, and the cursor moves to its last change
+    @Test
+    @SuppressWarnings("unchecked")
+    void sync_changesPage_upsertedInUtcAndCursorAdvanced() throws Exception {
+        ReservationChangeDTO change = new ReservationChangeDTO(1L, 100L, "4W", START, START.plusHours(2), START.plusMinutes(1));
+        when(reservationClient.getReservationChanges(any(), any(), any(), anyInt())).thenReturn(List.of(change));
+
+        projection.sync();
+
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO reservation_facts"), rows.capture(), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, rows.getValue().iterator().next());
+        verify(ps).setTimestamp(eq(4), eq(Timestamp.valueOf(START)),
+                argThat((Calendar c) -> "UTC".equals(c.getTimeZone().getID())));
+        verify(checkpointRepository).advance(eq(BillableFactsProjection.RESERVATION_CHANGES), anyString(),
+                eq(START.plusMinutes(1)), eq(1L), any());
+    }
+
+    // 2: Right after a complete sync, cached facts are served without calling the owning service
+    @Test
+    void reservation_afterSync_servedFromProjection() {
+        when(reservationClient.getReservationChanges(any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(vehicleLogClient.getLogChanges(any(), any(), any(), anyInt())).thenReturn(List.of());
+        projection.sync();
+
+        ReservationFact fact = projection.reservation(1L);
+
+        assertEquals(START.plusHours(2), fact.getEndTime());
+        verify(reservationClient, never()).getReservationById(any());
+    }
+
+    // 3: With no service account the feed never syncs, so cached facts may be stale and are fetched fresh
+    @Test
+    void reservation_syncNotConfigured_fetchedFromService() {
+        when(serviceToken.isConfigured()).thenReturn(false);
+        projection.sync();
+
+        ReservationFact fact = projection.reservation(1L);
+
+        assertEquals(START.plusHours(3), fact.getEndTime());
+        verify(reservationClient).getReservationById(1L);
+        verify(reservationFacts).save(any(ReservationFact.class));
+        verify(reservationClient, never()).getReservationChanges(any(), any(), any(), anyInt());
+    }
+
+    // 4: Another replica's sync counts only while it is recent enough
+    @Test
+    void reservation_otherReplicaSyncing_freshnessFollowsItsLastRun() {
+        when(checkpointRepository.claim(anyString(), anyString(), any(), any())).thenReturn(0);
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.of(checkpoint(invocation.getArgument(0), LocalDateTime.now().minusMinutes(10))));
+        projection.sync();
+
+        assertEquals(START.plusHours(3), projection.reservation(1L).getEndTime());
+
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.of(checkpoint(invocation.getArgument(0), LocalDateTime.now())));
+        projection.sync();
+
+        assertEquals(START.plusHours(2), projection.reservation(1L).getEndTime());
+        verify(reservationClient, times(1)).getReservationById(1L);
+    }
+
+    // 5: A log still open in the projection is fetched, keeping the reservation it was synced with
+    @Test
+    void vehicleLog_openInProjection_fetchedKeepingReservation() {
+        when(reservationClient.getReservationChanges(any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(vehicleLogClient.getLogChanges(any(), any(), any(), anyInt())).thenReturn(List.of());
+        projection.sync();
+        when(logFacts.findById(5L)).thenReturn(Optional.of(new VehicleLogFact(5L, 100L, "4W", 1L, START, null, START)));
+        VehicleLogResponse closed = new VehicleLogResponse();
+        closed.setLogId(5L);
+        closed.setUserId(100L);
+        closed.setSlotType("4W");
+        closed.setEntryTime(START);
+        closed.setExitTime(START.plusHours(1));
+        when(vehicleLogClient.getLogById(5L)).thenReturn(closed);
+
+        VehicleLogFact fact = projection.vehicleLog(5L);
+
+        assertEquals(START.plusHours(1), fact.getExitTime());
+        assertEquals(1L, fact.getReservationId());
+    }
+
+    // 6: A sync that fails part-way doesn't count as fresh
+    @Test
+    void sync_feedFails_lastRunNotMoved() {
+        when(reservationClient.getReservationChanges(any(), any(), any(), anyInt())).thenThrow(new RuntimeException("down"));
+
+        projection.sync();
+
+        verify(checkpointRepository).release(eq(BillableFactsProjection.RESERVATION_CHANGES), anyString(), isNull(),
+                anyLong(), anyLong(), anyDouble());
+        assertEquals(START.plusHours(3), projection.reservation(1L).getEndTime());
+    }
+
+    private static BatchCheckpoint checkpoint(String name, LocalDateTime lastRunAt) {
+        BatchCheckpoint checkpoint = new BatchCheckpoint();
+        checkpoint.setName(name);
+        checkpoint.setWatermark(START);
+        checkpoint.setLastId(0L);
+        checkpoint.setLastRunAt(lastRunAt);
+        return checkpoint;
+    }
+}
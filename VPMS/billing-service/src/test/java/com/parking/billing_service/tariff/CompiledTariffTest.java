@@ -0,0 +1,87 @@
+package com.parking.billing_service.tariff;
+
+import com.parking.billing_service.entity.TariffBand;
+import com.parking.billing_service.entity.TariffPlan;
+import com.parking.billing_service.entity.TariffTier;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTariffTest {
+
+    private static final int TEN_AM = 600;
+
+    private static TariffPlan.TariffPlanBuilder plan() {
+        return TariffPlan.builder().graceMinutes(0).baseRatePerMinute(1.0);
+    }
+
+    // 1: A flat plan charges what the old hardcoded rates did
+    @Test
+    void price_flatRate_matchesPerMinuteRate() {
+        assertEquals(180.0, CompiledTariff.flat(2.0).price(TEN_AM, 90));
+        assertEquals(0.0, CompiledTariff.flat(1.0).price(TEN_AM, 0));
+    }
+
+    // 2: Stays within the grace period are free, longer ones pay for every minute
+    @Test
+    void price_withinGrace_isFree() {
+        CompiledTariff tariff = CompiledTariff.compile(plan().graceMinutes(15).build());
+
+        assertEquals(0.0, tariff.price(TEN_AM, 15));
+        assertEquals(16.0, tariff.price(TEN_AM, 16));
+    }
+
+    // 3: A band wrapping midnight applies on both sides of it
+    @Test
+    void price_nightBand_wrapsMidnight() {
+        CompiledTariff tariff = CompiledTariff.compile(plan()
+                .bands(List.of(new TariffBand(LocalTime.of(22, 0), LocalTime.of(6, 0), 0.5)))
+                .build());
+
+        // 21:30-22:00 at 1.0, 22:00-00:30 at 0.5
+        assertEquals(30 + 150 * 0.5, tariff.price(21 * 60 + 30, 180));
+        // 05:00-06:00 at 0.5, 06:00-07:00 at 1.0
+        assertEquals(30 + 60, tariff.price(5 * 60, 120));
+    }
+
+    // 4: Each hour is capped by its tier and each 24 hours by the daily maximum
+    @Test
+    void price_tiersAndDailyMax_capCharges() {
+        CompiledTariff tariff = CompiledTariff.compile(plan()
+                .tiers(List.of(new TariffTier(0, 50.0), new TariffTier(2, 30.0)))
+                .dailyMax(500.0)
+                .build());
+
+        assertEquals(50 + 50 + 30, tariff.price(TEN_AM, 180));
+        assertEquals(500.0, tariff.price(TEN_AM, 1440));
+        assertEquals(3 * 500 + 30, tariff.price(TEN_AM, 3 * 1440 + 60));
+    }
+
+    // 5: Full days after the last tier are multiplied, and must match walking them
+    @Test
+    void price_manyDays_matchesDayByDay() {
+        CompiledTariff tariff = CompiledTariff.compile(plan()
+                .tiers(List.of(new TariffTier(0, 50.0), new TariffTier(30, 10.0)))
+                .build());
+
+        // Day 1: 24 x 50, day 2: 6 x 50 + 18 x 10, days 3-10: 24 x 10
+        assertEquals(1200 + 480 + 8 * 240, tariff.price(0, 10 * 1440));
+    }
+
+    // 6: Overlapping bands and negative amounts are rejected when the plan is compiled
+    @Test
+    void compile_invalidPlan_throws() {
+        TariffPlan overlapping = plan()
+                .bands(List.of(
+                        new TariffBand(LocalTime.of(8, 0), LocalTime.of(10, 0), 2.0),
+                        new TariffBand(LocalTime.of(9, 0), LocalTime.of(11, 0), 2.0)))
+                .build();
+        TariffPlan negative = plan().dailyMax(-1.0).build();
+
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(overlapping));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTariff.compile(negative));
+    }
+}
@@ -0,0 +1,71 @@
+package com.parking.billing_service.tariff;
+
+import com.parking.billing_service.entity.TariffBand;
+import com.parking.billing_service.entity.TariffPlan;
+import com.parking.billing_service.entity.TariffTier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices stays against a plan with bands, tiers, a grace period and a daily maximum.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.parking.billing_service.tariff.TariffEngineBenchmark
+ * Add -prof gc to the JMH options to confirm the allocation rate stays at zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TariffEngineBenchmark {
+
+    // Longest stay in the sample, in minutes
+    @Param({"240", "2880", "43200"})
+    private int maxStayMinutes;
+
+    private CompiledTariff tariff;
+    private int[] entries;
+    private long[] stays;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tariff = CompiledTariff.compile(TariffPlan.builder()
+                .graceMinutes(15)
+                .baseRatePerMinute(2.0)
+                .dailyMax(900.0)
+                .bands(List.of(
+                        new TariffBand(LocalTime.of(8, 0), LocalTime.of(10, 0), 3.0),
+                        new TariffBand(LocalTime.of(17, 0), LocalTime.of(19, 0), 3.0),
+                        new TariffBand(LocalTime.of(22, 0), LocalTime.of(6, 0), 0.5)))
+                .tiers(List.of(new TariffTier(0, 150.0), new TariffTier(3, 100.0), new TariffTier(24, 60.0)))
+                .build());
+        Random random = new Random(7);
+        entries = new int[1024];
+        stays = new long[1024];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = random.nextInt(1440);
+            stays[i] = random.nextInt(maxStayMinutes);
+        }
+    }
+
+    @Benchmark
+    public double price() {
+        int i = next++ & 1023;
+        return tariff.price(entries[i], stays[i]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TariffEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.parking.reservation_service.arrival;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Today's ACTIVE bookings keyed by normalized plate, so an arriving vehicle is matched to
+ * its reservation without a table scan. Plates are compared with spacing, dashes and case
+ * stripped, since the gate camera and the booking form rarely agree on those.
+ *
+ * The map is rebuilt periodically; bookings made since the last rebuild are not in it, so a
+ * miss is only a hint and callers fall back to the (vehicle_number, start_time) index.
+ */
+@Slf4j
+@Component
+public class PlateIndex {
+
+    public record Booking(Long reservationId, Long slotId, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private final ReservationRepository reservationRepo;
+    private final Duration earlyArrival;
+
+    private volatile Map<String, List<Booking>> byPlate = new ConcurrentHashMap<>();
+
+    public PlateIndex(ReservationRepository reservationRepo,
+                      @Value("${reservation.arrivals.early-minutes:30}") long earlyMinutes) {
+        this.reservationRepo = reservationRepo;
+        this.earlyArrival = Duration.ofMinutes(earlyMinutes);
+    }
+
+    public static String normalize(String plate) {
+        return plate == null ? "" : plate.replaceAll("[^A-Za-z0-9]", "").toUpperCase(Locale.ROOT);
+    }
+
+    public Duration getEarlyArrival() {
+        return earlyArrival;
+    }
+
+    // Bookings of the plate a vehicle arriving at "at" may be using, earliest start first
+    public List<Booking> candidates(String plate, LocalDateTime at) {
+        List<Booking> bookings = byPlate.get(normalize(plate));
+        if (bookings == null) {
+            return List.of();
+        }
+        LocalDateTime latestStart = at.plus(earlyArrival);
+        return bookings.stream()
+                .filter(b -> !b.startTime().isAfter(latestStart) && b.endTime().isAfter(at))
+                .toList();
+    }
+
+    // Adds a booking found by the database fallback so the next lookup is served from memory
+    public void put(Reservation reservation) {
+        Booking booking = new Booking(reservation.getReservationId(), reservation.getSlotId(),
+                reservation.getStartTime(), reservation.getEndTime());
+        byPlate.compute(normalize(reservation.getVehicleNumber()), (plate, bookings) -> {
+            List<Booking> updated = new ArrayList<>(bookings == null ? List.of() : bookings);
+            updated.removeIf(b -> b.reservationId().equals(booking.reservationId()));
+            updated.add(booking);
+            updated.sort(Comparator.comparing(Booking::startTime));
+            return List.copyOf(updated);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        refresh();
+    }
+
+    // Also rolls the map over at midnight
+    @Scheduled(fixedDelayString = "${reservation.arrivals.refresh-ms:300000}",
+            initialDelayString = "${reservation.arrivals.refresh-ms:300000}")
+    public void refresh() {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        // Covers early arrivals for bookings starting just after midnight
+        LocalDateTime to = from.plusDays(1).plus(earlyArrival);
+        try {
+            Map<String, List<Booking>> loaded = new HashMap<>();
+            for (Reservation r : reservationRepo.findByStatusAndStartTimeLessThanAndEndTimeGreaterThan(
+                    ReservationStatus.ACTIVE, to, from)) {
+                loaded.computeIfAbsent(normalize(r.getVehicleNumber()), plate -> new ArrayList<>())
+                        .add(new Booking(r.getReservationId(), r.getSlotId(), r.getStartTime(), r.getEndTime()));
+            }
+            Map<String, List<Booking>> index = new ConcurrentHashMap<>();
+            loaded.forEach((plate, bookings) -> {
+                bookings.sort(Comparator.comparing(Booking::startTime));
+                index.put(plate, List.copyOf(bookings));
+            });
+            byPlate = index;
+            log.debug("Plate index holds {} plates", index.size());
+        } catch (Exception e) {
+            // Lookups still work through the database while the map is stale
+            log.warn("Could not refresh the plate index", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.parking.reservation_service.arrival;
+
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.TypeReservationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills plate_key on bookings written before the column existed. New and updated rows set
+ * it themselves, so after the first start this updates nothing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlateKeyBackfill {
+
+    private final ReservationRepository reservationRepo;
+    private final TypeReservationRepository typeReservationRepo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int reservations = reservationRepo.backfillPlateKeys();
+        int typeReservations = typeReservationRepo.backfillPlateKeys();
+        if (reservations + typeReservations > 0) {
+            log.info("Filled plate_key for {} reservations and {} any-slot bookings", reservations, typeReservations);
+        }
+    }
+}
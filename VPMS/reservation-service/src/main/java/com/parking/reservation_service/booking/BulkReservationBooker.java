@@ -0,0 +1,272 @@
+package com.parking.reservation_service.booking;
+
+import com.parking.reservation_service.arrival.PlateIndex;
+import com.parking.reservation_service.dto.BulkReservationItemDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+import com.parking.reservation_service.repository.SlotBookingGuardRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * Books many (slot, window) requests in one go.
+ *
+ * The stripes and, with the database guard on, the guard rows of every affected slot are
+ * locked in slot order. One query then loads the ACTIVE reservations of those slots over
+ * the whole batch's time span, and recurring rules and live holds add their windows in
+ * that span. Per slot, the requests sorted by start are merged against the existing
+ * windows (coalesced and sorted) in a single pass, which also catches items
+ * that overlap each other. Accepted items go in with one batched JDBC insert in the same
+ * transaction. In all-or-nothing mode a single rejection means nothing is inserted.
+ */
+@Component
+public class BulkReservationBooker {
+
+    public static final int MAX_ITEMS = 500;
+
+    public record Result(List<Reservation> booked, List<BulkReservationItemDTO> items) {
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO reservations"
+            + " (user_id, slot_id, vehicle_number, plate_key, start_time, end_time, status, type)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ReservationRepository reservationRepo;
+    private final SlotBookingGuardRepository guardRepo;
+    private final SlotReservationIndex slotIndex;
+    private final RecurrenceIndex recurrenceIndex;
+    private final SlotHoldRegistry holds;
+    private final SlotLocks slotLocks;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reservation.booking.db-guard:true}")
+    private boolean dbGuard;
+
+    public BulkReservationBooker(ReservationRepository reservationRepo,
+                                 SlotBookingGuardRepository guardRepo,
+                                 SlotReservationIndex slotIndex,
+                                 RecurrenceIndex recurrenceIndex,
+                                 SlotHoldRegistry holds,
+                                 SlotLocks slotLocks,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+        this.reservationRepo = reservationRepo;
+        this.guardRepo = guardRepo;
+        this.slotIndex = slotIndex;
+        this.recurrenceIndex = recurrenceIndex;
+        this.holds = holds;
+        this.slotLocks = slotLocks;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Result book(List<ReservationRequestDTO> requests, boolean allOrNothing) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("At least one reservation is required.");
+        }
+        if (requests.size() > MAX_ITEMS) {
+            throw new RuntimeException("At most " + MAX_ITEMS + " reservations can be booked at once.");
+        }
+
+        BulkReservationItemDTO[] items = new BulkReservationItemDTO[requests.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String problem = validate(requests.get(i));
+            if (problem != null) {
+                items[i] = rejected(i, problem);
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (allOrNothing && candidates.size() < requests.size()) {
+            candidates.forEach(i -> items[i] = notBooked(i));
+            return new Result(List.of(), List.of(items));
+        }
+        if (candidates.isEmpty()) {
+            return new Result(List.of(), List.of(items));
+        }
+
+        List<Long> slotIds = candidates.stream().map(i -> requests.get(i).getSlotId()).distinct().sorted().toList();
+        List<Reservation> booked = slotLocks.withLocks(slotIds, () -> transactionTemplate.execute(tx -> {
+            if (dbGuard) {
+                // slotIds is sorted, so concurrent batches and single bookings take the guard rows in the same order
+                slotIds.forEach(guardRepo::lock);
+            }
+            List<Integer> accepted = mergeAgainstExisting(requests, candidates, slotIds, items);
+            if (allOrNothing && accepted.size() < candidates.size()) {
+                accepted.forEach(i -> items[i] = notBooked(i));
+                return List.<Reservation>of();
+            }
+            List<Reservation> inserted = insertBatch(requests, accepted);
+            for (int k = 0; k < accepted.size(); k++) {
+                int i = accepted.get(k);
+                items[i] = new BulkReservationItemDTO(i, "BOOKED", inserted.get(k).getReservationId(), null);
+            }
+            return inserted;
+        }));
+
+        booked.forEach(slotIndex::upsert);
+        return new Result(booked, List.of(items));
+    }
+
+    // Returns the accepted request indexes; rejected ones get their item filled in
+    private List<Integer> mergeAgainstExisting(List<ReservationRequestDTO> requests, List<Integer> candidates,
+                                               List<Long> slotIds, BulkReservationItemDTO[] items) {
+        LocalDateTime from = candidates.stream().map(i -> requests.get(i).getStartTime()).min(Comparator.naturalOrder()).get();
+        LocalDateTime to = candidates.stream().map(i -> requests.get(i).getEndTime()).max(Comparator.naturalOrder()).get();
+
+        List<ReservationWindow> taken = new ArrayList<>(
+                reservationRepo.findWindowsForSlots(slotIds, ReservationStatus.ACTIVE, from, to));
+        for (Long slotId : slotIds) {
+            if (dbGuard) {
+                recurrenceIndex.reload(slotId);
+            }
+            taken.addAll(recurrenceIndex.windows(slotId, from, to));
+            taken.addAll(holds.windows(slotId, from, to));
+        }
+        taken.sort(Comparator.comparing(ReservationWindow::getSlotId).thenComparing(ReservationWindow::getStartTime));
+
+        Map<Long, List<LocalDateTime[]>> busyBySlot = new HashMap<>();
+        for (ReservationWindow w : taken) {
+            List<LocalDateTime[]> busy = busyBySlot.computeIfAbsent(w.getSlotId(), id -> new ArrayList<>());
+            // Sorted by start; coalesce so ends are non-decreasing for the merge below
+            LocalDateTime[] last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+            if (last != null && w.getStartTime().isBefore(last[1])) {
+                if (w.getEndTime().isAfter(last[1])) {
+                    last[1] = w.getEndTime();
+                }
+            } else {
+                busy.add(new LocalDateTime[]{w.getStartTime(), w.getEndTime()});
+            }
+        }
+
+        Map<Long, List<Integer>> requestsBySlot = new TreeMap<>();
+        candidates.forEach(i -> requestsBySlot.computeIfAbsent(requests.get(i).getSlotId(), id -> new ArrayList<>()).add(i));
+
+        List<Integer> accepted = new ArrayList<>();
+        requestsBySlot.forEach((slotId, indexes) -> {
+            indexes.sort(Comparator.comparing((Integer i) -> requests.get(i).getStartTime()).thenComparing(i -> i));
+            List<LocalDateTime[]> busy = busyBySlot.getOrDefault(slotId, List.of());
+            int p = 0;
+            LocalDateTime acceptedUntil = null;
+            for (int i : indexes) {
+                LocalDateTime start = requests.get(i).getStartTime();
+                LocalDateTime end = requests.get(i).getEndTime();
+                while (p < busy.size() && !busy.get(p)[1].isAfter(start)) {
+                    p++;
+                }
+                if (p < busy.size() && busy.get(p)[0].isBefore(end)) {
+                    items[i] = rejected(i, "Slot already reserved for the selected time.");
+                } else if (acceptedUntil != null && acceptedUntil.isAfter(start)) {
+                    items[i] = rejected(i, "Overlaps another reservation in this request.");
+                } else {
+                    accepted.add(i);
+                    acceptedUntil = end;
+                }
+            }
+        });
+        accepted.sort(Comparator.naturalOrder());
+        return accepted;
+    }
+
+    private List<Reservation> insertBatch(List<ReservationRequestDTO> requests, List<Integer> accepted) {
+        if (accepted.isEmpty()) {
+            return List.of();
+        }
+        List<Reservation> rows = accepted.stream().map(i -> toReservation(requests.get(i))).toList();
+        // Bind like Hibernate does with hibernate.jdbc.time_zone=UTC so both paths store the same value
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int k) throws SQLException {
+                        Reservation r = rows.get(k);
+                        ps.setLong(1, r.getUserId());
+                        ps.setLong(2, r.getSlotId());
+                        ps.setString(3, r.getVehicleNumber());
+                        // JDBC skips the entity callbacks, so the plate key is written here
+                        ps.setString(4, PlateIndex.normalize(r.getVehicleNumber()));
+                        ps.setTimestamp(5, Timestamp.valueOf(r.getStartTime()), utc);
+                        ps.setTimestamp(6, Timestamp.valueOf(r.getEndTime()), utc);
+                        ps.setString(7, r.getStatus().name());
+                        ps.setString(8, r.getType());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int k = 0; k < rows.size(); k++) {
+            rows.get(k).setReservationId(((Number) generated.get(k).values().iterator().next()).longValue());
+        }
+        return rows;
+    }
+
+    private static Reservation toReservation(ReservationRequestDTO dto) {
+        return Reservation.builder()
+                .userId(dto.getUserId())
+                .slotId(dto.getSlotId())
+                .vehicleNumber(dto.getVehicleNumber())
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .status(ReservationStatus.ACTIVE)
+                .type(dto.getType())
+                .build();
+    }
+
+    private static String validate(ReservationRequestDTO dto) {
+        if (dto == null) {
+            return "Reservation is empty.";
+        }
+        if (dto.getUserId() == null || dto.getSlotId() == null) {
+            return "User and slot are required.";
+        }
+        if (dto.getVehicleNumber() == null || dto.getType() == null) {
+            return "Vehicle number and type are required.";
+        }
+        if (dto.getStartTime() == null || dto.getEndTime() == null || !dto.getEndTime().isAfter(dto.getStartTime())) {
+            return "End time must be after start time.";
+        }
+        return null;
+    }
+
+    private static BulkReservationItemDTO rejected(int index, String message) {
+        return new BulkReservationItemDTO(index, "REJECTED", null, message);
+    }
+
+    private static BulkReservationItemDTO notBooked(int index) {
+        return new BulkReservationItemDTO(index, "NOT_BOOKED", null, "Not booked because another reservation in the batch was rejected.");
+    }
+}
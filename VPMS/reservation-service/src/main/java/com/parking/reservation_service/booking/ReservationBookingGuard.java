@@ -0,0 +1,191 @@
+package com.parking.reservation_service.booking;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.SlotBookingGuardRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Makes "check for overlap, then save" atomic for a slot.
+ *
+ * Inside one instance the slot's lock stripe serialises bookings and the interval
+ * index answers the overlap check. With the database guard enabled (the default) the
+ * slot's guard row is also locked, by an upsert that creates it on first use, and the
+ * overlap is re-checked with an indexed query in the same transaction, which keeps
+ * several replicas from booking the same window. The stripe is held until after commit.
+ * Occurrences of recurring reservations on the slot count as taken too.
+ *
+ * Live holds (see {@link SlotHoldRegistry}) block bookings as well, except for the booking
+ * that converts the hold.
+ */
+@Component
+public class ReservationBookingGuard {
+
+    private final ReservationRepository reservationRepo;
+    private final SlotBookingGuardRepository guardRepo;
+    private final SlotReservationIndex slotIndex;
+    private final RecurrenceIndex recurrenceIndex;
+    private final SlotHoldRegistry holds;
+    private final SlotLocks slotLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reservation.booking.db-guard:true}")
+    private boolean dbGuard;
+
+    public ReservationBookingGuard(ReservationRepository reservationRepo,
+                                   SlotBookingGuardRepository guardRepo,
+                                   SlotReservationIndex slotIndex,
+                                   RecurrenceIndex recurrenceIndex,
+                                   SlotHoldRegistry holds,
+                                   SlotLocks slotLocks,
+                                   PlatformTransactionManager transactionManager) {
+        this.reservationRepo = reservationRepo;
+        this.guardRepo = guardRepo;
+        this.slotIndex = slotIndex;
+        this.recurrenceIndex = recurrenceIndex;
+        this.holds = holds;
+        this.slotLocks = slotLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Saves a new or rescheduled ACTIVE reservation, or throws if its window is taken
+    public Reservation saveIfFree(Reservation reservation) {
+        return saveIfFree(reservation, null);
+    }
+
+    // Same, converting the given hold: it is ignored by the check and released once saved
+    public Reservation saveIfFree(Reservation reservation, String holdId) {
+        return slotLocks.withLock(reservation.getSlotId(), () -> {
+            // Holds only live in memory, so there is nothing to re-check them against
+            if (holds.hasConflict(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime(), holdId)) {
+                throw slotTaken();
+            }
+            if (conflictsInMemory(reservation)) {
+                // Another replica may have freed the window since this slot was indexed
+                if (!dbGuard || conflictsInDatabase(reservation)) {
+                    throw slotTaken();
+                }
+                slotIndex.invalidate(reservation.getSlotId());
+            }
+
+            Reservation saved = dbGuard
+                    ? transactionTemplate.execute(tx -> saveUnderGuardRow(reservation))
+                    : reservationRepo.save(reservation);
+            slotIndex.upsert(saved);
+            holds.convert(holdId);
+            return saved;
+        });
+    }
+
+    // Moves an ACTIVE booking to another slot if its window is free there; false if taken or if the
+    // booking changed meanwhile. The row is updated conditionally, so a concurrent cancel wins.
+    public boolean moveIfFree(Reservation reservation, Long toSlotId) {
+        Long fromSlotId = reservation.getSlotId();
+        Reservation moved = Reservation.builder()
+                .reservationId(reservation.getReservationId())
+                .slotId(toSlotId)
+                .startTime(reservation.getStartTime())
+                .endTime(reservation.getEndTime())
+                .status(ReservationStatus.ACTIVE)
+                .recurrenceId(reservation.getRecurrenceId())
+                .occurrenceDate(reservation.getOccurrenceDate())
+                .build();
+        return slotLocks.withLock(toSlotId, () -> {
+            if (holds.hasConflict(toSlotId, moved.getStartTime(), moved.getEndTime(), null) || conflictsInMemory(moved)) {
+                return false;
+            }
+            Boolean updated = transactionTemplate.execute(tx -> {
+                if (dbGuard) {
+                    guardRepo.lock(toSlotId);
+                    recurrenceIndex.reload(toSlotId);
+                    if (conflictsInDatabase(moved) || conflictsWithRecurring(moved)) {
+                        return false;
+                    }
+                }
+                return reservationRepo.moveSlot(moved.getReservationId(), fromSlotId, toSlotId,
+                        ReservationStatus.ACTIVE) == 1;
+            });
+            if (!Boolean.TRUE.equals(updated)) {
+                slotIndex.invalidate(toSlotId);
+                return false;
+            }
+            slotIndex.remove(fromSlotId, moved.getReservationId());
+            slotIndex.upsert(moved);
+            return true;
+        });
+    }
+
+    // Places a hold on the window if nothing is booked or held there; null if it is taken
+    public SlotHold holdIfFree(Long slotId, LocalDateTime start, LocalDateTime end, Long userId,
+                               Long waitlistEntryId, Duration ttl) {
+        return slotLocks.withLock(slotId, () -> {
+            if (holds.hasConflict(slotId, start, end, null)
+                    || recurrenceIndex.hasConflict(slotId, start, end, null, null)) {
+                return null;
+            }
+            // With the database guard the indexed query is authoritative across replicas
+            boolean booked = dbGuard
+                    ? reservationRepo.existsOverlapping(slotId, ReservationStatus.ACTIVE, start, end, null)
+                    : slotIndex.hasConflict(slotId, start, end);
+            return booked ? null : holds.place(slotId, start, end, userId, waitlistEntryId, ttl);
+        });
+    }
+
+    // Runs work under the slot's stripe and, with the database guard, its locked guard row
+    public <T> T withSlotGuarded(Long slotId, Supplier<T> work) {
+        return slotLocks.withLock(slotId, () -> {
+            if (!dbGuard) {
+                return work.get();
+            }
+            return transactionTemplate.execute(tx -> {
+                guardRepo.lock(slotId);
+                return work.get();
+            });
+        });
+    }
+
+    private Reservation saveUnderGuardRow(Reservation reservation) {
+        guardRepo.lock(reservation.getSlotId());
+        // Rules created by other replicas are only visible once reloaded
+        recurrenceIndex.reload(reservation.getSlotId());
+        if (conflictsInDatabase(reservation) || conflictsWithRecurring(reservation)) {
+            slotIndex.invalidate(reservation.getSlotId());
+            throw slotTaken();
+        }
+        return reservationRepo.save(reservation);
+    }
+
+    private boolean conflictsInMemory(Reservation r) {
+        boolean taken = r.getReservationId() == null
+                ? slotIndex.hasConflict(r.getSlotId(), r.getStartTime(), r.getEndTime())
+                : slotIndex.hasConflictExcluding(r.getSlotId(), r.getStartTime(), r.getEndTime(), r.getReservationId());
+        return taken || conflictsWithRecurring(r);
+    }
+
+    private boolean conflictsWithRecurring(Reservation r) {
+        return recurrenceIndex.hasConflict(r.getSlotId(), r.getStartTime(), r.getEndTime(),
+                r.getRecurrenceId(), r.getOccurrenceDate());
+    }
+
+    private boolean conflictsInDatabase(Reservation r) {
+        return reservationRepo.existsOverlapping(r.getSlotId(), ReservationStatus.ACTIVE,
+                r.getStartTime(), r.getEndTime(), r.getReservationId());
+    }
+
+    private static RuntimeException slotTaken() {
+        return new RuntimeException("Slot already reserved for the selected time.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.parking.reservation_service.booking;
+
+import java.time.LocalDateTime;
+
+// A slot window that stopped being reserved; a null "to" means free until the next booking (e.g. completion)
+public record SlotFreedEvent(Long slotId, LocalDateTime from, LocalDateTime to) {
+}
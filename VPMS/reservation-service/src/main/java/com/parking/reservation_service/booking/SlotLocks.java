@@ -0,0 +1,63 @@
+package com.parking.reservation_service.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of locks striped by slot id. Bookings for the same slot serialise inside
+ * this instance while bookings for different slots almost never wait on each other.
+ */
+@Component
+public class SlotLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public SlotLocks(@Value("${reservation.booking.lock-stripes:64}") int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("reservation.booking.lock-stripes must be positive");
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(Long slotId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeOf(slotId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Holds the stripes of every given slot; taken in stripe order so concurrent callers cannot deadlock
+    public <T> T withLocks(Collection<Long> slotIds, Supplier<T> action) {
+        TreeSet<Integer> needed = new TreeSet<>();
+        slotIds.forEach(slotId -> needed.add(stripeOf(slotId)));
+        Deque<ReentrantLock> held = new ArrayDeque<>(needed.size());
+        try {
+            for (int stripe : needed) {
+                stripes[stripe].lock();
+                held.push(stripes[stripe]);
+            }
+            return action.get();
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().unlock();
+            }
+        }
+    }
+
+    private int stripeOf(Long slotId) {
+        return Math.floorMod(Long.hashCode(slotId), stripes.length);
+    }
+}
@@ -0,0 +1,105 @@
+package com.parking.reservation_service.calendar;
+
+import com.parking.reservation_service.dto.SlotOccupancyDTO;
+import com.parking.reservation_service.repository.ReservationWindow;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns reservation windows into per-slot occupied runs with a single sweep-line pass.
+ *
+ * Each window becomes a +1 event at its (clipped) start and a -1 event at its end. The events
+ * are sorted once by time and walked in order, keeping an open-booking count per slot. A run
+ * opens when a slot's count leaves zero and closes when it gets back to zero. Work and output
+ * are O(E log E) in the number of events, regardless of how many slots or minutes there are.
+ */
+public final class OccupancySweep {
+
+    private OccupancySweep() {
+    }
+
+    public static List<SlotOccupancyDTO> sweep(List<? extends ReservationWindow> windows,
+                                               LocalDateTime from, LocalDateTime to) {
+        int horizon = minutesBetween(from, to);
+        // Packed as (minute << 32 | ends-first bit << 31 | index) so one primitive sort orders everything
+        long[] events = new long[windows.size() * 2];
+        Long[] slotOf = new Long[windows.size()];
+        int count = 0;
+        for (int i = 0; i < windows.size(); i++) {
+            ReservationWindow w = windows.get(i);
+            int start = Math.max(0, minutesBetween(from, w.getStartTime()));
+            int end = Math.min(horizon, minutesBetween(from, w.getEndTime()));
+            if (end <= start) {
+                continue;
+            }
+            slotOf[i] = w.getSlotId();
+            // At equal times ends sort before starts, so back-to-back bookings form one run
+            events[count++] = ((long) start << 32) | (1L << 31) | i;
+            events[count++] = ((long) end << 32) | i;
+        }
+        Arrays.sort(events, 0, count);
+
+        Map<Long, int[]> open = new HashMap<>();         // slotId -> {depth, runStart}
+        Map<Long, IntRuns> runs = new HashMap<>();
+        List<Long> order = new ArrayList<>();
+        for (int e = 0; e < count; e++) {
+            int minute = (int) (events[e] >>> 32);
+            boolean isStart = (events[e] & (1L << 31)) != 0;
+            Long slotId = slotOf[(int) (events[e] & 0x7FFFFFFFL)];
+            int[] state = open.computeIfAbsent(slotId, id -> new int[2]);
+            if (isStart) {
+                if (state[0]++ == 0) {
+                    state[1] = minute;
+                }
+            } else if (--state[0] == 0) {
+                runs.computeIfAbsent(slotId, id -> {
+                    order.add(id);
+                    return new IntRuns();
+                }).add(state[1], minute);
+            }
+        }
+
+        order.sort(Long::compare);
+        List<SlotOccupancyDTO> result = new ArrayList<>(order.size());
+        for (Long slotId : order) {
+            IntRuns r = runs.get(slotId);
+            result.add(new SlotOccupancyDTO(slotId, r.toArray(), r.total));
+        }
+        return result;
+    }
+
+    private static int minutesBetween(LocalDateTime from, LocalDateTime time) {
+        long minutes = Duration.between(from, time).toMinutes();
+        return (int) Math.max(Integer.MIN_VALUE >> 1, Math.min(Integer.MAX_VALUE >> 1, minutes));
+    }
+
+    private static final class IntRuns {
+        private int[] values = new int[4];
+        private int size;
+        private int total;
+
+        void add(int start, int end) {
+            total += end - start;
+            // Ends are processed before starts at the same minute, so touching runs are merged here
+            if (size > 0 && values[size - 1] == start) {
+                values[size - 1] = end;
+                return;
+            }
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = start;
+            values[size++] = end;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.parking.reservation_service.capacity;
+
+import com.parking.reservation_service.arrival.PlateIndex;
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.TypeReservation;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.TypeReservationRepository;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns an any-slot booking into a slot reservation when its vehicle arrives.
+ *
+ * Pooled slots only ever carry bookings that have already arrived, so every booking on one
+ * has started and a slot that is free now stays free; the first free pooled slot is taken.
+ * If the pool is short (early arrivals, overstays) any free slot of the type is used instead.
+ * When the assigned reservation ends early, the capacity the booking still held is given back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArrivalAssigner {
+
+    private final TypeReservationRepository typeReservationRepo;
+    private final ReservationRepository reservationRepo;
+    private final SlotDirectory slotDirectory;
+    private final SlotReservationIndex slotIndex;
+    private final FreeSlotFinder freeSlotFinder;
+    private final ReservationBookingGuard bookingGuard;
+    private final ReservationTimerScheduler reservationTimers;
+    private final UtilizationCube utilizationCube;
+    private final CapacityLedger capacityLedger;
+
+    // The slot reservation for the plate's any-slot booking, or null if it has none usable at "at"
+    public Reservation assign(String vehicleNumber, LocalDateTime at, Duration earlyArrival) {
+        List<TypeReservation> bookings = typeReservationRepo.findUnassignedForPlateAt(PlateIndex.normalize(vehicleNumber),
+                ReservationStatus.ACTIVE, at.plus(earlyArrival), at);
+        for (TypeReservation booking : bookings) {
+            for (SlotDTO slot : candidates(booking, at)) {
+                Reservation reservation = tryAssign(booking, slot.getSlotId(), at);
+                if (reservation != null) {
+                    return reservation;
+                }
+            }
+            throw new RuntimeException("No " + booking.getSlotType() + " slot is free for vehicle " + vehicleNumber);
+        }
+        return null;
+    }
+
+    // The slot reservation was cancelled or completed at "at": if an any-slot booking was behind
+    // it, the booking follows and its buckets from then on are released
+    public void release(Long reservationId, ReservationStatus to, LocalDateTime at) {
+        TypeReservation booking = typeReservationRepo.findByReservationId(reservationId).orElse(null);
+        // Conditional, so a repeated cancel or a cancel racing completion releases only once
+        if (booking == null
+                || typeReservationRepo.transitionAssigned(booking.getId(), ReservationStatus.ACTIVE, to) == 0) {
+            return;
+        }
+        LocalDateTime from = at.isAfter(booking.getStartTime()) ? at : booking.getStartTime();
+        if (from.isBefore(booking.getEndTime())) {
+            capacityLedger.release(booking.getSlotType(), from, booking.getEndTime());
+        }
+    }
+
+    private List<SlotDTO> candidates(TypeReservation booking, LocalDateTime at) {
+        List<SlotDTO> candidates = new ArrayList<>();
+        for (SlotDTO slot : slotDirectory.pooled(booking.getSlotType())) {
+            if (!slotIndex.hasConflict(slot.getSlotId(), at, booking.getEndTime())) {
+                candidates.add(slot);
+            }
+        }
+        candidates.addAll(freeSlotFinder.findFree(at, booking.getEndTime(), booking.getSlotType(), 1));
+        return candidates;
+    }
+
+    private Reservation tryAssign(TypeReservation booking, Long slotId, LocalDateTime at) {
+        // The vehicle holds the slot from now on, even if it came early
+        Reservation reservation = Reservation.builder()
+                .userId(booking.getUserId())
+                .slotId(slotId)
+                .vehicleNumber(booking.getVehicleNumber())
+                .startTime(at)
+                .endTime(booking.getEndTime())
+                .status(ReservationStatus.ACTIVE)
+                .type(booking.getSlotType())
+                .build();
+        try {
+            reservation = bookingGuard.saveIfFree(reservation);
+        } catch (RuntimeException e) {
+            // Taken since the candidate check; try the next slot
+            return null;
+        }
+
+        if (typeReservationRepo.assign(booking.getId(), ReservationStatus.ACTIVE, reservation.getReservationId()) == 0) {
+            // Another replica handled the same arrival first
+            reservationRepo.transition(reservation.getReservationId(), ReservationStatus.CANCELLED.allowedFrom(),
+                    ReservationStatus.CANCELLED);
+            slotIndex.remove(slotId, reservation.getReservationId());
+            throw new RuntimeException("Booking " + booking.getId() + " was assigned concurrently.");
+        }
+        reservationTimers.track(reservation);
+        utilizationCube.add(slotId, reservation.getStartTime(), reservation.getEndTime());
+        log.debug("Assigned booking {} to slot {}", booking.getId(), slotId);
+        return reservation;
+    }
+}
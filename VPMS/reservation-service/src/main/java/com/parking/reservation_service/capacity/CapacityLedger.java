@@ -0,0 +1,122 @@
+package com.parking.reservation_service.capacity;
+
+import com.parking.reservation_service.entity.CapacityCounter;
+import com.parking.reservation_service.repository.CapacityCounterRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-type, per-bucket counters of any-slot bookings.
+ *
+ * A window is admitted if every bucket it touches is below the type's pool size, which is
+ * O(buckets) no matter how many slots the type has. The counters live in capacity_counters;
+ * a booking upserts each bucket (creating it or bumping it under its row lock) and rolls back
+ * if any of them went past the pool size. A copy kept in memory turns away windows that are
+ * already full without a round trip. That copy may lag bookings made on
+ * other replicas, so it only ever rejects, never admits, and is dropped every sync interval.
+ *
+ * Buckets are coarser than bookings, so a counter can only overstate concurrency: if no
+ * bucket ever exceeds the pool size, a free pooled slot exists for every admitted booking.
+ */
+@Slf4j
+@Component
+public class CapacityLedger {
+
+    private final CapacityCounterRepository counterRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration bucket;
+    private final Duration retention;
+
+    // slotType -> bucketStart -> booked, as last read from or written to the database
+    private final ConcurrentHashMap<String, ConcurrentHashMap<LocalDateTime, Integer>> booked = new ConcurrentHashMap<>();
+
+    public CapacityLedger(CapacityCounterRepository counterRepo,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${reservation.capacity.bucket-minutes:30}") long bucketMinutes,
+                          @Value("${reservation.capacity.retention-hours:24}") long retentionHours) {
+        if (bucketMinutes <= 0 || 1440 % bucketMinutes != 0) {
+            throw new IllegalArgumentException("reservation.capacity.bucket-minutes must divide a day");
+        }
+        this.counterRepo = counterRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bucket = Duration.ofMinutes(bucketMinutes);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    // Takes one unit of capacity in every bucket of [start, end), or nothing if any bucket is full
+    public boolean tryAdmit(String slotType, LocalDateTime start, LocalDateTime end, int capacity) {
+        List<LocalDateTime> buckets = buckets(start, end);
+        Map<LocalDateTime, Integer> known = booked.get(slotType);
+        if (known != null && buckets.stream().anyMatch(b -> known.getOrDefault(b, 0) >= capacity)) {
+            return false;
+        }
+
+        Boolean admitted = transactionTemplate.execute(tx -> {
+            // Buckets are in time order, so concurrent admits lock shared rows in the same order
+            buckets.forEach(b -> counterRepo.take(slotType, b));
+            if (counterRepo.countOverCapacity(slotType, buckets, capacity) > 0) {
+                // Some bucket was already full: undo every bump
+                tx.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+        sync(slotType, buckets);
+        return Boolean.TRUE.equals(admitted);
+    }
+
+    // Gives back what tryAdmit took, e.g. when the booking is cancelled before arrival
+    public void release(String slotType, LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> buckets = buckets(start, end);
+        counterRepo.release(slotType, buckets);
+        sync(slotType, buckets);
+    }
+
+    List<LocalDateTime> buckets(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> buckets = new ArrayList<>();
+        for (LocalDateTime b = floor(start); b.isBefore(end); b = b.plus(bucket)) {
+            buckets.add(b);
+        }
+        return buckets;
+    }
+
+    private LocalDateTime floor(LocalDateTime time) {
+        long minutes = time.getHour() * 60L + time.getMinute();
+        return time.truncatedTo(ChronoUnit.DAYS).plusMinutes(minutes - minutes % bucket.toMinutes());
+    }
+
+    private void sync(String slotType, List<LocalDateTime> buckets) {
+        ConcurrentHashMap<LocalDateTime, Integer> known = booked.computeIfAbsent(slotType, t -> new ConcurrentHashMap<>());
+        buckets.forEach(known::remove);
+        for (CapacityCounter counter : counterRepo.findBySlotTypeAndBucketStartIn(slotType, buckets)) {
+            known.put(counter.getBucketStart(), counter.getBooked());
+        }
+    }
+
+    // Drops the in-memory copy (picking up other replicas' bookings) and deletes past buckets
+    @Scheduled(fixedDelayString = "${reservation.capacity.sync-ms:60000}")
+    public void resync() {
+        booked.clear();
+        try {
+            int deleted = counterRepo.deleteBefore(LocalDateTime.now().minus(retention));
+            if (deleted > 0) {
+                log.debug("Deleted {} past capacity buckets", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Could not delete past capacity buckets", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.parking.reservation_service.controller;
+ 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+ 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+ 
+import com.parking.reservation_service.dto.RecurringReservationRequestDTO;
+import com.parking.reservation_service.dto.RecurringReservationResponseDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.service.RecurringReservationService;
+ 
+import lombok.RequiredArgsConstructor;
+ 
+@RestController
+@RequestMapping("/api/reservations/recurring")
+@RequiredArgsConstructor
+public class RecurringReservationController {
+ 
+    private final RecurringReservationService recurringService;
+ 
+    // ✅ 1. Create a recurring reservation, e.g. every weekday 09:00-18:00 (CUSTOMER only)
+    @PostMapping
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> createRecurring(@RequestBody RecurringReservationRequestDTO request) {
+        RecurringReservationResponseDTO dto = recurringService.createRecurring(request);
+        return ResponseEntity.ok(Map.of(
+                "message", "Recurring reservation created successfully",
+                "recurring", dto
+        ));
+    }
+ 
+    // ✅ 2. Recurring reservations of a user
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER', 'STAFF')")
+    public ResponseEntity<List<RecurringReservationResponseDTO>> getRecurringByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(recurringService.getRecurringByUser(userId));
+    }
+ 
+    // ✅ 3. Cancel every future occurrence that has not been booked yet (CUSTOMER or ADMIN)
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> cancelRecurring(@PathVariable Long id) {
+        recurringService.cancelRecurring(id);
+        return ResponseEntity.ok(Map.of("message", "Recurring reservation cancelled successfully"));
+    }
+ 
+    // ✅ 4. Skip a single occurrence (CUSTOMER or ADMIN)
+    @PostMapping("/{id}/occurrences/{date}/skip")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> skipOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        recurringService.skipOccurrence(id, date);
+        return ResponseEntity.ok(Map.of("message", "Occurrence skipped successfully"));
+    }
+ 
+    // ✅ 5. Change a single occurrence's times or vehicle; it becomes its own reservation (CUSTOMER or ADMIN)
+    @PutMapping("/{id}/occurrences/{date}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> modifyOccurrence(
+            @PathVariable Long id,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody ReservationRequestDTO request) {
+        ReservationResponseDTO dto = recurringService.modifyOccurrence(id, date, request);
+        return ResponseEntity.ok(Map.of(
+                "message", "Occurrence updated successfully",
+                "reservation", dto
+        ));
+    }
+}
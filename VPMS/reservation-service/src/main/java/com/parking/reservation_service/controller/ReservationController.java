@@ -1,22 +1,44 @@
 package com.parking.reservation_service.controller;
  
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.parking.reservation_service.dto.ArrivalRequestDTO;
+import com.parking.reservation_service.dto.BookingTicketDTO;
+import com.parking.reservation_service.dto.BulkReservationRequestDTO;
+import com.parking.reservation_service.dto.BulkReservationResponseDTO;
+import com.parking.reservation_service.dto.HoldRequestDTO;
+import com.parking.reservation_service.dto.HoldResponseDTO;
+import com.parking.reservation_service.dto.OccupancyCalendarDTO;
 import com.parking.reservation_service.dto.ReservationRequestDTO;
 import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.dto.ReservationSearchDTO;
+import com.parking.reservation_service.dto.ReservationSearchResultDTO;
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.dto.SlotReassignmentDTO;
+import com.parking.reservation_service.dto.UtilizationRebuildDTO;
+import com.parking.reservation_service.dto.UtilizationReportDTO;
+import com.parking.reservation_service.idempotency.IdempotencyStore;
+import com.parking.reservation_service.pipeline.BookingQueuedException;
 import com.parking.reservation_service.service.ReservationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,17 +49,82 @@ import lombok.RequiredArgsConstructor;
 public class ReservationController {
  
     private final ReservationService reservationService;
+    private final IdempotencyStore idempotencyStore;
 
  
-    // ✅ 1. Make a Reservation (CUSTOMER only)
+    // ✅ 1. Make a Reservation (CUSTOMER only); retries with the same Idempotency-Key replay the first response
     @PostMapping
     @PreAuthorize("hasAuthority('CUSTOMER')")
-    public ResponseEntity<Map<String, Object>> createReservation(@RequestBody ReservationRequestDTO request) {
-        ReservationResponseDTO dto = reservationService.createReservation(request);
-        return ResponseEntity.ok(Map.of(
-                "message", "Reservation created successfully",
-                "reservation", dto
-        ));
+    public ResponseEntity<Map<String, Object>> createReservation(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody ReservationRequestDTO request) {
+        return idempotencyStore.execute(idempotencyKey, "create-reservation", request,
+                new TypeReference<Map<String, Object>>() { }, () -> {
+                    ReservationResponseDTO dto;
+                    try {
+                        dto = reservationService.createReservation(request);
+                    } catch (BookingQueuedException e) {
+                        // Still in the pipeline: hand out the ticket to poll, as /queued does
+                        return ResponseEntity.status(202).body(Map.of(
+                                "message", e.getMessage(),
+                                "ticket", e.getTicket()
+                        ));
+                    }
+                    return ResponseEntity.ok(Map.of(
+                            "message", "Reservation created successfully",
+                            "reservation", dto
+                    ));
+                });
+    }
+ 
+    // ✅ 1b. Book many slots/windows at once (CUSTOMER only), e.g. fleet bookings
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<BulkReservationResponseDTO> createReservations(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody BulkReservationRequestDTO request) {
+        return idempotencyStore.execute(idempotencyKey, "create-reservations", request,
+                new TypeReference<BulkReservationResponseDTO>() { },
+                () -> ResponseEntity.ok(reservationService.createReservations(request)));
+    }
+ 
+    // ✅ 1b'. Queue a booking in pipeline mode and poll its ticket for the outcome (CUSTOMER only)
+    @PostMapping("/queued")
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<?> queueReservation(@RequestBody ReservationRequestDTO request) {
+        try {
+            return ResponseEntity.status(202).body(reservationService.queueReservation(request));
+        } catch (TaskRejectedException e) {
+            // Queue full or pipeline stopped: worth retrying shortly
+            return ResponseEntity.status(503).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/queued/{ticketId}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<?> getBookingTicket(@PathVariable String ticketId) {
+        try {
+            BookingTicketDTO ticket = reservationService.getBookingTicket(ticketId);
+            return ResponseEntity.ok(ticket);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+ 
+    // ✅ 1c. Hold a slot window for a few minutes during checkout; pass the holdId when booking (CUSTOMER only)
+    @PostMapping("/holds")
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<HoldResponseDTO> placeHold(@RequestBody HoldRequestDTO request) {
+        return ResponseEntity.ok(reservationService.placeHold(request));
+    }
+ 
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> releaseHold(@PathVariable String holdId) {
+        reservationService.releaseHold(holdId);
+        return ResponseEntity.ok(Map.of("message", "Hold released"));
     }
  
     // ✅ 2. Get All Reservations (ADMIN only)
@@ -117,5 +204,166 @@ public ResponseEntity<Map<String, Object>> updateReservationStatus(
             ));
         }
     }
+
+    // ✅ 8. Find slots free for a whole time window, e.g. ?start=2025-07-01T18:00&end=2025-07-01T22:00&type=4W
+    @GetMapping("/free-slots")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> findFreeSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<SlotDTO> slots = reservationService.findFreeSlots(start, end, type, limit);
+        return ResponseEntity.ok(Map.of(
+                "message", "Free slots fetched",
+                "slots", slots
+        ));
+    }
+
+    // ✅ 9. Occupancy calendar: occupied minute runs per slot for a date range (ADMIN and STAFF)
+    @GetMapping("/calendar")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<OccupancyCalendarDTO> getOccupancyCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String type) {
+        return ResponseEntity.ok(reservationService.getOccupancyCalendar(from, to, type));
+    }
+
+    // ✅ 10. Active reservation for a plate at a time (defaults to now), e.g. ?plate=KA01AB1234 (ADMIN and STAFF)
+    @GetMapping("/lookup")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> findByPlate(
+            @RequestParam String plate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            return ResponseEntity.ok(reservationService.findActiveForPlate(plate, at));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 11. Vehicle arrived: match it to its reservation and record the arrival (ADMIN and STAFF, used by vehicle-log)
+    @PostMapping("/arrivals")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> recordArrival(@RequestBody ArrivalRequestDTO requestDTO) {
+        try {
+            return ResponseEntity.ok(reservationService.recordArrival(requestDTO));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 12. Utilization report from the hourly cube, e.g. ?from=2025-01-01&to=2025-03-31&groupBy=weekday,hour (ADMIN and STAFF)
+    @GetMapping("/utilization")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> getUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "date") List<String> groupBy) {
+        try {
+            UtilizationReportDTO report = reservationService.getUtilization(from, to, type, groupBy);
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(400).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 13. Recompute the cube from reservations for a date range; apply=false only reports drift (ADMIN only)
+    @PostMapping("/utilization/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> rebuildUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean apply) {
+        try {
+            UtilizationRebuildDTO result = reservationService.rebuildUtilization(from, to, apply);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(400).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 14. Vehicle left: record the departure so an overstayed slot stops being worked around (ADMIN and STAFF, used by vehicle-log)
+    @PostMapping("/{id}/departure")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> recordDeparture(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(reservationService.recordDeparture(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 15. Bookings moved to another slot since a time (default: last 24 hours), e.g. because of an overstay (ADMIN and STAFF)
+    @GetMapping("/reassignments")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<List<SlotReassignmentDTO>> getReassignments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(reservationService.getReassignments(since));
+    }
+
+    // ✅ 16. Search by any of status, slotId, userId, type, plate and from/to overlap; pages via afterStart/afterId (ADMIN and STAFF)
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> searchReservations(@ModelAttribute ReservationSearchDTO criteria) {
+        try {
+            ReservationSearchResultDTO result = reservationService.searchReservations(criteria);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(400).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 17. Reservations completed in (since, until), oldest first, paged by the last changedAt/afterId (ADMIN and STAFF)
+    @GetMapping("/completed")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> getCompletedReservations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam(defaultValue = "500") int size) {
+        try {
+            return ResponseEntity.ok(reservationService.getCompletedReservations(since, afterId, until, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(400).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 18. Change feed: billable fields of reservations changed after since/afterId, oldest change first (ADMIN and STAFF)
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> getReservationChanges(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "500") int size) {
+        try {
+            return ResponseEntity.ok(reservationService.getReservationChanges(since, afterId, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(400).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 19. Vehicle at the gate: match it to its reservation (assigning a slot to an any-slot booking) without recording the arrival yet (ADMIN and STAFF, used by vehicle-log)
+    @PostMapping("/arrivals/match")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> matchArrival(@RequestBody ArrivalRequestDTO requestDTO) {
+        try {
+            return ResponseEntity.ok(reservationService.matchArrival(requestDTO));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ 20. Vehicle logged in: record the arrival on the matched reservation (ADMIN and STAFF, used by vehicle-log)
+    @PostMapping("/{id}/arrival")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> confirmArrival(@PathVariable Long id, @RequestBody ArrivalRequestDTO requestDTO) {
+        try {
+            return ResponseEntity.ok(reservationService.confirmArrival(id, requestDTO.getArrivalTime()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("message", e.getMessage()));
+        }
+    }
 }
- 
\ No newline at end of file
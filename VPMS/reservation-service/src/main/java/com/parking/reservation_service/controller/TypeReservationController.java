@@ -0,0 +1,60 @@
+package com.parking.reservation_service.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.parking.reservation_service.dto.TypeReservationRequestDTO;
+import com.parking.reservation_service.dto.TypeReservationResponseDTO;
+import com.parking.reservation_service.service.TypeReservationService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/reservations/any")
+@RequiredArgsConstructor
+public class TypeReservationController {
+
+    private final TypeReservationService typeReservationService;
+
+    // ✅ 1. Book any slot of a type for a window; the slot is assigned when the vehicle arrives (CUSTOMER only)
+    @PostMapping
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> book(@RequestBody TypeReservationRequestDTO request) {
+        TypeReservationResponseDTO booking = typeReservationService.book(request);
+        return ResponseEntity.ok(Map.of(
+                "message", "Booking created successfully",
+                "booking", booking
+        ));
+    }
+
+    // ✅ 2. Get a booking, including the reservation it became at arrival
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER', 'STAFF')")
+    public ResponseEntity<TypeReservationResponseDTO> getById(@PathVariable Long id) {
+        return ResponseEntity.ok(typeReservationService.getById(id));
+    }
+
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER', 'STAFF')")
+    public ResponseEntity<List<TypeReservationResponseDTO>> getByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(typeReservationService.getByUser(userId));
+    }
+
+    // ✅ 3. Cancel a booking that hasn't been assigned a slot yet (CUSTOMER or ADMIN)
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable Long id) {
+        typeReservationService.cancel(id);
+        return ResponseEntity.ok(Map.of("message", "Booking cancelled successfully"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.parking.reservation_service.controller;
+ 
+import java.util.List;
+import java.util.Map;
+ 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+ 
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.dto.WaitlistEntryDTO;
+import com.parking.reservation_service.dto.WaitlistRequestDTO;
+import com.parking.reservation_service.service.WaitlistService;
+ 
+import lombok.RequiredArgsConstructor;
+ 
+@RestController
+@RequestMapping("/api/reservations/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+ 
+    private final WaitlistService waitlistService;
+ 
+    // ✅ 1. Join the waitlist for any slot of a type over a window (CUSTOMER only)
+    @PostMapping
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> join(@RequestBody WaitlistRequestDTO request) {
+        WaitlistEntryDTO dto = waitlistService.join(request);
+        return ResponseEntity.ok(Map.of(
+                "message", dto.getOfferedSlotId() != null ? "Slot offered" : "Added to waitlist",
+                "entry", dto
+        ));
+    }
+ 
+    // ✅ 2. Current state of an entry
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER', 'STAFF')")
+    public ResponseEntity<WaitlistEntryDTO> getEntry(@PathVariable Long id) {
+        return ResponseEntity.ok(waitlistService.getEntry(id));
+    }
+ 
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER', 'STAFF')")
+    public ResponseEntity<List<WaitlistEntryDTO>> getEntriesByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(waitlistService.getEntriesByUser(userId));
+    }
+ 
+    // ✅ 3. Server-sent events with every change of the entry (offer, expiry, booking) instead of polling
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public SseEmitter subscribe(@PathVariable Long id) {
+        return waitlistService.subscribe(id);
+    }
+ 
+    // ✅ 4. Book the offered slot before the hold runs out (CUSTOMER only)
+    @PostMapping("/{id}/claim")
+    @PreAuthorize("hasAuthority('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> claim(@PathVariable Long id) {
+        ReservationResponseDTO reservation = waitlistService.claim(id);
+        return ResponseEntity.ok(Map.of(
+                "message", "Reservation created successfully",
+                "reservation", reservation
+        ));
+    }
+ 
+    // ✅ 5. Leave the waitlist or decline an offer (CUSTOMER or ADMIN)
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> leave(@PathVariable Long id) {
+        waitlistService.leave(id);
+        return ResponseEntity.ok(Map.of("message", "Left the waitlist"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Sent by vehicle-log-service when a vehicle enters without a slot; arrivalTime defaults to now
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrivalRequestDTO {
+    private String vehicleNumber;
+    private LocalDateTime arrivalTime;
+}
@@ -0,0 +1,13 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingTicketDTO {
+    private String ticketId;
+    private String status;       // "QUEUED", "BOOKED" or "REJECTED"
+    private ReservationResponseDTO reservation;
+    private String message;
+}
@@ -0,0 +1,13 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationItemDTO {
+    private int index;           // Position in the request
+    private String outcome;      // "BOOKED", "REJECTED" or "NOT_BOOKED" (all-or-nothing batch that was rolled back)
+    private Long reservationId;
+    private String message;
+}
@@ -0,0 +1,13 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationRequestDTO {
+    private String mode; // "ALL_OR_NOTHING" (default) or "BEST_EFFORT"
+    private List<ReservationRequestDTO> reservations;
+}
@@ -0,0 +1,15 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationResponseDTO {
+    private String mode;
+    private int booked;
+    private int rejected;
+    private List<BulkReservationItemDTO> items;
+}
@@ -0,0 +1,16 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+// Matches vehicle-log-service's EntryLookupItem; key is the reservation id
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryLookupItemDTO {
+    private Long key;
+    private String vehicleNumber;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
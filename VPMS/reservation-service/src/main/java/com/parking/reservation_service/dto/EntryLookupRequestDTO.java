@@ -0,0 +1,12 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntryLookupRequestDTO {
+    private List<EntryLookupItemDTO> items;
+}
@@ -0,0 +1,15 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldRequestDTO {
+    private Long userId;
+    private Long slotId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
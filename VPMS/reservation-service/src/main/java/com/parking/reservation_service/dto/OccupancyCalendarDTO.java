@@ -0,0 +1,16 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Slots without any booking in the range are left out
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyCalendarDTO {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<SlotOccupancyDTO> slots;
+}
@@ -0,0 +1,22 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringReservationRequestDTO {
+    private Long userId;
+    private Long slotId;
+    private String vehicleNumber;
+    private String type;
+    private List<String> daysOfWeek; // e.g. ["MONDAY", "TUESDAY"]
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate validFrom;
+    private LocalDate validUntil;
+}
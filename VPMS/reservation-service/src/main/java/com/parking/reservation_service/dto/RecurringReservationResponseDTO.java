@@ -0,0 +1,25 @@
+package com.parking.reservation_service.dto;
+ 
+import com.parking.reservation_service.entity.ReservationStatus;
+import lombok.*;
+ 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringReservationResponseDTO {
+    private Long id;
+    private Long userId;
+    private Long slotId;
+    private String vehicleNumber;
+    private String type;
+    private List<String> daysOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate validFrom;
+    private LocalDate validUntil;
+    private ReservationStatus status;
+}
@@ -14,4 +14,5 @@ public class ReservationRequestDTO {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String type; // e.g., "PENDING", "CONFIRMED", "CANCELLED"
+    private String holdId; // optional: hold from POST /api/reservations/holds to convert
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSearchDTO {
+    private String status;
+    private Long slotId;
+    private Long userId;
+    private String type;
+    private String plate;
+    // Reservations overlapping [from, to); either bound may be left open
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    // Cursor from the previous page's nextAfterStart / nextAfterId
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime afterStart;
+    private Long afterId;
+    private Integer size;
+}
@@ -0,0 +1,16 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+import java.util.List;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSearchResultDTO {
+    private List<ReservationResponseDTO> reservations;
+    // Pass both back as afterStart / afterId for the next page; null on the last page
+    private LocalDateTime nextAfterStart;
+    private Long nextAfterId;
+}
@@ -0,0 +1,12 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotDTO {
+    private Long slotId;
+    private String location;
+    private String type; // "2W" or "4W"
+}
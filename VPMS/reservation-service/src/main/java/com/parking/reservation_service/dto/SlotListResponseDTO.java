@@ -0,0 +1,14 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Body of slot-service's GET /api/slots
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotListResponseDTO {
+    private String message;
+    private List<SlotDTO> slots;
+}
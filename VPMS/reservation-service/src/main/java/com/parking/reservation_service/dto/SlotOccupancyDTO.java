@@ -0,0 +1,13 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotOccupancyDTO {
+    private Long slotId;
+    // Occupied runs as [startMinute, endMinute) pairs, in minutes from the calendar's start, flattened
+    private int[] runs;
+    private int occupiedMinutes;
+}
@@ -0,0 +1,17 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotReassignmentDTO {
+    private Long reservationId;
+    private Long fromSlotId;
+    private Long toSlotId;
+    private Long blockingReservationId;
+    private String reason;          // e.g. "OVERSTAY"
+    private LocalDateTime reassignedAt;
+}
@@ -0,0 +1,16 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeReservationRequestDTO {
+    private Long userId;
+    private String vehicleNumber;
+    private String slotType; // e.g. "4W"; the slot itself is assigned at arrival
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
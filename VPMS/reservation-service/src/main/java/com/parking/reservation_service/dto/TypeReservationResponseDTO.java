@@ -0,0 +1,20 @@
+package com.parking.reservation_service.dto;
+
+import com.parking.reservation_service.entity.ReservationStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeReservationResponseDTO {
+    private Long id;
+    private Long userId;
+    private String vehicleNumber;
+    private String slotType;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private ReservationStatus status;
+    private Long reservationId; // the slot reservation created at arrival, if any
+}
@@ -0,0 +1,19 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Result of recomputing the cube from the reservations table and comparing it with the stored one
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationRebuildDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int reservations;
+    private int cells;
+    private int mismatchedCells;
+    private boolean applied;
+    private long elapsedMillis;
+}
@@ -0,0 +1,16 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationReportDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private List<String> groupBy;
+    private List<UtilizationRowDTO> rows;
+}
@@ -0,0 +1,21 @@
+package com.parking.reservation_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Dimensions that were rolled up are null; utilization is null where there is no slot capacity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationRowDTO {
+    private String month; // e.g. "2025-07"
+    private LocalDate date;
+    private String weekday; // e.g. "MONDAY"
+    private Integer hour;
+    private String type;
+    private long occupiedMinutes;
+    private long bookings;
+    private long capacityMinutes;
+    private Double utilization;
+}
@@ -0,0 +1,22 @@
+package com.parking.reservation_service.dto;
+ 
+import com.parking.reservation_service.entity.WaitlistStatus;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryDTO {
+    private Long id;
+    private Long userId;
+    private String vehicleNumber;
+    private String type;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private WaitlistStatus status;
+    private Long offeredSlotId;
+    private LocalDateTime holdExpiresAt;
+    private Long reservationId;
+}
@@ -0,0 +1,16 @@
+package com.parking.reservation_service.dto;
+ 
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRequestDTO {
+    private Long userId;
+    private String vehicleNumber;
+    private String type; // slot type, e.g. "4W"
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,33 @@
+package com.parking.reservation_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * How many any-slot bookings of a slot type overlap one time bucket. Admission upserts every
+ * bucket of the window and rolls back if any went past the pool size.
+ */
+@Entity
+@Table(name = "capacity_counters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_capacity_type_bucket", columnNames = {"slot_type", "bucket_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "slot_type", nullable = false, length = 16)
+    private String slotType;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private int booked;
+}
@@ -0,0 +1,7 @@
+package com.parking.reservation_service.entity;
+ 
+public enum OutboxStatus {
+    PENDING,
+    DELIVERED,
+    FAILED
+}
@@ -0,0 +1,29 @@
+package com.parking.reservation_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDate;
+ 
+/**
+ * One occurrence of a recurring reservation that the customer dropped.
+ */
+@Entity
+@Table(name = "recurrence_skips", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_recurrence_skip", columnNames = {"recurrence_id", "occurrence_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurrenceSkip {
+ 
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+ 
+    @Column(name = "recurrence_id", nullable = false)
+    private Long recurrenceId;
+ 
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+}
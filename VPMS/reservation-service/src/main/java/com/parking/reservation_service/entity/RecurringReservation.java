@@ -0,0 +1,60 @@
+package com.parking.reservation_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDate;
+import java.time.LocalTime;
+ 
+/**
+ * "Every weekday 09:00-18:00 from June to August" on one slot, stored as a single rule.
+ * Occurrences are expanded on the fly for the window being looked at and only become
+ * Reservation rows (linked back through recurrenceId/occurrenceDate) shortly before they
+ * start or when one of them is changed.
+ */
+@Entity
+@Table(name = "recurring_reservations", indexes = {
+        @Index(name = "idx_recurring_slot_span", columnList = "slot_id, status, valid_from, valid_until")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringReservation {
+ 
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+ 
+    @Column(nullable = false)
+    private Long userId;
+ 
+    @Column(name = "slot_id", nullable = false)
+    private Long slotId;
+ 
+    @Column(nullable = false)
+    private String vehicleNumber;
+ 
+    @Column(nullable = false)
+    private String type;
+ 
+    // Bit n set = occurs on DayOfWeek.of(n + 1), so Monday is bit 0
+    @Column(nullable = false)
+    private int daysOfWeek;
+ 
+    @Column(nullable = false)
+    private LocalTime startTime;
+ 
+    @Column(nullable = false)
+    private LocalTime endTime;
+ 
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+ 
+    @Column(name = "valid_until", nullable = false)
+    private LocalDate validUntil;
+ 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+}
@@ -1,12 +1,25 @@
 package com.parking.reservation_service.entity;
  
 import jakarta.persistence.*;
+import com.parking.reservation_service.arrival.PlateIndex;
 import lombok.*;
  
+import java.time.LocalDate;
 import java.time.LocalDateTime;
  
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservation_slot_window", columnList = "slot_id, status, start_time, end_time"),
+        @Index(name = "idx_reservation_status_end", columnList = "status, end_time"),
+        @Index(name = "idx_reservation_status_start", columnList = "status, start_time"),
+        @Index(name = "idx_reservation_plate_start", columnList = "plate_key, start_time"),
+        @Index(name = "idx_reservation_user_start", columnList = "user_id, start_time"),
+        @Index(name = "idx_reservation_type_start", columnList = "type, start_time"),
+        @Index(name = "idx_reservation_start_end", columnList = "start_time, end_time"),
+        @Index(name = "idx_reservation_changed", columnList = "changed_at, reservation_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reservation_occurrence", columnNames = {"recurrence_id", "occurrence_date"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +39,10 @@ public class Reservation {
  
     @Column(nullable = false)
     private String vehicleNumber;
+
+    // vehicleNumber as PlateIndex.normalize spells it, so arrivals match however the plate was typed
+    @Column(name = "plate_key", length = 32)
+    private String plateKey;
  
     @Column(nullable = false)
     private LocalDateTime startTime;
@@ -40,5 +57,30 @@ public class Reservation {
     @Column(nullable = false)                    
     private String type;
 
+    // Set when this row is a materialized occurrence of a RecurringReservation
+    @Column(name = "recurrence_id")
+    private Long recurrenceId;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
+    // Set when the vehicle's entry was matched to this reservation
+    @Column(name = "arrived_at")
+    private LocalDateTime arrivedAt;
+
+    // Set when that vehicle's exit is reported; arrived but not departed after the end is an overstay
+    @Column(name = "departed_at")
+    private LocalDateTime departedAt;
+
+    // Kept by the database on every insert and update (JPA, JPQL and JDBC alike); drives the change feed
+    @Column(name = "changed_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime changedAt;
+
+    @PrePersist
+    @PreUpdate
+    void updatePlateKey() {
+        plateKey = PlateIndex.normalize(vehicleNumber);
+    }
 }
  
\ No newline at end of file
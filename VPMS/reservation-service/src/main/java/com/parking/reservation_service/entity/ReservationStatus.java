@@ -1,8 +1,15 @@
 package com.parking.reservation_service.entity;
  
+import java.util.EnumSet;
+import java.util.Set;
+ 
 public enum ReservationStatus {
     ACTIVE,
     CANCELLED,
-    COMPLETED
+    COMPLETED;
+ 
+    // States a reservation may move to this one from; CANCELLED and COMPLETED are final
+    public Set<ReservationStatus> allowedFrom() {
+        return this == ACTIVE ? EnumSet.noneOf(ReservationStatus.class) : EnumSet.of(ACTIVE);
+    }
 }
- 
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.parking.reservation_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * A time-bound lease held by one reservation-service instance. Used both for the
+ * expiry job's slot shards ("expiry-shard-N") and for instance heartbeats ("node:ID").
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+ 
+    @Id
+    @Column(length = 128)
+    private String name;
+ 
+    @Column(length = 128)
+    private String owner;
+ 
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,20 @@
+package com.parking.reservation_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+/**
+ * One row per slot, locked with SELECT ... FOR UPDATE while a booking for that slot
+ * is checked and inserted, so replicas of this service cannot double-book a slot.
+ */
+@Entity
+@Table(name = "slot_booking_guards")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotBookingGuard {
+ 
+    @Id
+    @Column(name = "slot_id")
+    private Long slotId;
+}
@@ -0,0 +1,54 @@
+package com.parking.reservation_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * A slot-service call recorded in the same transaction as the reservation change that
+ * caused it, and delivered later by the outbox relay. commandId is derived from the
+ * change (e.g. "release:42:CANCELLED"), so recording the same change twice is a no-op.
+ */
+@Entity
+@Table(name = "slot_outbox", indexes = {
+        @Index(name = "idx_slot_outbox_due", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotCommand {
+ 
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+ 
+    @Column(nullable = false, unique = true, length = 100)
+    private String commandId;
+ 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SlotCommandType type;
+ 
+    @Column(nullable = false)
+    private Long slotId;
+ 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+ 
+    @Column(nullable = false)
+    private int attempts;
+ 
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+ 
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+ 
+    private LocalDateTime deliveredAt;
+ 
+    @Column(length = 500)
+    private String lastError;
+}
@@ -0,0 +1,5 @@
+package com.parking.reservation_service.entity;
+ 
+public enum SlotCommandType {
+    MARK_AVAILABLE
+}
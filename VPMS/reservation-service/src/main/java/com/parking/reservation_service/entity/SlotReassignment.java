@@ -0,0 +1,45 @@
+package com.parking.reservation_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a booking moved to another slot before it started, e.g. because the previous
+ * vehicle overstayed on its original slot.
+ */
+@Entity
+@Table(name = "slot_reassignments", indexes = {
+        @Index(name = "idx_reassignment_at", columnList = "reassigned_at"),
+        @Index(name = "idx_reassignment_reservation", columnList = "reservation_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotReassignment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Column(name = "from_slot_id", nullable = false)
+    private Long fromSlotId;
+
+    @Column(name = "to_slot_id", nullable = false)
+    private Long toSlotId;
+
+    // The reservation still occupying the original slot
+    @Column(name = "blocking_reservation_id")
+    private Long blockingReservationId;
+
+    @Column(nullable = false, length = 32)
+    private String reason;
+
+    @Column(name = "reassigned_at", nullable = false)
+    private LocalDateTime reassignedAt;
+}
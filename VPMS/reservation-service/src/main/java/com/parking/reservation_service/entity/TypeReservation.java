@@ -0,0 +1,61 @@
+package com.parking.reservation_service.entity;
+
+import jakarta.persistence.*;
+import com.parking.reservation_service.arrival.PlateIndex;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * "Any 4W slot from 18:00 to 22:00". Admitted against the type's capacity counters; the
+ * concrete slot is picked when the vehicle arrives, which creates the linked Reservation.
+ */
+@Entity
+@Table(name = "type_reservations", indexes = {
+        @Index(name = "idx_type_reservation_plate_start", columnList = "plate_key, start_time"),
+        @Index(name = "idx_type_reservation_status_end", columnList = "status, end_time"),
+        @Index(name = "idx_type_reservation_reservation", columnList = "reservation_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TypeReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(name = "vehicle_number", nullable = false)
+    private String vehicleNumber;
+
+    // vehicleNumber as PlateIndex.normalize spells it
+    @Column(name = "plate_key", length = 32)
+    private String plateKey;
+
+    @Column(name = "slot_type", nullable = false, length = 16)
+    private String slotType;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+
+    // Set once a slot has been assigned at arrival
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    @PrePersist
+    @PreUpdate
+    void updatePlateKey() {
+        plateKey = PlateIndex.normalize(vehicleNumber);
+    }
+}
@@ -0,0 +1,37 @@
+package com.parking.reservation_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One cell of the utilization cube: booked minutes and booking starts of a slot type
+ * within one clock hour. Kept up to date incrementally by the UtilizationCube.
+ */
+@Entity
+@Table(name = "utilization_cube", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_utilization_hour_type", columnNames = {"bucket_hour", "slot_type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationCell {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private LocalDateTime bucketHour;
+
+    @Column(name = "slot_type", nullable = false, length = 16)
+    private String slotType;
+
+    @Column(name = "occupied_minutes", nullable = false)
+    private long occupiedMinutes;
+
+    // Reservations starting in this hour
+    @Column(nullable = false)
+    private long bookings;
+}
@@ -0,0 +1,58 @@
+package com.parking.reservation_service.entity;
+ 
+import jakarta.persistence.*;
+import lombok.*;
+ 
+import java.time.LocalDateTime;
+ 
+/**
+ * A customer waiting for any slot of a type over a window. When capacity frees up the
+ * entry is OFFERED a hold on a concrete slot, which the customer claims to book it.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_status_type", columnList = "status, type, start_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntry {
+ 
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+ 
+    @Column(nullable = false)
+    private Long userId;
+ 
+    @Column(nullable = false)
+    private String vehicleNumber;
+ 
+    // Slot type wanted, e.g. "4W"
+    @Column(nullable = false)
+    private String type;
+ 
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+ 
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+ 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status;
+ 
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+ 
+    // Set while OFFERED
+    private Long offeredSlotId;
+ 
+    private String holdId;
+ 
+    private LocalDateTime holdExpiresAt;
+ 
+    // Set once BOOKED
+    private Long reservationId;
+}
@@ -0,0 +1,9 @@
+package com.parking.reservation_service.entity;
+ 
+public enum WaitlistStatus {
+    WAITING,
+    OFFERED,
+    BOOKED,
+    EXPIRED,
+    CANCELLED
+}
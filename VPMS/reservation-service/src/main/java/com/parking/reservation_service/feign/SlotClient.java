@@ -1,12 +1,21 @@
 package com.parking.reservation_service.feign;
  
+import com.parking.reservation_service.dto.SlotListResponseDTO;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.List;
  
 @FeignClient(name = "slot-service", path = "/api/slots")
 public interface SlotClient {
+
+    @GetMapping
+    SlotListResponseDTO getAllSlots();
  
     @PutMapping("/mark-occupied/{slotId}")
     void markSlotOccupied(@PathVariable Long slotId);
@@ -14,6 +23,10 @@ public interface SlotClient {
     @PutMapping("/mark-available/{slotId}")
     void markSlotAvailable(@PathVariable Long slotId);
 
+    @PutMapping("/mark-available")
+    void markSlotsAvailable(@RequestHeader(value = "Authorization", required = false) String authorization,
+                            @RequestBody List<Long> slotIds);
+
     @PutMapping("/update-occupancy")
     void updateSlotOccupancy(
         @RequestParam("slotId") Long slotId,
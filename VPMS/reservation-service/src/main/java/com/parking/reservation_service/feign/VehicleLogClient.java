@@ -0,0 +1,18 @@
+package com.parking.reservation_service.feign;
+ 
+import com.parking.reservation_service.dto.EntryLookupRequestDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+ 
+import java.util.List;
+ 
+@FeignClient(name = "vehicle-log-service", path = "/api/vehicle-log")
+public interface VehicleLogClient {
+ 
+    // Keys of the items whose plate has an entry inside the item's window
+    @PostMapping("/entries/lookup")
+    List<Long> findEntries(@RequestHeader(value = "Authorization", required = false) String authorization,
+                           @RequestBody EntryLookupRequestDTO request);
+}
@@ -0,0 +1,111 @@
+package com.parking.reservation_service.finder;
+
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "which slots are free for this window" on the server.
+ *
+ * Candidate slots come from the cached {@link SlotDirectory}. Each candidate is checked
+ * against its in-memory interval tree in O(log n), its recurring rules and live holds, and
+ * the sweep stops as soon as {@code limit} free slots have been found. Slots pooled for
+ * any-slot bookings are never offered.
+ *
+ * The interval trees only see bookings made through this instance, so with the database
+ * guard on (the multi-replica setup) the slots that pass are confirmed with one indexed
+ * query per batch before they are returned. A slot booked elsewhere is dropped, its tree is
+ * reloaded on next use, and the sweep carries on to fill the gap.
+ */
+@Component
+public class FreeSlotFinder {
+
+    public static final int MAX_RESULTS = 100;
+
+    private final SlotDirectory slotDirectory;
+    private final SlotReservationIndex slotIndex;
+    private final RecurrenceIndex recurrenceIndex;
+    private final SlotHoldRegistry holds;
+    private final ReservationRepository reservationRepo;
+    private final boolean dbGuard;
+
+    public FreeSlotFinder(SlotDirectory slotDirectory,
+                          SlotReservationIndex slotIndex,
+                          RecurrenceIndex recurrenceIndex,
+                          SlotHoldRegistry holds,
+                          ReservationRepository reservationRepo,
+                          @Value("${reservation.booking.db-guard:true}") boolean dbGuard) {
+        this.slotDirectory = slotDirectory;
+        this.slotIndex = slotIndex;
+        this.recurrenceIndex = recurrenceIndex;
+        this.holds = holds;
+        this.reservationRepo = reservationRepo;
+        this.dbGuard = dbGuard;
+    }
+
+    public List<SlotDTO> findFree(LocalDateTime start, LocalDateTime end, String type, int limit) {
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        if (limit <= 0) {
+            throw new RuntimeException("Limit must be positive.");
+        }
+        int wanted = Math.min(limit, MAX_RESULTS);
+
+        List<SlotDTO> candidates = slotDirectory.slots(type);
+        List<SlotDTO> free = new ArrayList<>(Math.min(wanted, candidates.size()));
+        List<SlotDTO> unconfirmed = new ArrayList<>(wanted);
+        for (SlotDTO slot : candidates) {
+            if (!slotDirectory.isPooled(slot.getSlotId())
+                    && !slotIndex.hasConflict(slot.getSlotId(), start, end)
+                    && !holds.hasConflict(slot.getSlotId(), start, end, null)
+                    && !recurrenceIndex.hasConflict(slot.getSlotId(), start, end, null, null)) {
+                unconfirmed.add(slot);
+                if (free.size() + unconfirmed.size() == wanted) {
+                    confirm(unconfirmed, free, start, end);
+                    if (free.size() == wanted) {
+                        break;
+                    }
+                }
+            }
+        }
+        confirm(unconfirmed, free, start, end);
+        return free;
+    }
+
+    // Moves the slots that are also free in the database from unconfirmed to free
+    private void confirm(List<SlotDTO> unconfirmed, List<SlotDTO> free, LocalDateTime start, LocalDateTime end) {
+        if (unconfirmed.isEmpty()) {
+            return;
+        }
+        if (!dbGuard) {
+            free.addAll(unconfirmed);
+            unconfirmed.clear();
+            return;
+        }
+        Set<Long> booked = reservationRepo.findWindowsForSlots(
+                        unconfirmed.stream().map(SlotDTO::getSlotId).toList(), ReservationStatus.ACTIVE, start, end)
+                .stream().map(ReservationWindow::getSlotId).collect(Collectors.toSet());
+        for (SlotDTO slot : unconfirmed) {
+            if (booked.contains(slot.getSlotId())) {
+                slotIndex.invalidate(slot.getSlotId());
+            } else {
+                free.add(slot);
+            }
+        }
+        unconfirmed.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package com.parking.reservation_service.finder;
+
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.dto.SlotListResponseDTO;
+import com.parking.reservation_service.feign.SlotClient;
+import com.parking.reservation_service.index.SlotReservationIndex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Cached snapshot of slot-service's slot list, grouped by type.
+ *
+ * The whole list is fetched in one call and reused for {@code reservation.slots.snapshot-ttl-seconds}.
+ * Once it goes stale, one caller refreshes it while everyone else keeps reading the old copy.
+ * If slot-service is down, the stale snapshot keeps being served.
+ *
+ * {@code reservation.capacity.pools} (e.g. {@code 4W:10,2W:20}) sets aside the highest-numbered
+ * slots of a type for "any slot of this type" bookings; those are only assigned at arrival and
+ * can't be booked by id.
+ */
+@Slf4j
+@Component
+public class SlotDirectory {
+
+    private record Snapshot(List<SlotDTO> slots, Map<String, List<SlotDTO>> byType, Map<Long, SlotDTO> byId,
+                            Map<String, List<SlotDTO>> pooledByType, Set<Long> pooledIds, long loadedAtMillis) {
+    }
+
+    private final SlotClient slotClient;
+    private final SlotReservationIndex slotIndex;
+    private final long ttlMillis;
+    private final Map<String, Integer> poolSizes;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public SlotDirectory(SlotClient slotClient,
+                         SlotReservationIndex slotIndex,
+                         @Value("${reservation.slots.snapshot-ttl-seconds:60}") long ttlSeconds,
+                         @Value("${reservation.capacity.pools:}") String pools) {
+        this.slotClient = slotClient;
+        this.slotIndex = slotIndex;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.poolSizes = parsePools(pools);
+    }
+
+    // All slots ordered by id, or only those of the given type ("2W", "4W")
+    public List<SlotDTO> slots(String type) {
+        Snapshot current = current();
+        if (type == null || type.isBlank()) {
+            return current.slots();
+        }
+        return current.byType().getOrDefault(type.trim().toUpperCase(Locale.ROOT), List.of());
+    }
+
+    // The slot as last seen in the snapshot, or null if slot-service doesn't list it
+    public SlotDTO find(Long slotId) {
+        return current().byId().get(slotId);
+    }
+
+    // Slots of the type set aside for any-slot bookings, ordered by id
+    public List<SlotDTO> pooled(String type) {
+        if (type == null || poolSizes.isEmpty()) {
+            return List.of();
+        }
+        return current().pooledByType().getOrDefault(type.trim().toUpperCase(Locale.ROOT), List.of());
+    }
+
+    // True if the slot may only be assigned through an any-slot booking
+    public boolean isPooled(Long slotId) {
+        return slotId != null && !poolSizes.isEmpty() && current().pooledIds().contains(slotId);
+    }
+
+    private static Map<String, Integer> parsePools(String pools) {
+        Map<String, Integer> sizes = new HashMap<>();
+        if (pools == null || pools.isBlank()) {
+            return Map.of();
+        }
+        for (String pool : pools.split(",")) {
+            String[] parts = pool.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("reservation.capacity.pools entries must look like TYPE:SIZE, got " + pool);
+            }
+            sizes.put(parts[0].trim().toUpperCase(Locale.ROOT), Integer.parseInt(parts[1].trim()));
+        }
+        return Map.copyOf(sizes);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAtMillis() < ttlMillis) {
+            return current;
+        }
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return current;
+        }
+        try {
+            Snapshot latest = snapshot;
+            if (latest != current) {
+                return latest;
+            }
+            return refresh(current);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Snapshot refresh(Snapshot stale) {
+        List<SlotDTO> slots;
+        try {
+            SlotListResponseDTO response = slotClient.getAllSlots();
+            slots = response == null || response.getSlots() == null ? List.of() : response.getSlots();
+        } catch (Exception e) {
+            if (stale == null) {
+                throw new RuntimeException("Slot information is unavailable right now.");
+            }
+            log.warn("Could not refresh slot snapshot, serving the cached one: {}", e.getMessage());
+            return stale;
+        }
+
+        List<SlotDTO> sorted = slots.stream()
+                .filter(s -> s.getSlotId() != null)
+                .sorted(Comparator.comparing(SlotDTO::getSlotId))
+                .toList();
+        Map<String, List<SlotDTO>> byType = sorted.stream()
+                .filter(s -> s.getType() != null)
+                .collect(Collectors.groupingBy(s -> s.getType().trim().toUpperCase(Locale.ROOT), Collectors.toUnmodifiableList()));
+        Map<Long, SlotDTO> byId = sorted.stream().collect(Collectors.toUnmodifiableMap(SlotDTO::getSlotId, s -> s, (a, b) -> a));
+        // Load the reservation trees of new slots in bulk so the first search doesn't query slot by slot
+        slotIndex.preload(sorted.stream().map(SlotDTO::getSlotId).toList());
+
+        // The pool is the tail of each type's list, so adding slots grows the bookable part first
+        Map<String, List<SlotDTO>> pooledByType = new HashMap<>();
+        poolSizes.forEach((type, size) -> {
+            List<SlotDTO> ofType = byType.getOrDefault(type, List.of());
+            pooledByType.put(type, List.copyOf(ofType.subList(Math.max(0, ofType.size() - size), ofType.size())));
+        });
+        Set<Long> pooledIds = pooledByType.values().stream().flatMap(List::stream)
+                .map(SlotDTO::getSlotId).collect(Collectors.toUnmodifiableSet());
+
+        Snapshot fresh = new Snapshot(sorted, Map.copyOf(byType), byId, Map.copyOf(pooledByType), pooledIds,
+                System.currentTimeMillis());
+        snapshot = fresh;
+        return fresh;
+    }
+}
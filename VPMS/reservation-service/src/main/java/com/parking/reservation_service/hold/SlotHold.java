@@ -0,0 +1,33 @@
+package com.parking.reservation_service.hold;
+
+import com.parking.reservation_service.repository.ReservationWindow;
+
+import java.time.LocalDateTime;
+
+// A short-lived claim on a slot window; waitlistEntryId is set when it was offered to a waiter
+public record SlotHold(String holdId, Long slotId, LocalDateTime startTime, LocalDateTime endTime,
+                       Long userId, Long waitlistEntryId, long expiresAtMillis) implements ReservationWindow {
+
+    @Override
+    public Long getSlotId() {
+        return slotId;
+    }
+
+    @Override
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public boolean isLive(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return startTime.isBefore(end) && start.isBefore(endTime);
+    }
+}
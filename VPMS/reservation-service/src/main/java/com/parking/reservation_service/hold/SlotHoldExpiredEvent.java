@@ -0,0 +1,5 @@
+package com.parking.reservation_service.hold;
+
+// Published once for every hold that ran out without being converted or released
+public record SlotHoldExpiredEvent(SlotHold hold) {
+}
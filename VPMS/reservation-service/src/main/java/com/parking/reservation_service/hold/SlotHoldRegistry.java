@@ -0,0 +1,158 @@
+package com.parking.reservation_service.hold;
+
+import com.parking.reservation_service.scheduler.HierarchicalTimingWheel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory holds per slot. A live hold blocks overlapping bookings and holds; once its TTL
+ * passes it stops counting straight away, so holds never touch the database. Placing one
+ * goes through {@code ReservationBookingGuard.holdIfFree}, which makes the check against
+ * bookings and the insert atomic under the slot's stripe.
+ *
+ * Expiry deadlines sit in a {@link HierarchicalTimingWheel}, so the background sweep only
+ * visits holds that are actually due. Placed, converted, released and expired holds are
+ * counted under {@code reservation.holds.*}.
+ */
+@Component
+public class SlotHoldRegistry {
+
+    private record Entry(SlotHold hold, HierarchicalTimingWheel.Timeout<String> expiry) {
+    }
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentHashMap<String, Entry> byId = new ConcurrentHashMap<>();
+    // Copy-on-write per slot, so conflict checks read without locking
+    private final ConcurrentHashMap<Long, List<SlotHold>> bySlot = new ConcurrentHashMap<>();
+    // Guarded by itself
+    private final HierarchicalTimingWheel<String> wheel;
+
+    private final Counter placed;
+    private final Counter converted;
+    private final Counter released;
+    private final Counter expired;
+
+    public SlotHoldRegistry(ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.eventPublisher = eventPublisher;
+        // 64 one-second buckets over two levels covers about an hour; longer TTLs get re-filed
+        this.wheel = new HierarchicalTimingWheel<>(1000, 64, 2, System.currentTimeMillis());
+        this.placed = outcome(meterRegistry, "placed");
+        this.converted = outcome(meterRegistry, "converted");
+        this.released = outcome(meterRegistry, "released");
+        this.expired = outcome(meterRegistry, "expired");
+        Gauge.builder("reservation.holds.active", byId, ConcurrentHashMap::size)
+                .description("Holds currently blocking a slot window")
+                .register(meterRegistry);
+    }
+
+    // ignoredHoldId is the hold being converted into a booking, which never conflicts with itself
+    public boolean hasConflict(Long slotId, LocalDateTime start, LocalDateTime end, String ignoredHoldId) {
+        long now = System.currentTimeMillis();
+        for (SlotHold hold : bySlot.getOrDefault(slotId, List.of())) {
+            if (hold.isLive(now) && !hold.holdId().equals(ignoredHoldId) && hold.overlaps(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Live holds on the slot overlapping [from, to)
+    public List<SlotHold> windows(Long slotId, LocalDateTime from, LocalDateTime to) {
+        long now = System.currentTimeMillis();
+        return bySlot.getOrDefault(slotId, List.of()).stream()
+                .filter(h -> h.isLive(now) && h.overlaps(from, to))
+                .toList();
+    }
+
+    // Callers check for conflicts first; see ReservationBookingGuard.holdIfFree
+    public SlotHold place(Long slotId, LocalDateTime start, LocalDateTime end, Long userId,
+                          Long waitlistEntryId, Duration ttl) {
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), slotId, start, end, userId, waitlistEntryId,
+                System.currentTimeMillis() + ttl.toMillis());
+        bySlot.compute(slotId, (id, holds) -> {
+            List<SlotHold> updated = holds == null ? new ArrayList<>() : new ArrayList<>(holds);
+            updated.add(hold);
+            return List.copyOf(updated);
+        });
+        HierarchicalTimingWheel.Timeout<String> expiry;
+        synchronized (wheel) {
+            expiry = wheel.schedule(hold.expiresAtMillis(), hold.holdId());
+        }
+        byId.put(hold.holdId(), new Entry(hold, expiry));
+        placed.increment();
+        return hold;
+    }
+
+    // The hold if it exists and hasn't run out yet
+    public SlotHold find(String holdId) {
+        Entry entry = holdId == null ? null : byId.get(holdId);
+        return entry != null && entry.hold().isLive(System.currentTimeMillis()) ? entry.hold() : null;
+    }
+
+    // The hold was given up before it ran out
+    public boolean release(String holdId) {
+        return remove(holdId, released);
+    }
+
+    // The hold turned into a booking
+    public boolean convert(String holdId) {
+        return remove(holdId, converted);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.holds.purge-interval-ms:1000}")
+    public void purgeExpired() {
+        List<String> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advanceTo(System.currentTimeMillis(), timeout -> due.add(timeout.getPayload()));
+        }
+        for (String holdId : due) {
+            Entry entry = byId.get(holdId);
+            // remove(key, value) makes sure a concurrent release and the sweep don't both handle it
+            if (entry != null && byId.remove(holdId, entry)) {
+                drop(entry.hold());
+                expired.increment();
+                eventPublisher.publishEvent(new SlotHoldExpiredEvent(entry.hold()));
+            }
+        }
+    }
+
+    private boolean remove(String holdId, Counter outcome) {
+        Entry entry = holdId == null ? null : byId.remove(holdId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (wheel) {
+            wheel.cancel(entry.expiry());
+        }
+        drop(entry.hold());
+        outcome.increment();
+        return true;
+    }
+
+    private void drop(SlotHold hold) {
+        bySlot.computeIfPresent(hold.slotId(), (id, holds) -> {
+            List<SlotHold> updated = new ArrayList<>(holds);
+            updated.removeIf(h -> h.holdId().equals(hold.holdId()));
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("reservation.holds")
+                .tag("outcome", outcome)
+                .description("Slot holds by how they ended (or placed)")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,204 @@
+package com.parking.reservation_service.index;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Augmented AVL tree of half-open [start, end) intervals ordered by (start, id).
+ * Every node keeps the largest end in its subtree, which lets an overlap query
+ * follow a single root-to-leaf path, so inserts, removals and overlap checks are
+ * all O(log n).
+ *
+ * Not thread-safe: callers are expected to guard each tree themselves.
+ */
+public class IntervalTree {
+
+    private static final class Node {
+        final long id;
+        final long start;
+        final long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private final Map<Long, Node> byId = new HashMap<>();
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean contains(long id) {
+        return byId.containsKey(id);
+    }
+
+    // Inserts the interval, replacing any interval previously stored under the same id
+    public void insert(long id, long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Interval end must be after start");
+        }
+        remove(id);
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        byId.put(id, node);
+    }
+
+    public boolean remove(long id) {
+        Node node = byId.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, node.id);
+        return true;
+    }
+
+    // True if any stored interval intersects [start, end)
+    public boolean overlapsAny(long start, long end) {
+        Node x = root;
+        while (x != null) {
+            if (x.start < end && start < x.end) {
+                return true;
+            }
+            // If the left subtree reaches past start but holds no overlap, every interval
+            // there starts at or after end, and so does everything to the right of it.
+            if (x.left != null && x.left.maxEnd > start) {
+                x = x.left;
+            } else {
+                x = x.right;
+            }
+        }
+        return false;
+    }
+
+    // Overlap check that ignores one stored interval, e.g. the reservation being rescheduled
+    public boolean overlapsAnyExcept(long start, long end, long excludedId) {
+        Node excluded = byId.get(excludedId);
+        if (excluded == null) {
+            return overlapsAny(start, end);
+        }
+        remove(excludedId);
+        try {
+            return overlapsAny(start, end);
+        } finally {
+            insert(excluded.id, excluded.start, excluded.end);
+        }
+    }
+
+    public void clear() {
+        root = null;
+        byId.clear();
+    }
+
+    private static int compare(long startA, long idA, long startB, long idB) {
+        int c = Long.compare(startA, startB);
+        return c != 0 ? c : Long.compare(idA, idB);
+    }
+
+    private static Node insert(Node n, Node node) {
+        if (n == null) {
+            return node;
+        }
+        if (compare(node.start, node.id, n.start, n.id) < 0) {
+            n.left = insert(n.left, node);
+        } else {
+            n.right = insert(n.right, node);
+        }
+        return rebalance(n);
+    }
+
+    private static Node delete(Node n, long start, long id) {
+        if (n == null) {
+            return null;
+        }
+        int c = compare(start, id, n.start, n.id);
+        if (c < 0) {
+            n.left = delete(n.left, start, id);
+        } else if (c > 0) {
+            n.right = delete(n.right, start, id);
+        } else {
+            if (n.left == null) {
+                return n.right;
+            }
+            if (n.right == null) {
+                return n.left;
+            }
+            Node successor = n.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(n.right);
+            successor.left = n.left;
+            return rebalance(successor);
+        }
+        return rebalance(n);
+    }
+
+    private static Node deleteMin(Node n) {
+        if (n.left == null) {
+            return n.right;
+        }
+        n.left = deleteMin(n.left);
+        return rebalance(n);
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static void update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long max = n.end;
+        if (n.left != null && n.left.maxEnd > max) {
+            max = n.left.maxEnd;
+        }
+        if (n.right != null && n.right.maxEnd > max) {
+            max = n.right.maxEnd;
+        }
+        n.maxEnd = max;
+    }
+
+    private static Node rebalance(Node n) {
+        update(n);
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(n.left);
+            }
+            return rotateRight(n);
+        }
+        if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(n.right);
+            }
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+}
@@ -0,0 +1,151 @@
+package com.parking.reservation_service.index;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-slot interval trees of ACTIVE reservations. A slot's tree is loaded from the
+ * database the first time the slot is checked and is then kept in sync by the
+ * service on every create, update, cancel and completion.
+ *
+ * The trees only see changes made through this instance. With several replicas an
+ * answer is a hint: callers that act on it (the booking guard, the free-slot finder,
+ * holds) confirm it against the database and invalidate the slot when it was wrong.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotReservationIndex {
+
+    private static final int PRELOAD_BATCH = 1000;
+
+    private final ReservationRepository reservationRepo;
+    private final ConcurrentHashMap<Long, IntervalTree> trees = new ConcurrentHashMap<>();
+
+    // Slots written to while a bulk preload was running; their preloaded trees may be stale
+    private final Set<Long> touchedDuringPreload = ConcurrentHashMap.newKeySet();
+    private volatile boolean preloading;
+
+    public boolean hasConflict(Long slotId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree tree = tree(slotId);
+        synchronized (tree) {
+            return tree.overlapsAny(toKey(start), toKey(end));
+        }
+    }
+
+    // Same as hasConflict, but ignores the reservation being rescheduled
+    public boolean hasConflictExcluding(Long slotId, LocalDateTime start, LocalDateTime end, Long reservationId) {
+        IntervalTree tree = tree(slotId);
+        synchronized (tree) {
+            return tree.overlapsAnyExcept(toKey(start), toKey(end), reservationId);
+        }
+    }
+
+    // Reflects the reservation's current state: ACTIVE ones are (re)indexed, anything else is dropped
+    public void upsert(Reservation reservation) {
+        markTouched(reservation.getSlotId());
+        trees.computeIfPresent(reservation.getSlotId(), (slotId, tree) -> {
+            synchronized (tree) {
+                if (reservation.getStatus() == ReservationStatus.ACTIVE) {
+                    tree.insert(reservation.getReservationId(),
+                            toKey(reservation.getStartTime()), toKey(reservation.getEndTime()));
+                } else {
+                    tree.remove(reservation.getReservationId());
+                }
+            }
+            return tree;
+        });
+    }
+
+    // For bulk transitions that never load the entity
+    public void remove(Long slotId, Long reservationId) {
+        markTouched(slotId);
+        trees.computeIfPresent(slotId, (id, tree) -> {
+            synchronized (tree) {
+                tree.remove(reservationId);
+            }
+            return tree;
+        });
+    }
+
+    // Loads every missing tree among slotIds with one query per batch instead of one per slot
+    public synchronized void preload(Collection<Long> slotIds) {
+        List<Long> missing = slotIds.stream().filter(id -> !trees.containsKey(id)).distinct().toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        touchedDuringPreload.clear();
+        preloading = true;
+        try {
+            for (int from = 0; from < missing.size(); from += PRELOAD_BATCH) {
+                List<Long> batch = missing.subList(from, Math.min(from + PRELOAD_BATCH, missing.size()));
+                Map<Long, IntervalTree> loaded = new HashMap<>();
+                batch.forEach(id -> loaded.put(id, new IntervalTree()));
+                for (Reservation r : reservationRepo.findBySlotIdInAndStatus(batch, ReservationStatus.ACTIVE)) {
+                    insertLoaded(loaded.get(r.getSlotId()), r);
+                }
+                // A slot changed since the query ran is left to the lazy path
+                loaded.forEach((id, tree) -> {
+                    if (!touchedDuringPreload.contains(id)) {
+                        trees.putIfAbsent(id, tree);
+                    }
+                });
+            }
+        } finally {
+            preloading = false;
+            touchedDuringPreload.clear();
+        }
+    }
+
+    // Drops a slot's tree so the next check reloads it from the database
+    public void invalidate(Long slotId) {
+        trees.remove(slotId);
+    }
+
+    private void markTouched(Long slotId) {
+        if (preloading) {
+            touchedDuringPreload.add(slotId);
+        }
+    }
+
+    private IntervalTree tree(Long slotId) {
+        return trees.computeIfAbsent(slotId, this::load);
+    }
+
+    private IntervalTree load(Long slotId) {
+        IntervalTree tree = new IntervalTree();
+        for (Reservation r : reservationRepo.findBySlotIdAndStatus(slotId, ReservationStatus.ACTIVE)) {
+            insertLoaded(tree, r);
+        }
+        return tree;
+    }
+
+    // Rows written before windows were validated may have no window or an empty one; they are
+    // left out (and still caught by the database check) rather than failing the whole slot
+    private void insertLoaded(IntervalTree tree, Reservation r) {
+        if (r.getStartTime() == null || r.getEndTime() == null || !r.getEndTime().isAfter(r.getStartTime())) {
+            log.warn("Not indexing reservation {} on slot {}: invalid window {} - {}",
+                    r.getReservationId(), r.getSlotId(), r.getStartTime(), r.getEndTime());
+            return;
+        }
+        tree.insert(r.getReservationId(), toKey(r.getStartTime()), toKey(r.getEndTime()));
+    }
+
+    static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
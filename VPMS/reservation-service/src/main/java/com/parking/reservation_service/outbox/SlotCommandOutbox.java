@@ -0,0 +1,63 @@
+package com.parking.reservation_service.outbox;
+
+import com.parking.reservation_service.entity.OutboxStatus;
+import com.parking.reservation_service.entity.SlotCommand;
+import com.parking.reservation_service.entity.SlotCommandType;
+import com.parking.reservation_service.repository.SlotCommandRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records slot-service commands in the caller's transaction, so a command exists exactly
+ * when the reservation change that caused it commits. {@link SlotCommandRelay} delivers them.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotCommandOutbox {
+
+    private final SlotCommandRepository commandRepo;
+
+    // Release the slot held by a reservation that has just become CANCELLED or COMPLETED
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseSlot(Long reservationId, Long slotId, String reason) {
+        releaseSlots(Map.of(reservationId, slotId), reason);
+    }
+
+    // Bulk form of releaseSlot: reservationId -> slotId
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseSlots(Map<Long, Long> slotByReservation, String reason) {
+        if (slotByReservation.isEmpty()) {
+            return;
+        }
+        Map<String, Long> byCommandId = new LinkedHashMap<>();
+        slotByReservation.forEach((reservationId, slotId) ->
+                byCommandId.put("release:" + reservationId + ":" + reason, slotId));
+        Set<String> existing = commandRepo.findExistingCommandIds(byCommandId.keySet());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotCommand> commands = new ArrayList<>(byCommandId.size());
+        byCommandId.forEach((commandId, slotId) -> {
+            if (!existing.contains(commandId)) {
+                commands.add(SlotCommand.builder()
+                        .commandId(commandId)
+                        .type(SlotCommandType.MARK_AVAILABLE)
+                        .slotId(slotId)
+                        .status(OutboxStatus.PENDING)
+                        .createdAt(now)
+                        .nextAttemptAt(now)
+                        .build());
+            }
+        });
+        commandRepo.saveAll(commands);
+    }
+}
@@ -0,0 +1,214 @@
+package com.parking.reservation_service.outbox;
+
+import com.parking.reservation_service.entity.OutboxStatus;
+import com.parking.reservation_service.entity.SlotCommand;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.feign.SlotClient;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.SlotCommandRepository;
+import com.parking.reservation_service.security.ServiceTokenProvider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivers outbox commands to slot-service in batches.
+ *
+ * Each run claims a batch of due commands (FOR UPDATE SKIP LOCKED, so replicas split the
+ * work) by pushing their next attempt claim-seconds out, and commits. It then releases
+ * their distinct slots with one bulk call, holding no locks or connection, and marks them
+ * DELIVERED in a second short transaction. When the call fails, every command in the batch
+ * is retried with exponential backoff and jitter. After {@code reservation.outbox.max-attempts}
+ * tries a command is parked as FAILED. A relay that dies mid-batch leaves the claim to
+ * expire and the batch is picked up again. A late delivery must not free a slot someone is
+ * using again, so when a batch is claimed, commands whose slot now holds a parked vehicle or
+ * a booking in progress are settled as DELIVERED without being sent, noting why.
+ *
+ * Calls go out with the reservation.service-account token, as there is no request to
+ * forward one from. Without that account nothing could ever be delivered, so startup fails.
+ */
+@Slf4j
+@Component
+public class SlotCommandRelay {
+
+    private final SlotCommandRepository commandRepo;
+    private final ReservationRepository reservationRepo;
+    private final SlotClient slotClient;
+    private final ServiceTokenProvider serviceToken;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long claimSeconds;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final int retentionHours;
+
+    private final Counter deliveredCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Counter supersededCounter;
+
+    public SlotCommandRelay(SlotCommandRepository commandRepo,
+                            ReservationRepository reservationRepo,
+                            SlotClient slotClient,
+                            ServiceTokenProvider serviceToken,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${reservation.outbox.batch-size:200}") int batchSize,
+                            @Value("${reservation.outbox.claim-seconds:60}") long claimSeconds,
+                            @Value("${reservation.outbox.max-attempts:12}") int maxAttempts,
+                            @Value("${reservation.outbox.backoff-base-ms:1000}") long baseBackoffMs,
+                            @Value("${reservation.outbox.backoff-max-ms:300000}") long maxBackoffMs,
+                            @Value("${reservation.outbox.retention-hours:24}") int retentionHours) {
+        if (claimSeconds <= 0) {
+            throw new IllegalArgumentException("reservation.outbox.claim-seconds must be positive");
+        }
+        if (!serviceToken.isConfigured()) {
+            throw new IllegalStateException("reservation.service-account must name a STAFF or ADMIN account;"
+                    + " without it cancelled and completed reservations never release their slots");
+        }
+        this.commandRepo = commandRepo;
+        this.reservationRepo = reservationRepo;
+        this.slotClient = slotClient;
+        this.serviceToken = serviceToken;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.claimSeconds = claimSeconds;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retentionHours = retentionHours;
+        this.deliveredCounter = Counter.builder("reservation.outbox.delivered").register(meterRegistry);
+        this.retryCounter = Counter.builder("reservation.outbox.retries").register(meterRegistry);
+        this.failedCounter = Counter.builder("reservation.outbox.failed")
+                .description("Commands given up on after the maximum number of attempts")
+                .register(meterRegistry);
+        this.supersededCounter = Counter.builder("reservation.outbox.superseded")
+                .description("Releases dropped because the slot was in use again")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        String authorization;
+        try {
+            authorization = serviceToken.authorization();
+        } catch (Exception e) {
+            log.warn("Could not issue the service token, will retry: {}", e.getMessage());
+            return;
+        }
+        int delivered;
+        do {
+            delivered = relayBatch(authorization);
+        } while (delivered == batchSize);
+    }
+
+    // Returns how many commands were settled; 0 when nothing was due or the call failed
+    private int relayBatch(String authorization) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Boolean, List<SlotCommand>> claimed;
+        try {
+            claimed = transactionTemplate.execute(tx -> {
+                List<SlotCommand> locked = commandRepo.lockDue(now, batchSize);
+                if (locked.isEmpty()) {
+                    return Map.of();
+                }
+                Set<Long> inUse = reservationRepo.findSlotsInUse(
+                        locked.stream().map(SlotCommand::getSlotId).distinct().toList(), ReservationStatus.ACTIVE, now);
+                Map<Boolean, List<SlotCommand>> split = locked.stream()
+                        .collect(Collectors.partitioningBy(command -> inUse.contains(command.getSlotId())));
+                if (!split.get(true).isEmpty()) {
+                    commandRepo.markSkipped(split.get(true).stream().map(SlotCommand::getId).toList(),
+                            OutboxStatus.DELIVERED, now, "Not sent: slot in use again");
+                }
+                if (!split.get(false).isEmpty()) {
+                    commandRepo.claim(split.get(false).stream().map(SlotCommand::getId).toList(),
+                            now.plusSeconds(claimSeconds));
+                }
+                return split;
+            });
+        } catch (Exception e) {
+            log.error("Could not claim slot commands", e);
+            return 0;
+        }
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        List<SlotCommand> superseded = claimed.get(true);
+        if (!superseded.isEmpty()) {
+            supersededCounter.increment(superseded.size());
+            log.info("Not releasing slots {}: in use again", superseded.stream().map(SlotCommand::getSlotId).distinct().toList());
+        }
+        List<SlotCommand> due = claimed.get(false);
+        if (due.isEmpty()) {
+            return superseded.size();
+        }
+
+        // Only MARK_AVAILABLE exists today, so the whole batch is one bulk release
+        List<Long> slotIds = due.stream().map(SlotCommand::getSlotId).distinct().toList();
+        try {
+            slotClient.markSlotsAvailable(authorization, slotIds);
+        } catch (Exception e) {
+            log.warn("Could not release slots {}, will retry: {}", slotIds, e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(tx -> due.forEach(command -> scheduleRetry(command, now, e)));
+            } catch (Exception retryError) {
+                // The claim runs out and the batch comes round again
+                log.error("Could not schedule slot command retries", retryError);
+            }
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> commandRepo.markDelivered(
+                    due.stream().map(SlotCommand::getId).toList(), OutboxStatus.DELIVERED, LocalDateTime.now()));
+        } catch (Exception e) {
+            // Delivered but not recorded: redelivered once the claim runs out, which is harmless
+            log.error("Could not mark slot commands delivered", e);
+            return 0;
+        }
+        deliveredCounter.increment(due.size());
+        return due.size() + superseded.size();
+    }
+
+    private void scheduleRetry(SlotCommand command, LocalDateTime now, Exception cause) {
+        int attempts = command.getAttempts() + 1;
+        String message = String.valueOf(cause.getMessage());
+        String lastError = message.length() > 500 ? message.substring(0, 500) : message;
+        if (attempts >= maxAttempts) {
+            commandRepo.recordFailure(command.getId(), OutboxStatus.PENDING, OutboxStatus.FAILED, attempts,
+                    command.getNextAttemptAt(), lastError);
+            failedCounter.increment();
+            log.error("Giving up on slot command {} after {} attempts", command.getCommandId(), attempts);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempts - 1, 20));
+        long jitter = ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+        commandRepo.recordFailure(command.getId(), OutboxStatus.PENDING, OutboxStatus.PENDING, attempts,
+                now.plusNanos((backoff + jitter) * 1_000_000), lastError);
+        retryCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.outbox.cleanup-ms:3600000}")
+    public void purgeDelivered() {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> commandRepo.deleteDeliveredBefore(
+                    OutboxStatus.DELIVERED, LocalDateTime.now().minusHours(retentionHours)));
+        } catch (Exception e) {
+            log.warn("Could not purge delivered slot commands: {}", e.getMessage());
+        }
+    }
+}
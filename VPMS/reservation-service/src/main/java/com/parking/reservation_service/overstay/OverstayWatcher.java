@@ -0,0 +1,162 @@
+package com.parking.reservation_service.overstay;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.scheduler.ReservationsCompletedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Moves upcoming bookings off slots whose previous vehicle is still parked.
+ *
+ * Nothing scans the reservations table: a slot is only watched once a completed reservation
+ * on it is known to have arrived and not departed (from the completion event, or from the
+ * database once at startup), and it stops being watched when the departure is reported or
+ * after max-hours. For each watched slot that has been overstayed for longer than grace,
+ * the bookings starting on it within lookahead whose vehicle hasn't arrived yet are moved
+ * to a free slot of the same type.
+ */
+@Slf4j
+@Component
+public class OverstayWatcher {
+
+    public static final String REASON = "OVERSTAY";
+
+    record Overstay(Long reservationId, Long slotId, LocalDateTime endTime) {
+    }
+
+    private final ReservationRepository reservationRepo;
+    private final SlotReassigner reassigner;
+    private final Duration grace;
+    private final Duration lookahead;
+    private final Duration maxOverstay;
+
+    // slotId -> the reservation still parked on it after its end
+    private final ConcurrentHashMap<Long, Overstay> overstays = new ConcurrentHashMap<>();
+    // Bookings already reported as impossible to move, so each is only logged once
+    private final Set<Long> unresolved = ConcurrentHashMap.newKeySet();
+
+    private final Counter reassignedCounter;
+    private final Counter unresolvedCounter;
+
+    public OverstayWatcher(ReservationRepository reservationRepo,
+                           SlotReassigner reassigner,
+                           MeterRegistry meterRegistry,
+                           @Value("${reservation.overstay.grace-minutes:5}") long graceMinutes,
+                           @Value("${reservation.overstay.lookahead-minutes:60}") long lookaheadMinutes,
+                           @Value("${reservation.overstay.max-hours:24}") long maxHours) {
+        this.reservationRepo = reservationRepo;
+        this.reassigner = reassigner;
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.lookahead = Duration.ofMinutes(lookaheadMinutes);
+        this.maxOverstay = Duration.ofHours(maxHours);
+        this.reassignedCounter = Counter.builder("reservation.overstay.reassigned")
+                .description("Upcoming bookings moved off an overstayed slot")
+                .register(meterRegistry);
+        this.unresolvedCounter = Counter.builder("reservation.overstay.unresolved")
+                .description("Upcoming bookings on an overstayed slot with no free slot to move to")
+                .register(meterRegistry);
+        Gauge.builder("reservation.overstay.slots", overstays, ConcurrentHashMap::size)
+                .description("Slots still occupied after their reservation ended")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onCompleted(ReservationsCompletedEvent event) {
+        try {
+            reservationRepo.findStillParked(event.reservationIds()).forEach(this::watch);
+        } catch (Exception e) {
+            log.warn("Could not check completed reservations for overstays: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            reservationRepo.findOverstaying(ReservationStatus.COMPLETED, now.minus(maxOverstay), now)
+                    .forEach(this::watch);
+        } catch (Exception e) {
+            log.warn("Could not load overstays: {}", e.getMessage());
+        }
+    }
+
+    // The vehicle of this reservation has left, so its slot is free again
+    public void departed(Long reservationId) {
+        overstays.values().removeIf(o -> o.reservationId().equals(reservationId));
+    }
+
+    public boolean isOverstayed(Long slotId) {
+        return overstays.containsKey(slotId);
+    }
+
+    // Returns how many bookings were moved
+    @Scheduled(fixedDelayString = "${reservation.overstay.check-ms:30000}")
+    public int check() {
+        if (overstays.isEmpty()) {
+            unresolved.clear();
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        overstays.values().removeIf(o -> o.endTime().isBefore(now.minus(maxOverstay)));
+        List<Overstay> due = overstays.values().stream()
+                .filter(o -> !o.endTime().plus(grace).isAfter(now))
+                .toList();
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        // Departures reported to another replica only show up in the database
+        Set<Long> parked = reservationRepo.findStillParked(due.stream().map(Overstay::reservationId).toList())
+                .stream().map(Reservation::getReservationId).collect(Collectors.toSet());
+        due.stream().filter(o -> !parked.contains(o.reservationId())).forEach(o -> overstays.remove(o.slotId(), o));
+
+        Set<Long> blocked = Set.copyOf(overstays.keySet());
+        int moved = 0;
+        for (Overstay overstay : due) {
+            if (!parked.contains(overstay.reservationId())) {
+                continue;
+            }
+            for (Reservation next : reservationRepo.findAwaitingOnSlot(overstay.slotId(), ReservationStatus.ACTIVE,
+                    overstay.endTime(), now.plus(lookahead))) {
+                try {
+                    if (reassigner.reassign(next, overstay.reservationId(), REASON, blocked) != null) {
+                        reassignedCounter.increment();
+                        unresolved.remove(next.getReservationId());
+                        moved++;
+                    } else if (unresolved.add(next.getReservationId())) {
+                        unresolvedCounter.increment();
+                        log.warn("Slot {} is still occupied by reservation {} and no slot is free for reservation {}",
+                                overstay.slotId(), overstay.reservationId(), next.getReservationId());
+                    }
+                } catch (Exception e) {
+                    log.error("Could not reassign reservation {} off slot {}", next.getReservationId(),
+                            overstay.slotId(), e);
+                }
+            }
+        }
+        return moved;
+    }
+
+    private void watch(Reservation r) {
+        // A later reservation on the slot replaces an earlier one; only the latest can still be parked
+        overstays.merge(r.getSlotId(), new Overstay(r.getReservationId(), r.getSlotId(), r.getEndTime()),
+                (current, next) -> next.endTime().isAfter(current.endTime()) ? next : current);
+    }
+}
@@ -0,0 +1,75 @@
+package com.parking.reservation_service.overstay;
+
+import com.parking.reservation_service.arrival.PlateIndex;
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.SlotReassignment;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.repository.SlotReassignmentRepository;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves an upcoming booking off a slot that won't be free in time.
+ *
+ * Candidates are slots of the same type that are free for the booking's whole window, as
+ * found by the interval index; the first one the booking guard can move it to wins. Every
+ * move is written to slot_reassignments.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotReassigner {
+
+    private static final int CANDIDATES = 10;
+
+    private final SlotDirectory slotDirectory;
+    private final FreeSlotFinder freeSlotFinder;
+    private final ReservationBookingGuard bookingGuard;
+    private final SlotReassignmentRepository reassignmentRepo;
+    private final ReservationTimerScheduler reservationTimers;
+    private final UtilizationCube utilizationCube;
+    private final PlateIndex plateIndex;
+
+    // The slot the booking now has, or null if no compatible slot outside "avoid" is free for its window
+    public Long reassign(Reservation reservation, Long blockingReservationId, String reason, Set<Long> avoid) {
+        Long fromSlotId = reservation.getSlotId();
+        SlotDTO slot = slotDirectory.find(fromSlotId);
+        String type = slot != null ? slot.getType() : reservation.getType();
+        List<SlotDTO> candidates = freeSlotFinder.findFree(reservation.getStartTime(), reservation.getEndTime(),
+                type, CANDIDATES + avoid.size());
+        for (SlotDTO candidate : candidates) {
+            if (candidate.getSlotId().equals(fromSlotId) || avoid.contains(candidate.getSlotId())
+                    || !bookingGuard.moveIfFree(reservation, candidate.getSlotId())) {
+                continue;
+            }
+            utilizationCube.remove(fromSlotId, reservation.getStartTime(), reservation.getEndTime());
+            reservation.setSlotId(candidate.getSlotId());
+            utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+            reservationTimers.track(reservation);
+            plateIndex.put(reservation);
+            reassignmentRepo.save(SlotReassignment.builder()
+                    .reservationId(reservation.getReservationId())
+                    .fromSlotId(fromSlotId)
+                    .toSlotId(candidate.getSlotId())
+                    .blockingReservationId(blockingReservationId)
+                    .reason(reason)
+                    .reassignedAt(LocalDateTime.now())
+                    .build());
+            log.info("Moved reservation {} from slot {} to slot {} ({})",
+                    reservation.getReservationId(), fromSlotId, candidate.getSlotId(), reason);
+            return candidate.getSlotId();
+        }
+        return null;
+    }
+}
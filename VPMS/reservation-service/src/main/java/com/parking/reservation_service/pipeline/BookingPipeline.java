@@ -0,0 +1,230 @@
+package com.parking.reservation_service.pipeline;
+
+import com.parking.reservation_service.booking.BulkReservationBooker;
+import com.parking.reservation_service.dto.BulkReservationItemDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional single-writer booking mode for flash crowds (reservation.pipeline.enabled).
+ *
+ * Booking commands go into one of N bounded ring buffers, picked by slot id, and each
+ * buffer is drained by its own writer thread. A slot therefore only ever has one writer
+ * in this instance, so its lock stripe and guard row are never contended from here.
+ * The writer takes whatever has queued up (up to batch-size) and books it as one
+ * best-effort batch through {@link BulkReservationBooker}, which checks the batch
+ * against existing bookings and against itself and inserts the accepted ones with one
+ * batched statement. Under load the batches grow, so throughput scales with partitions
+ * instead of collapsing on lock waits.
+ *
+ * Callers get a ticket whose future completes with the booking or the rejection. Tickets
+ * stay around for polling until result-ttl after they complete. A full buffer rejects the
+ * command right away rather than queueing without bound.
+ */
+@Slf4j
+@Component
+public class BookingPipeline {
+
+    public record Ticket(String ticketId, CompletableFuture<Reservation> result) {
+    }
+
+    private record Command(ReservationRequestDTO request, Ticket ticket) {
+    }
+
+    private final BulkReservationBooker bulkBooker;
+    private final ReservationTimerScheduler reservationTimers;
+    private final UtilizationCube utilizationCube;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long resultTtlMillis;
+    private final ArrayBlockingQueue<Command>[] partitions;
+    private final Thread[] writers;
+    private final DistributionSummary batchSizes;
+
+    // ticketId -> ticket, and ticketId -> when its result became available
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> completedAt = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    @SuppressWarnings("unchecked")
+    public BookingPipeline(BulkReservationBooker bulkBooker,
+                           ReservationTimerScheduler reservationTimers,
+                           UtilizationCube utilizationCube,
+                           MeterRegistry meterRegistry,
+                           @Value("${reservation.pipeline.enabled:false}") boolean enabled,
+                           @Value("${reservation.pipeline.partitions:8}") int partitionCount,
+                           @Value("${reservation.pipeline.queue-capacity:1024}") int queueCapacity,
+                           @Value("${reservation.pipeline.batch-size:100}") int batchSize,
+                           @Value("${reservation.pipeline.result-ttl-minutes:10}") long resultTtlMinutes) {
+        if (partitionCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("reservation.pipeline partitions and queue-capacity must be positive");
+        }
+        if (batchSize <= 0 || batchSize > BulkReservationBooker.MAX_ITEMS) {
+            throw new IllegalArgumentException("reservation.pipeline.batch-size must be between 1 and "
+                    + BulkReservationBooker.MAX_ITEMS);
+        }
+        this.bulkBooker = bulkBooker;
+        this.reservationTimers = reservationTimers;
+        this.utilizationCube = utilizationCube;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.resultTtlMillis = TimeUnit.MINUTES.toMillis(resultTtlMinutes);
+        this.partitions = new ArrayBlockingQueue[partitionCount];
+        this.writers = new Thread[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new ArrayBlockingQueue<>(queueCapacity);
+        }
+        this.batchSizes = DistributionSummary.builder("reservation.pipeline.batch.size")
+                .description("Booking commands written per micro-batch")
+                .register(meterRegistry);
+        Gauge.builder("reservation.pipeline.queued", this, BookingPipeline::queued)
+                .description("Booking commands waiting for their partition's writer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < partitions.length; i++) {
+            int partition = i;
+            writers[i] = new Thread(() -> drain(partition), "booking-writer-" + i);
+            writers[i].setDaemon(true);
+            writers[i].start();
+        }
+        log.info("Booking pipeline started with {} partitions", partitions.length);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Thread writer : writers) {
+            if (writer != null) {
+                writer.interrupt();
+            }
+        }
+    }
+
+    // Queues a validated booking; TaskRejectedException when the pipeline can't take it right now
+    public Ticket submit(ReservationRequestDTO request) {
+        if (request.getUserId() == null || request.getSlotId() == null) {
+            throw new RuntimeException("User and slot are required.");
+        }
+        if (!running) {
+            throw new TaskRejectedException("Booking pipeline is not running.");
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), new CompletableFuture<>());
+        tickets.put(ticket.ticketId(), ticket);
+        if (!partitions[partitionOf(request.getSlotId())].offer(new Command(request, ticket))) {
+            tickets.remove(ticket.ticketId());
+            throw new TaskRejectedException("Too many bookings in progress, please retry shortly.");
+        }
+        ticket.result().whenComplete((r, e) -> completedAt.put(ticket.ticketId(), System.currentTimeMillis()));
+        return ticket;
+    }
+
+    public Ticket find(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    int partitionOf(long slotId) {
+        return Math.floorMod(Long.hashCode(slotId), partitions.length);
+    }
+
+    private void drain(int partition) {
+        ArrayBlockingQueue<Command> queue = partitions[partition];
+        List<Command> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                log.error("Booking writer {} could not write a batch of {}", partition, batch.size(), e);
+                batch.forEach(c -> c.ticket().result().completeExceptionally(
+                        new RuntimeException("Booking failed, please retry.")));
+            }
+            batch.clear();
+        }
+        // Whatever is still queued on shutdown is not going to be written
+        queue.drainTo(batch);
+        batch.forEach(c -> c.ticket().result().completeExceptionally(
+                new RuntimeException("Booking pipeline is shutting down.")));
+    }
+
+    private void write(List<Command> batch) {
+        batchSizes.record(batch.size());
+        BulkReservationBooker.Result result = bulkBooker.book(
+                batch.stream().map(Command::request).toList(), false);
+
+        Map<Long, Reservation> booked = result.booked().stream()
+                .collect(Collectors.toMap(Reservation::getReservationId, Function.identity()));
+        for (Reservation reservation : result.booked()) {
+            reservationTimers.track(reservation);
+            utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+        }
+        for (BulkReservationItemDTO item : result.items()) {
+            CompletableFuture<Reservation> future = batch.get(item.getIndex()).ticket().result();
+            if (item.getReservationId() != null) {
+                future.complete(booked.get(item.getReservationId()));
+            } else {
+                future.completeExceptionally(new RuntimeException(item.getMessage()));
+            }
+        }
+    }
+
+    // Forgets tickets whose result has been available for longer than the TTL
+    @Scheduled(fixedDelayString = "${reservation.pipeline.purge-interval-ms:60000}")
+    public void purge() {
+        long cutoff = System.currentTimeMillis() - resultTtlMillis;
+        completedAt.entrySet().removeIf(e -> {
+            if (e.getValue() < cutoff) {
+                tickets.remove(e.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private double queued() {
+        return Arrays.stream(partitions).mapToInt(ArrayBlockingQueue::size).sum();
+    }
+}
@@ -0,0 +1,21 @@
+package com.parking.reservation_service.pipeline;
+
+import com.parking.reservation_service.dto.BookingTicketDTO;
+
+/**
+ * A direct booking outlived its wait in the pipeline. The request is still queued; the
+ * caller gets the ticket to poll, as if it had been queued through /queued.
+ */
+public class BookingQueuedException extends RuntimeException {
+
+    private final BookingTicketDTO ticket;
+
+    public BookingQueuedException(BookingTicketDTO ticket) {
+        super("Booking is still queued as ticket " + ticket.getTicketId() + ".");
+        this.ticket = ticket;
+    }
+
+    public BookingTicketDTO getTicket() {
+        return ticket;
+    }
+}
@@ -0,0 +1,24 @@
+package com.parking.reservation_service.recurrence;
+
+import com.parking.reservation_service.repository.ReservationWindow;
+
+import java.time.LocalDateTime;
+
+// A recurring reservation occurrence expanded for a query window
+public record OccurrenceWindow(Long slotId, LocalDateTime startTime, LocalDateTime endTime) implements ReservationWindow {
+
+    @Override
+    public Long getSlotId() {
+        return slotId;
+    }
+
+    @Override
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+}
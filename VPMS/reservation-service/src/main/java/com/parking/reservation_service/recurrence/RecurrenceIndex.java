@@ -0,0 +1,130 @@
+package com.parking.reservation_service.recurrence;
+
+import com.parking.reservation_service.entity.RecurrenceSkip;
+import com.parking.reservation_service.entity.RecurringReservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.MaterializedOccurrence;
+import com.parking.reservation_service.repository.RecurrenceSkipRepository;
+import com.parking.reservation_service.repository.RecurringReservationRepository;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-slot cache of live recurring reservation rules, loaded from the database the first time
+ * a slot is checked. Conflict checks, the free-slot finder, the calendar and bulk booking ask
+ * it for occurrences inside the window they care about instead of reading occurrence rows.
+ *
+ * The cache only keeps exclusions (skips and materialized occurrences) from yesterday on.
+ * A range starting earlier, e.g. a calendar of last month, is served by rules and exclusions
+ * read for that range alone, without touching the cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecurrenceIndex {
+
+    private final RecurringReservationRepository ruleRepo;
+    private final RecurrenceSkipRepository skipRepo;
+    private final ReservationRepository reservationRepo;
+    private final ConcurrentHashMap<Long, List<RecurrenceRule>> rulesBySlot = new ConcurrentHashMap<>();
+
+    // selfRuleId/selfDate identify the occurrence a reservation stands in for, which never conflicts with itself
+    public boolean hasConflict(Long slotId, LocalDateTime start, LocalDateTime end, Long selfRuleId, LocalDate selfDate) {
+        for (RecurrenceRule rule : rules(slotId)) {
+            LocalDate ignored = Objects.equals(selfRuleId, rule.getId()) ? selfDate : null;
+            if (rule.overlaps(start, end, ignored)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<ReservationWindow> windows(Long slotId, LocalDateTime from, LocalDateTime to) {
+        LocalDate since = from.toLocalDate();
+        List<RecurrenceRule> rules = since.isBefore(horizon()) ? load(slotId, since) : rules(slotId);
+        List<ReservationWindow> windows = new ArrayList<>();
+        for (RecurrenceRule rule : rules) {
+            for (LocalDateTime[] o : rule.occurrencesBetween(from, to)) {
+                windows.add(new OccurrenceWindow(slotId, o[0], o[1]));
+            }
+        }
+        return windows;
+    }
+
+    // Occurrences of every slot's rules overlapping [from, to)
+    public List<ReservationWindow> windowsBetween(LocalDateTime from, LocalDateTime to) {
+        List<ReservationWindow> windows = new ArrayList<>();
+        for (Long slotId : ruleRepo.findSlotsWithRulesBetween(ReservationStatus.ACTIVE, from.toLocalDate(), to.toLocalDate())) {
+            windows.addAll(windows(slotId, from, to));
+        }
+        return windows;
+    }
+
+    // Reflects a created or cancelled rule in a slot that is already cached
+    public void put(RecurringReservation rule) {
+        rulesBySlot.computeIfPresent(rule.getSlotId(), (slotId, rules) -> {
+            List<RecurrenceRule> updated = new ArrayList<>(rules);
+            updated.removeIf(r -> r.getId() == rule.getId());
+            if (rule.getStatus() == ReservationStatus.ACTIVE) {
+                updated.add(RecurrenceRule.of(rule, List.of()));
+            }
+            return List.copyOf(updated);
+        });
+    }
+
+    // The occurrence is skipped or now lives as its own Reservation row
+    public void exclude(Long slotId, Long ruleId, LocalDate date) {
+        List<RecurrenceRule> rules = rulesBySlot.get(slotId);
+        if (rules != null) {
+            rules.stream().filter(r -> r.getId() == ruleId).forEach(r -> r.exclude(date));
+        }
+    }
+
+    // Re-reads the slot's rules, e.g. under the booking guard where other replicas' rules must be seen
+    public void reload(Long slotId) {
+        rulesBySlot.put(slotId, load(slotId));
+    }
+
+    private List<RecurrenceRule> rules(Long slotId) {
+        return rulesBySlot.computeIfAbsent(slotId, this::load);
+    }
+
+    // Exclusions before yesterday can no longer matter for a booking
+    private static LocalDate horizon() {
+        return LocalDate.now().minusDays(1);
+    }
+
+    private List<RecurrenceRule> load(Long slotId) {
+        return load(slotId, horizon());
+    }
+
+    // The slot's rules with occurrences from "since" on, with their exclusions from then on
+    private List<RecurrenceRule> load(Long slotId, LocalDate since) {
+        List<RecurringReservation> rules = ruleRepo.findLiveForSlot(slotId, ReservationStatus.ACTIVE, since);
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rules.stream().map(RecurringReservation::getId).toList();
+        Map<Long, List<LocalDate>> excluded = new HashMap<>();
+        for (RecurrenceSkip skip : skipRepo.findByRecurrenceIdInAndOccurrenceDateGreaterThanEqual(ids, since)) {
+            excluded.computeIfAbsent(skip.getRecurrenceId(), id -> new ArrayList<>()).add(skip.getOccurrenceDate());
+        }
+        for (MaterializedOccurrence m : reservationRepo.findMaterializedOccurrences(ids, since)) {
+            excluded.computeIfAbsent(m.getRecurrenceId(), id -> new ArrayList<>()).add(m.getOccurrenceDate());
+        }
+        return rules.stream()
+                .map(r -> RecurrenceRule.of(r, excluded.getOrDefault(r.getId(), List.of())))
+                .toList();
+    }
+}
@@ -0,0 +1,134 @@
+package com.parking.reservation_service.recurrence;
+
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.entity.RecurrenceSkip;
+import com.parking.reservation_service.entity.RecurringReservation;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.MaterializedOccurrence;
+import com.parking.reservation_service.repository.RecurrenceSkipRepository;
+import com.parking.reservation_service.repository.RecurringReservationRepository;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.scheduler.SchedulerLeaseManager;
+import com.parking.reservation_service.utilization.UtilizationCube;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns recurring occurrences into Reservation rows shortly before they start, so that from
+ * then on they behave like any other booking (timers, expiry, slot release, billing). Only
+ * rules on the shards this instance leases are handled; the unique (recurrence_id,
+ * occurrence_date) key keeps a late replica from materializing the same occurrence twice.
+ */
+@Slf4j
+@Component
+public class RecurrenceMaterializer {
+
+    private final RecurringReservationRepository ruleRepo;
+    private final RecurrenceSkipRepository skipRepo;
+    private final ReservationRepository reservationRepo;
+    private final RecurrenceIndex recurrenceIndex;
+    private final ReservationBookingGuard bookingGuard;
+    private final ReservationTimerScheduler reservationTimers;
+    private final SchedulerLeaseManager leaseManager;
+    private final UtilizationCube utilizationCube;
+    private final Duration lead;
+
+    public RecurrenceMaterializer(RecurringReservationRepository ruleRepo,
+                                  RecurrenceSkipRepository skipRepo,
+                                  ReservationRepository reservationRepo,
+                                  RecurrenceIndex recurrenceIndex,
+                                  ReservationBookingGuard bookingGuard,
+                                  ReservationTimerScheduler reservationTimers,
+                                  SchedulerLeaseManager leaseManager,
+                                  UtilizationCube utilizationCube,
+                                  @Value("${reservation.recurrence.materialize-lead-minutes:60}") long leadMinutes) {
+        this.ruleRepo = ruleRepo;
+        this.skipRepo = skipRepo;
+        this.reservationRepo = reservationRepo;
+        this.recurrenceIndex = recurrenceIndex;
+        this.bookingGuard = bookingGuard;
+        this.reservationTimers = reservationTimers;
+        this.leaseManager = leaseManager;
+        this.utilizationCube = utilizationCube;
+        this.lead = Duration.ofMinutes(leadMinutes);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.recurrence.materialize-interval-ms:60000}")
+    public void materializeDue() {
+        List<Integer> shards = leaseManager.ownedShards();
+        if (shards.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lead);
+        List<RecurringReservation> rules = ruleRepo.findCoveringInShards(ReservationStatus.ACTIVE,
+                now.toLocalDate(), until.toLocalDate(), leaseManager.getShardCount(), shards);
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = rules.stream().map(RecurringReservation::getId).toList();
+        Map<Long, List<LocalDate>> excluded = new HashMap<>();
+        LocalDate since = now.toLocalDate();
+        for (RecurrenceSkip skip : skipRepo.findByRecurrenceIdInAndOccurrenceDateGreaterThanEqual(ids, since)) {
+            excluded.computeIfAbsent(skip.getRecurrenceId(), id -> new ArrayList<>()).add(skip.getOccurrenceDate());
+        }
+        for (MaterializedOccurrence m : reservationRepo.findMaterializedOccurrences(ids, since)) {
+            excluded.computeIfAbsent(m.getRecurrenceId(), id -> new ArrayList<>()).add(m.getOccurrenceDate());
+        }
+
+        int materialized = 0;
+        for (RecurringReservation rule : rules) {
+            RecurrenceRule expanded = RecurrenceRule.of(rule, excluded.getOrDefault(rule.getId(), List.of()));
+            // Occurrences already in progress are included, e.g. after downtime
+            for (LocalDateTime[] o : expanded.occurrencesBetween(now, until)) {
+                if (materialize(rule, o[0], o[1])) {
+                    materialized++;
+                }
+            }
+        }
+        if (materialized > 0) {
+            log.info("Materialized {} recurring occurrences", materialized);
+        }
+    }
+
+    private boolean materialize(RecurringReservation rule, LocalDateTime start, LocalDateTime end) {
+        LocalDate date = start.toLocalDate();
+        Reservation reservation = Reservation.builder()
+                .userId(rule.getUserId())
+                .slotId(rule.getSlotId())
+                .vehicleNumber(rule.getVehicleNumber())
+                .type(rule.getType())
+                .startTime(start)
+                .endTime(end)
+                .status(ReservationStatus.ACTIVE)
+                .recurrenceId(rule.getId())
+                .occurrenceDate(date)
+                .build();
+        try {
+            reservation = bookingGuard.saveIfFree(reservation);
+        } catch (RuntimeException e) {
+            // Left virtual: the occurrence still blocks the slot and is retried on the next pass
+            log.warn("Could not materialize occurrence {} of recurring reservation {}: {}",
+                    date, rule.getId(), e.getMessage());
+            return false;
+        }
+        recurrenceIndex.exclude(rule.getSlotId(), rule.getId(), date);
+        reservationTimers.track(reservation);
+        utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package com.parking.reservation_service.recurrence;
+
+import com.parking.reservation_service.entity.RecurringReservation;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory form of a {@link RecurringReservation}: a weekday mask, a daily time window and a
+ * date span, plus the dates that no longer come from the rule (skipped, or materialized as
+ * their own Reservation row). Occurrences are computed only for the window asked about, so a
+ * check costs O(days in the window) per rule, whatever the rule's total length.
+ */
+public final class RecurrenceRule {
+
+    private final long id;
+    private final long slotId;
+    private final int daysOfWeek;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final LocalDate validFrom;
+    private final LocalDate validUntil;
+    private final Set<LocalDate> excluded = ConcurrentHashMap.newKeySet();
+
+    public RecurrenceRule(long id, long slotId, int daysOfWeek, LocalTime startTime, LocalTime endTime,
+                          LocalDate validFrom, LocalDate validUntil, Collection<LocalDate> excluded) {
+        if (!endTime.isAfter(startTime)) {
+            throw new IllegalArgumentException("Daily end time must be after start time");
+        }
+        this.id = id;
+        this.slotId = slotId;
+        this.daysOfWeek = daysOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+        this.excluded.addAll(excluded);
+    }
+
+    public static RecurrenceRule of(RecurringReservation r, Collection<LocalDate> excluded) {
+        return new RecurrenceRule(r.getId() == null ? 0 : r.getId(), r.getSlotId(), r.getDaysOfWeek(),
+                r.getStartTime(), r.getEndTime(), r.getValidFrom(), r.getValidUntil(), excluded);
+    }
+
+    public static int mask(Collection<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getSlotId() {
+        return slotId;
+    }
+
+    public void exclude(LocalDate date) {
+        excluded.add(date);
+    }
+
+    public boolean occursOn(LocalDate date) {
+        return !date.isBefore(validFrom) && !date.isAfter(validUntil)
+                && (daysOfWeek & (1 << (date.getDayOfWeek().getValue() - 1))) != 0
+                && !excluded.contains(date);
+    }
+
+    public LocalDateTime startOn(LocalDate date) {
+        return date.atTime(startTime);
+    }
+
+    public LocalDateTime endOn(LocalDate date) {
+        return date.atTime(endTime);
+    }
+
+    // True if an occurrence other than the one on ignoredDate overlaps [start, end)
+    public boolean overlaps(LocalDateTime start, LocalDateTime end, LocalDate ignoredDate) {
+        // Occurrences never cross midnight, so only dates from start's day onwards can overlap
+        LocalDate last = min(end.toLocalDate(), validUntil);
+        for (LocalDate d = max(start.toLocalDate(), validFrom); !d.isAfter(last); d = d.plusDays(1)) {
+            if (d.equals(ignoredDate) || !occursOn(d)) {
+                continue;
+            }
+            if (startOn(d).isBefore(end) && start.isBefore(endOn(d))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Occurrences overlapping [from, to) as {start, end} pairs, in start order
+    public List<LocalDateTime[]> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime[]> occurrences = new ArrayList<>();
+        LocalDate last = min(to.toLocalDate(), validUntil);
+        for (LocalDate d = max(from.toLocalDate(), validFrom); !d.isAfter(last); d = d.plusDays(1)) {
+            if (occursOn(d) && startOn(d).isBefore(to) && from.isBefore(endOn(d))) {
+                occurrences.add(new LocalDateTime[]{startOn(d), endOn(d)});
+            }
+        }
+        return occurrences;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,41 @@
+package com.parking.reservation_service.repository;
+
+import com.parking.reservation_service.entity.CapacityCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CapacityCounterRepository extends JpaRepository<CapacityCounter, Long> {
+
+    // Creates or bumps the bucket in one statement, holding its row lock until commit
+    @Modifying
+    @Query(value = "INSERT INTO capacity_counters (slot_type, bucket_start, booked) VALUES (:type, :bucket, 1)"
+            + " ON DUPLICATE KEY UPDATE booked = booked + 1", nativeQuery = true)
+    int take(@Param("type") String slotType, @Param("bucket") LocalDateTime bucketStart);
+
+    // Buckets the window has pushed past the pool size; any at all means the window is full
+    @Query("select count(c) from CapacityCounter c where c.slotType = :type"
+            + " and c.bucketStart in :buckets and c.booked > :capacity")
+    long countOverCapacity(@Param("type") String slotType,
+                           @Param("buckets") Collection<LocalDateTime> buckets,
+                           @Param("capacity") int capacity);
+
+    @Transactional
+    @Modifying
+    @Query("update CapacityCounter c set c.booked = c.booked - 1 where c.slotType = :type"
+            + " and c.bucketStart in :buckets and c.booked > 0")
+    int release(@Param("type") String slotType, @Param("buckets") Collection<LocalDateTime> buckets);
+
+    List<CapacityCounter> findBySlotTypeAndBucketStartIn(String slotType, Collection<LocalDateTime> buckets);
+
+    @Transactional
+    @Modifying
+    @Query("delete from CapacityCounter c where c.bucketStart < :before")
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,11 @@
+package com.parking.reservation_service.repository;
+
+/**
+ * Projection of a reservation picked for completion (or no-show cancellation): just what the slot release needs.
+ */
+public interface ExpiredReservation {
+
+    Long getReservationId();
+
+    Long getSlotId();
+}
@@ -0,0 +1,43 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+ 
+import java.time.LocalDateTime;
+ 
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+ 
+    // 1 if this call claimed the key, 0 if a record already exists; expiresAt is the in-flight lease
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (record_key, request_hash, completed, expires_at)"
+            + " VALUES (:key, :hash, false, :expiresAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("hash") String hash, @Param("expiresAt") LocalDateTime expiresAt);
+ 
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.completed = true, r.statusCode = :status, r.responseBody = :body,"
+            + " r.expiresAt = :expiresAt where r.recordKey = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+ 
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.recordKey = :key")
+    int release(@Param("key") String key);
+ 
+    // Lets a new request take over a key whose record has outlived its TTL or in-flight lease
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.recordKey = :key and r.expiresAt < :now")
+    int releaseIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+ 
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
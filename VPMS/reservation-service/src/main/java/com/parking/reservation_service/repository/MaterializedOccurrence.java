@@ -0,0 +1,13 @@
+package com.parking.reservation_service.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection linking a reservation row back to the recurring reservation occurrence it came from.
+ */
+public interface MaterializedOccurrence {
+
+    Long getRecurrenceId();
+
+    LocalDate getOccurrenceDate();
+}
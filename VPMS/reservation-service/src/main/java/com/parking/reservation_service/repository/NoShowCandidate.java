@@ -0,0 +1,19 @@
+package com.parking.reservation_service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of an ACTIVE reservation past its arrival grace period: what the entry lookup needs.
+ */
+public interface NoShowCandidate {
+
+    Long getReservationId();
+
+    Long getSlotId();
+
+    String getVehicleNumber();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
@@ -0,0 +1,15 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.RecurrenceSkip;
+import org.springframework.data.jpa.repository.JpaRepository;
+ 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+ 
+public interface RecurrenceSkipRepository extends JpaRepository<RecurrenceSkip, Long> {
+ 
+    List<RecurrenceSkip> findByRecurrenceIdInAndOccurrenceDateGreaterThanEqual(Collection<Long> recurrenceIds, LocalDate since);
+ 
+    boolean existsByRecurrenceIdAndOccurrenceDate(Long recurrenceId, LocalDate occurrenceDate);
+}
@@ -0,0 +1,37 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.RecurringReservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+ 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+ 
+public interface RecurringReservationRepository extends JpaRepository<RecurringReservation, Long> {
+ 
+    List<RecurringReservation> findByUserId(Long userId);
+ 
+    // Rules of a slot that still have occurrences on or after the given date
+    @Query("select r from RecurringReservation r where r.slotId = :slotId and r.status = :status and r.validUntil >= :since")
+    List<RecurringReservation> findLiveForSlot(@Param("slotId") Long slotId,
+                                               @Param("status") ReservationStatus status,
+                                               @Param("since") LocalDate since);
+ 
+    @Query("select distinct r.slotId from RecurringReservation r where r.status = :status"
+            + " and r.validFrom <= :to and r.validUntil >= :from")
+    List<Long> findSlotsWithRulesBetween(@Param("status") ReservationStatus status,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+ 
+    // Rules with an occurrence in [from, to] on the given expiry shards
+    @Query("select r from RecurringReservation r where r.status = :status"
+            + " and r.validFrom <= :to and r.validUntil >= :from and mod(r.slotId, :shards) in :shardIds")
+    List<RecurringReservation> findCoveringInShards(@Param("status") ReservationStatus status,
+                                                    @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to,
+                                                    @Param("shards") int shards,
+                                                    @Param("shardIds") Collection<Integer> shardIds);
+}
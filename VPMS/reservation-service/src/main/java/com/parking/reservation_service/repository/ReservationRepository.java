@@ -2,19 +2,239 @@ package com.parking.reservation_service.repository;
  
 import com.parking.reservation_service.entity.Reservation;
 import com.parking.reservation_service.entity.ReservationStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
  
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
     
  
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
  
     List<Reservation> findByUserId(Long userId);
  
     List<Reservation> findBySlotIdAndStatus(Long slotId, ReservationStatus status);
 
+    List<Reservation> findBySlotIdInAndStatus(Collection<Long> slotIds, ReservationStatus status);
+
     List<Reservation> findByStatusAndEndTimeBefore(ReservationStatus status, LocalDateTime endTime);
+
+    // Shard-filtered variants for the timer horizon; a slot belongs to shard slotId mod shards
+    @Query("select r from Reservation r where r.status = :status and r.startTime between :from and :to"
+            + " and mod(r.slotId, :shards) in :shardIds")
+    List<Reservation> findStartingInShards(@Param("status") ReservationStatus status,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("shards") int shards,
+                                           @Param("shardIds") Collection<Integer> shardIds);
+
+    @Query("select r from Reservation r where r.status = :status and r.endTime < :before"
+            + " and mod(r.slotId, :shards) in :shardIds")
+    List<Reservation> findEndingInShards(@Param("status") ReservationStatus status,
+                                         @Param("before") LocalDateTime before,
+                                         @Param("shards") int shards,
+                                         @Param("shardIds") Collection<Integer> shardIds);
+
+    // Reservations in the given shards changed after "since"; served by idx_reservation_changed
+    @Query("select r from Reservation r where r.changedAt > :since and mod(r.slotId, :shards) in :shardIds")
+    List<Reservation> findChangedInShards(@Param("since") LocalDateTime since,
+                                          @Param("shards") int shards,
+                                          @Param("shardIds") Collection<Integer> shardIds);
+
+    @Query("select max(r.changedAt) from Reservation r")
+    Optional<LocalDateTime> findLastChange();
+
+    // Served by idx_reservation_slot_window; excludeId skips the reservation being rescheduled
+    @Query("select case when count(r) > 0 then true else false end from Reservation r where r.slotId = :slotId and r.status = :status"
+            + " and r.startTime < :endTime and r.endTime > :startTime"
+            + " and (:excludeId is null or r.reservationId <> :excludeId)")
+    boolean existsOverlapping(@Param("slotId") Long slotId,
+                              @Param("status") ReservationStatus status,
+                              @Param("startTime") LocalDateTime startTime,
+                              @Param("endTime") LocalDateTime endTime,
+                              @Param("excludeId") Long excludeId);
+
+    // Reservations overlapping [from, to), e.g. today's bookings for the plate index
+    List<Reservation> findByStatusAndStartTimeLessThanAndEndTimeGreaterThan(ReservationStatus status,
+                                                                           LocalDateTime to,
+                                                                           LocalDateTime from);
+
+    // Bookings of the normalized plate that have started (or start by latestStart) and not ended at "at";
+    // served by idx_reservation_plate_start
+    @Query("select r from Reservation r where r.plateKey = :plateKey and r.status = :status"
+            + " and r.startTime <= :latestStart and r.endTime > :at order by r.startTime")
+    List<Reservation> findForPlateAt(@Param("plateKey") String plateKey,
+                                     @Param("status") ReservationStatus status,
+                                     @Param("latestStart") LocalDateTime latestStart,
+                                     @Param("at") LocalDateTime at);
+
+    // Fills plate_key for rows written before the column existed; same normalization as PlateIndex.normalize
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE reservations SET plate_key = UPPER(REGEXP_REPLACE(vehicle_number, '[^A-Za-z0-9]', ''))"
+            + " WHERE plate_key IS NULL", nativeQuery = true)
+    int backfillPlateKeys();
+
+    @Transactional
+    @Modifying
+    @Query("update Reservation r set r.arrivedAt = :at where r.reservationId = :id and r.status = :status"
+            + " and r.arrivedAt is null")
+    int markArrived(@Param("id") Long id, @Param("status") ReservationStatus status, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query("update Reservation r set r.departedAt = :at where r.reservationId = :id and r.arrivedAt is not null"
+            + " and r.departedAt is null")
+    int markDeparted(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    // Of the given reservations, the ones whose vehicle arrived and has not left
+    @Query("select r from Reservation r where r.reservationId in :ids and r.arrivedAt is not null"
+            + " and r.departedAt is null")
+    List<Reservation> findStillParked(@Param("ids") Collection<Long> ids);
+
+    // Of the given slots, those a vehicle is still parked on
+    @Query("select distinct r.slotId from Reservation r where r.slotId in :slotIds and r.arrivedAt is not null"
+            + " and r.departedAt is null")
+    Set<Long> findParkedSlots(@Param("slotIds") Collection<Long> slotIds);
+
+    // Of the given slots, those holding a parked vehicle or a booking that has started and not ended
+    @Query("select distinct r.slotId from Reservation r where r.slotId in :slotIds and ((r.arrivedAt is not null"
+            + " and r.departedAt is null) or (r.status = :active and r.startTime <= :now and r.endTime > :now))")
+    Set<Long> findSlotsInUse(@Param("slotIds") Collection<Long> slotIds,
+                             @Param("active") ReservationStatus active,
+                             @Param("now") LocalDateTime now);
+
+    // Reservations in the given status that ended in [since, before) with their vehicle still parked
+    @Query("select r from Reservation r where r.status = :status and r.endTime >= :since and r.endTime < :before"
+            + " and r.arrivedAt is not null and r.departedAt is null")
+    List<Reservation> findOverstaying(@Param("status") ReservationStatus status,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("before") LocalDateTime before);
+
+    // Bookings on a slot starting in [from, to) whose vehicle hasn't arrived, served by idx_reservation_slot_window
+    @Query("select r from Reservation r where r.slotId = :slotId and r.status = :status"
+            + " and r.startTime >= :from and r.startTime < :to and r.arrivedAt is null order by r.startTime")
+    List<Reservation> findAwaitingOnSlot(@Param("slotId") Long slotId,
+                                         @Param("status") ReservationStatus status,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    // Moves a booking that is still in the given status and on the expected slot
+    @Modifying
+    @Query("update Reservation r set r.slotId = :to where r.reservationId = :id and r.slotId = :from"
+            + " and r.status = :status")
+    int moveSlot(@Param("id") Long id,
+                 @Param("from") Long fromSlotId,
+                 @Param("to") Long toSlotId,
+                 @Param("status") ReservationStatus status);
+
+    Optional<Reservation> findByRecurrenceIdAndOccurrenceDate(Long recurrenceId, LocalDate occurrenceDate);
+
+    @Query("select r.recurrenceId as recurrenceId, r.occurrenceDate as occurrenceDate from Reservation r"
+            + " where r.recurrenceId in :recurrenceIds and r.occurrenceDate >= :since")
+    List<MaterializedOccurrence> findMaterializedOccurrences(@Param("recurrenceIds") Collection<Long> recurrenceIds,
+                                                             @Param("since") LocalDate since);
+
+    // Windows of reservations overlapping [from, to); served by idx_reservation_status_end
+    @Query("select r.slotId as slotId, r.startTime as startTime, r.endTime as endTime from Reservation r"
+            + " where r.status in :statuses and r.endTime > :from and r.startTime < :to")
+    List<ReservationWindow> findWindowsOverlapping(@Param("statuses") Collection<ReservationStatus> statuses,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+    // Windows of a set of slots' reservations in one status overlapping [from, to); served by idx_reservation_slot_window
+    @Query("select r.slotId as slotId, r.startTime as startTime, r.endTime as endTime from Reservation r"
+            + " where r.slotId in :slotIds and r.status = :status and r.startTime < :to and r.endTime > :from"
+            + " order by r.slotId, r.startTime")
+    List<ReservationWindow> findWindowsForSlots(@Param("slotIds") Collection<Long> slotIds,
+                                                @Param("status") ReservationStatus status,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    // Next chunk of overdue ACTIVE reservations in the given shards, row-locked; rows locked by another worker are skipped
+    @Query(value = "SELECT reservation_id AS reservationId, slot_id AS slotId FROM reservations"
+            + " WHERE status = 'ACTIVE' AND end_time < :now AND MOD(slot_id, :shards) IN (:shardIds)"
+            + " ORDER BY end_time LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ExpiredReservation> lockExpiredChunk(@Param("now") LocalDateTime now,
+                                              @Param("shards") int shards,
+                                              @Param("shardIds") Collection<Integer> shardIds,
+                                              @Param("limit") int limit);
+
+    @Query(value = "SELECT reservation_id AS reservationId, slot_id AS slotId FROM reservations"
+            + " WHERE reservation_id IN (:ids) AND status = 'ACTIVE' AND end_time <= :now"
+            + " AND MOD(slot_id, :shards) IN (:shardIds) FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ExpiredReservation> lockExpiredByIds(@Param("ids") Collection<Long> ids,
+                                              @Param("now") LocalDateTime now,
+                                              @Param("shards") int shards,
+                                              @Param("shardIds") Collection<Integer> shardIds);
+
+    // ACTIVE reservations that started in [from, to) in the given shards, after the (start, id) cursor;
+    // the range scan is served by idx_reservation_status_start
+    @Query(value = "SELECT reservation_id AS reservationId, slot_id AS slotId, vehicle_number AS vehicleNumber,"
+            + " start_time AS startTime, end_time AS endTime FROM reservations"
+            + " WHERE status = 'ACTIVE' AND arrived_at IS NULL AND start_time >= :from AND start_time < :to"
+            + " AND (start_time > :afterStart OR (start_time = :afterStart AND reservation_id > :afterId))"
+            + " AND MOD(slot_id, :shards) IN (:shardIds)"
+            + " ORDER BY start_time, reservation_id LIMIT :limit",
+            nativeQuery = true)
+    List<NoShowCandidate> findNoShowCandidates(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("afterStart") LocalDateTime afterStart,
+                                               @Param("afterId") long afterId,
+                                               @Param("shards") int shards,
+                                               @Param("shardIds") Collection<Integer> shardIds,
+                                               @Param("limit") int limit);
+
+    // Locks the given reservations that are still ACTIVE; rows locked by another worker are skipped
+    @Query(value = "SELECT reservation_id AS reservationId, slot_id AS slotId FROM reservations"
+            + " WHERE reservation_id IN (:ids) AND status = 'ACTIVE' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ExpiredReservation> lockActiveByIds(@Param("ids") Collection<Long> ids);
+
+    // One step of the status state machine; 0 rows means the reservation is missing or not in an allowed state
+    @Transactional
+    @Modifying
+    @Query("update Reservation r set r.status = :to where r.reservationId = :id and r.status in :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<ReservationStatus> from,
+                   @Param("to") ReservationStatus to);
+
+    @Query("select r.status from Reservation r where r.reservationId = :id")
+    Optional<ReservationStatus> findStatusById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Reservation r set r.status = :to where r.reservationId in :ids and r.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids,
+                      @Param("from") ReservationStatus from,
+                      @Param("to") ReservationStatus to);
+
+    // Reservations completed (last changed) before "until", after the (changedAt, id) cursor, oldest
+    // change first; served by idx_reservation_changed. A booking completed late still turns up.
+    @Query("select r from Reservation r where r.status = :status and r.changedAt < :until"
+            + " and (r.changedAt > :since or (r.changedAt = :since and r.reservationId > :afterId))"
+            + " order by r.changedAt, r.reservationId")
+    List<Reservation> findCompletedAfter(@Param("status") ReservationStatus status,
+                                         @Param("since") LocalDateTime since,
+                                         @Param("afterId") Long afterId,
+                                         @Param("until") LocalDateTime until,
+                                         Limit limit);
+
+    // Reservations changed after the (changedAt, id) cursor, oldest change first; served by idx_reservation_changed
+    @Query("select r from Reservation r where r.changedAt > :since or (r.changedAt = :since and r.reservationId > :afterId)"
+            + " order by r.changedAt, r.reservationId")
+    List<Reservation> findChangedAfter(@Param("since") LocalDateTime since,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
 }
- 
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.parking.reservation_service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a reservation's slot and time window, enough to build an occupancy calendar.
+ */
+public interface ReservationWindow {
+
+    Long getSlotId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
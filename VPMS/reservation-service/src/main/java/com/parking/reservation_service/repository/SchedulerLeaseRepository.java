@@ -0,0 +1,48 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+ 
+import java.time.LocalDateTime;
+ 
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+ 
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_leases (name, owner, expires_at) VALUES (:name, NULL, :expiresAt)",
+            nativeQuery = true)
+    int ensureExists(@Param("name") String name, @Param("expiresAt") LocalDateTime expiresAt);
+ 
+    // Takes the lease if it is free or expired, or extends it if we already hold it
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = :owner, l.expiresAt = :until"
+            + " where l.name = :name and (l.owner = :owner or l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+ 
+    // Extends a lease only while it is still ours and unexpired
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.expiresAt = :until"
+            + " where l.name = :name and l.owner = :owner and l.expiresAt >= :now")
+    int renew(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+ 
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = null, l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+ 
+    @Query("select count(l) from SchedulerLease l where l.name like :prefix% and l.expiresAt > :now")
+    long countLive(@Param("prefix") String prefix, @Param("now") LocalDateTime now);
+ 
+    @Transactional
+    @Modifying
+    @Query("delete from SchedulerLease l where l.name like :prefix% and l.expiresAt < :cutoff")
+    int purgeExpired(@Param("prefix") String prefix, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,18 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.SlotBookingGuard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+ 
+public interface SlotBookingGuardRepository extends JpaRepository<SlotBookingGuard, Long> {
+ 
+    // Creates the guard row if needed and locks it in one statement. The upsert locks the row exclusively
+    // right away; INSERT IGNORE then FOR UPDATE takes a shared lock first, and two transactions upgrading
+    // it on a slot's first booking deadlock.
+    @Modifying
+    @Query(value = "INSERT INTO slot_booking_guards (slot_id) VALUES (:slotId)"
+            + " ON DUPLICATE KEY UPDATE slot_id = slot_id", nativeQuery = true)
+    int lock(@Param("slotId") Long slotId);
+}
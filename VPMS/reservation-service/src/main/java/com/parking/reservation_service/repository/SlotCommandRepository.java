@@ -0,0 +1,58 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.OutboxStatus;
+import com.parking.reservation_service.entity.SlotCommand;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+ 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+ 
+public interface SlotCommandRepository extends JpaRepository<SlotCommand, Long> {
+ 
+    @Query("select c.commandId from SlotCommand c where c.commandId in :commandIds")
+    Set<String> findExistingCommandIds(@Param("commandIds") Collection<String> commandIds);
+ 
+    // Next batch of due commands, row-locked so relays on other instances skip them
+    @Query(value = "SELECT * FROM slot_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now"
+            + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<SlotCommand> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+ 
+    // Pushes the claimed batch out of the due window while the relay calls slot-service without a lock
+    @Modifying
+    @Query("update SlotCommand c set c.nextAttemptAt = :until where c.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update SlotCommand c set c.status = :status, c.attempts = :attempts, c.nextAttemptAt = :nextAttemptAt,"
+            + " c.lastError = :lastError where c.id = :id and c.status = :pending")
+    int recordFailure(@Param("id") Long id,
+                      @Param("pending") OutboxStatus pending,
+                      @Param("status") OutboxStatus status,
+                      @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("update SlotCommand c set c.status = :status, c.deliveredAt = :now, c.attempts = c.attempts + 1"
+            + " where c.id in :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids,
+                      @Param("status") OutboxStatus status,
+                      @Param("now") LocalDateTime now);
+ 
+    // Settles commands without sending them, noting why
+    @Modifying
+    @Query("update SlotCommand c set c.status = :status, c.deliveredAt = :now, c.lastError = :reason where c.id in :ids")
+    int markSkipped(@Param("ids") Collection<Long> ids,
+                    @Param("status") OutboxStatus status,
+                    @Param("now") LocalDateTime now,
+                    @Param("reason") String reason);
+ 
+    @Modifying
+    @Query("delete from SlotCommand c where c.status = :status and c.deliveredAt < :cutoff")
+    int deleteDeliveredBefore(@Param("status") OutboxStatus status, @Param("cutoff") LocalDateTime cutoff);
+}
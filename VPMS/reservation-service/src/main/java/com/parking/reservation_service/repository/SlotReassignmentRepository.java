@@ -0,0 +1,14 @@
+package com.parking.reservation_service.repository;
+
+import com.parking.reservation_service.entity.SlotReassignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SlotReassignmentRepository extends JpaRepository<SlotReassignment, Long> {
+
+    List<SlotReassignment> findByReassignedAtGreaterThanEqualOrderByReassignedAtDesc(LocalDateTime since);
+
+    List<SlotReassignment> findByReservationIdOrderByReassignedAt(Long reservationId);
+}
@@ -0,0 +1,63 @@
+package com.parking.reservation_service.repository;
+
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.TypeReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface TypeReservationRepository extends JpaRepository<TypeReservation, Long> {
+
+    List<TypeReservation> findByUserId(Long userId);
+
+    // Unassigned bookings of the normalized plate usable at "at"; served by idx_type_reservation_plate_start
+    @Query("select t from TypeReservation t where t.plateKey = :plateKey and t.status = :status"
+            + " and t.reservationId is null and t.startTime <= :latestStart and t.endTime > :at order by t.startTime")
+    List<TypeReservation> findUnassignedForPlateAt(@Param("plateKey") String plateKey,
+                                                   @Param("status") ReservationStatus status,
+                                                   @Param("latestStart") LocalDateTime latestStart,
+                                                   @Param("at") LocalDateTime at);
+
+    // Fills plate_key for rows written before the column existed; same normalization as PlateIndex.normalize
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE type_reservations SET plate_key = UPPER(REGEXP_REPLACE(vehicle_number, '[^A-Za-z0-9]', ''))"
+            + " WHERE plate_key IS NULL", nativeQuery = true)
+    int backfillPlateKeys();
+
+    // Links the slot reservation; fails if another replica assigned the booking first
+    @Transactional
+    @Modifying
+    @Query("update TypeReservation t set t.reservationId = :reservationId where t.id = :id"
+            + " and t.status = :status and t.reservationId is null")
+    int assign(@Param("id") Long id, @Param("status") ReservationStatus status,
+               @Param("reservationId") Long reservationId);
+
+    Optional<TypeReservation> findByReservationId(Long reservationId);
+
+    // Moves an assigned booking along with its slot reservation; only the first caller gets 1
+    @Transactional
+    @Modifying
+    @Query("update TypeReservation t set t.status = :to where t.id = :id and t.status = :from"
+            + " and t.reservationId is not null")
+    int transitionAssigned(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    @Transactional
+    @Modifying
+    @Query("update TypeReservation t set t.status = :to where t.id = :id and t.status = :from and t.reservationId is null")
+    int transitionUnassigned(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    // Bookings whose vehicle never showed up; served by idx_type_reservation_status_end
+    @Transactional
+    @Modifying
+    @Query("update TypeReservation t set t.status = :to where t.status = :from and t.reservationId is null"
+            + " and t.endTime <= :now")
+    int expireUnassigned(@Param("from") ReservationStatus from, @Param("to") ReservationStatus to,
+                         @Param("now") LocalDateTime now);
+}
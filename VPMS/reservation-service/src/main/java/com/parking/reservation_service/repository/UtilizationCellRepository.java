@@ -0,0 +1,21 @@
+package com.parking.reservation_service.repository;
+
+import com.parking.reservation_service.entity.UtilizationCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UtilizationCellRepository extends JpaRepository<UtilizationCell, Long> {
+
+    // Cells in [from, to); served by uk_utilization_hour_type
+    @Query("select c from UtilizationCell c where c.bucketHour >= :from and c.bucketHour < :to")
+    List<UtilizationCell> findBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("delete from UtilizationCell c where c.bucketHour >= :from and c.bucketHour < :to")
+    int deleteBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
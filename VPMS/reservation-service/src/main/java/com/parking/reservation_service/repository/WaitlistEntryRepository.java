@@ -0,0 +1,47 @@
+package com.parking.reservation_service.repository;
+ 
+import com.parking.reservation_service.entity.WaitlistEntry;
+import com.parking.reservation_service.entity.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+ 
+import java.time.LocalDateTime;
+import java.util.List;
+ 
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+ 
+    List<WaitlistEntry> findByUserId(Long userId);
+ 
+    // Waiters whose window hasn't ended yet; served by idx_waitlist_status_type
+    @Query("select w from WaitlistEntry w where w.status = :status and w.endTime > :now")
+    List<WaitlistEntry> findOpen(@Param("status") WaitlistStatus status, @Param("now") LocalDateTime now);
+ 
+    // Succeeds for exactly one replica, and only while the entry is still waiting
+    @Transactional
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = :offered, w.offeredSlotId = :slotId, w.holdId = :holdId,"
+            + " w.holdExpiresAt = :expiresAt where w.id = :id and w.status = :waiting")
+    int offer(@Param("id") Long id,
+              @Param("waiting") WaitlistStatus waiting,
+              @Param("offered") WaitlistStatus offered,
+              @Param("slotId") Long slotId,
+              @Param("holdId") String holdId,
+              @Param("expiresAt") LocalDateTime expiresAt);
+ 
+    @Transactional
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = :to where w.id = :id and w.status = :from")
+    int transition(@Param("id") Long id, @Param("from") WaitlistStatus from, @Param("to") WaitlistStatus to);
+ 
+    @Transactional
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = :to, w.reservationId = :reservationId"
+            + " where w.id = :id and w.status = :from")
+    int markBooked(@Param("id") Long id,
+                   @Param("from") WaitlistStatus from,
+                   @Param("to") WaitlistStatus to,
+                   @Param("reservationId") Long reservationId);
+}
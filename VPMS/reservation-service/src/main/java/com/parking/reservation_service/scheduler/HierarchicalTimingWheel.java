@@ -0,0 +1,156 @@
+package com.parking.reservation_service.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (in the style of Varghese and Lauck / Kafka's purgatory).
+ * Level 0 has {@code wheelSize} buckets of one tick each, level 1 buckets span a whole
+ * level-0 revolution, and so on. Scheduling and cancelling are O(1); a timer is moved
+ * down at most once per level before it fires.
+ *
+ * Deadlines past the top level's range are parked in its furthest bucket and re-filed
+ * when that bucket cascades. Not thread-safe: callers synchronise.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    public static final class Timeout<T> {
+        private final long deadlineTick;
+        private final long deadlineMillis;
+        private final T payload;
+        private boolean cancelled;
+
+        private Timeout(long deadlineTick, long deadlineMillis, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.deadlineMillis = deadlineMillis;
+            this.payload = payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMillis;
+    private final int bitsPerLevel;
+    private final int mask;
+    private final int levels;
+    private final List<List<Timeout<T>>[]> wheels = new ArrayList<>();
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels <= 0 || wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMillis and levels must be positive and wheelSize a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.bitsPerLevel = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        for (int level = 0; level < levels; level++) {
+            List<Timeout<T>>[] buckets = new List[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            wheels.add(buckets);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public Timeout<T> schedule(long deadlineMillis, T payload) {
+        // Rounded up so a timer never fires before its deadline
+        long deadlineTick = -Math.floorDiv(-deadlineMillis, tickMillis);
+        Timeout<T> timeout = new Timeout<>(deadlineTick, deadlineMillis, payload);
+        // The current tick's bucket has already been swept, so the earliest slot is the next one
+        file(timeout, currentTick + 1);
+        pending++;
+        return timeout;
+    }
+
+    public void cancel(Timeout<T> timeout) {
+        if (timeout != null && !timeout.cancelled) {
+            // Dropped lazily when its bucket is next visited
+            timeout.cancelled = true;
+            pending--;
+        }
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    // Advances the wheel up to nowMillis and hands every timer that fell due to the consumer
+    public void advanceTo(long nowMillis, Consumer<Timeout<T>> expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (bitsPerLevel * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            List<Timeout<T>> bucket = wheels.get(0)[(int) (currentTick & mask)];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Timeout<T>> due = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Timeout<T> timeout : due) {
+                if (timeout.cancelled) {
+                    continue;
+                }
+                if (timeout.deadlineTick > currentTick) {
+                    file(timeout, currentTick + 1);
+                    continue;
+                }
+                pending--;
+                expired.accept(timeout);
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        List<Timeout<T>> bucket = wheels.get(level)[(int) ((currentTick >>> (bitsPerLevel * level)) & mask)];
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Timeout<T>> moving = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Timeout<T> timeout : moving) {
+            if (!timeout.cancelled) {
+                // Cascades run before the level-0 sweep, so the current tick is still reachable
+                file(timeout, currentTick);
+            }
+        }
+    }
+
+    private void file(Timeout<T> timeout, long earliestTick) {
+        // Overdue timers go into the earliest reachable level-0 bucket
+        long deadlineTick = Math.max(timeout.deadlineTick, earliestTick);
+        long delta = deadlineTick - currentTick;
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (bitsPerLevel * (level + 1)))) {
+                wheels.get(level)[(int) ((deadlineTick >>> (bitsPerLevel * level)) & mask)].add(timeout);
+                return;
+            }
+        }
+        // Beyond the wheel's range: park in the furthest top-level bucket and re-file later
+        int top = levels - 1;
+        long parkedTick = currentTick + (1L << (bitsPerLevel * levels)) - 1;
+        wheels.get(top)[(int) ((parkedTick >>> (bitsPerLevel * top)) & mask)].add(timeout);
+    }
+}
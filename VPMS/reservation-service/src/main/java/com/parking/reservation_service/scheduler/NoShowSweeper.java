@@ -0,0 +1,207 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.booking.SlotFreedEvent;
+import com.parking.reservation_service.dto.EntryLookupItemDTO;
+import com.parking.reservation_service.dto.EntryLookupRequestDTO;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.feign.VehicleLogClient;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.outbox.SlotCommandOutbox;
+import com.parking.reservation_service.repository.ExpiredReservation;
+import com.parking.reservation_service.repository.NoShowCandidate;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.security.ServiceTokenProvider;
+import com.parking.reservation_service.utilization.UtilizationCube;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels reservations whose vehicle never showed up.
+ *
+ * Each pass only looks at ACTIVE reservations that started between {@code grace + window}
+ * and {@code grace} ago (a range scan on idx_reservation_status_start, in the shards this
+ * instance leases). For each batch, vehicle-log-service is asked in one call which plates
+ * entered since shortly before their start. The rest are cancelled with one UPDATE, and
+ * their slot releases go to the outbox in the same transaction.
+ *
+ * If the lookup fails nothing is cancelled, since a missing answer is not a no-show.
+ * Reservations found to have arrived are remembered, so later passes skip them. The lookup
+ * is made with the reservation.service-account token (vehicle-log-service wants STAFF or
+ * ADMIN), which startup requires (see {@link com.parking.reservation_service.outbox.SlotCommandRelay});
+ * a token that can't be issued counts as a failed lookup.
+ */
+@Slf4j
+@Component
+public class NoShowSweeper {
+
+    private final ReservationRepository reservationRepo;
+    private final VehicleLogClient vehicleLogClient;
+    private final ServiceTokenProvider serviceToken;
+    private final SlotCommandOutbox slotOutbox;
+    private final SlotReservationIndex slotIndex;
+    private final ReservationTimerScheduler reservationTimers;
+    private final SchedulerLeaseManager leaseManager;
+    private final UtilizationCube utilizationCube;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+    private final Duration window;
+    private final Duration earlyArrival;
+    private final int batchSize;
+
+    // reservationId -> start time of reservations whose vehicle has arrived
+    private final ConcurrentHashMap<Long, LocalDateTime> arrived = new ConcurrentHashMap<>();
+
+    private final Counter cancelledCounter;
+    private final Counter lookupFailures;
+
+    public NoShowSweeper(ReservationRepository reservationRepo,
+                         VehicleLogClient vehicleLogClient,
+                         ServiceTokenProvider serviceToken,
+                         SlotCommandOutbox slotOutbox,
+                         SlotReservationIndex slotIndex,
+                         ReservationTimerScheduler reservationTimers,
+                         SchedulerLeaseManager leaseManager,
+                         UtilizationCube utilizationCube,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${reservation.noshow.grace-minutes:15}") long graceMinutes,
+                         @Value("${reservation.noshow.window-minutes:30}") long windowMinutes,
+                         @Value("${reservation.noshow.early-arrival-minutes:30}") long earlyArrivalMinutes,
+                         @Value("${reservation.noshow.batch-size:200}") int batchSize) {
+        this.reservationRepo = reservationRepo;
+        this.vehicleLogClient = vehicleLogClient;
+        this.serviceToken = serviceToken;
+        this.slotOutbox = slotOutbox;
+        this.slotIndex = slotIndex;
+        this.reservationTimers = reservationTimers;
+        this.leaseManager = leaseManager;
+        this.utilizationCube = utilizationCube;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.earlyArrival = Duration.ofMinutes(earlyArrivalMinutes);
+        this.batchSize = batchSize;
+        this.cancelledCounter = Counter.builder("reservation.noshow.cancelled")
+                .description("Reservations cancelled because the vehicle never arrived")
+                .register(meterRegistry);
+        this.lookupFailures = Counter.builder("reservation.noshow.lookup.failures")
+                .register(meterRegistry);
+    }
+
+    // Returns how many reservations were cancelled
+    @Scheduled(fixedDelayString = "${reservation.noshow.interval-ms:60000}")
+    public int sweep() {
+        List<Integer> shards = leaseManager.ownedShards();
+        if (shards.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime to = now.minus(grace);
+        LocalDateTime from = to.minus(window);
+        arrived.values().removeIf(start -> start.isBefore(from));
+
+        int shardCount = leaseManager.getShardCount();
+        LocalDateTime afterStart = from.minusSeconds(1);
+        long afterId = 0;
+        int total = 0;
+        List<NoShowCandidate> batch;
+        do {
+            batch = reservationRepo.findNoShowCandidates(from, to, afterStart, afterId, shardCount, shards, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            NoShowCandidate last = batch.get(batch.size() - 1);
+            afterStart = last.getStartTime();
+            afterId = last.getReservationId();
+
+            List<NoShowCandidate> unchecked = batch.stream()
+                    .filter(c -> !arrived.containsKey(c.getReservationId()))
+                    .toList();
+            if (unchecked.isEmpty()) {
+                continue;
+            }
+            Set<Long> entered;
+            try {
+                EntryLookupRequestDTO lookup = new EntryLookupRequestDTO(unchecked.stream()
+                        .map(c -> new EntryLookupItemDTO(c.getReservationId(), c.getVehicleNumber(),
+                                c.getStartTime().minus(earlyArrival), now))
+                        .toList());
+                entered = new HashSet<>(vehicleLogClient.findEntries(serviceToken.authorization(), lookup));
+            } catch (Exception e) {
+                lookupFailures.increment();
+                log.warn("Vehicle entry lookup failed, skipping the no-show pass: {}", e.getMessage());
+                return total;
+            }
+            unchecked.stream()
+                    .filter(c -> entered.contains(c.getReservationId()))
+                    .forEach(c -> arrived.put(c.getReservationId(), c.getStartTime()));
+            List<NoShowCandidate> noShows = unchecked.stream()
+                    .filter(c -> !entered.contains(c.getReservationId()))
+                    .toList();
+            if (!noShows.isEmpty()) {
+                total += cancel(noShows);
+            }
+        } while (batch.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Cancelled {} no-show reservations", total);
+        }
+        return total;
+    }
+
+    private int cancel(List<NoShowCandidate> candidates) {
+        Map<Long, NoShowCandidate> byId = candidates.stream()
+                .collect(Collectors.toMap(NoShowCandidate::getReservationId, Function.identity()));
+        List<Long> reservationIds = List.copyOf(byId.keySet());
+        List<ExpiredReservation> cancelled = transactionTemplate.execute(tx -> {
+            // Rows that changed meanwhile (cancelled, completed, locked elsewhere) are skipped
+            List<ExpiredReservation> locked = reservationRepo.lockActiveByIds(reservationIds);
+            if (!locked.isEmpty()) {
+                reservationRepo.transitionAll(locked.stream().map(ExpiredReservation::getReservationId).toList(),
+                        ReservationStatus.ACTIVE, ReservationStatus.CANCELLED);
+                Map<Long, Long> slotByReservation = new LinkedHashMap<>();
+                locked.forEach(r -> slotByReservation.put(r.getReservationId(), r.getSlotId()));
+                slotOutbox.releaseSlots(slotByReservation, "NO_SHOW");
+            }
+            return locked;
+        });
+        if (cancelled == null) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ExpiredReservation r : cancelled) {
+            slotIndex.remove(r.getSlotId(), r.getReservationId());
+            reservationTimers.untrack(r.getReservationId());
+            NoShowCandidate c = byId.get(r.getReservationId());
+            utilizationCube.remove(c.getSlotId(), c.getStartTime(), c.getEndTime());
+        }
+        // The rest of each window can go to the waitlist
+        cancelled.stream().map(ExpiredReservation::getSlotId).distinct()
+                .forEach(slotId -> eventPublisher.publishEvent(new SlotFreedEvent(slotId, now, null)));
+        cancelledCounter.increment(cancelled.size());
+        return cancelled.size();
+    }
+}
@@ -0,0 +1,189 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.booking.SlotFreedEvent;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.outbox.SlotCommandOutbox;
+import com.parking.reservation_service.repository.ExpiredReservation;
+import com.parking.reservation_service.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Completes reservations whose end time has passed, a chunk at a time.
+ *
+ * Each chunk is one transaction: the overdue rows are selected FOR UPDATE SKIP LOCKED
+ * (MySQL has no UPDATE ... RETURNING, so this stands in for it) and flipped to COMPLETED
+ * with a single UPDATE. The matching slot releases are written to the outbox in the same
+ * transaction and delivered in bulk by the relay. A slot a vehicle is still parked on (an
+ * overstay) is neither released nor offered to the waitlist; that happens when the vehicle's
+ * departure is recorded.
+ *
+ * Both the bulk pass and the timer path only touch slots in the shards this instance holds a
+ * lease on (see {@link SchedulerLeaseManager}), so replicas split the backlog instead of racing
+ * for it.
+ */
+@Slf4j
+@Component
+public class ReservationCompleter {
+
+    private final ReservationRepository reservationRepo;
+    private final SlotCommandOutbox slotOutbox;
+    private final SlotReservationIndex slotIndex;
+    private final SchedulerLeaseManager leaseManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Counter completedCounter;
+    private final Counter updateFailures;
+    private final Counter deferredCounter;
+    private final DistributionSummary chunkSizes;
+    private final Timer chunkTimer;
+
+    public ReservationCompleter(ReservationRepository reservationRepo,
+                                SlotCommandOutbox slotOutbox,
+                                SlotReservationIndex slotIndex,
+                                SchedulerLeaseManager leaseManager,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${reservation.expiry.chunk-size:500}") int chunkSize) {
+        this.reservationRepo = reservationRepo;
+        this.slotOutbox = slotOutbox;
+        this.slotIndex = slotIndex;
+        this.leaseManager = leaseManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.completedCounter = Counter.builder("reservation.expiry.completed")
+                .description("Reservations moved to COMPLETED by the expiry path")
+                .register(meterRegistry);
+        this.updateFailures = Counter.builder("reservation.expiry.failures")
+                .tag("stage", "update")
+                .register(meterRegistry);
+        this.deferredCounter = Counter.builder("reservation.expiry.release.deferred")
+                .description("Completed reservations whose slot stays held until the parked vehicle leaves")
+                .register(meterRegistry);
+        this.chunkSizes = DistributionSummary.builder("reservation.expiry.chunk.size")
+                .description("Reservations completed per chunk")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("reservation.expiry.chunk.duration")
+                .description("Time to complete one chunk")
+                .register(meterRegistry);
+    }
+
+    // Completes every overdue ACTIVE reservation in our shards; returns how many were completed
+    public int completeExpired() {
+        List<Integer> shards = leaseManager.ownedShards();
+        if (shards.isEmpty()) {
+            return 0;
+        }
+        int shardCount = leaseManager.getShardCount();
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.nanoTime();
+        int total = 0;
+        int completed;
+        do {
+            completed = completeChunk(() -> reservationRepo.lockExpiredChunk(now, shardCount, shards, chunkSize));
+            total += completed;
+        } while (completed == chunkSize);
+
+        if (total > 0) {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            log.info("Completed {} expired reservations in {} s ({} /s)",
+                    total, String.format("%.2f", seconds), String.format("%.0f", total / seconds));
+        }
+        return total;
+    }
+
+    // Completes the given reservations if they are still ACTIVE and due (used by the timer wheel)
+    public int complete(Collection<Long> reservationIds) {
+        // Ownership may have moved since the timers were set; only the shard's owner completes
+        List<Integer> shards = leaseManager.ownedShards();
+        if (shards.isEmpty()) {
+            return 0;
+        }
+        int shardCount = leaseManager.getShardCount();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(reservationIds);
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            total += completeChunk(() -> reservationRepo.lockExpiredByIds(chunk, now, shardCount, shards));
+        }
+        return total;
+    }
+
+    private record Completed(List<ExpiredReservation> reservations, Set<Long> parkedSlots) {
+    }
+
+    private int completeChunk(Supplier<List<ExpiredReservation>> selector) {
+        long started = System.nanoTime();
+        Completed completed;
+        try {
+            completed = transactionTemplate.execute(tx -> {
+                List<ExpiredReservation> picked = selector.get();
+                if (picked.isEmpty()) {
+                    return new Completed(picked, Set.of());
+                }
+                reservationRepo.transitionAll(picked.stream().map(ExpiredReservation::getReservationId).toList(),
+                        ReservationStatus.ACTIVE, ReservationStatus.COMPLETED);
+                // Overstays keep their slot; recordDeparture releases it
+                Set<Long> parked = reservationRepo.findParkedSlots(
+                        picked.stream().map(ExpiredReservation::getSlotId).distinct().toList());
+                Map<Long, Long> slotByReservation = new LinkedHashMap<>();
+                picked.stream()
+                        .filter(r -> !parked.contains(r.getSlotId()))
+                        .forEach(r -> slotByReservation.put(r.getReservationId(), r.getSlotId()));
+                slotOutbox.releaseSlots(slotByReservation, ReservationStatus.COMPLETED.name());
+                return new Completed(picked, parked);
+            });
+        } catch (Exception e) {
+            updateFailures.increment();
+            log.error("Could not complete a chunk of expired reservations", e);
+            return 0;
+        }
+        if (completed == null || completed.reservations().isEmpty()) {
+            return 0;
+        }
+        List<ExpiredReservation> chunk = completed.reservations();
+
+        chunk.forEach(r -> slotIndex.remove(r.getSlotId(), r.getReservationId()));
+        // Each slot is free from now until its next booking, which the waitlist works out
+        LocalDateTime now = LocalDateTime.now();
+        chunk.stream().map(ExpiredReservation::getSlotId).distinct()
+                .filter(slotId -> !completed.parkedSlots().contains(slotId))
+                .forEach(slotId -> eventPublisher.publishEvent(new SlotFreedEvent(slotId, now, null)));
+        long deferred = chunk.stream().filter(r -> completed.parkedSlots().contains(r.getSlotId())).count();
+        if (deferred > 0) {
+            deferredCounter.increment(deferred);
+        }
+        eventPublisher.publishEvent(new ReservationsCompletedEvent(
+                chunk.stream().map(ExpiredReservation::getReservationId).toList()));
+
+        completedCounter.increment(chunk.size());
+        chunkSizes.record(chunk.size());
+        chunkTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return chunk.size();
+    }
+}
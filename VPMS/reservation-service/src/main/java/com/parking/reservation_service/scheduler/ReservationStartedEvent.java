@@ -0,0 +1,7 @@
+package com.parking.reservation_service.scheduler;
+
+/**
+ * Published by {@link ReservationTimerScheduler} when an ACTIVE reservation's start time is reached.
+ */
+public record ReservationStartedEvent(Long reservationId, Long slotId) {
+}
@@ -0,0 +1,231 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires reservation start and end transitions within about a second of their boundary.
+ *
+ * Upcoming boundaries are kept in a {@link HierarchicalTimingWheel} with one-second ticks.
+ * Only boundaries inside a sliding horizon are held in memory: the horizon is reloaded from
+ * the database periodically, and the service calls {@link #track} on every create, update,
+ * cancel and status change. The periodic bulk expiry job remains as a safety net.
+ *
+ * With several replicas only the shards this instance leases are tracked: the horizon covers
+ * them and is reloaded as soon as ownership changes, boundaries of other shards are ignored,
+ * and bookings made or changed through other replicas are picked up by a short catch-up poll
+ * on changed_at.
+ */
+@Slf4j
+@Component
+public class ReservationTimerScheduler {
+
+    enum Boundary { START, END }
+
+    record Event(Long reservationId, Long slotId, Boundary boundary) {
+    }
+
+    // Catch-up re-reads this much before the last change it saw, for transactions that commit late
+    private static final long CATCH_UP_OVERLAP_SECONDS = 5;
+    private static final LocalDateTime NO_CHANGES = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ReservationRepository reservationRepo;
+    private final ReservationCompleter completer;
+    private final SchedulerLeaseManager leaseManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration horizon;
+    private final Timer lagTimer;
+
+    // Guarded by this
+    private final HierarchicalTimingWheel<Event> wheel;
+    private final Map<Long, List<HierarchicalTimingWheel.Timeout<Event>>> timersByReservation = new HashMap<>();
+
+    // Latest changed_at the catch-up poll has seen; database time, only compared with database values
+    private volatile LocalDateTime lastChange;
+
+    public ReservationTimerScheduler(ReservationRepository reservationRepo,
+                                     ReservationCompleter completer,
+                                     SchedulerLeaseManager leaseManager,
+                                     ApplicationEventPublisher eventPublisher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${reservation.scheduler.horizon-minutes:60}") long horizonMinutes) {
+        this.reservationRepo = reservationRepo;
+        this.completer = completer;
+        this.leaseManager = leaseManager;
+        this.eventPublisher = eventPublisher;
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+        // 64 one-second buckets per level over three levels covers roughly three days
+        this.wheel = new HierarchicalTimingWheel<>(1000, 64, 3, System.currentTimeMillis());
+        this.lagTimer = Timer.builder("reservation.scheduler.lag")
+                .description("Delay between a reservation boundary and its transition")
+                .register(meterRegistry);
+        Gauge.builder("reservation.scheduler.pending", this, ReservationTimerScheduler::pendingTimers)
+                .description("Reservation boundaries currently held in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    // (Re)schedules the reservation's boundaries; anything no longer ACTIVE or outside our shards is dropped
+    public void track(Reservation r) {
+        LocalDateTime limit = LocalDateTime.now().plus(horizon);
+        boolean owned = leaseManager.ownsSlot(r.getSlotId());
+        synchronized (this) {
+            cancelTimers(r.getReservationId());
+            if (r.getStatus() != ReservationStatus.ACTIVE || !owned) {
+                return;
+            }
+            List<HierarchicalTimingWheel.Timeout<Event>> timers = new ArrayList<>(2);
+            if (r.getStartTime().isAfter(LocalDateTime.now()) && !r.getStartTime().isAfter(limit)) {
+                timers.add(wheel.schedule(toMillis(r.getStartTime()),
+                        new Event(r.getReservationId(), r.getSlotId(), Boundary.START)));
+            }
+            if (!r.getEndTime().isAfter(limit)) {
+                timers.add(wheel.schedule(toMillis(r.getEndTime()),
+                        new Event(r.getReservationId(), r.getSlotId(), Boundary.END)));
+            }
+            if (!timers.isEmpty()) {
+                timersByReservation.put(r.getReservationId(), timers);
+            }
+        }
+    }
+
+    public void untrack(Long reservationId) {
+        synchronized (this) {
+            cancelTimers(reservationId);
+        }
+    }
+
+    // Slides the horizon forward; re-tracking already scheduled reservations is harmless
+    @Scheduled(fixedDelayString = "${reservation.scheduler.horizon-refresh-ms:300000}")
+    public void refreshHorizon() {
+        List<Integer> shards = leaseManager.ownedShards();
+        if (shards.isEmpty()) {
+            return;
+        }
+        int shardCount = leaseManager.getShardCount();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime limit = now.plus(horizon);
+        try {
+            reservationRepo.findStartingInShards(ReservationStatus.ACTIVE, now, limit, shardCount, shards)
+                    .forEach(this::track);
+            reservationRepo.findEndingInShards(ReservationStatus.ACTIVE, limit, shardCount, shards)
+                    .forEach(this::track);
+        } catch (Exception e) {
+            log.error("Could not load reservation boundaries up to {}", limit, e);
+        }
+    }
+
+    // Tracks bookings created or changed through other replicas on the shards we own
+    @Scheduled(fixedDelayString = "${reservation.scheduler.catch-up-ms:5000}")
+    public void catchUp() {
+        List<Integer> shards = leaseManager.ownedShards();
+        if (shards.isEmpty()) {
+            return;
+        }
+        try {
+            if (lastChange == null) {
+                // The horizon load covers what changed before now
+                lastChange = reservationRepo.findLastChange().orElse(NO_CHANGES);
+                return;
+            }
+            List<Reservation> changed = reservationRepo.findChangedInShards(
+                    lastChange.minusSeconds(CATCH_UP_OVERLAP_SECONDS), leaseManager.getShardCount(), shards);
+            changed.forEach(this::track);
+            changed.stream().map(Reservation::getChangedAt).filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .filter(latest -> latest.isAfter(lastChange))
+                    .ifPresent(latest -> lastChange = latest);
+        } catch (Exception e) {
+            log.warn("Could not catch up on changed reservations: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onShardOwnershipChanged(ShardOwnershipChangedEvent event) {
+        synchronized (this) {
+            // Whoever holds those shards now fires their boundaries
+            List<Long> lost = timersByReservation.entrySet().stream()
+                    .filter(e -> !leaseManager.ownsSlot(e.getValue().get(0).getPayload().slotId()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            lost.forEach(this::cancelTimers);
+        }
+        refreshHorizon();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        long now = System.currentTimeMillis();
+        List<Event> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(now, timeout -> {
+                lagTimer.record(Math.max(0, now - timeout.getDeadlineMillis()), TimeUnit.MILLISECONDS);
+                Event event = timeout.getPayload();
+                List<HierarchicalTimingWheel.Timeout<Event>> timers = timersByReservation.get(event.reservationId());
+                if (timers != null) {
+                    timers.remove(timeout);
+                    if (timers.isEmpty()) {
+                        timersByReservation.remove(event.reservationId());
+                    }
+                }
+                due.add(event);
+            });
+        }
+        List<Long> ended = new ArrayList<>();
+        for (Event event : due) {
+            if (!leaseManager.ownsSlot(event.slotId())) {
+                continue;
+            }
+            if (event.boundary() == Boundary.END) {
+                ended.add(event.reservationId());
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(new ReservationStartedEvent(event.reservationId(), event.slotId()));
+            } catch (Exception e) {
+                log.error("Failed to process start of reservation {}", event.reservationId(), e);
+            }
+        }
+        if (!ended.isEmpty()) {
+            // Boundaries that fall in the same second are completed and released together
+            completer.complete(ended);
+        }
+    }
+
+    private synchronized int pendingTimers() {
+        return wheel.pending();
+    }
+
+    private void cancelTimers(Long reservationId) {
+        List<HierarchicalTimingWheel.Timeout<Event>> timers = timersByReservation.remove(reservationId);
+        if (timers != null) {
+            timers.forEach(wheel::cancel);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        // Reservation times are compared against LocalDateTime.now() elsewhere, so use the same zone
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,9 @@
+package com.parking.reservation_service.scheduler;
+
+import java.util.List;
+
+/**
+ * Published by {@link ReservationCompleter} after a chunk of reservations has been moved to COMPLETED.
+ */
+public record ReservationsCompletedEvent(List<Long> reservationIds) {
+}
@@ -0,0 +1,170 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.repository.SchedulerLeaseRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Splits scheduled reservation work across replicas with leases stored in reservationdb.
+ *
+ * Slots are hashed into {@code reservation.cluster.shards} shards (slotId mod shards), and
+ * each shard is a lease row that at most one instance holds at a time. Every instance also
+ * heartbeats a "node:" lease so the others know how many replicas are alive; each one then
+ * claims or sheds shards until it holds its fair share. With a single shard this is plain
+ * leader election.
+ *
+ * Leases are short (15 s by default) and renewed every few seconds, so the shards of a dead
+ * instance are picked up within one lease period, and a clean shutdown hands them over at once.
+ * If renewal fails, the instance stops acting on its shards before the lease can expire.
+ */
+@Slf4j
+@Component
+public class SchedulerLeaseManager {
+
+    private static final String SHARD_PREFIX = "expiry-shard-";
+    private static final String NODE_PREFIX = "node:";
+    private static final LocalDateTime NEVER_HELD = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final SchedulerLeaseRepository leaseRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int shardCount;
+    private final Duration leaseDuration;
+    private final String instanceId;
+
+    // Guarded by this
+    private final TreeSet<Integer> owned = new TreeSet<>();
+    private LocalDateTime validUntil = NEVER_HELD;
+
+    public SchedulerLeaseManager(SchedulerLeaseRepository leaseRepo,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${reservation.cluster.shards:1}") int shardCount,
+                                 @Value("${reservation.cluster.lease-seconds:15}") long leaseSeconds,
+                                 @Value("${reservation.cluster.instance-id:}") String instanceId) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("reservation.cluster.shards must be positive");
+        }
+        this.leaseRepo = leaseRepo;
+        this.eventPublisher = eventPublisher;
+        this.shardCount = shardCount;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.instanceId = instanceId.isBlank() ? "reservation-service-" + UUID.randomUUID() : instanceId;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // Shards this instance may act on right now; empty once our leases may have lapsed
+    public synchronized List<Integer> ownedShards() {
+        if (owned.isEmpty() || !LocalDateTime.now().isBefore(validUntil)) {
+            return List.of();
+        }
+        return new ArrayList<>(owned);
+    }
+
+    // True if the slot's shard is one this instance may act on right now
+    public synchronized boolean ownsSlot(Long slotId) {
+        return slotId != null && LocalDateTime.now().isBefore(validUntil)
+                && owned.contains((int) Math.floorMod(slotId, (long) shardCount));
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.cluster.renew-ms:5000}")
+    public void rebalance() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(leaseDuration);
+        Set<Integer> before;
+        synchronized (this) {
+            before = Set.copyOf(owned);
+        }
+        TreeSet<Integer> held = new TreeSet<>();
+        try {
+            String nodeLease = NODE_PREFIX + instanceId;
+            leaseRepo.ensureExists(nodeLease, NEVER_HELD);
+            leaseRepo.tryAcquire(nodeLease, instanceId, now, until);
+
+            for (Integer shard : before) {
+                if (leaseRepo.renew(shardLease(shard), instanceId, now, until) == 1) {
+                    held.add(shard);
+                }
+            }
+
+            long liveNodes = Math.max(1, leaseRepo.countLive(NODE_PREFIX, now));
+            int fairShare = (int) ((shardCount + liveNodes - 1) / liveNodes);
+
+            // Hand surplus shards to newly joined instances
+            while (held.size() > fairShare) {
+                Integer shard = held.pollLast();
+                leaseRepo.release(shardLease(shard), instanceId, now);
+            }
+            // Start from a per-instance offset so replicas don't all contend for shard 0 first
+            int offset = Math.floorMod(instanceId.hashCode(), shardCount);
+            for (int i = 0; i < shardCount && held.size() < fairShare; i++) {
+                int shard = (offset + i) % shardCount;
+                if (held.contains(shard)) {
+                    continue;
+                }
+                leaseRepo.ensureExists(shardLease(shard), NEVER_HELD);
+                if (leaseRepo.tryAcquire(shardLease(shard), instanceId, now, until) == 1) {
+                    held.add(shard);
+                }
+            }
+
+            leaseRepo.purgeExpired(NODE_PREFIX, now.minusHours(1));
+            synchronized (this) {
+                owned.clear();
+                owned.addAll(held);
+                // Leave a margin so we stop before another instance can take over
+                validUntil = until.minus(leaseDuration.dividedBy(3));
+            }
+        } catch (Exception e) {
+            log.warn("Could not renew scheduler leases: {}", e.getMessage());
+            synchronized (this) {
+                owned.retainAll(held);
+            }
+        }
+
+        Set<Integer> after;
+        synchronized (this) {
+            after = Set.copyOf(owned);
+        }
+        if (!after.equals(before)) {
+            log.info("Instance {} now owns expiry shards {} of {}", instanceId, new TreeSet<>(after), shardCount);
+            eventPublisher.publishEvent(new ShardOwnershipChangedEvent(List.copyOf(after)));
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> shards;
+        synchronized (this) {
+            shards = new ArrayList<>(owned);
+            owned.clear();
+        }
+        try {
+            for (Integer shard : shards) {
+                leaseRepo.release(shardLease(shard), instanceId, now);
+            }
+            leaseRepo.release(NODE_PREFIX + instanceId, instanceId, now);
+        } catch (Exception e) {
+            log.warn("Could not release scheduler leases on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private static String shardLease(int shard) {
+        return SHARD_PREFIX + shard;
+    }
+}
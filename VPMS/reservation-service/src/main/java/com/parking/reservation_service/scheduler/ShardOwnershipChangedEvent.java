@@ -0,0 +1,9 @@
+package com.parking.reservation_service.scheduler;
+
+import java.util.List;
+
+/**
+ * Published by {@link SchedulerLeaseManager} when this instance gains or loses expiry shards.
+ */
+public record ShardOwnershipChangedEvent(List<Integer> ownedShards) {
+}
@@ -0,0 +1,113 @@
+package com.parking.reservation_service.search;
+
+import com.parking.reservation_service.arrival.PlateIndex;
+import com.parking.reservation_service.dto.ReservationSearchDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtered reservation search that always runs as one SQL statement.
+ *
+ * Only the given filters become predicates, and each access path has a composite index
+ * on the entity: user (user_id, start_time), slot (slot_id, status, ...), plate
+ * (plate_key, start_time), type (type, start_time), status (status, start_time) and
+ * time range (start_time, end_time). Pages are keyset-based on (start_time, reservation_id)
+ * and one extra row is fetched to tell whether there is a next page, so no count query runs.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationSearch {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private static final Sort ORDER = Sort.by("startTime", "reservationId");
+
+    public record Page(List<Reservation> reservations, boolean hasMore) {
+    }
+
+    private final ReservationRepository reservationRepo;
+
+    public Page search(ReservationSearchDTO criteria) {
+        int size = criteria.getSize() == null ? DEFAULT_SIZE : criteria.getSize();
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new RuntimeException("Size must be between 1 and " + MAX_SIZE + ".");
+        }
+        List<Specification<Reservation>> filters = filters(criteria);
+        if (filters.isEmpty()) {
+            throw new RuntimeException("At least one filter is required.");
+        }
+        if ((criteria.getAfterStart() == null) != (criteria.getAfterId() == null)) {
+            throw new RuntimeException("afterStart and afterId must be given together.");
+        }
+        if (criteria.getAfterStart() != null) {
+            filters.add(after(criteria.getAfterStart(), criteria.getAfterId()));
+        }
+
+        List<Reservation> rows = reservationRepo.findBy(Specification.allOf(filters),
+                q -> q.sortBy(ORDER).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        return new Page(hasMore ? rows.subList(0, size) : rows, hasMore);
+    }
+
+    private static List<Specification<Reservation>> filters(ReservationSearchDTO c) {
+        List<Specification<Reservation>> filters = new ArrayList<>();
+        if (c.getStatus() != null && !c.getStatus().isBlank()) {
+            filters.add(status(parseStatus(c.getStatus())));
+        }
+        if (c.getSlotId() != null) {
+            filters.add((r, q, cb) -> cb.equal(r.get("slotId"), c.getSlotId()));
+        }
+        if (c.getUserId() != null) {
+            filters.add((r, q, cb) -> cb.equal(r.get("userId"), c.getUserId()));
+        }
+        if (c.getType() != null && !c.getType().isBlank()) {
+            filters.add((r, q, cb) -> cb.equal(r.get("type"), c.getType().trim()));
+        }
+        if (c.getPlate() != null && !c.getPlate().isBlank()) {
+            // Matched on the normalized column, however either side typed the plate
+            String plateKey = PlateIndex.normalize(c.getPlate());
+            filters.add((r, q, cb) -> cb.equal(r.get("plateKey"), plateKey));
+        }
+        if (c.getFrom() != null && c.getTo() != null && !c.getTo().isAfter(c.getFrom())) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        if (c.getTo() != null) {
+            filters.add((r, q, cb) -> cb.lessThan(r.get("startTime"), c.getTo()));
+        }
+        if (c.getFrom() != null) {
+            filters.add((r, q, cb) -> cb.greaterThan(r.get("endTime"), c.getFrom()));
+        }
+        return filters;
+    }
+
+    private static Specification<Reservation> status(ReservationStatus status) {
+        return (r, q, cb) -> cb.equal(r.get("status"), status);
+    }
+
+    // Rows after the cursor in (startTime, reservationId) order
+    private static Specification<Reservation> after(LocalDateTime start, Long id) {
+        return (r, q, cb) -> cb.or(
+                cb.greaterThan(r.get("startTime"), start),
+                cb.and(cb.equal(r.get("startTime"), start), cb.greaterThan(r.get("reservationId"), id)));
+    }
+
+    private static ReservationStatus parseStatus(String status) {
+        try {
+            return ReservationStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status: " + status);
+        }
+    }
+}
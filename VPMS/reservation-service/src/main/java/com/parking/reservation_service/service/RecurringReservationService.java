@@ -0,0 +1,22 @@
+package com.parking.reservation_service.service;
+ 
+import com.parking.reservation_service.dto.RecurringReservationRequestDTO;
+import com.parking.reservation_service.dto.RecurringReservationResponseDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+ 
+import java.time.LocalDate;
+import java.util.List;
+ 
+public interface RecurringReservationService {
+ 
+    RecurringReservationResponseDTO createRecurring(RecurringReservationRequestDTO requestDTO);
+ 
+    List<RecurringReservationResponseDTO> getRecurringByUser(Long userId);
+ 
+    void cancelRecurring(Long id);
+ 
+    void skipOccurrence(Long id, LocalDate date);
+ 
+    ReservationResponseDTO modifyOccurrence(Long id, LocalDate date, ReservationRequestDTO requestDTO);
+}
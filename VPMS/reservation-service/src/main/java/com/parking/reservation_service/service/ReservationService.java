@@ -1,15 +1,41 @@
 package com.parking.reservation_service.service;
  
+import com.parking.reservation_service.dto.ArrivalRequestDTO;
+import com.parking.reservation_service.dto.BookingTicketDTO;
+import com.parking.reservation_service.dto.BulkReservationRequestDTO;
+import com.parking.reservation_service.dto.BulkReservationResponseDTO;
+import com.parking.reservation_service.dto.HoldRequestDTO;
+import com.parking.reservation_service.dto.HoldResponseDTO;
+import com.parking.reservation_service.dto.OccupancyCalendarDTO;
+import com.parking.reservation_service.dto.ReservationChangeDTO;
 import com.parking.reservation_service.dto.ReservationRequestDTO;
 import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.dto.ReservationSearchDTO;
+import com.parking.reservation_service.dto.ReservationSearchResultDTO;
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.dto.SlotReassignmentDTO;
+import com.parking.reservation_service.dto.UtilizationRebuildDTO;
+import com.parking.reservation_service.dto.UtilizationReportDTO;
 
 
  
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
  
 public interface ReservationService {
  
     ReservationResponseDTO createReservation(ReservationRequestDTO requestDTO);
+
+    BookingTicketDTO queueReservation(ReservationRequestDTO requestDTO);
+
+    BookingTicketDTO getBookingTicket(String ticketId);
+
+    BulkReservationResponseDTO createReservations(BulkReservationRequestDTO requestDTO);
+
+    HoldResponseDTO placeHold(HoldRequestDTO requestDTO);
+
+    void releaseHold(String holdId);
  
     ReservationResponseDTO updateReservation(Long id, ReservationRequestDTO requestDTO);
 
@@ -22,7 +48,33 @@ public interface ReservationService {
     List<ReservationResponseDTO> getAllReservations();
  
     List<ReservationResponseDTO> getReservationsByUser(Long userId);
+
+    ReservationSearchResultDTO searchReservations(ReservationSearchDTO criteria);
     
     void completeExpiredReservations();
+
+    List<SlotDTO> findFreeSlots(LocalDateTime startTime, LocalDateTime endTime, String type, int limit);
+
+    OccupancyCalendarDTO getOccupancyCalendar(LocalDateTime from, LocalDateTime to, String type);
+
+    UtilizationReportDTO getUtilization(LocalDate from, LocalDate to, String type, List<String> groupBy);
+
+    UtilizationRebuildDTO rebuildUtilization(LocalDate from, LocalDate to, boolean apply);
+
+    ReservationResponseDTO findActiveForPlate(String vehicleNumber, LocalDateTime at);
+
+    ReservationResponseDTO recordArrival(ArrivalRequestDTO requestDTO);
+
+    ReservationResponseDTO matchArrival(ArrivalRequestDTO requestDTO);
+
+    ReservationResponseDTO confirmArrival(Long id, LocalDateTime arrivalTime);
+
+    ReservationResponseDTO recordDeparture(Long id);
+
+    List<SlotReassignmentDTO> getReassignments(LocalDateTime since);
+
+    List<ReservationChangeDTO> getReservationChanges(LocalDateTime since, Long afterId, int size);
+
+    List<ReservationChangeDTO> getCompletedReservations(LocalDateTime since, Long afterId, LocalDateTime until, int size);
 }
  
\ No newline at end of file
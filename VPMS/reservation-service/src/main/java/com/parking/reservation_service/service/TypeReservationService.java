@@ -0,0 +1,17 @@
+package com.parking.reservation_service.service;
+
+import com.parking.reservation_service.dto.TypeReservationRequestDTO;
+import com.parking.reservation_service.dto.TypeReservationResponseDTO;
+
+import java.util.List;
+
+public interface TypeReservationService {
+
+    TypeReservationResponseDTO book(TypeReservationRequestDTO requestDTO);
+
+    TypeReservationResponseDTO getById(Long id);
+
+    List<TypeReservationResponseDTO> getByUser(Long userId);
+
+    void cancel(Long id);
+}
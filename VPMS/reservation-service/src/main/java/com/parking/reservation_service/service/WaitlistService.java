@@ -0,0 +1,23 @@
+package com.parking.reservation_service.service;
+ 
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.dto.WaitlistEntryDTO;
+import com.parking.reservation_service.dto.WaitlistRequestDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+ 
+import java.util.List;
+ 
+public interface WaitlistService {
+ 
+    WaitlistEntryDTO join(WaitlistRequestDTO requestDTO);
+ 
+    WaitlistEntryDTO getEntry(Long id);
+ 
+    List<WaitlistEntryDTO> getEntriesByUser(Long userId);
+ 
+    SseEmitter subscribe(Long id);
+ 
+    ReservationResponseDTO claim(Long id);
+ 
+    void leave(Long id);
+}
@@ -0,0 +1,258 @@
+package com.parking.reservation_service.service.impl;
+ 
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.dto.RecurringReservationRequestDTO;
+import com.parking.reservation_service.dto.RecurringReservationResponseDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.entity.RecurrenceSkip;
+import com.parking.reservation_service.entity.RecurringReservation;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.recurrence.RecurrenceRule;
+import com.parking.reservation_service.repository.RecurrenceSkipRepository;
+import com.parking.reservation_service.repository.RecurringReservationRepository;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.service.RecurringReservationService;
+import com.parking.reservation_service.utilization.UtilizationCube;
+ 
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+ 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+ 
+@Service
+@RequiredArgsConstructor
+public class RecurringReservationServiceImpl implements RecurringReservationService {
+ 
+    private static final int MAX_SPAN_DAYS = 366;
+ 
+    private final RecurringReservationRepository ruleRepo;
+    private final RecurrenceSkipRepository skipRepo;
+    private final ReservationRepository reservationRepo;
+    private final RecurrenceIndex recurrenceIndex;
+    private final ReservationBookingGuard bookingGuard;
+    private final ReservationTimerScheduler reservationTimers;
+    private final SlotDirectory slotDirectory;
+    private final UtilizationCube utilizationCube;
+ 
+    @Override
+    public RecurringReservationResponseDTO createRecurring(RecurringReservationRequestDTO dto) {
+        RecurringReservation rule = RecurringReservation.builder()
+                .userId(dto.getUserId())
+                .slotId(dto.getSlotId())
+                .vehicleNumber(dto.getVehicleNumber())
+                .type(dto.getType())
+                .daysOfWeek(parseDays(dto.getDaysOfWeek()))
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .validFrom(dto.getValidFrom())
+                .validUntil(dto.getValidUntil())
+                .status(ReservationStatus.ACTIVE)
+                .build();
+        validate(rule);
+        if (slotDirectory.isPooled(rule.getSlotId())) {
+            throw new RuntimeException("Slot " + rule.getSlotId() + " is reserved for any-slot bookings.");
+        }
+ 
+        RecurringReservation saved = bookingGuard.withSlotGuarded(rule.getSlotId(), () -> {
+            if (conflicts(rule)) {
+                throw new RuntimeException("Slot already reserved for one or more occurrences.");
+            }
+            RecurringReservation created = ruleRepo.save(rule);
+            recurrenceIndex.put(created);
+            return created;
+        });
+        return mapToDTO(saved);
+    }
+ 
+    @Override
+    public List<RecurringReservationResponseDTO> getRecurringByUser(Long userId) {
+        return ruleRepo.findByUserId(userId).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+ 
+    @Override
+    public void cancelRecurring(Long id) {
+        RecurringReservation rule = findRule(id);
+        rule.setStatus(ReservationStatus.CANCELLED);
+        ruleRepo.save(rule);
+        // Occurrences already materialized stay booked until cancelled on their own
+        recurrenceIndex.put(rule);
+    }
+ 
+    @Override
+    public void skipOccurrence(Long id, LocalDate date) {
+        RecurringReservation rule = findActiveOccurrence(id, date);
+        reservationRepo.findByRecurrenceIdAndOccurrenceDate(id, date).ifPresent(r -> {
+            throw new RuntimeException("Occurrence is already booked as reservation " + r.getReservationId()
+                    + "; cancel that reservation instead.");
+        });
+        if (!skipRepo.existsByRecurrenceIdAndOccurrenceDate(id, date)) {
+            skipRepo.save(new RecurrenceSkip(null, id, date));
+        }
+        recurrenceIndex.exclude(rule.getSlotId(), id, date);
+    }
+ 
+    @Override
+    public ReservationResponseDTO modifyOccurrence(Long id, LocalDate date, ReservationRequestDTO dto) {
+        RecurringReservation rule = findActiveOccurrence(id, date);
+        if (skipRepo.existsByRecurrenceIdAndOccurrenceDate(id, date)) {
+            throw new RuntimeException("Occurrence was skipped.");
+        }
+ 
+        // A materialized occurrence is rescheduled like any other reservation
+        Reservation reservation = reservationRepo.findByRecurrenceIdAndOccurrenceDate(id, date)
+                .orElseGet(() -> Reservation.builder()
+                        .userId(rule.getUserId())
+                        .slotId(rule.getSlotId())
+                        .vehicleNumber(rule.getVehicleNumber())
+                        .type(rule.getType())
+                        .startTime(date.atTime(rule.getStartTime()))
+                        .endTime(date.atTime(rule.getEndTime()))
+                        .status(ReservationStatus.ACTIVE)
+                        .recurrenceId(id)
+                        .occurrenceDate(date)
+                        .build());
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new RuntimeException("Occurrence is no longer active.");
+        }
+        // Only an occurrence that is already a reservation row is in the utilization cube
+        boolean materialized = reservation.getReservationId() != null;
+        LocalDateTime oldStart = reservation.getStartTime();
+        LocalDateTime oldEnd = reservation.getEndTime();
+        if (dto.getStartTime() != null) {
+            reservation.setStartTime(dto.getStartTime());
+        }
+        if (dto.getEndTime() != null) {
+            reservation.setEndTime(dto.getEndTime());
+        }
+        if (dto.getVehicleNumber() != null) {
+            reservation.setVehicleNumber(dto.getVehicleNumber());
+        }
+        if (!reservation.getEndTime().isAfter(reservation.getStartTime())) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+ 
+        // The rule's own occurrence on that date is ignored by the conflict check
+        reservation = bookingGuard.saveIfFree(reservation);
+        recurrenceIndex.exclude(rule.getSlotId(), id, date);
+        reservationTimers.track(reservation);
+        if (materialized) {
+            utilizationCube.remove(reservation.getSlotId(), oldStart, oldEnd);
+        }
+        utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+        return mapToDTO(reservation);
+    }
+ 
+    // Checks the rule's occurrences against booked reservations and the slot's other rules
+    private boolean conflicts(RecurringReservation rule) {
+        RecurrenceRule candidate = RecurrenceRule.of(rule, List.of());
+        LocalDateTime from = rule.getValidFrom().atStartOfDay();
+        LocalDateTime to = rule.getValidUntil().plusDays(1).atStartOfDay();
+ 
+        for (ReservationWindow w : reservationRepo.findWindowsForSlots(
+                List.of(rule.getSlotId()), ReservationStatus.ACTIVE, from, to)) {
+            if (candidate.overlaps(w.getStartTime(), w.getEndTime(), null)) {
+                return true;
+            }
+        }
+        // Other replicas may have added rules since this slot was cached
+        recurrenceIndex.reload(rule.getSlotId());
+        for (LocalDateTime[] o : candidate.occurrencesBetween(from, to)) {
+            if (recurrenceIndex.hasConflict(rule.getSlotId(), o[0], o[1], null, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+ 
+    private void validate(RecurringReservation rule) {
+        if (rule.getUserId() == null || rule.getSlotId() == null || rule.getVehicleNumber() == null
+                || rule.getType() == null) {
+            throw new RuntimeException("User, slot, vehicle number and type are required.");
+        }
+        if (rule.getStartTime() == null || rule.getEndTime() == null || !rule.getEndTime().isAfter(rule.getStartTime())) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        if (rule.getValidFrom() == null || rule.getValidUntil() == null || rule.getValidUntil().isBefore(rule.getValidFrom())) {
+            throw new RuntimeException("Valid until must not be before valid from.");
+        }
+        if (rule.getValidFrom().isBefore(LocalDate.now())) {
+            throw new RuntimeException("Recurring reservations cannot start in the past.");
+        }
+        if (rule.getValidFrom().plusDays(MAX_SPAN_DAYS).isBefore(rule.getValidUntil())) {
+            throw new RuntimeException("Recurring reservations cannot span more than one year.");
+        }
+    }
+ 
+    private static int parseDays(List<String> days) {
+        if (days == null || days.isEmpty()) {
+            throw new RuntimeException("At least one day of the week is required.");
+        }
+        try {
+            return RecurrenceRule.mask(days.stream().map(d -> DayOfWeek.valueOf(d.toUpperCase())).toList());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Days of week must be MONDAY to SUNDAY.");
+        }
+    }
+ 
+    private RecurringReservation findRule(Long id) {
+        return ruleRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Recurring reservation not found"));
+    }
+ 
+    private RecurringReservation findActiveOccurrence(Long id, LocalDate date) {
+        RecurringReservation rule = findRule(id);
+        if (rule.getStatus() != ReservationStatus.ACTIVE) {
+            throw new RuntimeException("Recurring reservation is not active.");
+        }
+        if (!RecurrenceRule.of(rule, List.of()).occursOn(date)) {
+            throw new RuntimeException("Recurring reservation has no occurrence on " + date + ".");
+        }
+        return rule;
+    }
+ 
+    private RecurringReservationResponseDTO mapToDTO(RecurringReservation rule) {
+        List<String> days = Arrays.stream(DayOfWeek.values())
+                .filter(d -> (rule.getDaysOfWeek() & (1 << (d.getValue() - 1))) != 0)
+                .map(DayOfWeek::name)
+                .toList();
+        return new RecurringReservationResponseDTO(
+                rule.getId(),
+                rule.getUserId(),
+                rule.getSlotId(),
+                rule.getVehicleNumber(),
+                rule.getType(),
+                days,
+                rule.getStartTime(),
+                rule.getEndTime(),
+                rule.getValidFrom(),
+                rule.getValidUntil(),
+                rule.getStatus()
+        );
+    }
+ 
+    private ReservationResponseDTO mapToDTO(Reservation reservation) {
+        return new ReservationResponseDTO(
+                reservation.getReservationId(),
+                reservation.getUserId(),
+                reservation.getSlotId(),
+                reservation.getVehicleNumber(),
+                reservation.getStartTime(),
+                reservation.getEndTime(),
+                reservation.getStatus(),
+                reservation.getType()
+        );
+    }
+}
@@ -1,16 +1,56 @@
 package com.parking.reservation_service.service.impl;
  
+import com.parking.reservation_service.arrival.PlateIndex;
+import com.parking.reservation_service.booking.BulkReservationBooker;
+import com.parking.reservation_service.capacity.ArrivalAssigner;
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.booking.SlotFreedEvent;
+import com.parking.reservation_service.calendar.OccupancySweep;
 import com.parking.reservation_service.dto.*;
 import com.parking.reservation_service.entity.*;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.outbox.SlotCommandOutbox;
+import com.parking.reservation_service.overstay.OverstayWatcher;
+import com.parking.reservation_service.pipeline.BookingPipeline;
+import com.parking.reservation_service.pipeline.BookingQueuedException;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.index.SlotReservationIndex;
 import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+import com.parking.reservation_service.repository.SlotReassignmentRepository;
+import com.parking.reservation_service.search.ReservationSearch;
 import com.parking.reservation_service.service.ReservationService;
 import com.parking.reservation_service.feign.SlotClient;
+import com.parking.reservation_service.scheduler.ReservationCompleter;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
  
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
  
 @Service
@@ -19,56 +59,42 @@ public class ReservationServiceImpl implements ReservationService {
  
     private final ReservationRepository reservationRepo;
     private final SlotClient slotClient;
+    private final SlotReservationIndex slotIndex;
+    private final ReservationBookingGuard bookingGuard;
+    private final ReservationTimerScheduler reservationTimers;
+    private final ReservationCompleter reservationCompleter;
+    private final FreeSlotFinder freeSlotFinder;
+    private final SlotDirectory slotDirectory;
+    private final SlotCommandOutbox slotOutbox;
+    private final BulkReservationBooker bulkBooker;
+    private final RecurrenceIndex recurrenceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SlotHoldRegistry holds;
+    private final PlateIndex plateIndex;
+    private final ArrivalAssigner arrivalAssigner;
+    private final UtilizationCube utilizationCube;
+    private final BookingPipeline bookingPipeline;
+    private final OverstayWatcher overstayWatcher;
+    private final SlotReassignmentRepository reassignmentRepo;
+    private final ReservationSearch reservationSearch;
+
+    @Value("${reservation.holds.ttl-minutes:5}")
+    private long holdTtlMinutes;
+
+    @Value("${reservation.pipeline.wait-ms:10000}")
+    private long pipelineWaitMillis;
+
+    private static final Duration MAX_CALENDAR_RANGE = Duration.ofDays(31);
+    private static final int MAX_FEED_PAGE = 1000;
 
     @Scheduled(fixedRate = 1000000) // runs every 1000 seconds
     public void completeExpiredReservations() {
-        try {
-            List<Reservation> expired = reservationRepo.findByStatusAndEndTimeBefore(ReservationStatus.ACTIVE, LocalDateTime.now());
-            if (!expired.isEmpty()) {
-                System.out.println("=== AUTO-COMPLETION TRIGGERED ===");
-                System.out.println("Found " + expired.size() + " expired reservations to complete");
-                
-                for (Reservation r : expired) {
-                    try {
-                        System.out.println("Processing reservation ID: " + r.getReservationId() + " for slot: " + r.getSlotId());
-                        
-                        // Update reservation status to COMPLETED
-                        r.setStatus(ReservationStatus.COMPLETED);
-                        reservationRepo.save(r);
-                        System.out.println("✓ Reservation " + r.getReservationId() + " marked as COMPLETED");
-                        
-                        // Mark the slot as available again
-                        try {
-                            slotClient.markSlotAvailable(r.getSlotId());
-                            System.out.println("✓ Slot " + r.getSlotId() + " marked as AVAILABLE");
-                        } catch (Exception e) {
-                            System.err.println("✗ Error marking slot " + r.getSlotId() + " as available: " + e.getMessage());
-                        }
-                        
-                    } catch (Exception e) {
-                        System.err.println("✗ Error processing reservation " + r.getReservationId() + ": " + e.getMessage());
-                    }
-                }
-                System.out.println("=== AUTO-COMPLETION FINISHED ===");
-            } else {
-                System.out.println("No expired reservations found at " + LocalDateTime.now());
-            }
-        } catch (Exception e) {
-            System.err.println("✗ Error in completeExpiredReservations: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Safety net behind the timer wheel: completes in chunks with one UPDATE and one slot release call each
+        reservationCompleter.completeExpired();
     }
  
     @Override
     public ReservationResponseDTO createReservation(ReservationRequestDTO dto) {
-        // Check for existing ACTIVE reservation on same slot and time
-        List<Reservation> conflicts = reservationRepo.findBySlotIdAndStatus(dto.getSlotId(), ReservationStatus.ACTIVE);
-        for (Reservation r : conflicts) {
-            if (dto.getStartTime().isBefore(r.getEndTime()) && dto.getEndTime().isAfter(r.getStartTime())) {
-                throw new RuntimeException("Slot already reserved for the selected time.");
-            }
-        }
-
         // Do NOT mark slot as occupied here. Only reservation is created.
         // slotClient.markSlotOccupied(dto.getSlotId()); // <-- REMOVE THIS LINE
 
@@ -81,15 +107,136 @@ public class ReservationServiceImpl implements ReservationService {
                 .status(ReservationStatus.ACTIVE)
                 .type(dto.getType())
                 .build();
+        requireWindow(dto.getStartTime(), dto.getEndTime());
+        requireBookable(dto.getSlotId());
 
-        reservationRepo.save(reservation);
+        // Hold conversions keep the direct path; the pipeline books plain requests only
+        if (bookingPipeline.isEnabled() && dto.getHoldId() == null) {
+            BookingPipeline.Ticket ticket = bookingPipeline.submit(dto);
+            try {
+                return mapToDTO(ticket.result().get(pipelineWaitMillis, TimeUnit.MILLISECONDS));
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                throw new BookingQueuedException(toTicketDTO(ticket));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the booking.");
+            }
+        }
+
+        // A hold taken at checkout is converted: it doesn't block this booking and is released once saved
+        if (dto.getHoldId() != null) {
+            SlotHold hold = holds.find(dto.getHoldId());
+            if (hold == null) {
+                throw new RuntimeException("Hold has expired.");
+            }
+            if (!hold.slotId().equals(dto.getSlotId())) {
+                throw new RuntimeException("Hold is for a different slot.");
+            }
+            if (!hold.userId().equals(dto.getUserId())) {
+                throw new RuntimeException("Hold belongs to another user.");
+            }
+            // The hold only kept this window free; a booking outside it could overlap someone else's
+            if (dto.getStartTime() == null || dto.getEndTime() == null
+                    || dto.getStartTime().isBefore(hold.startTime()) || dto.getEndTime().isAfter(hold.endTime())) {
+                throw new RuntimeException("Booking window must lie within the held window.");
+            }
+        }
+
+        // Conflict check and insert run atomically per slot (and across replicas)
+        reservation = bookingGuard.saveIfFree(reservation, dto.getHoldId());
+        reservationTimers.track(reservation);
+        utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
 
         return mapToDTO(reservation);
     }
+    @Override
+    public BookingTicketDTO queueReservation(ReservationRequestDTO dto) {
+        if (!bookingPipeline.isEnabled()) {
+            throw new RuntimeException("Queued booking is not enabled.");
+        }
+        if (dto.getHoldId() != null) {
+            throw new RuntimeException("Bookings that convert a hold cannot be queued.");
+        }
+        requireWindow(dto.getStartTime(), dto.getEndTime());
+        requireBookable(dto.getSlotId());
+        return toTicketDTO(bookingPipeline.submit(dto));
+    }
+
+    @Override
+    public BookingTicketDTO getBookingTicket(String ticketId) {
+        BookingPipeline.Ticket ticket = bookingPipeline.find(ticketId);
+        if (ticket == null) {
+            throw new RuntimeException("Booking ticket not found or expired");
+        }
+        return toTicketDTO(ticket);
+    }
+
+    private BookingTicketDTO toTicketDTO(BookingPipeline.Ticket ticket) {
+        CompletableFuture<Reservation> result = ticket.result();
+        if (!result.isDone()) {
+            return new BookingTicketDTO(ticket.ticketId(), "QUEUED", null, null);
+        }
+        try {
+            return new BookingTicketDTO(ticket.ticketId(), "BOOKED", mapToDTO(result.join()), null);
+        } catch (CompletionException e) {
+            return new BookingTicketDTO(ticket.ticketId(), "REJECTED", null, e.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public BulkReservationResponseDTO createReservations(BulkReservationRequestDTO dto) {
+        String mode = dto.getMode() == null ? "ALL_OR_NOTHING" : dto.getMode().toUpperCase();
+        if (!mode.equals("ALL_OR_NOTHING") && !mode.equals("BEST_EFFORT")) {
+            throw new RuntimeException("Mode must be ALL_OR_NOTHING or BEST_EFFORT.");
+        }
+
+        if (dto.getReservations() != null) {
+            dto.getReservations().forEach(item -> requireBookable(item.getSlotId()));
+        }
+        BulkReservationBooker.Result result = bulkBooker.book(dto.getReservations(), mode.equals("ALL_OR_NOTHING"));
+        result.booked().forEach(reservationTimers::track);
+        result.booked().forEach(r -> utilizationCube.add(r.getSlotId(), r.getStartTime(), r.getEndTime()));
+
+        int rejected = (int) result.items().stream().filter(i -> i.getOutcome().equals("REJECTED")).count();
+        return new BulkReservationResponseDTO(mode, result.booked().size(), rejected, result.items());
+    }
+
+    @Override
+    public HoldResponseDTO placeHold(HoldRequestDTO dto) {
+        if (dto.getUserId() == null || dto.getSlotId() == null) {
+            throw new RuntimeException("User and slot are required.");
+        }
+        if (dto.getStartTime() == null || dto.getEndTime() == null || !dto.getEndTime().isAfter(dto.getStartTime())) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        requireBookable(dto.getSlotId());
+        SlotHold hold = bookingGuard.holdIfFree(dto.getSlotId(), dto.getStartTime(), dto.getEndTime(),
+                dto.getUserId(), null, Duration.ofMinutes(holdTtlMinutes));
+        if (hold == null) {
+            throw new RuntimeException("Slot already reserved for the selected time.");
+        }
+        return new HoldResponseDTO(hold.holdId(), hold.slotId(), hold.startTime(), hold.endTime(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.expiresAtMillis()), ZoneId.systemDefault()));
+    }
+
+    @Override
+    public void releaseHold(String holdId) {
+        SlotHold hold = holds.find(holdId);
+        if (hold == null || !holds.release(holdId)) {
+            throw new RuntimeException("Hold not found or already expired");
+        }
+        // Anyone waiting for that window gets a chance at it
+        eventPublisher.publishEvent(new SlotFreedEvent(hold.slotId(), hold.startTime(), hold.endTime()));
+    }
+
     @Override
     public ReservationResponseDTO updateReservation(Long id, ReservationRequestDTO dto) {
         Reservation reservation = reservationRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
+        LocalDateTime oldStart = reservation.getStartTime();
+        LocalDateTime oldEnd = reservation.getEndTime();
     
         // Only update fields that are provided (not null)
         if (dto.getStartTime() != null) {
@@ -104,37 +251,104 @@ public class ReservationServiceImpl implements ReservationService {
         if (dto.getType() != null) {
             reservation.setType(dto.getType());
         }
-    
-        reservationRepo.save(reservation);
+        requireWindow(reservation.getStartTime(), reservation.getEndTime());
+
+        if ((dto.getStartTime() != null || dto.getEndTime() != null)
+                && reservation.getStatus() == ReservationStatus.ACTIVE) {
+            reservation = bookingGuard.saveIfFree(reservation);
+        } else {
+            reservationRepo.save(reservation);
+            slotIndex.upsert(reservation);
+        }
+        reservationTimers.track(reservation);
+        if (reservation.getStatus() != ReservationStatus.CANCELLED
+                && (!oldStart.equals(reservation.getStartTime()) || !oldEnd.equals(reservation.getEndTime()))) {
+            utilizationCube.remove(reservation.getSlotId(), oldStart, oldEnd);
+            utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+        }
         return mapToDTO(reservation);
     }
 
     @Override
+    @Transactional
     public ReservationResponseDTO updateReservationStatus(Long id, String status) {
-        Reservation reservation = reservationRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Reservation not found"));
-        
-        ReservationStatus newStatus = ReservationStatus.valueOf(status.toUpperCase());
-        reservation.setStatus(newStatus);
-        
-        // If reservation is cancelled or completed, free up the slot
-        if (newStatus == ReservationStatus.CANCELLED || newStatus == ReservationStatus.COMPLETED) {
-            slotClient.markSlotAvailable(reservation.getSlotId());
-        }
-        
-        reservationRepo.save(reservation);
+        ReservationStatus newStatus;
+        try {
+            newStatus = ReservationStatus.valueOf(status.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid status: " + status);
+        }
+
+        Transition transition = transition(id, newStatus);
+        Reservation reservation = transition.reservation();
+        if (!transition.applied()) {
+            return mapToDTO(reservation);
+        }
+        // The slot is freed only by the request that actually moved the reservation (delivered by the outbox relay)
+        slotOutbox.releaseSlot(reservation.getReservationId(), reservation.getSlotId(), newStatus.name());
+        // Waiters are matched to the freed window once this commits
+        eventPublisher.publishEvent(new SlotFreedEvent(reservation.getSlotId(), reservation.getStartTime(),
+                newStatus == ReservationStatus.COMPLETED ? null : reservation.getEndTime()));
+        forgetAfterCommit(reservation.getSlotId(), id);
+        if (newStatus == ReservationStatus.CANCELLED) {
+            utilizationCube.remove(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+        }
+        arrivalAssigner.release(id, newStatus, LocalDateTime.now());
         return mapToDTO(reservation);
     }
   
     @Override
+    @Transactional
     public void cancelReservation(Long id) {
+        Transition transition = transition(id, ReservationStatus.CANCELLED);
+        if (!transition.applied()) {
+            return;
+        }
+        Reservation reservation = transition.reservation();
+        forgetAfterCommit(reservation.getSlotId(), id);
+        utilizationCube.remove(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+        arrivalAssigner.release(id, ReservationStatus.CANCELLED, LocalDateTime.now());
+ 
+        // Slot-service is told to mark it as available again once this commits
+        slotOutbox.releaseSlot(reservation.getReservationId(), reservation.getSlotId(), ReservationStatus.CANCELLED.name());
+        eventPublisher.publishEvent(new SlotFreedEvent(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime()));
+    }
+
+    private record Transition(Reservation reservation, boolean applied) {
+    }
+
+    // The index and the timers only drop the reservation once the transition is committed; a
+    // rolled back cancel leaves it booked and its timers running
+    private void forgetAfterCommit(Long slotId, Long reservationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    slotIndex.remove(slotId, reservationId);
+                    reservationTimers.untrack(reservationId);
+                }
+            });
+        } else {
+            slotIndex.remove(slotId, reservationId);
+            reservationTimers.untrack(reservationId);
+        }
+    }
+
+    // Moves the reservation with one conditional UPDATE; a repeat of a transition that already
+    // happened (e.g. a second cancel) is not applied again, anything else not allowed is an error
+    private Transition transition(Long id, ReservationStatus to) {
+        Set<ReservationStatus> from = to.allowedFrom();
+        boolean applied = !from.isEmpty() && reservationRepo.transition(id, from, to) == 1;
+        if (!applied) {
+            ReservationStatus current = reservationRepo.findStatusById(id)
+                    .orElseThrow(() -> new RuntimeException("Reservation not found"));
+            if (current != to) {
+                throw new RuntimeException("Cannot change a " + current + " reservation to " + to + ".");
+            }
+        }
         Reservation reservation = reservationRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
-        reservation.setStatus(ReservationStatus.CANCELLED);
-        reservationRepo.save(reservation);
- 
-        // Call slot-service to mark it as available again
-        slotClient.markSlotAvailable(reservation.getSlotId());
+        return new Transition(reservation, applied);
     }
  
     @Override
@@ -157,7 +371,203 @@ public class ReservationServiceImpl implements ReservationService {
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public ReservationSearchResultDTO searchReservations(ReservationSearchDTO criteria) {
+        ReservationSearch.Page page = reservationSearch.search(criteria);
+        List<ReservationResponseDTO> reservations = page.reservations().stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        if (!page.hasMore()) {
+            return new ReservationSearchResultDTO(reservations, null, null);
+        }
+        Reservation last = page.reservations().get(page.reservations().size() - 1);
+        return new ReservationSearchResultDTO(reservations, last.getStartTime(), last.getReservationId());
+    }
  
+    @Override
+    public List<SlotDTO> findFreeSlots(LocalDateTime startTime, LocalDateTime endTime, String type, int limit) {
+        return freeSlotFinder.findFree(startTime, endTime, type, limit);
+    }
+
+    @Override
+    public OccupancyCalendarDTO getOccupancyCalendar(LocalDateTime from, LocalDateTime to, String type) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        if (Duration.between(from, to).compareTo(MAX_CALENDAR_RANGE) > 0) {
+            throw new RuntimeException("Calendar range cannot exceed 31 days.");
+        }
+
+        // Cancelled bookings never held the slot; recurring occurrences are expanded for this range only
+        List<ReservationWindow> windows = new ArrayList<>(reservationRepo.findWindowsOverlapping(
+                EnumSet.of(ReservationStatus.ACTIVE, ReservationStatus.COMPLETED), from, to));
+        windows.addAll(recurrenceIndex.windowsBetween(from, to));
+        if (type != null && !type.isBlank()) {
+            Set<Long> slotsOfType = slotDirectory.slots(type).stream()
+                    .map(SlotDTO::getSlotId)
+                    .collect(Collectors.toSet());
+            windows = windows.stream().filter(w -> slotsOfType.contains(w.getSlotId())).toList();
+        }
+        return new OccupancyCalendarDTO(from, to, OccupancySweep.sweep(windows, from, to));
+    }
+
+    @Override
+    public UtilizationReportDTO getUtilization(LocalDate from, LocalDate to, String type, List<String> groupBy) {
+        return utilizationCube.query(from, to, type, groupBy);
+    }
+
+    @Override
+    public UtilizationRebuildDTO rebuildUtilization(LocalDate from, LocalDate to, boolean apply) {
+        return utilizationCube.rebuild(from, to, apply);
+    }
+
+    @Override
+    public ReservationResponseDTO findActiveForPlate(String vehicleNumber, LocalDateTime at) {
+        Reservation reservation = activeForPlate(vehicleNumber, at == null ? LocalDateTime.now() : at);
+        if (reservation == null) {
+            throw new RuntimeException("No active reservation for vehicle " + vehicleNumber);
+        }
+        return mapToDTO(reservation);
+    }
+
+    @Override
+    public ReservationResponseDTO recordArrival(ArrivalRequestDTO dto) {
+        LocalDateTime at = dto.getArrivalTime() == null ? LocalDateTime.now() : dto.getArrivalTime();
+        Reservation reservation = arrivingReservation(dto.getVehicleNumber(), at);
+        // Conditional, so a repeated gate event keeps the first arrival time
+        reservationRepo.markArrived(reservation.getReservationId(), ReservationStatus.ACTIVE, at);
+        return mapToDTO(reservation);
+    }
+
+    // Same match without recording the arrival; the gate confirms it once the vehicle is logged in
+    @Override
+    public ReservationResponseDTO matchArrival(ArrivalRequestDTO dto) {
+        LocalDateTime at = dto.getArrivalTime() == null ? LocalDateTime.now() : dto.getArrivalTime();
+        return mapToDTO(arrivingReservation(dto.getVehicleNumber(), at));
+    }
+
+    @Override
+    public ReservationResponseDTO confirmArrival(Long id, LocalDateTime arrivalTime) {
+        Reservation reservation = reservationRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+        // Conditional, so a repeated gate event keeps the first arrival time
+        reservationRepo.markArrived(id, ReservationStatus.ACTIVE, arrivalTime == null ? LocalDateTime.now() : arrivalTime);
+        return mapToDTO(reservation);
+    }
+
+    private Reservation arrivingReservation(String vehicleNumber, LocalDateTime at) {
+        Reservation reservation = activeForPlate(vehicleNumber, at);
+        if (reservation == null) {
+            // "Any 4W" bookings get their slot now
+            reservation = arrivalAssigner.assign(vehicleNumber, at, plateIndex.getEarlyArrival());
+        }
+        if (reservation == null) {
+            throw new RuntimeException("No active reservation for vehicle " + vehicleNumber);
+        }
+        return reservation;
+    }
+
+    @Override
+    @Transactional
+    public ReservationResponseDTO recordDeparture(Long id) {
+        Reservation reservation = reservationRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+        LocalDateTime now = LocalDateTime.now();
+        // Conditional, so only the first exit counts and a reservation nobody arrived for is left alone
+        int departed = reservationRepo.markDeparted(id, now);
+        overstayWatcher.departed(id);
+        // Completion kept the slot while the vehicle was still parked; it is released now
+        if (departed == 1 && reservation.getStatus() == ReservationStatus.COMPLETED) {
+            slotOutbox.releaseSlot(id, reservation.getSlotId(), "DEPARTED");
+            eventPublisher.publishEvent(new SlotFreedEvent(reservation.getSlotId(), now, null));
+        }
+        return mapToDTO(reservation);
+    }
+
+    @Override
+    public List<SlotReassignmentDTO> getReassignments(LocalDateTime since) {
+        LocalDateTime from = since == null ? LocalDateTime.now().minusDays(1) : since;
+        return reassignmentRepo.findByReassignedAtGreaterThanEqualOrderByReassignedAtDesc(from).stream()
+                .map(r -> new SlotReassignmentDTO(r.getReservationId(), r.getFromSlotId(), r.getToSlotId(),
+                        r.getBlockingReservationId(), r.getReason(), r.getReassignedAt()))
+                .collect(Collectors.toList());
+    }
+
+    // One page of the completed-reservations feed billing invoices from, ordered by (changedAt, id)
+    @Override
+    public List<ReservationChangeDTO> getCompletedReservations(LocalDateTime since, Long afterId,
+                                                                 LocalDateTime until, int size) {
+        if (since == null) {
+            throw new RuntimeException("since is required.");
+        }
+        if (size <= 0 || size > MAX_FEED_PAGE) {
+            throw new RuntimeException("size must be between 1 and " + MAX_FEED_PAGE + ".");
+        }
+        return reservationRepo.findCompletedAfter(ReservationStatus.COMPLETED, since, afterId == null ? 0L : afterId,
+                        until == null ? LocalDateTime.now() : until, Limit.of(size)).stream()
+                .map(this::toChangeDTO)
+                .collect(Collectors.toList());
+    }
+
+    // One page of the change feed other services keep their copies of reservations current from
+    @Override
+    public List<ReservationChangeDTO> getReservationChanges(LocalDateTime since, Long afterId, int size) {
+        if (since == null) {
+            throw new RuntimeException("since is required.");
+        }
+        if (size <= 0 || size > MAX_FEED_PAGE) {
+            throw new RuntimeException("size must be between 1 and " + MAX_FEED_PAGE + ".");
+        }
+        return reservationRepo.findChangedAfter(since, afterId == null ? 0L : afterId, Limit.of(size)).stream()
+                .map(this::toChangeDTO)
+                .collect(Collectors.toList());
+    }
+
+    private ReservationChangeDTO toChangeDTO(Reservation r) {
+        return new ReservationChangeDTO(r.getReservationId(), r.getUserId(), r.getType(),
+                r.getStartTime(), r.getEndTime(), r.getChangedAt());
+    }
+
+    // The booking this plate can use at "at" (arriving up to the early window before it starts), or null
+    private Reservation activeForPlate(String vehicleNumber, LocalDateTime at) {
+        String plate = PlateIndex.normalize(vehicleNumber);
+        if (plate.isEmpty()) {
+            throw new RuntimeException("Vehicle number is required.");
+        }
+        // Today's bookings are in memory; the row is re-read since the map may be minutes old
+        for (PlateIndex.Booking booking : plateIndex.candidates(plate, at)) {
+            Reservation r = reservationRepo.findById(booking.reservationId()).orElse(null);
+            if (r != null && r.getStatus() == ReservationStatus.ACTIVE && r.getEndTime().isAfter(at)) {
+                return r;
+            }
+        }
+
+        // Booked since the last refresh: the index on (plate_key, start_time) serves this
+        Reservation found = reservationRepo.findForPlateAt(plate, ReservationStatus.ACTIVE,
+                        at.plus(plateIndex.getEarlyArrival()), at).stream()
+                .findFirst()
+                .orElse(null);
+        if (found != null) {
+            plateIndex.put(found);
+        }
+        return found;
+    }
+
+    // Checked before anything is written: an empty window can't be indexed or timed
+    private void requireWindow(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+    }
+
+    // Pooled slots are handed out at arrival to "any slot of this type" bookings only
+    private void requireBookable(Long slotId) {
+        if (slotDirectory.isPooled(slotId)) {
+            throw new RuntimeException("Slot " + slotId + " is reserved for any-slot bookings.");
+        }
+    }
+
     private ReservationResponseDTO mapToDTO(Reservation reservation) {
         return new ReservationResponseDTO(
                 reservation.getReservationId(),
@@ -0,0 +1,112 @@
+package com.parking.reservation_service.service.impl;
+
+import com.parking.reservation_service.capacity.CapacityLedger;
+import com.parking.reservation_service.dto.TypeReservationRequestDTO;
+import com.parking.reservation_service.dto.TypeReservationResponseDTO;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.TypeReservation;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.repository.TypeReservationRepository;
+import com.parking.reservation_service.service.TypeReservationService;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class TypeReservationServiceImpl implements TypeReservationService {
+
+    private final TypeReservationRepository typeReservationRepo;
+    private final CapacityLedger capacityLedger;
+    private final SlotDirectory slotDirectory;
+
+    @Override
+    public TypeReservationResponseDTO book(TypeReservationRequestDTO dto) {
+        if (dto.getSlotType() == null || dto.getSlotType().isBlank()) {
+            throw new RuntimeException("Slot type is required.");
+        }
+        if (dto.getStartTime() == null || dto.getEndTime() == null || !dto.getEndTime().isAfter(dto.getStartTime())) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        if (dto.getVehicleNumber() == null || dto.getVehicleNumber().isBlank()) {
+            throw new RuntimeException("Vehicle number is required.");
+        }
+        String slotType = dto.getSlotType().trim().toUpperCase(Locale.ROOT);
+        int capacity = slotDirectory.pooled(slotType).size();
+        if (capacity == 0) {
+            throw new RuntimeException("No " + slotType + " slots take any-slot bookings.");
+        }
+
+        // O(buckets) admission; no slot is picked until the vehicle arrives
+        if (!capacityLedger.tryAdmit(slotType, dto.getStartTime(), dto.getEndTime(), capacity)) {
+            throw new RuntimeException("No " + slotType + " capacity left for the selected time.");
+        }
+        TypeReservation booking = TypeReservation.builder()
+                .userId(dto.getUserId())
+                .vehicleNumber(dto.getVehicleNumber())
+                .slotType(slotType)
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .status(ReservationStatus.ACTIVE)
+                .build();
+        try {
+            return mapToDTO(typeReservationRepo.save(booking));
+        } catch (RuntimeException e) {
+            capacityLedger.release(slotType, dto.getStartTime(), dto.getEndTime());
+            throw e;
+        }
+    }
+
+    @Override
+    public TypeReservationResponseDTO getById(Long id) {
+        return mapToDTO(find(id));
+    }
+
+    @Override
+    public List<TypeReservationResponseDTO> getByUser(Long userId) {
+        return typeReservationRepo.findByUserId(userId).stream().map(this::mapToDTO).toList();
+    }
+
+    @Override
+    public void cancel(Long id) {
+        TypeReservation booking = find(id);
+        if (booking.getReservationId() != null) {
+            throw new RuntimeException("A slot has already been assigned; cancel reservation "
+                    + booking.getReservationId() + " instead.");
+        }
+        // Conditional so a concurrent arrival or second cancel can't release the capacity twice
+        if (typeReservationRepo.transitionUnassigned(id, ReservationStatus.ACTIVE, ReservationStatus.CANCELLED) == 0) {
+            throw new RuntimeException("Only active bookings can be cancelled.");
+        }
+        capacityLedger.release(booking.getSlotType(), booking.getStartTime(), booking.getEndTime());
+    }
+
+    // Bookings whose vehicle never arrived; their buckets are in the past, so nothing is released
+    @Scheduled(fixedDelayString = "${reservation.capacity.expiry-ms:300000}")
+    public void expireUnassigned() {
+        typeReservationRepo.expireUnassigned(ReservationStatus.ACTIVE, ReservationStatus.CANCELLED, LocalDateTime.now());
+    }
+
+    private TypeReservation find(Long id) {
+        return typeReservationRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+    }
+
+    private TypeReservationResponseDTO mapToDTO(TypeReservation booking) {
+        return new TypeReservationResponseDTO(
+                booking.getId(),
+                booking.getUserId(),
+                booking.getVehicleNumber(),
+                booking.getSlotType(),
+                booking.getStartTime(),
+                booking.getEndTime(),
+                booking.getStatus(),
+                booking.getReservationId()
+        );
+    }
+}
@@ -0,0 +1,144 @@
+package com.parking.reservation_service.service.impl;
+ 
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.dto.WaitlistEntryDTO;
+import com.parking.reservation_service.dto.WaitlistRequestDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.WaitlistEntry;
+import com.parking.reservation_service.entity.WaitlistStatus;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.repository.WaitlistEntryRepository;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.service.WaitlistService;
+import com.parking.reservation_service.utilization.UtilizationCube;
+import com.parking.reservation_service.waitlist.WaitlistMatcher;
+import com.parking.reservation_service.waitlist.WaitlistNotifier;
+ 
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+ 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+ 
+@Service
+@RequiredArgsConstructor
+public class WaitlistServiceImpl implements WaitlistService {
+ 
+    private final WaitlistEntryRepository waitlistRepo;
+    private final WaitlistMatcher matcher;
+    private final WaitlistNotifier notifier;
+    private final SlotHoldRegistry holds;
+    private final ReservationBookingGuard bookingGuard;
+    private final ReservationTimerScheduler reservationTimers;
+    private final UtilizationCube utilizationCube;
+ 
+    @Override
+    public WaitlistEntryDTO join(WaitlistRequestDTO dto) {
+        if (dto.getUserId() == null || dto.getVehicleNumber() == null || dto.getType() == null || dto.getType().isBlank()) {
+            throw new RuntimeException("User, vehicle number and slot type are required.");
+        }
+        if (dto.getStartTime() == null || dto.getEndTime() == null || !dto.getEndTime().isAfter(dto.getStartTime())) {
+            throw new RuntimeException("End time must be after start time.");
+        }
+        if (!dto.getEndTime().isAfter(LocalDateTime.now())) {
+            throw new RuntimeException("The requested window has already passed.");
+        }
+ 
+        WaitlistEntry entry = waitlistRepo.save(WaitlistEntry.builder()
+                .userId(dto.getUserId())
+                .vehicleNumber(dto.getVehicleNumber())
+                .type(dto.getType().trim().toUpperCase())
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .status(WaitlistStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        matcher.enqueue(entry);
+        return WaitlistMatcher.toDTO(entry);
+    }
+ 
+    @Override
+    public WaitlistEntryDTO getEntry(Long id) {
+        return WaitlistMatcher.toDTO(findEntry(id));
+    }
+ 
+    @Override
+    public List<WaitlistEntryDTO> getEntriesByUser(Long userId) {
+        return waitlistRepo.findByUserId(userId).stream()
+                .map(WaitlistMatcher::toDTO)
+                .collect(Collectors.toList());
+    }
+ 
+    @Override
+    public SseEmitter subscribe(Long id) {
+        return notifier.subscribe(WaitlistMatcher.toDTO(findEntry(id)));
+    }
+ 
+    @Override
+    public ReservationResponseDTO claim(Long id) {
+        WaitlistEntry entry = findEntry(id);
+        if (entry.getStatus() != WaitlistStatus.OFFERED) {
+            throw new RuntimeException("Waitlist entry has no open offer.");
+        }
+        SlotHold hold = holds.find(entry.getHoldId());
+        if (hold == null) {
+            throw new RuntimeException("The offer has expired.");
+        }
+ 
+        Reservation reservation = Reservation.builder()
+                .userId(entry.getUserId())
+                .slotId(entry.getOfferedSlotId())
+                .vehicleNumber(entry.getVehicleNumber())
+                .startTime(entry.getStartTime())
+                .endTime(entry.getEndTime())
+                .status(ReservationStatus.ACTIVE)
+                .type(entry.getType())
+                .build();
+        // Converting the hold: it doesn't block this booking and is released once saved
+        reservation = bookingGuard.saveIfFree(reservation, hold.holdId());
+        waitlistRepo.markBooked(id, WaitlistStatus.OFFERED, WaitlistStatus.BOOKED, reservation.getReservationId());
+        reservationTimers.track(reservation);
+        utilizationCube.add(reservation.getSlotId(), reservation.getStartTime(), reservation.getEndTime());
+ 
+        entry.setStatus(WaitlistStatus.BOOKED);
+        entry.setReservationId(reservation.getReservationId());
+        notifier.publish(WaitlistMatcher.toDTO(entry));
+        return new ReservationResponseDTO(
+                reservation.getReservationId(),
+                reservation.getUserId(),
+                reservation.getSlotId(),
+                reservation.getVehicleNumber(),
+                reservation.getStartTime(),
+                reservation.getEndTime(),
+                reservation.getStatus(),
+                reservation.getType()
+        );
+    }
+ 
+    @Override
+    public void leave(Long id) {
+        WaitlistEntry entry = findEntry(id);
+        WaitlistStatus from = entry.getStatus();
+        if ((from != WaitlistStatus.WAITING && from != WaitlistStatus.OFFERED)
+                || waitlistRepo.transition(id, from, WaitlistStatus.CANCELLED) == 0) {
+            throw new RuntimeException("Waitlist entry is no longer open.");
+        }
+        matcher.remove(id);
+        if (from == WaitlistStatus.OFFERED && holds.release(entry.getHoldId())) {
+            // The declined offer goes to the next waiter
+            matcher.match(entry.getOfferedSlotId(), entry.getStartTime(), entry.getEndTime());
+        }
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        notifier.publish(WaitlistMatcher.toDTO(entry));
+    }
+ 
+    private WaitlistEntry findEntry(Long id) {
+        return waitlistRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+    }
+}
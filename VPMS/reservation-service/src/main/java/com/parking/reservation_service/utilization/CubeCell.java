@@ -0,0 +1,30 @@
+package com.parking.reservation_service.utilization;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Key of a utilization cube cell, plus the arithmetic that spreads a reservation window over
+ * the hourly cells it touches. Used by both the incremental path and the rebuild.
+ */
+public record CubeCell(LocalDateTime hour, String slotType) {
+
+    // Adds sign x the window's minutes in each hour of [from, to) it overlaps, and its start to the start hour
+    public static void accumulate(Map<CubeCell, long[]> cells, String slotType, LocalDateTime start, LocalDateTime end,
+                                  LocalDateTime from, LocalDateTime to, int sign) {
+        LocalDateTime first = start.isBefore(from) ? from : start;
+        LocalDateTime last = end.isAfter(to) ? to : end;
+        for (LocalDateTime hour = first.truncatedTo(ChronoUnit.HOURS); hour.isBefore(last); hour = hour.plusHours(1)) {
+            LocalDateTime cellStart = hour.isBefore(first) ? first : hour;
+            LocalDateTime cellEnd = hour.plusHours(1).isAfter(last) ? last : hour.plusHours(1);
+            long minutes = Duration.between(cellStart, cellEnd).toMinutes();
+            long[] totals = cells.computeIfAbsent(new CubeCell(hour, slotType), k -> new long[2]);
+            totals[0] += sign * minutes;
+            if (hour.equals(start.truncatedTo(ChronoUnit.HOURS))) {
+                totals[1] += sign;
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.parking.reservation_service.utilization;
+
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.dto.UtilizationRebuildDTO;
+import com.parking.reservation_service.dto.UtilizationReportDTO;
+import com.parking.reservation_service.dto.UtilizationRowDTO;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.UtilizationCell;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+import com.parking.reservation_service.repository.UtilizationCellRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Hourly utilization cube: booked minutes and booking starts per (hour, slot type), for
+ * ACTIVE and COMPLETED reservations (cancelled ones never held the slot).
+ *
+ * Every create, reschedule and cancel records its window change here once its transaction
+ * commits. Changes are summed in memory per (hour, slot) and flushed periodically as one
+ * batch of additive upserts, so the table never has to be recomputed and queries over
+ * months read a few thousand rows. Slot types are resolved at flush time, which keeps
+ * recording free of remote calls; a failed flush keeps its changes for the next one.
+ *
+ * Completion doesn't change the cube: a completed reservation stays counted for its window.
+ */
+@Slf4j
+@Component
+public class UtilizationCube {
+
+    public static final String UNKNOWN_TYPE = "UNKNOWN";
+    public static final int MAX_RANGE_DAYS = 366;
+    private static final List<String> DIMENSIONS = List.of("month", "date", "weekday", "hour", "type");
+    private static final int UPSERT_BATCH = 500;
+    private static final String UPSERT_SQL = "INSERT INTO utilization_cube (bucket_hour, slot_type, occupied_minutes, bookings)"
+            + " VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE occupied_minutes = occupied_minutes + VALUES(occupied_minutes),"
+            + " bookings = bookings + VALUES(bookings)";
+
+    private record SlotHour(LocalDateTime hour, Long slotId) {
+    }
+
+    private record GroupKey(String month, LocalDate date, DayOfWeek weekday, Integer hour, String type) {
+    }
+
+    private final UtilizationCellRepository cellRepo;
+    private final ReservationRepository reservationRepo;
+    private final SlotDirectory slotDirectory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Unflushed changes; recorders share the read lock, flush swaps the map under the write lock
+    private final ReentrantReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private ConcurrentHashMap<SlotHour, long[]> pending = new ConcurrentHashMap<>();
+    // Serializes flushes and rebuilds
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public UtilizationCube(UtilizationCellRepository cellRepo,
+                           ReservationRepository reservationRepo,
+                           SlotDirectory slotDirectory,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.cellRepo = cellRepo;
+        this.reservationRepo = reservationRepo;
+        this.slotDirectory = slotDirectory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // A reservation now holds the slot for [start, end)
+    public void add(Long slotId, LocalDateTime start, LocalDateTime end) {
+        record(slotId, start, end, 1);
+    }
+
+    // A reservation no longer holds the slot for [start, end), e.g. cancelled or rescheduled away
+    public void remove(Long slotId, LocalDateTime start, LocalDateTime end) {
+        record(slotId, start, end, -1);
+    }
+
+    private void record(Long slotId, LocalDateTime start, LocalDateTime end, int sign) {
+        if (slotId == null || start == null || end == null || !end.isAfter(start)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rolled back change never happened
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(slotId, start, end, sign);
+                }
+            });
+        } else {
+            apply(slotId, start, end, sign);
+        }
+    }
+
+    private void apply(Long slotId, LocalDateTime start, LocalDateTime end, int sign) {
+        Map<CubeCell, long[]> cells = new HashMap<>();
+        CubeCell.accumulate(cells, null, start, end, start, end, sign);
+        pendingLock.readLock().lock();
+        try {
+            cells.forEach((cell, totals) -> pending.merge(new SlotHour(cell.hour(), slotId), totals, UtilizationCube::sum));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    // merge runs atomically per key, so the existing array can be updated in place
+    private static long[] sum(long[] into, long[] delta) {
+        into[0] += delta[0];
+        into[1] += delta[1];
+        return into;
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.utilization.flush-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        ConcurrentHashMap<SlotHour, long[]> batch;
+        pendingLock.writeLock().lock();
+        try {
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            Map<CubeCell, long[]> cells = new HashMap<>();
+            batch.forEach((key, totals) -> {
+                long[] into = cells.computeIfAbsent(new CubeCell(key.hour(), slotType(key.slotId())), k -> new long[2]);
+                into[0] += totals[0];
+                into[1] += totals[1];
+            });
+            cells.values().removeIf(totals -> totals[0] == 0 && totals[1] == 0);
+            transactionTemplate.executeWithoutResult(tx -> upsert(cells));
+            log.debug("Flushed {} utilization cells", cells.size());
+        } catch (Exception e) {
+            log.warn("Could not flush the utilization cube, retrying with the next flush: {}", e.getMessage());
+            pendingLock.readLock().lock();
+            try {
+                batch.forEach((key, totals) -> pending.merge(key, totals, UtilizationCube::sum));
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+        }
+    }
+
+    private void upsert(Map<CubeCell, long[]> cells) {
+        List<Map.Entry<CubeCell, long[]>> rows = new ArrayList<>(cells.entrySet());
+        // Bind like Hibernate does with hibernate.jdbc.time_zone=UTC, so the cells read back through JPA match
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, UPSERT_BATCH, (ps, row) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(row.getKey().hour()), utc);
+            ps.setString(2, row.getKey().slotType());
+            ps.setLong(3, row.getValue()[0]);
+            ps.setLong(4, row.getValue()[1]);
+        });
+    }
+
+    // Rolls the cells of [from, to] (whole days) up to the requested dimensions
+    public UtilizationReportDTO query(LocalDate from, LocalDate to, String type, List<String> groupBy) {
+        LocalDateTime start = checkRange(from, to);
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        Set<String> dims = new HashSet<>();
+        for (String dim : groupBy == null ? List.<String>of() : groupBy) {
+            String d = dim.trim().toLowerCase(Locale.ROOT);
+            if (!DIMENSIONS.contains(d)) {
+                throw new RuntimeException("Unknown dimension " + dim + "; use any of " + DIMENSIONS);
+            }
+            dims.add(d);
+        }
+        String typeFilter = type == null || type.isBlank() ? null : type.trim().toUpperCase(Locale.ROOT);
+
+        Map<GroupKey, long[]> totals = new LinkedHashMap<>();
+        // Capacity: every slot of the type, for every hour in the range
+        Map<String, Long> slotCounts = slotDirectory.slots(typeFilter).stream()
+                .filter(s -> s.getType() != null)
+                .collect(Collectors.groupingBy(s -> s.getType().trim().toUpperCase(Locale.ROOT), Collectors.counting()));
+        for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+            for (Map.Entry<String, Long> slots : slotCounts.entrySet()) {
+                totals.computeIfAbsent(key(hour, slots.getKey(), dims), k -> new long[3])[2] += slots.getValue() * 60;
+            }
+        }
+        for (UtilizationCell cell : cellRepo.findBetween(start, end)) {
+            if (typeFilter != null && !typeFilter.equals(cell.getSlotType())) {
+                continue;
+            }
+            long[] t = totals.computeIfAbsent(key(cell.getBucketHour(), cell.getSlotType(), dims), k -> new long[3]);
+            t[0] += cell.getOccupiedMinutes();
+            t[1] += cell.getBookings();
+        }
+
+        List<UtilizationRowDTO> rows = new ArrayList<>(totals.size());
+        totals.forEach((k, t) -> rows.add(new UtilizationRowDTO(k.month(), k.date(),
+                k.weekday() == null ? null : k.weekday().name(), k.hour(), k.type(),
+                t[0], t[1], t[2], t[2] == 0 ? null : (double) t[0] / t[2])));
+        rows.sort(Comparator.comparing(UtilizationRowDTO::getMonth, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(UtilizationRowDTO::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(r -> r.getWeekday() == null ? 0 : DayOfWeek.valueOf(r.getWeekday()).getValue())
+                .thenComparing(UtilizationRowDTO::getHour, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(UtilizationRowDTO::getType, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return new UtilizationReportDTO(from, to, DIMENSIONS.stream().filter(dims::contains).toList(), rows);
+    }
+
+    private static GroupKey key(LocalDateTime hour, String type, Set<String> dims) {
+        return new GroupKey(
+                dims.contains("month") ? hour.getYear() + "-" + String.format("%02d", hour.getMonthValue()) : null,
+                dims.contains("date") ? hour.toLocalDate() : null,
+                dims.contains("weekday") ? hour.getDayOfWeek() : null,
+                dims.contains("hour") ? hour.getHour() : null,
+                dims.contains("type") ? type : null);
+    }
+
+    /**
+     * Recomputes [from, to] from the reservations table with a fork/join pass and compares it
+     * cell by cell with the stored cube. With apply, the stored cells are replaced. Changes
+     * recorded while the reservations are being read may end up counted twice, so repairs are
+     * best run when bookings are quiet.
+     */
+    public UtilizationRebuildDTO rebuild(LocalDate from, LocalDate to, boolean apply) {
+        LocalDateTime start = checkRange(from, to);
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        flushLock.lock();
+        try {
+            flushLocked();
+            long started = System.nanoTime();
+            List<ReservationWindow> windows = reservationRepo.findWindowsOverlapping(
+                    EnumSet.of(ReservationStatus.ACTIVE, ReservationStatus.COMPLETED), start, end);
+            Map<Long, String> slotTypes = new HashMap<>();
+            windows.stream().map(ReservationWindow::getSlotId).distinct()
+                    .forEach(slotId -> slotTypes.put(slotId, slotType(slotId)));
+            Map<CubeCell, long[]> computed = ForkJoinPool.commonPool()
+                    .invoke(new UtilizationRebuildTask(windows, slotTypes, start, end));
+            computed.values().removeIf(totals -> totals[0] == 0 && totals[1] == 0);
+
+            Map<CubeCell, long[]> stored = new HashMap<>();
+            for (UtilizationCell cell : cellRepo.findBetween(start, end)) {
+                if (cell.getOccupiedMinutes() != 0 || cell.getBookings() != 0) {
+                    stored.put(new CubeCell(cell.getBucketHour(), cell.getSlotType()),
+                            new long[]{cell.getOccupiedMinutes(), cell.getBookings()});
+                }
+            }
+            Set<CubeCell> all = new HashSet<>(computed.keySet());
+            all.addAll(stored.keySet());
+            long[] zero = new long[2];
+            int mismatched = (int) all.stream()
+                    .filter(c -> !Arrays.equals(computed.getOrDefault(c, zero), stored.getOrDefault(c, zero)))
+                    .count();
+
+            boolean applied = apply && mismatched > 0;
+            if (applied) {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    cellRepo.deleteBetween(start, end);
+                    upsert(computed);
+                });
+                log.info("Rebuilt utilization cube for {}..{}: {} of {} cells corrected", from, to, mismatched, all.size());
+            }
+            return new UtilizationRebuildDTO(from, to, windows.size(), computed.size(), mismatched, applied,
+                    (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static LocalDateTime checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new RuntimeException("End date must not be before start date.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Utilization range cannot exceed " + MAX_RANGE_DAYS + " days.");
+        }
+        return from.atStartOfDay();
+    }
+
+    private String slotType(Long slotId) {
+        SlotDTO slot = slotDirectory.find(slotId);
+        return slot == null || slot.getType() == null ? UNKNOWN_TYPE : slot.getType().trim().toUpperCase(Locale.ROOT);
+    }
+}
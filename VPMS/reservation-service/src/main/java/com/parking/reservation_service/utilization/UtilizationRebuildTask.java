@@ -0,0 +1,54 @@
+package com.parking.reservation_service.utilization;
+
+import com.parking.reservation_service.repository.ReservationWindow;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds the cube for [from, to) from scratch: the windows are split in halves until a chunk
+ * is small enough to aggregate sequentially, and the partial cubes are merged on the way up.
+ */
+class UtilizationRebuildTask extends RecursiveTask<Map<CubeCell, long[]>> {
+
+    private static final int THRESHOLD = 4096;
+
+    private final List<ReservationWindow> windows;
+    private final Map<Long, String> slotTypes;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    UtilizationRebuildTask(List<ReservationWindow> windows, Map<Long, String> slotTypes,
+                           LocalDateTime from, LocalDateTime to) {
+        this.windows = windows;
+        this.slotTypes = slotTypes;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected Map<CubeCell, long[]> compute() {
+        if (windows.size() <= THRESHOLD) {
+            Map<CubeCell, long[]> cells = new HashMap<>();
+            for (ReservationWindow w : windows) {
+                CubeCell.accumulate(cells, slotTypes.getOrDefault(w.getSlotId(), UtilizationCube.UNKNOWN_TYPE),
+                        w.getStartTime(), w.getEndTime(), from, to, 1);
+            }
+            return cells;
+        }
+        int mid = windows.size() / 2;
+        UtilizationRebuildTask left = new UtilizationRebuildTask(windows.subList(0, mid), slotTypes, from, to);
+        UtilizationRebuildTask right = new UtilizationRebuildTask(windows.subList(mid, windows.size()), slotTypes, from, to);
+        left.fork();
+        Map<CubeCell, long[]> merged = right.compute();
+        left.join().forEach((cell, totals) -> {
+            long[] into = merged.computeIfAbsent(cell, k -> new long[2]);
+            into[0] += totals[0];
+            into[1] += totals[1];
+        });
+        return merged;
+    }
+}
@@ -0,0 +1,283 @@
+package com.parking.reservation_service.waitlist;
+
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.booking.SlotFreedEvent;
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.dto.WaitlistEntryDTO;
+import com.parking.reservation_service.entity.WaitlistEntry;
+import com.parking.reservation_service.entity.WaitlistStatus;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldExpiredEvent;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.repository.WaitlistEntryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hands freed capacity to waiting customers.
+ *
+ * Waiters are indexed per slot type in a {@link WaitlistQueue}. When a slot window frees up
+ * (cancellation, completion, a hold running out) the earliest-starting waiter of that slot's
+ * type whose window fits is found in O(log n) and offered a hold on the slot; the offer is
+ * recorded with a conditional UPDATE so only one replica can make it. The queues are rebuilt
+ * from the database periodically to pick up entries created on other replicas.
+ *
+ * Frees are matched after the freeing transaction committed, so offers are recorded in a
+ * transaction of their own. The matcher's lock only covers the in-memory queues: a candidate
+ * is taken out of its queue under the lock and offered (slot lookup, hold, UPDATE) without it,
+ * then put back if the offer failed.
+ */
+@Slf4j
+@Component
+public class WaitlistMatcher {
+
+    // Candidates tried per freed window before giving up, e.g. when holds keep failing
+    private static final int MAX_ATTEMPTS = 16;
+
+    private final WaitlistEntryRepository waitlistRepo;
+    private final ReservationBookingGuard bookingGuard;
+    private final SlotHoldRegistry holds;
+    private final SlotDirectory slotDirectory;
+    private final FreeSlotFinder freeSlotFinder;
+    private final WaitlistNotifier notifier;
+    private final TransactionTemplate offerTx;
+    private final Duration holdTtl;
+    private final Duration openEndedWindow;
+
+    // Guarded by this
+    private final Map<String, WaitlistQueue> queues = new HashMap<>();
+    private final Map<Long, WaitlistEntry> waiting = new HashMap<>();
+
+    public WaitlistMatcher(WaitlistEntryRepository waitlistRepo,
+                           ReservationBookingGuard bookingGuard,
+                           SlotHoldRegistry holds,
+                           SlotDirectory slotDirectory,
+                           FreeSlotFinder freeSlotFinder,
+                           WaitlistNotifier notifier,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${reservation.waitlist.hold-minutes:10}") long holdMinutes,
+                           @Value("${reservation.waitlist.open-ended-window-minutes:1440}") long openEndedMinutes) {
+        this.waitlistRepo = waitlistRepo;
+        this.bookingGuard = bookingGuard;
+        this.holds = holds;
+        this.slotDirectory = slotDirectory;
+        this.freeSlotFinder = freeSlotFinder;
+        this.notifier = notifier;
+        // Never joins the caller's transaction, which may already have committed (AFTER_COMMIT listeners)
+        this.offerTx = new TransactionTemplate(transactionManager);
+        this.offerTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holdTtl = Duration.ofMinutes(holdMinutes);
+        this.openEndedWindow = Duration.ofMinutes(openEndedMinutes);
+    }
+
+    // Offers a free slot right away if there is one, otherwise queues the entry
+    public void enqueue(WaitlistEntry entry) {
+        try {
+            for (SlotDTO slot : freeSlotFinder.findFree(entry.getStartTime(), entry.getEndTime(), entry.getType(), 5)) {
+                if (offer(entry, slot.getSlotId())) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not look for a free slot for waitlist entry {}: {}", entry.getId(), e.getMessage());
+        }
+        synchronized (this) {
+            add(entry);
+        }
+    }
+
+    public synchronized void remove(Long entryId) {
+        WaitlistEntry entry = waiting.remove(entryId);
+        if (entry != null) {
+            queues.get(typeKey(entry.getType())).remove(entryId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotFreed(SlotFreedEvent event) {
+        match(event.slotId(), event.from(), event.to());
+    }
+
+    @EventListener
+    public void onHoldExpired(SlotHoldExpiredEvent event) {
+        SlotHold hold = event.hold();
+        if (hold.waitlistEntryId() != null && Integer.valueOf(1).equals(offerTx.execute(tx ->
+                waitlistRepo.transition(hold.waitlistEntryId(), WaitlistStatus.OFFERED, WaitlistStatus.EXPIRED)))) {
+            waitlistRepo.findById(hold.waitlistEntryId()).ifPresent(e -> notifier.publish(toDTO(e)));
+        }
+        match(hold.slotId(), hold.startTime(), hold.endTime());
+    }
+
+    // Offers [from, to) on the slot to as many fitting waiters as it can hold; a null "to" means open-ended
+    public void match(Long slotId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plus(openEndedWindow) : to;
+        if (!end.isAfter(start) || isEmpty()) {
+            return;
+        }
+        SlotDTO slot;
+        try {
+            slot = slotDirectory.find(slotId);
+        } catch (RuntimeException e) {
+            log.warn("Could not match waitlist for slot {}: {}", slotId, e.getMessage());
+            return;
+        }
+        // Pooled slots only go to any-slot bookings at arrival, never to waiters
+        if (slot == null || slot.getType() == null || slotDirectory.isPooled(slotId)) {
+            return;
+        }
+        String type = typeKey(slot.getType());
+
+        List<WaitlistEntry> passedOver = new ArrayList<>();
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                WaitlistEntry entry = takeFirstFitting(type, start, end);
+                if (entry == null) {
+                    break;
+                }
+                if (!tryOffer(entry, slotId)) {
+                    passedOver.add(entry);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                passedOver.forEach(this::add);
+            }
+        }
+    }
+
+    // Rebuilds the queues from the database; entries added while the query ran are kept
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservation.waitlist.refresh-ms:30000}")
+    public void reload() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<WaitlistEntry> open = waitlistRepo.findOpen(WaitlistStatus.WAITING, startedAt);
+        synchronized (this) {
+            List<WaitlistEntry> recent = waiting.values().stream()
+                    .filter(e -> !e.getCreatedAt().isBefore(startedAt))
+                    .toList();
+            queues.clear();
+            waiting.clear();
+            open.forEach(this::add);
+            recent.forEach(this::add);
+        }
+    }
+
+    public static WaitlistEntryDTO toDTO(WaitlistEntry e) {
+        return new WaitlistEntryDTO(
+                e.getId(),
+                e.getUserId(),
+                e.getVehicleNumber(),
+                e.getType(),
+                e.getStartTime(),
+                e.getEndTime(),
+                e.getStatus(),
+                e.getOfferedSlotId(),
+                e.getHoldExpiresAt(),
+                e.getReservationId()
+        );
+    }
+
+    private synchronized boolean isEmpty() {
+        return waiting.isEmpty();
+    }
+
+    // Takes the earliest-starting waiter of the type whose window fits out of its queue, or null
+    private synchronized WaitlistEntry takeFirstFitting(String type, LocalDateTime start, LocalDateTime end) {
+        WaitlistQueue queue = queues.get(type);
+        if (queue == null) {
+            return null;
+        }
+        while (true) {
+            long id = queue.firstFitting(toKey(start), toKey(end));
+            if (id < 0) {
+                return null;
+            }
+            queue.remove(id);
+            WaitlistEntry entry = waiting.remove(id);
+            if (entry != null) {
+                return entry;
+            }
+        }
+    }
+
+    private boolean tryOffer(WaitlistEntry entry, Long slotId) {
+        try {
+            return offer(entry, slotId);
+        } catch (RuntimeException e) {
+            log.warn("Could not offer slot {} to waitlist entry {}: {}", slotId, entry.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    // True if the entry left the queue: offered here, or no longer waiting at all
+    private boolean offer(WaitlistEntry entry, Long slotId) {
+        SlotHold hold = bookingGuard.holdIfFree(slotId, entry.getStartTime(), entry.getEndTime(),
+                entry.getUserId(), entry.getId(), holdTtl);
+        if (hold == null) {
+            return false;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.expiresAtMillis()), ZoneId.systemDefault());
+        Integer offered;
+        try {
+            offered = offerTx.execute(tx -> waitlistRepo.offer(entry.getId(), WaitlistStatus.WAITING,
+                    WaitlistStatus.OFFERED, slotId, hold.holdId(), expiresAt));
+        } catch (RuntimeException e) {
+            // Nobody was told about the hold, so it must not block the slot until it runs out
+            holds.release(hold.holdId());
+            throw e;
+        }
+        if (offered == null || offered == 0) {
+            // Cancelled meanwhile, or another replica offered it something first
+            holds.release(hold.holdId());
+            return true;
+        }
+        entry.setStatus(WaitlistStatus.OFFERED);
+        entry.setOfferedSlotId(slotId);
+        entry.setHoldId(hold.holdId());
+        entry.setHoldExpiresAt(expiresAt);
+        notifier.publish(toDTO(entry));
+        log.info("Offered slot {} to waitlist entry {}", slotId, entry.getId());
+        return true;
+    }
+
+    private void add(WaitlistEntry entry) {
+        if (!entry.getEndTime().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        waiting.put(entry.getId(), entry);
+        queues.computeIfAbsent(typeKey(entry.getType()), t -> new WaitlistQueue())
+                .add(entry.getId(), toKey(entry.getStartTime()), toKey(entry.getEndTime()));
+    }
+
+    private static String typeKey(String type) {
+        return type.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
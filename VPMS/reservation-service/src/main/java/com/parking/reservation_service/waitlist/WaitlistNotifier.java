@@ -0,0 +1,84 @@
+package com.parking.reservation_service.waitlist;
+
+import com.parking.reservation_service.dto.WaitlistEntryDTO;
+import com.parking.reservation_service.entity.WaitlistStatus;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes waitlist state changes to subscribed clients as server-sent events, so waiters
+ * don't have to poll. Each subscriber first gets the entry's current state; the stream
+ * is closed once the entry reaches BOOKED, EXPIRED or CANCELLED.
+ */
+@Slf4j
+@Component
+public class WaitlistNotifier {
+
+    static final String EVENT_NAME = "waitlist";
+
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public WaitlistNotifier(@Value("${reservation.waitlist.sse-timeout-minutes:30}") long timeoutMinutes) {
+        this.timeoutMillis = timeoutMinutes * 60_000;
+    }
+
+    public SseEmitter subscribe(WaitlistEntryDTO current) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        if (!send(emitter, current)) {
+            return emitter;
+        }
+        if (isFinal(current.getStatus())) {
+            emitter.complete();
+            return emitter;
+        }
+        Long id = current.getId();
+        emitters.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable drop = () -> emitters.computeIfPresent(id, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(drop);
+        emitter.onTimeout(drop);
+        emitter.onError(e -> drop.run());
+        return emitter;
+    }
+
+    public void publish(WaitlistEntryDTO entry) {
+        List<SseEmitter> subscribers = isFinal(entry.getStatus())
+                ? emitters.remove(entry.getId())
+                : emitters.get(entry.getId());
+        if (subscribers == null) {
+            return;
+        }
+        for (SseEmitter emitter : subscribers) {
+            if (send(emitter, entry) && isFinal(entry.getStatus())) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, WaitlistEntryDTO entry) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(entry));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the emitter's callbacks unregister it
+            log.debug("Dropping waitlist subscriber of entry {}: {}", entry.getId(), e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static boolean isFinal(WaitlistStatus status) {
+        return status == WaitlistStatus.BOOKED || status == WaitlistStatus.EXPIRED || status == WaitlistStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,197 @@
+package com.parking.reservation_service.waitlist;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Waiters of one slot type, as an AVL tree of [start, end) windows ordered by (start, id).
+ * Every node keeps the smallest end in its subtree, so "the earliest-starting waiter whose
+ * window fits inside [from, to)" is found by descending and pruning every subtree whose
+ * smallest end is past {@code to}, in O(log n) for the usual case. Equal starts are served
+ * in the order the waiters joined, because ids grow with time.
+ *
+ * Not thread-safe: callers are expected to guard each queue themselves.
+ */
+public class WaitlistQueue {
+
+    private static final class Node {
+        final long id;
+        final long start;
+        final long end;
+        long minEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.minEnd = end;
+        }
+    }
+
+    private Node root;
+    private final Map<Long, Node> byId = new HashMap<>();
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean contains(long id) {
+        return byId.containsKey(id);
+    }
+
+    public void add(long id, long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Window end must be after start");
+        }
+        remove(id);
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        byId.put(id, node);
+    }
+
+    public boolean remove(long id) {
+        Node node = byId.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, node.id);
+        return true;
+    }
+
+    // Id of the earliest-starting waiter with from <= start and end <= to, or -1 if none
+    public long firstFitting(long from, long to) {
+        Node found = firstFitting(root, from, to);
+        return found == null ? -1 : found.id;
+    }
+
+    public void clear() {
+        root = null;
+        byId.clear();
+    }
+
+    private static Node firstFitting(Node n, long from, long to) {
+        while (n != null && n.minEnd <= to) {
+            if (n.start < from) {
+                // This node and everything left of it start too early
+                n = n.right;
+                continue;
+            }
+            Node left = firstFitting(n.left, from, to);
+            if (left != null) {
+                return left;
+            }
+            if (n.end <= to) {
+                return n;
+            }
+            n = n.right;
+        }
+        return null;
+    }
+
+    private static int compare(long startA, long idA, long startB, long idB) {
+        int c = Long.compare(startA, startB);
+        return c != 0 ? c : Long.compare(idA, idB);
+    }
+
+    private static Node insert(Node n, Node node) {
+        if (n == null) {
+            return node;
+        }
+        if (compare(node.start, node.id, n.start, n.id) < 0) {
+            n.left = insert(n.left, node);
+        } else {
+            n.right = insert(n.right, node);
+        }
+        return rebalance(n);
+    }
+
+    private static Node delete(Node n, long start, long id) {
+        if (n == null) {
+            return null;
+        }
+        int c = compare(start, id, n.start, n.id);
+        if (c < 0) {
+            n.left = delete(n.left, start, id);
+        } else if (c > 0) {
+            n.right = delete(n.right, start, id);
+        } else {
+            if (n.left == null) {
+                return n.right;
+            }
+            if (n.right == null) {
+                return n.left;
+            }
+            Node successor = n.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(n.right);
+            successor.left = n.left;
+            return rebalance(successor);
+        }
+        return rebalance(n);
+    }
+
+    private static Node deleteMin(Node n) {
+        if (n.left == null) {
+            return n.right;
+        }
+        n.left = deleteMin(n.left);
+        return rebalance(n);
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static void update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long min = n.end;
+        if (n.left != null && n.left.minEnd < min) {
+            min = n.left.minEnd;
+        }
+        if (n.right != null && n.right.minEnd < min) {
+            min = n.right.minEnd;
+        }
+        n.minEnd = min;
+    }
+
+    private static Node rebalance(Node n) {
+        update(n);
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(n.left);
+            }
+            return rotateRight(n);
+        }
+        if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(n.right);
+            }
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+}
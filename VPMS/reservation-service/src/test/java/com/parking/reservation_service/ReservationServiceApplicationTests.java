@@ -3,7 +3,7 @@ package com.parking.reservation_service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "reservation.service-account=reservation-service@parking.test")
 class ReservationServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,58 @@
+package com.parking.reservation_service.arrival;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlateIndexTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2025, 7, 1, 9, 0);
+
+    private static Reservation booking(long id, String plate, LocalDateTime start, LocalDateTime end) {
+        return Reservation.builder()
+                .reservationId(id).slotId(id * 10).vehicleNumber(plate)
+                .startTime(start).endTime(end).status(ReservationStatus.ACTIVE)
+                .build();
+    }
+
+    // 1: Spacing, dashes and case don't matter
+    @Test
+    void normalize_formattedPlate_alphanumericUpperCase() {
+        assertEquals("KA01AB1234", PlateIndex.normalize(" ka-01 ab 1234 "));
+        assertEquals("", PlateIndex.normalize(null));
+    }
+
+    // 2: A vehicle matches bookings that started, or start within the early window, and haven't ended
+    @Test
+    void candidates_earlyAndLateArrivals_onlyUsableBookings() {
+        PlateIndex index = new PlateIndex(null, 30);
+        index.put(booking(1, "KA-01-AB-1234", NINE, NINE.plusHours(2)));
+        index.put(booking(2, "KA01AB1234", NINE.plusHours(5), NINE.plusHours(6)));
+
+        assertEquals(List.of(1L), ids(index.candidates("ka01ab1234", NINE.minusMinutes(20))));
+        assertTrue(index.candidates("KA01AB1234", NINE.minusMinutes(40)).isEmpty());
+        assertTrue(index.candidates("KA01AB1234", NINE.plusHours(2)).isEmpty());
+        assertEquals(List.of(2L), ids(index.candidates("KA 01 AB 1234", NINE.plusHours(5).minusMinutes(10))));
+        assertTrue(index.candidates("MH12XY0001", NINE).isEmpty());
+    }
+
+    // 3: Re-adding a rescheduled booking replaces its old window
+    @Test
+    void put_sameReservation_replacesWindow() {
+        PlateIndex index = new PlateIndex(null, 0);
+        index.put(booking(1, "KA01AB1234", NINE, NINE.plusHours(1)));
+        index.put(booking(1, "KA01AB1234", NINE.plusHours(3), NINE.plusHours(4)));
+
+        assertTrue(index.candidates("KA01AB1234", NINE).isEmpty());
+        assertEquals(List.of(1L), ids(index.candidates("KA01AB1234", NINE.plusHours(3))));
+    }
+
+    private static List<Long> ids(List<PlateIndex.Booking> bookings) {
+        return bookings.stream().map(PlateIndex.Booking::reservationId).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.parking.reservation_service.booking;
+
+import com.parking.reservation_service.dto.BulkReservationItemDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkReservationBookerTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+    @EntityScan(basePackageClasses = Reservation.class)
+    @Import({SlotLocks.class, SlotReservationIndex.class, RecurrenceIndex.class, SlotHoldRegistry.class, BulkReservationBooker.class})
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @Autowired
+    private BulkReservationBooker bulkBooker;
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepo.deleteAll();
+        reservationRepo.save(Reservation.builder()
+                .userId(1L).slotId(1L).vehicleNumber("KA01AB1234").type("4W")
+                .startTime(BASE).endTime(BASE.plusHours(2))
+                .status(ReservationStatus.ACTIVE)
+                .build());
+    }
+
+    // 1: Best effort books what fits and explains each rejection
+    @Test
+    void book_bestEffort_perItemOutcomes() {
+        List<ReservationRequestDTO> requests = List.of(
+                request(1L, BASE.plusHours(1), BASE.plusHours(3)),   // overlaps the existing booking
+                request(1L, BASE.plusHours(2), BASE.plusHours(4)),   // starts when it ends
+                request(2L, BASE, BASE.plusHours(2)),
+                request(2L, BASE.plusHours(1), BASE.plusHours(2)),   // overlaps the item above
+                request(3L, BASE.plusHours(2), BASE.plusHours(1)));  // invalid window
+
+        BulkReservationBooker.Result result = bulkBooker.book(requests, false);
+
+        assertEquals(List.of("REJECTED", "BOOKED", "BOOKED", "REJECTED", "REJECTED"),
+                result.items().stream().map(BulkReservationItemDTO::getOutcome).toList());
+        assertEquals(2, result.booked().size());
+        assertEquals(3, reservationRepo.count());
+        for (Reservation booked : result.booked()) {
+            Reservation stored = reservationRepo.findById(booked.getReservationId()).orElseThrow();
+            assertEquals(booked.getSlotId(), stored.getSlotId());
+            assertEquals(booked.getStartTime(), stored.getStartTime());
+        }
+    }
+
+    // 2: All-or-nothing inserts nothing when any item conflicts
+    @Test
+    void book_allOrNothingWithConflict_nothingInserted() {
+        List<ReservationRequestDTO> requests = List.of(
+                request(2L, BASE, BASE.plusHours(2)),
+                request(1L, BASE.plusHours(1), BASE.plusHours(3)));
+
+        BulkReservationBooker.Result result = bulkBooker.book(requests, true);
+
+        assertTrue(result.booked().isEmpty());
+        assertEquals("NOT_BOOKED", result.items().get(0).getOutcome());
+        assertEquals("REJECTED", result.items().get(1).getOutcome());
+        assertEquals(1, reservationRepo.count());
+    }
+
+    // 3: All-or-nothing with no conflicts books everything in one batch
+    @Test
+    void book_allOrNothingNoConflict_allBooked() {
+        List<ReservationRequestDTO> requests = List.of(
+                request(1L, BASE.plusHours(2), BASE.plusHours(3)),
+                request(2L, BASE, BASE.plusHours(2)),
+                request(3L, BASE, BASE.plusHours(2)));
+
+        BulkReservationBooker.Result result = bulkBooker.book(requests, true);
+
+        assertEquals(3, result.booked().size());
+        assertEquals(4, reservationRepo.count());
+    }
+
+    private static ReservationRequestDTO request(Long slotId, LocalDateTime start, LocalDateTime end) {
+        return new ReservationRequestDTO(7L, slotId, "KA01AB" + slotId, start, end, "4W", null);
+    }
+}
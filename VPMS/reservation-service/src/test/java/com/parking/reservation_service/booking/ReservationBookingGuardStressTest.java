@@ -0,0 +1,208 @@
+package com.parking.reservation_service.booking;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.SlotBookingGuard;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.SlotBookingGuardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationBookingGuardStressTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+    @EntityScan(basePackageClasses = Reservation.class)
+    @Import({SlotLocks.class, SlotReservationIndex.class, RecurrenceIndex.class, SlotHoldRegistry.class, ReservationBookingGuard.class})
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Autowired
+    private ReservationBookingGuard bookingGuard;
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private SlotBookingGuardRepository guardRepo;
+
+    @Autowired
+    private RecurrenceIndex recurrenceIndex;
+
+    @Autowired
+    private SlotHoldRegistry holds;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepo.deleteAll();
+    }
+
+    // 1: Many threads racing for the same window on one instance -> exactly one booking
+    @Test
+    void saveIfFree_sameWindowRace_exactlyOneWins() throws Exception {
+        int threads = 32;
+        AtomicInteger booked = new AtomicInteger();
+        runConcurrently(threads, t -> {
+            try {
+                bookingGuard.saveIfFree(reservation(1L, BASE, BASE.plusHours(2)));
+                booked.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertEquals("Slot already reserved for the selected time.", e.getMessage());
+            }
+        });
+
+        assertEquals(1, booked.get());
+        assertEquals(1, reservationRepo.count());
+    }
+
+    // 2: Two "replicas" (separate locks and indexes, shared database) never double-book
+    @Test
+    void saveIfFree_twoInstancesRandomWindows_noDoubleBooking() throws Exception {
+        ReservationBookingGuard otherInstance = new ReservationBookingGuard(reservationRepo, guardRepo,
+                new SlotReservationIndex(reservationRepo), recurrenceIndex, holds, new SlotLocks(64), transactionManager);
+        ReflectionTestUtils.setField(otherInstance, "dbGuard", true);
+        ReservationBookingGuard[] instances = {bookingGuard, otherInstance};
+
+        int threads = 16;
+        int attemptsPerThread = 200;
+        long slots = 4;
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long started = System.nanoTime();
+        runConcurrently(threads, t -> {
+            Random random = new Random(t);
+            ReservationBookingGuard instance = instances[t % instances.length];
+            for (int i = 0; i < attemptsPerThread; i++) {
+                LocalDateTime start = BASE.plusMinutes(30L * random.nextInt(96));
+                LocalDateTime end = start.plusMinutes(30L * (1 + random.nextInt(4)));
+                try {
+                    instance.saveIfFree(reservation(1 + random.nextLong(slots), start, end));
+                    booked.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertEquals("Slot already reserved for the selected time.", e.getMessage());
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        for (long slotId = 1; slotId <= slots; slotId++) {
+            List<Reservation> active = new ArrayList<>(reservationRepo.findBySlotIdAndStatus(slotId, ReservationStatus.ACTIVE));
+            active.sort(Comparator.comparing(Reservation::getStartTime));
+            for (int i = 1; i < active.size(); i++) {
+                assertFalse(active.get(i).getStartTime().isBefore(active.get(i - 1).getEndTime()),
+                        "Double booking on slot " + slotId + ": " + active.get(i - 1) + " / " + active.get(i));
+            }
+        }
+        assertEquals(booked.get(), reservationRepo.count());
+        assertEquals(threads * attemptsPerThread, booked.get() + rejected.get());
+        assertTrue(booked.get() > 0, "Nothing was booked");
+        System.out.printf("Booking stress: %d booked, %d rejected in %.2f s (%.0f bookings/s, %.0f attempts/s)%n",
+                booked.get(), rejected.get(), seconds, booked.get() / seconds, threads * attemptsPerThread / seconds);
+    }
+
+    // 3: Two "replicas" booking slots that have no guard row yet both get through, one booking per slot
+    @Test
+    void saveIfFree_firstBookingOfNewSlots_noDeadlock() throws Exception {
+        ReservationBookingGuard otherInstance = new ReservationBookingGuard(reservationRepo, guardRepo,
+                new SlotReservationIndex(reservationRepo), recurrenceIndex, holds, new SlotLocks(64), transactionManager);
+        ReflectionTestUtils.setField(otherInstance, "dbGuard", true);
+        ReservationBookingGuard[] instances = {bookingGuard, otherInstance};
+        // Well past any slot an earlier test has a guard row for
+        long firstSlot = 1000 + guardRepo.findAll().stream().mapToLong(SlotBookingGuard::getSlotId).max().orElse(0);
+        int slots = 20;
+
+        AtomicInteger booked = new AtomicInteger();
+        runConcurrently(2 * slots, t -> {
+            try {
+                instances[t % 2].saveIfFree(reservation(firstSlot + t / 2, BASE, BASE.plusHours(1)));
+                booked.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertEquals("Slot already reserved for the selected time.", e.getMessage());
+            }
+        });
+
+        assertEquals(slots, booked.get());
+        assertEquals(slots, reservationRepo.count());
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                go.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        go.countDown();
+        try {
+            for (Future<?> f : futures) {
+                f.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Reservation reservation(Long slotId, LocalDateTime start, LocalDateTime end) {
+        return Reservation.builder()
+                .userId(1L)
+                .slotId(slotId)
+                .vehicleNumber("KA01AB1234")
+                .startTime(start)
+                .endTime(end)
+                .status(ReservationStatus.ACTIVE)
+                .type("4W")
+                .build();
+    }
+}
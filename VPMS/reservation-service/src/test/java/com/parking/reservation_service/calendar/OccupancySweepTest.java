@@ -0,0 +1,64 @@
+package com.parking.reservation_service.calendar;
+
+import com.parking.reservation_service.dto.SlotOccupancyDTO;
+import com.parking.reservation_service.repository.ReservationWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancySweepTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 7, 1, 0, 0);
+
+    record Window(Long slotId, LocalDateTime startTime, LocalDateTime endTime) implements ReservationWindow {
+        public Long getSlotId() {
+            return slotId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+    }
+
+    // 1: Back-to-back bookings on one slot form a single run
+    @Test
+    void sweep_adjacentBookings_merged() {
+        List<SlotOccupancyDTO> grid = OccupancySweep.sweep(List.of(
+                new Window(2L, DAY.plusHours(1), DAY.plusHours(2)),
+                new Window(2L, DAY.plusHours(2), DAY.plusHours(3))), DAY, DAY.plusDays(1));
+
+        assertEquals(1, grid.size());
+        assertArrayEquals(new int[]{60, 180}, grid.get(0).getRuns());
+        assertEquals(120, grid.get(0).getOccupiedMinutes());
+    }
+
+    // 2: Nested bookings count once and bookings are clipped to the range
+    @Test
+    void sweep_nestedAndOverhanging_clipped() {
+        List<SlotOccupancyDTO> grid = OccupancySweep.sweep(List.of(
+                new Window(1L, DAY.minusHours(1), DAY.plusMinutes(30)),
+                new Window(1L, DAY.plusMinutes(10), DAY.plusMinutes(20)),
+                new Window(1L, DAY.plusHours(23), DAY.plusHours(30))), DAY, DAY.plusDays(1));
+
+        assertArrayEquals(new int[]{0, 30, 1380, 1440}, grid.get(0).getRuns());
+        assertEquals(90, grid.get(0).getOccupiedMinutes());
+    }
+
+    // 3: Slots are returned in id order and idle slots are left out
+    @Test
+    void sweep_manySlots_sortedById() {
+        List<SlotOccupancyDTO> grid = OccupancySweep.sweep(List.of(
+                new Window(9L, DAY.plusHours(5), DAY.plusHours(6)),
+                new Window(3L, DAY.plusHours(1), DAY.plusHours(2)),
+                new Window(4L, DAY.plusDays(2), DAY.plusDays(3))), DAY, DAY.plusDays(1));
+
+        assertEquals(List.of(3L, 9L), grid.stream().map(SlotOccupancyDTO::getSlotId).toList());
+    }
+}
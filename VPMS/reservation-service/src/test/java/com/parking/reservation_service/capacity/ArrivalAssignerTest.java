@@ -0,0 +1,101 @@
+package com.parking.reservation_service.capacity;
+
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.TypeReservation;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.TypeReservationRepository;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ArrivalAssignerTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withHour(18).withMinute(0).withSecond(0).withNano(0);
+    private static final LocalDateTime END = START.plusHours(4);
+
+    @Mock
+    private TypeReservationRepository typeReservationRepo;
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private SlotDirectory slotDirectory;
+
+    @Mock
+    private SlotReservationIndex slotIndex;
+
+    @Mock
+    private FreeSlotFinder freeSlotFinder;
+
+    @Mock
+    private ReservationBookingGuard bookingGuard;
+
+    @Mock
+    private ReservationTimerScheduler reservationTimers;
+
+    @Mock
+    private UtilizationCube utilizationCube;
+
+    @Mock
+    private CapacityLedger capacityLedger;
+
+    @InjectMocks
+    private ArrivalAssigner assigner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(typeReservationRepo.findByReservationId(50L)).thenReturn(Optional.of(TypeReservation.builder()
+                .id(9L)
+                .userId(100L)
+                .vehicleNumber("KA01AB1234")
+                .slotType("4W")
+                .startTime(START)
+                .endTime(END)
+                .status(ReservationStatus.ACTIVE)
+                .reservationId(50L)
+                .build()));
+    }
+
+    // 1: Cancelling an assigned booking mid-stay gives back its capacity from then to its end
+    @Test
+    void release_cancelledMidStay_remainingBucketsReleased() {
+        when(typeReservationRepo.transitionAssigned(9L, ReservationStatus.ACTIVE, ReservationStatus.CANCELLED)).thenReturn(1);
+
+        assigner.release(50L, ReservationStatus.CANCELLED, START.plusHours(1));
+
+        verify(capacityLedger).release("4W", START.plusHours(1), END);
+    }
+
+    // 2: A second cancel (or a cancel racing completion) finds the booking already moved and releases nothing
+    @Test
+    void release_alreadyMoved_nothingReleased() {
+        when(typeReservationRepo.transitionAssigned(9L, ReservationStatus.ACTIVE, ReservationStatus.CANCELLED)).thenReturn(0);
+
+        assigner.release(50L, ReservationStatus.CANCELLED, START.plusHours(1));
+
+        verifyNoInteractions(capacityLedger);
+    }
+
+    // 3: A slot reservation no any-slot booking was behind touches no capacity
+    @Test
+    void release_plainReservation_nothingReleased() {
+        assigner.release(51L, ReservationStatus.CANCELLED, START.plusHours(1));
+
+        verify(typeReservationRepo, never()).transitionAssigned(any(), any(), any());
+        verifyNoInteractions(capacityLedger);
+    }
+}
@@ -0,0 +1,130 @@
+package com.parking.reservation_service.capacity;
+
+import com.parking.reservation_service.entity.CapacityCounter;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.repository.CapacityCounterRepository;
+import com.parking.reservation_service.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CapacityLedgerStressTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+    @EntityScan(basePackageClasses = Reservation.class)
+    static class Config {
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final int CAPACITY = 5;
+
+    @Autowired
+    private CapacityCounterRepository counterRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        counterRepo.deleteAll();
+    }
+
+    // 1: Two "replicas" racing for buckets that don't exist yet admit exactly the pool size, without deadlocking
+    @Test
+    void tryAdmit_sameNewWindowRace_admitsPoolSize() throws Exception {
+        CapacityLedger[] instances = {ledger(), ledger()};
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(32, t -> {
+            if (instances[t % 2].tryAdmit("4W", BASE, BASE.plusHours(2), CAPACITY)) {
+                admitted.incrementAndGet();
+            }
+        });
+
+        assertEquals(CAPACITY, admitted.get());
+        for (CapacityCounter counter : counterRepo.findAll()) {
+            assertEquals(CAPACITY, counter.getBooked());
+        }
+    }
+
+    // 2: Overlapping random windows from two replicas never push a bucket past the pool size
+    @Test
+    void tryAdmit_twoInstancesRandomWindows_neverOverbooks() throws Exception {
+        CapacityLedger[] instances = {ledger(), ledger()};
+        int threads = 16;
+        int attemptsPerThread = 100;
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(threads, t -> {
+            Random random = new Random(t);
+            CapacityLedger instance = instances[t % 2];
+            for (int i = 0; i < attemptsPerThread; i++) {
+                LocalDateTime start = BASE.plusMinutes(30L * random.nextInt(24));
+                LocalDateTime end = start.plusMinutes(30L * (1 + random.nextInt(4)));
+                if (instance.tryAdmit("4W", start, end, CAPACITY)) {
+                    admitted.incrementAndGet();
+                }
+            }
+        });
+
+        List<CapacityCounter> counters = counterRepo.findAll();
+        assertFalse(counters.isEmpty());
+        for (CapacityCounter counter : counters) {
+            assertTrue(counter.getBooked() <= CAPACITY, "Bucket " + counter.getBucketStart() + " overbooked: " + counter.getBooked());
+        }
+        assertTrue(admitted.get() > 0, "Nothing was admitted");
+    }
+
+    private CapacityLedger ledger() {
+        return new CapacityLedger(counterRepo, transactionManager, 30, 24);
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                go.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        go.countDown();
+        try {
+            for (Future<?> f : futures) {
+                f.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
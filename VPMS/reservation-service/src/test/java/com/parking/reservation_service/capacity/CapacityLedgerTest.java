@@ -0,0 +1,43 @@
+package com.parking.reservation_service.capacity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityLedgerTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2025, 7, 1, 18, 0);
+
+    private final CapacityLedger ledger = new CapacityLedger(null, null, 30, 24);
+
+    // 1: A window takes every bucket it touches, including partly covered ones
+    @Test
+    void buckets_unalignedWindow_coversPartialBuckets() {
+        List<LocalDateTime> buckets = ledger.buckets(EVENING.plusMinutes(10), EVENING.plusMinutes(70));
+
+        assertEquals(List.of(EVENING, EVENING.plusMinutes(30), EVENING.plusMinutes(60)), buckets);
+    }
+
+    // 2: A window ending on a bucket boundary doesn't take the next bucket
+    @Test
+    void buckets_alignedWindow_endExclusive() {
+        assertEquals(List.of(EVENING, EVENING.plusMinutes(30)), ledger.buckets(EVENING, EVENING.plusHours(1)));
+    }
+
+    // 3: Overnight windows continue into the next day's buckets
+    @Test
+    void buckets_overMidnight_continuesNextDay() {
+        List<LocalDateTime> buckets = ledger.buckets(EVENING.withHour(23).withMinute(45), EVENING.plusHours(6).plusMinutes(15));
+
+        assertEquals(List.of(EVENING.withHour(23).withMinute(30), EVENING.plusHours(6)), buckets);
+    }
+
+    // 4: Bucket widths that don't divide a day are rejected
+    @Test
+    void constructor_bucketNotDividingDay_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> new CapacityLedger(null, null, 7, 24));
+    }
+}
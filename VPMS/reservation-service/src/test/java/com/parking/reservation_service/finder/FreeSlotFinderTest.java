@@ -0,0 +1,132 @@
+package com.parking.reservation_service.finder;
+
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FreeSlotFinderTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2025, 7, 1, 18, 0);
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private SlotDirectory slotDirectory;
+
+    @Mock
+    private RecurrenceIndex recurrenceIndex;
+
+    @Mock
+    private SlotHoldRegistry holds;
+
+    private SlotReservationIndex slotIndex;
+
+    private FreeSlotFinder finder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        slotIndex = spy(new SlotReservationIndex(reservationRepo));
+        finder = new FreeSlotFinder(slotDirectory, slotIndex, recurrenceIndex, holds, reservationRepo, true);
+        when(reservationRepo.findBySlotIdAndStatus(anyLong(), eq(ReservationStatus.ACTIVE))).thenReturn(List.of());
+    }
+
+    // 1: Slots with an overlapping booking are skipped
+    @Test
+    void findFree_overlappingBooking_slotSkipped() {
+        when(slotDirectory.slots("4W")).thenReturn(List.of(slot(1L), slot(2L), slot(3L)));
+        when(reservationRepo.findBySlotIdAndStatus(2L, ReservationStatus.ACTIVE))
+                .thenReturn(List.of(booking(10L, 2L, EVENING.plusHours(1), EVENING.plusHours(2))));
+
+        List<SlotDTO> free = finder.findFree(EVENING, EVENING.plusHours(4), "4W", 10);
+
+        assertEquals(List.of(1L, 3L), free.stream().map(SlotDTO::getSlotId).toList());
+    }
+
+    // 2: A booking that ends exactly at the window start does not block the slot
+    @Test
+    void findFree_adjacentBooking_slotFree() {
+        when(slotDirectory.slots("4W")).thenReturn(List.of(slot(1L)));
+        when(reservationRepo.findBySlotIdAndStatus(1L, ReservationStatus.ACTIVE))
+                .thenReturn(List.of(booking(10L, 1L, EVENING.minusHours(2), EVENING)));
+
+        assertEquals(1, finder.findFree(EVENING, EVENING.plusHours(4), "4W", 10).size());
+    }
+
+    // 3: The sweep stops once enough free slots are found
+    @Test
+    void findFree_limitReached_stopsEarly() {
+        when(slotDirectory.slots(null)).thenReturn(List.of(slot(1L), slot(2L), slot(3L), slot(4L)));
+
+        List<SlotDTO> free = finder.findFree(EVENING, EVENING.plusHours(4), null, 2);
+
+        assertEquals(List.of(1L, 2L), free.stream().map(SlotDTO::getSlotId).toList());
+        verify(reservationRepo, never()).findBySlotIdAndStatus(3L, ReservationStatus.ACTIVE);
+        verify(reservationRepo, never()).findBySlotIdAndStatus(4L, ReservationStatus.ACTIVE);
+    }
+
+    // 4: An empty or inverted window is rejected
+    @Test
+    void findFree_invalidWindow_throwsException() {
+        assertThrows(RuntimeException.class, () -> finder.findFree(EVENING, EVENING, "4W", 10));
+        assertThrows(RuntimeException.class, () -> finder.findFree(EVENING, EVENING.minusHours(1), "4W", 10));
+    }
+
+    // 5: Slots pooled for any-slot bookings are never offered
+    @Test
+    void findFree_pooledSlot_skipped() {
+        when(slotDirectory.slots("4W")).thenReturn(List.of(slot(1L), slot(2L), slot(3L)));
+        when(slotDirectory.isPooled(3L)).thenReturn(true);
+
+        List<SlotDTO> free = finder.findFree(EVENING, EVENING.plusHours(4), "4W", 10);
+
+        assertEquals(List.of(1L, 2L), free.stream().map(SlotDTO::getSlotId).toList());
+    }
+
+    // 6: A slot booked through another replica is caught by the database check and replaced by the next free one
+    @Test
+    void findFree_bookedElsewhere_confirmedAgainstDatabase() {
+        when(slotDirectory.slots("4W")).thenReturn(List.of(slot(1L), slot(2L), slot(3L)));
+        ReservationWindow bookedElsewhere = mock(ReservationWindow.class);
+        when(bookedElsewhere.getSlotId()).thenReturn(2L);
+        when(reservationRepo.findWindowsForSlots(eq(List.of(1L, 2L)), eq(ReservationStatus.ACTIVE), any(), any()))
+                .thenReturn(List.of(bookedElsewhere));
+
+        List<SlotDTO> free = finder.findFree(EVENING, EVENING.plusHours(4), "4W", 2);
+
+        assertEquals(List.of(1L, 3L), free.stream().map(SlotDTO::getSlotId).toList());
+        verify(slotIndex).invalidate(2L);
+        verify(reservationRepo).findWindowsForSlots(eq(List.of(3L)), eq(ReservationStatus.ACTIVE), any(), any());
+    }
+
+    private static SlotDTO slot(Long id) {
+        return new SlotDTO(id, "A" + id, "4W");
+    }
+
+    private static Reservation booking(Long id, Long slotId, LocalDateTime start, LocalDateTime end) {
+        return Reservation.builder()
+                .reservationId(id)
+                .slotId(slotId)
+                .startTime(start)
+                .endTime(end)
+                .status(ReservationStatus.ACTIVE)
+                .build();
+    }
+}
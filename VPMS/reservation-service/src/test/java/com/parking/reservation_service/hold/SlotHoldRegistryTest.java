@@ -0,0 +1,71 @@
+package com.parking.reservation_service.hold;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotHoldRegistryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> events = new ArrayList<>();
+    private final SlotHoldRegistry holds = new SlotHoldRegistry(events::add, meterRegistry);
+
+    private double count(String outcome) {
+        return meterRegistry.get("reservation.holds").tag("outcome", outcome).counter().count();
+    }
+
+    // 1: A live hold blocks overlapping windows on its slot, but not its own conversion
+    @Test
+    void hasConflict_liveHold_blocksOthersOnly() {
+        SlotHold hold = holds.place(1L, BASE, BASE.plusHours(2), 7L, null, Duration.ofMinutes(5));
+
+        assertTrue(holds.hasConflict(1L, BASE.plusHours(1), BASE.plusHours(3), null));
+        assertFalse(holds.hasConflict(1L, BASE.plusHours(2), BASE.plusHours(3), null));
+        assertFalse(holds.hasConflict(2L, BASE, BASE.plusHours(2), null));
+        assertFalse(holds.hasConflict(1L, BASE, BASE.plusHours(2), hold.holdId()));
+    }
+
+    // 2: Converting and releasing free the window and are counted separately
+    @Test
+    void convertAndRelease_countedByOutcome() {
+        SlotHold a = holds.place(1L, BASE, BASE.plusHours(1), 7L, null, Duration.ofMinutes(5));
+        SlotHold b = holds.place(1L, BASE.plusHours(1), BASE.plusHours(2), 8L, null, Duration.ofMinutes(5));
+
+        assertTrue(holds.convert(a.holdId()));
+        assertTrue(holds.release(b.holdId()));
+        assertFalse(holds.release(b.holdId()));
+
+        assertFalse(holds.hasConflict(1L, BASE, BASE.plusHours(2), null));
+        assertEquals(2, count("placed"));
+        assertEquals(1, count("converted"));
+        assertEquals(1, count("released"));
+        assertTrue(events.isEmpty());
+    }
+
+    // 3: A hold stops blocking at its TTL and the sweep reports it once
+    @Test
+    void purgeExpired_pastTtl_expiresOnce() throws Exception {
+        SlotHold hold = holds.place(1L, BASE, BASE.plusHours(1), 7L, 42L, Duration.ofMillis(50));
+        Thread.sleep(100);
+
+        assertNull(holds.find(hold.holdId()));
+        assertFalse(holds.hasConflict(1L, BASE, BASE.plusHours(1), null));
+
+        // The wheel fires on the next one-second tick
+        Thread.sleep(1100);
+        holds.purgeExpired();
+        holds.purgeExpired();
+
+        assertEquals(1, count("expired"));
+        assertEquals(List.of(new SlotHoldExpiredEvent(hold)), events);
+        assertFalse(holds.release(hold.holdId()));
+    }
+}
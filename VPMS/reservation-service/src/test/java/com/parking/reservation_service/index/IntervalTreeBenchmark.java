@@ -0,0 +1,86 @@
+package com.parking.reservation_service.index;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the interval tree against the linear scan createReservation used to do.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.parking.reservation_service.index.IntervalTreeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalTreeBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int reservationsPerSlot;
+
+    private List<Reservation> reservations;
+    private IntervalTree tree;
+    private LocalDateTime[] queryStarts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        reservations = new ArrayList<>(reservationsPerSlot);
+        tree = new IntervalTree();
+        // Back-to-back one-hour bookings with a 30 minute gap, so most probes find no conflict
+        for (int i = 0; i < reservationsPerSlot; i++) {
+            LocalDateTime start = base.plusMinutes(90L * i);
+            Reservation r = Reservation.builder()
+                    .reservationId((long) i)
+                    .slotId(1L)
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(ReservationStatus.ACTIVE)
+                    .build();
+            reservations.add(r);
+            tree.insert(i, SlotReservationIndex.toKey(r.getStartTime()), SlotReservationIndex.toKey(r.getEndTime()));
+        }
+        Random random = new Random(7);
+        queryStarts = new LocalDateTime[1024];
+        for (int i = 0; i < queryStarts.length; i++) {
+            queryStarts[i] = base.plusMinutes(random.nextInt(90 * reservationsPerSlot));
+        }
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        LocalDateTime start = queryStarts[next++ & 1023];
+        LocalDateTime end = start.plusMinutes(20);
+        for (Reservation r : reservations) {
+            if (start.isBefore(r.getEndTime()) && end.isAfter(r.getStartTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean intervalTree() {
+        LocalDateTime start = queryStarts[next++ & 1023];
+        LocalDateTime end = start.plusMinutes(20);
+        return tree.overlapsAny(SlotReservationIndex.toKey(start), SlotReservationIndex.toKey(end));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IntervalTreeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
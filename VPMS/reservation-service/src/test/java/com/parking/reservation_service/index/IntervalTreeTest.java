@@ -0,0 +1,65 @@
+package com.parking.reservation_service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    // 1: Touching intervals do not overlap (half-open)
+    @Test
+    void overlapsAny_adjacentIntervals_noOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1L, 100, 200);
+
+        assertFalse(tree.overlapsAny(200, 300));
+        assertFalse(tree.overlapsAny(0, 100));
+        assertTrue(tree.overlapsAny(199, 201));
+        assertTrue(tree.overlapsAny(50, 500));
+    }
+
+    // 2: Removed and excluded intervals are ignored
+    @Test
+    void removeAndExclude_intervalIgnored() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1L, 100, 200);
+        tree.insert(2L, 300, 400);
+
+        assertFalse(tree.overlapsAnyExcept(150, 160, 1L));
+        assertTrue(tree.contains(1L));
+
+        assertTrue(tree.remove(1L));
+        assertFalse(tree.overlapsAny(150, 160));
+        assertEquals(1, tree.size());
+    }
+
+    // 3: Randomised inserts/removals agree with a linear scan
+    @Test
+    void overlapsAny_randomOperations_matchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        Map<Long, long[]> reference = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                assertEquals(reference.remove(id) != null, tree.remove(id));
+            } else {
+                long start = random.nextInt(10_000);
+                long end = start + 1 + random.nextInt(300);
+                tree.insert(id, start, end);
+                reference.put(id, new long[]{start, end});
+            }
+
+            long qs = random.nextInt(10_000);
+            long qe = qs + 1 + random.nextInt(300);
+            boolean expected = reference.values().stream().anyMatch(iv -> iv[0] < qe && qs < iv[1]);
+            assertEquals(expected, tree.overlapsAny(qs, qe));
+        }
+        assertEquals(reference.size(), tree.size());
+    }
+}
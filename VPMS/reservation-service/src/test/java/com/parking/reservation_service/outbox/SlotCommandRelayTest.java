@@ -0,0 +1,162 @@
+package com.parking.reservation_service.outbox;
+
+import com.parking.reservation_service.entity.OutboxStatus;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.entity.SlotCommand;
+import com.parking.reservation_service.entity.SlotCommandType;
+import com.parking.reservation_service.feign.SlotClient;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.SlotCommandRepository;
+import com.parking.reservation_service.security.ServiceTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SlotCommandRelayTest {
+
+    private static final String TOKEN = "Bearer service";
+
+    @Mock
+    private SlotCommandRepository commandRepo;
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private SlotClient slotClient;
+
+    @Mock
+    private ServiceTokenProvider serviceToken;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SlotCommandRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(serviceToken.isConfigured()).thenReturn(true);
+        when(serviceToken.authorization()).thenReturn(TOKEN);
+        when(reservationRepo.findSlotsInUse(any(), eq(ReservationStatus.ACTIVE), any())).thenReturn(Set.of());
+        relay = newRelay();
+    }
+
+    // 1: Due commands are claimed, their slots released with the service token, then marked delivered
+    @Test
+    void relay_dueCommands_deliveredWithServiceToken() {
+        when(commandRepo.lockDue(any(), eq(10))).thenReturn(List.of(command(1L, 7L, 0), command(2L, 7L, 0), command(3L, 8L, 0)));
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(commandRepo, slotClient);
+        inOrder.verify(commandRepo).claim(eq(List.of(1L, 2L, 3L)), any());
+        inOrder.verify(slotClient).markSlotsAvailable(TOKEN, List.of(7L, 8L));
+        inOrder.verify(commandRepo).markDelivered(eq(List.of(1L, 2L, 3L)), eq(OutboxStatus.DELIVERED), any());
+        // Claim, call and mark each run in their own short transaction
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    // 2: A failed call reschedules every command in the batch with a backoff
+    @Test
+    void relay_callFails_retriedWithBackoff() {
+        LocalDateTime before = LocalDateTime.now();
+        when(commandRepo.lockDue(any(), eq(10))).thenReturn(List.of(command(1L, 7L, 0)));
+        doThrow(new RuntimeException("slot-service down")).when(slotClient).markSlotsAvailable(any(), any());
+
+        relay.relay();
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(commandRepo).recordFailure(eq(1L), eq(OutboxStatus.PENDING), eq(OutboxStatus.PENDING), eq(1),
+                next.capture(), eq("slot-service down"));
+        assertFalse(next.getValue().isBefore(before.plusSeconds(1)));
+        verify(commandRepo, never()).markDelivered(any(), any(), any());
+    }
+
+    // 3: The last allowed attempt parks the command as FAILED
+    @Test
+    void relay_maxAttemptsReached_parkedAsFailed() {
+        when(commandRepo.lockDue(any(), eq(10))).thenReturn(List.of(command(1L, 7L, 2)));
+        doThrow(new RuntimeException("slot-service down")).when(slotClient).markSlotsAvailable(any(), any());
+
+        relay.relay();
+
+        verify(commandRepo).recordFailure(eq(1L), eq(OutboxStatus.PENDING), eq(OutboxStatus.FAILED), eq(3),
+                any(), eq("slot-service down"));
+    }
+
+    // 4: Without a service account nothing could be delivered, so the relay refuses to start
+    @Test
+    void relay_noServiceAccount_startupFails() {
+        when(serviceToken.isConfigured()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, this::newRelay);
+    }
+
+    // 5: Nothing due means no call to slot-service
+    @Test
+    void relay_nothingDue_noCall() {
+        when(commandRepo.lockDue(any(), eq(10))).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(commandRepo, never()).claim(any(), any());
+        verifyNoInteractions(slotClient);
+    }
+
+    // 6: A slot in use again by the time its release is relayed is not freed; the rest still are
+    @Test
+    void relay_slotInUseAgain_notReleased() {
+        when(commandRepo.lockDue(any(), eq(10))).thenReturn(List.of(command(1L, 7L, 0), command(2L, 8L, 0)));
+        when(reservationRepo.findSlotsInUse(eq(List.of(7L, 8L)), eq(ReservationStatus.ACTIVE), any()))
+                .thenReturn(Set.of(7L));
+
+        relay.relay();
+
+        verify(commandRepo).markSkipped(eq(List.of(1L)), eq(OutboxStatus.DELIVERED), any(), anyString());
+        verify(commandRepo).claim(eq(List.of(2L)), any());
+        verify(slotClient).markSlotsAvailable(TOKEN, List.of(8L));
+        verify(commandRepo).markDelivered(eq(List.of(2L)), eq(OutboxStatus.DELIVERED), any());
+    }
+
+    // 7: A batch whose slots are all in use again makes no call at all
+    @Test
+    void relay_allSlotsInUse_noCall() {
+        when(commandRepo.lockDue(any(), eq(10))).thenReturn(List.of(command(1L, 7L, 0)));
+        when(reservationRepo.findSlotsInUse(any(), eq(ReservationStatus.ACTIVE), any())).thenReturn(Set.of(7L));
+
+        relay.relay();
+
+        verify(commandRepo).markSkipped(eq(List.of(1L)), eq(OutboxStatus.DELIVERED), any(), anyString());
+        verify(commandRepo, never()).claim(any(), any());
+        verifyNoInteractions(slotClient);
+    }
+
+    private SlotCommandRelay newRelay() {
+        return new SlotCommandRelay(commandRepo, reservationRepo, slotClient, serviceToken, transactionManager,
+                new SimpleMeterRegistry(), 10, 60, 3, 1000, 300000, 24);
+    }
+
+    private SlotCommand command(Long id, Long slotId, int attempts) {
+        return SlotCommand.builder()
+                .id(id)
+                .commandId("release:" + id + ":CANCELLED")
+                .type(SlotCommandType.MARK_AVAILABLE)
+                .slotId(slotId)
+                .status(OutboxStatus.PENDING)
+                .attempts(attempts)
+                .createdAt(LocalDateTime.now())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
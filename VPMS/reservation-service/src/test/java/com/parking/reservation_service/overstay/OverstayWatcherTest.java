@@ -0,0 +1,99 @@
+package com.parking.reservation_service.overstay;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.scheduler.ReservationsCompletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OverstayWatcherTest {
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private SlotReassigner reassigner;
+
+    private OverstayWatcher watcher;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        watcher = new OverstayWatcher(reservationRepo, reassigner, new SimpleMeterRegistry(), 5, 60, 24);
+    }
+
+    // 1: A vehicle still parked past the grace period gets the next booking on its slot moved
+    @Test
+    void check_parkedPastGrace_nextBookingMoved() {
+        Reservation parked = reservation(1L, 7L, now.minusHours(2), now.minusMinutes(10));
+        Reservation next = reservation(2L, 7L, now.plusMinutes(20), now.plusHours(2));
+        watch(parked);
+        when(reservationRepo.findAwaitingOnSlot(eq(7L), eq(ReservationStatus.ACTIVE), eq(parked.getEndTime()), any()))
+                .thenReturn(List.of(next));
+        when(reassigner.reassign(next, 1L, OverstayWatcher.REASON, Set.of(7L))).thenReturn(8L);
+
+        assertEquals(1, watcher.check());
+        verify(reassigner).reassign(next, 1L, OverstayWatcher.REASON, Set.of(7L));
+    }
+
+    // 2: Within the grace period nothing is moved yet
+    @Test
+    void check_withinGrace_nothingMoved() {
+        watch(reservation(1L, 7L, now.minusHours(2), now.minusMinutes(2)));
+
+        assertEquals(0, watcher.check());
+        verifyNoInteractions(reassigner);
+        assertTrue(watcher.isOverstayed(7L));
+    }
+
+    // 3: A reported departure stops the slot from being watched
+    @Test
+    void departed_slotNoLongerWatched() {
+        watch(reservation(1L, 7L, now.minusHours(2), now.minusMinutes(10)));
+
+        watcher.departed(1L);
+
+        assertFalse(watcher.isOverstayed(7L));
+        assertEquals(0, watcher.check());
+        verifyNoInteractions(reassigner);
+    }
+
+    // 4: A departure only recorded in the database (another replica) is picked up before moving anything
+    @Test
+    void check_departedElsewhere_slotDropped() {
+        Reservation parked = reservation(1L, 7L, now.minusHours(2), now.minusMinutes(10));
+        watch(parked);
+        when(reservationRepo.findStillParked(List.of(1L))).thenReturn(List.of());
+
+        assertEquals(0, watcher.check());
+        assertFalse(watcher.isOverstayed(7L));
+        verifyNoInteractions(reassigner);
+    }
+
+    private void watch(Reservation parked) {
+        when(reservationRepo.findStillParked(List.of(parked.getReservationId()))).thenReturn(List.of(parked));
+        watcher.onCompleted(new ReservationsCompletedEvent(List.of(parked.getReservationId())));
+    }
+
+    private static Reservation reservation(Long id, Long slotId, LocalDateTime start, LocalDateTime end) {
+        return Reservation.builder()
+                .reservationId(id).userId(3L).slotId(slotId).vehicleNumber("KA01AB" + id).type("4W")
+                .startTime(start).endTime(end)
+                .status(ReservationStatus.ACTIVE)
+                .arrivedAt(start)
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.parking.reservation_service.pipeline;
+
+import com.parking.reservation_service.booking.BulkReservationBooker;
+import com.parking.reservation_service.dto.BulkReservationItemDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingPipelineTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2030, 7, 1, 18, 0);
+
+    @Mock
+    private BulkReservationBooker bulkBooker;
+
+    @Mock
+    private ReservationTimerScheduler reservationTimers;
+
+    @Mock
+    private UtilizationCube utilizationCube;
+
+    private BookingPipeline pipeline;
+
+    private BookingPipeline start(int partitions, int queueCapacity) {
+        MockitoAnnotations.openMocks(this);
+        pipeline = new BookingPipeline(bulkBooker, reservationTimers, utilizationCube, new SimpleMeterRegistry(),
+                true, partitions, queueCapacity, 100, 10);
+        pipeline.start();
+        return pipeline;
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    // 1: Each ticket completes with its own item's outcome from the batch
+    @Test
+    void submit_batchOutcome_completesEachTicket() {
+        start(1, 16);
+        Reservation booked = reservation(100L, 1L);
+        when(bulkBooker.book(anyList(), eq(false))).thenAnswer(inv -> {
+            List<ReservationRequestDTO> requests = inv.getArgument(0);
+            return requests.size() == 1 && requests.get(0).getSlotId() == 1L
+                    ? new BulkReservationBooker.Result(List.of(booked),
+                            List.of(new BulkReservationItemDTO(0, "BOOKED", 100L, null)))
+                    : new BulkReservationBooker.Result(List.of(),
+                            List.of(new BulkReservationItemDTO(0, "REJECTED", null, "Slot already reserved for the selected time.")));
+        });
+
+        BookingPipeline.Ticket first = pipeline.submit(request(1L));
+        assertEquals(100L, first.result().orTimeout(5, TimeUnit.SECONDS).join().getReservationId());
+        BookingPipeline.Ticket second = pipeline.submit(request(2L));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> second.result().orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("Slot already reserved for the selected time.", e.getCause().getMessage());
+        verify(reservationTimers).track(booked);
+        verify(utilizationCube).add(1L, booked.getStartTime(), booked.getEndTime());
+        assertSame(first, pipeline.find(first.ticketId()));
+    }
+
+    // 2: A slot always lands on the same partition, so it has a single writer
+    @Test
+    void partitionOf_sameSlot_samePartition() {
+        start(8, 16);
+
+        assertEquals(pipeline.partitionOf(42L), pipeline.partitionOf(42L));
+        assertEquals(pipeline.partitionOf(3L), pipeline.partitionOf(11L));
+        assertNotEquals(pipeline.partitionOf(3L), pipeline.partitionOf(4L));
+    }
+
+    // 3: A full partition turns commands away instead of queueing them
+    @Test
+    void submit_partitionFull_throwsException() throws InterruptedException {
+        start(1, 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkBooker.book(anyList(), eq(false))).thenAnswer(inv -> {
+            writing.countDown();
+            release.await();
+            return new BulkReservationBooker.Result(List.of(),
+                    List.of(new BulkReservationItemDTO(0, "REJECTED", null, "Slot already reserved for the selected time.")));
+        });
+
+        pipeline.submit(request(1L));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        pipeline.submit(request(1L));
+
+        TaskRejectedException e = assertThrows(TaskRejectedException.class, () -> pipeline.submit(request(1L)));
+        assertEquals("Too many bookings in progress, please retry shortly.", e.getMessage());
+        release.countDown();
+    }
+
+    // 4: A batch that fails as a whole fails every ticket in it
+    @Test
+    void submit_batchThrows_ticketFails() {
+        start(1, 16);
+        when(bulkBooker.book(anyList(), eq(false))).thenThrow(new RuntimeException("Connection reset"));
+
+        BookingPipeline.Ticket ticket = pipeline.submit(request(1L));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> ticket.result().orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("Booking failed, please retry.", e.getCause().getMessage());
+    }
+
+    // 5: A command without a user is refused as invalid, not as a busy pipeline
+    @Test
+    void submit_missingUser_rejectedAsInvalid() {
+        start(1, 16);
+        ReservationRequestDTO request = request(1L);
+        request.setUserId(null);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> pipeline.submit(request));
+        assertFalse(e instanceof TaskRejectedException);
+        assertEquals("User and slot are required.", e.getMessage());
+        verifyNoInteractions(bulkBooker);
+    }
+
+    private static ReservationRequestDTO request(Long slotId) {
+        return new ReservationRequestDTO(7L, slotId, "KA01AB" + slotId, EVENING, EVENING.plusHours(2), "4W", null);
+    }
+
+    private static Reservation reservation(Long id, Long slotId) {
+        return Reservation.builder()
+                .reservationId(id).userId(7L).slotId(slotId).vehicleNumber("KA01AB" + slotId).type("4W")
+                .startTime(EVENING).endTime(EVENING.plusHours(2))
+                .status(ReservationStatus.ACTIVE)
+                .build();
+    }
+}
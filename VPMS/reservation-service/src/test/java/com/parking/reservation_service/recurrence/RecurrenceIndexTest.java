@@ -0,0 +1,82 @@
+package com.parking.reservation_service.recurrence;
+
+import com.parking.reservation_service.entity.RecurrenceSkip;
+import com.parking.reservation_service.entity.RecurringReservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.RecurrenceSkipRepository;
+import com.parking.reservation_service.repository.RecurringReservationRepository;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.ReservationWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecurrenceIndexTest {
+
+    // A past week: Monday to Sunday, a month ago
+    private static final LocalDate MONDAY = LocalDate.now().minusDays(30).with(DayOfWeek.MONDAY);
+
+    @Mock
+    private RecurringReservationRepository ruleRepo;
+
+    @Mock
+    private RecurrenceSkipRepository skipRepo;
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @InjectMocks
+    private RecurrenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        RecurringReservation rule = RecurringReservation.builder()
+                .id(3L)
+                .userId(100L)
+                .slotId(7L)
+                .vehicleNumber("KA01AB1234")
+                .type("4W")
+                .daysOfWeek(RecurrenceRule.mask(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)))
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(17, 0))
+                .validFrom(MONDAY.minusWeeks(4))
+                .validUntil(MONDAY.plusWeeks(20))
+                .status(ReservationStatus.ACTIVE)
+                .build();
+        when(ruleRepo.findLiveForSlot(eq(7L), eq(ReservationStatus.ACTIVE), any())).thenReturn(List.of(rule));
+        when(skipRepo.findByRecurrenceIdInAndOccurrenceDateGreaterThanEqual(List.of(3L), MONDAY))
+                .thenReturn(List.of(new RecurrenceSkip(1L, 3L, MONDAY.plusDays(2))));
+    }
+
+    // 1: A past range reads its own exclusions, so a skipped occurrence doesn't show as occupied
+    @Test
+    void windows_pastRange_skipsExcludedOccurrences() {
+        List<ReservationWindow> windows = index.windows(7L, MONDAY.atStartOfDay(), MONDAY.plusDays(7).atStartOfDay());
+
+        assertEquals(1, windows.size());
+        assertEquals(MONDAY.atTime(9, 0), windows.get(0).getStartTime());
+        verify(ruleRepo).findLiveForSlot(7L, ReservationStatus.ACTIVE, MONDAY);
+        verify(reservationRepo).findMaterializedOccurrences(List.of(3L), MONDAY);
+    }
+
+    // 2: A past range isn't cached, so the next future check still loads from yesterday on
+    @Test
+    void windows_pastRange_notCached() {
+        index.windows(7L, MONDAY.atStartOfDay(), MONDAY.plusDays(7).atStartOfDay());
+        index.hasConflict(7L, LocalDate.now().plusDays(1).atTime(8, 0), LocalDate.now().plusDays(1).atTime(10, 0),
+                null, null);
+
+        verify(ruleRepo).findLiveForSlot(7L, ReservationStatus.ACTIVE, LocalDate.now().minusDays(1));
+    }
+}
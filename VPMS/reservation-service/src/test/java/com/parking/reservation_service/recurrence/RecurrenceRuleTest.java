@@ -0,0 +1,80 @@
+package com.parking.reservation_service.recurrence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    // Monday
+    private static final LocalDate MONDAY = LocalDate.of(2025, 7, 7);
+
+    // Every weekday 09:00-18:00 for three months
+    private static RecurrenceRule weekdays(List<LocalDate> excluded) {
+        return new RecurrenceRule(1L, 10L,
+                RecurrenceRule.mask(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)),
+                LocalTime.of(9, 0), LocalTime.of(18, 0),
+                MONDAY, MONDAY.plusMonths(3), excluded);
+    }
+
+    // 1: Only weekdays inside the validity span are occurrences
+    @Test
+    void occursOn_weekdaysWithinSpan_only() {
+        RecurrenceRule rule = weekdays(List.of());
+
+        assertTrue(rule.occursOn(MONDAY));
+        assertTrue(rule.occursOn(MONDAY.plusDays(4)));
+        assertFalse(rule.occursOn(MONDAY.plusDays(5)));
+        assertFalse(rule.occursOn(MONDAY.minusDays(7)));
+        assertFalse(rule.occursOn(MONDAY.plusMonths(3).plusDays(7)));
+    }
+
+    // 2: Windows touching an occurrence's edges do not overlap it
+    @Test
+    void overlaps_adjacentWindows_free() {
+        RecurrenceRule rule = weekdays(List.of());
+        LocalDateTime nine = MONDAY.atTime(9, 0);
+
+        assertFalse(rule.overlaps(nine.minusHours(2), nine, null));
+        assertFalse(rule.overlaps(nine.plusHours(9), nine.plusHours(11), null));
+        assertTrue(rule.overlaps(nine.plusHours(8), nine.plusHours(10), null));
+        // Saturday
+        assertFalse(rule.overlaps(nine.plusDays(5), nine.plusDays(5).plusHours(3), null));
+    }
+
+    // 3: Skipped or materialized dates and the caller's own occurrence never conflict
+    @Test
+    void overlaps_excludedAndIgnoredDates_free() {
+        RecurrenceRule rule = weekdays(List.of(MONDAY));
+        LocalDateTime tuesdayNoon = MONDAY.plusDays(1).atTime(12, 0);
+
+        assertFalse(rule.overlaps(MONDAY.atTime(10, 0), MONDAY.atTime(11, 0), null));
+        assertTrue(rule.overlaps(tuesdayNoon, tuesdayNoon.plusHours(1), null));
+        assertFalse(rule.overlaps(tuesdayNoon, tuesdayNoon.plusHours(1), MONDAY.plusDays(1)));
+
+        rule.exclude(MONDAY.plusDays(1));
+        assertFalse(rule.overlaps(tuesdayNoon, tuesdayNoon.plusHours(1), null));
+    }
+
+    // 4: Expansion covers only the queried window, in start order
+    @Test
+    void occurrencesBetween_week_fiveWeekdays() {
+        RecurrenceRule rule = weekdays(List.of());
+
+        List<LocalDateTime[]> week = rule.occurrencesBetween(MONDAY.atStartOfDay(), MONDAY.plusDays(7).atStartOfDay());
+        assertEquals(5, week.size());
+        assertEquals(MONDAY.atTime(9, 0), week.get(0)[0]);
+        assertEquals(MONDAY.plusDays(4).atTime(18, 0), week.get(4)[1]);
+
+        // An occurrence in progress at the window's start is included
+        List<LocalDateTime[]> afternoon = rule.occurrencesBetween(MONDAY.atTime(17, 0), MONDAY.atTime(20, 0));
+        assertEquals(1, afternoon.size());
+    }
+}
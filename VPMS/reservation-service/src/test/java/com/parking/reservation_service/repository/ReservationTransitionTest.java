@@ -0,0 +1,106 @@
+package com.parking.reservation_service.repository;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationTransitionTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+    @EntityScan(basePackageClasses = Reservation.class)
+    static class Config {
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepo.deleteAll();
+    }
+
+    // 1: Final states can't be left, so a completed reservation can't be cancelled
+    @Test
+    void transition_fromFinalState_noRowsChanged() {
+        Long id = save(ReservationStatus.COMPLETED);
+
+        assertEquals(0, reservationRepo.transition(id, ReservationStatus.CANCELLED.allowedFrom(), ReservationStatus.CANCELLED));
+        assertEquals(ReservationStatus.COMPLETED, reservationRepo.findStatusById(id).orElseThrow());
+    }
+
+    // 2: A cancel racing a completion: exactly one of them moves the reservation
+    @Test
+    void transition_cancelRacingCompletion_exactlyOneApplies() throws Exception {
+        int rounds = 50;
+        AtomicInteger applied = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                Long id = save(ReservationStatus.ACTIVE);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<Integer>> futures = new ArrayList<>();
+                for (ReservationStatus to : List.of(ReservationStatus.CANCELLED, ReservationStatus.COMPLETED)) {
+                    futures.add(pool.submit(() -> {
+                        go.await();
+                        return reservationRepo.transition(id, to.allowedFrom(), to);
+                    }));
+                }
+                go.countDown();
+                int changed = 0;
+                for (Future<Integer> f : futures) {
+                    changed += f.get(1, TimeUnit.MINUTES);
+                }
+                assertEquals(1, changed, "Reservation " + id + " moved twice");
+                applied.addAndGet(changed);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(rounds, applied.get());
+    }
+
+    // 3: Nothing moves into ACTIVE
+    @Test
+    void allowedFrom_active_empty() {
+        assertTrue(ReservationStatus.ACTIVE.allowedFrom().isEmpty());
+        assertEquals(Set.of(ReservationStatus.ACTIVE), ReservationStatus.CANCELLED.allowedFrom());
+    }
+
+    private Long save(ReservationStatus status) {
+        return reservationRepo.save(Reservation.builder()
+                .userId(1L)
+                .slotId(1L)
+                .vehicleNumber("KA01AB1234")
+                .startTime(BASE)
+                .endTime(BASE.plusHours(2))
+                .status(status)
+                .type("4W")
+                .build()).getReservationId();
+    }
+}
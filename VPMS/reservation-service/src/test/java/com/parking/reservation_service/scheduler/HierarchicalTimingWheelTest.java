@@ -0,0 +1,60 @@
+package com.parking.reservation_service.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    // 1: Timers fire once, never early and within one tick of their deadline
+    @Test
+    void advanceTo_randomDeadlines_fireOnTimeAcrossLevels() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1000, 64, 3, START);
+        Random random = new Random(11);
+        long[] deadlines = new long[5_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            // Up to ~3.5 days ahead, so some timers start beyond the wheel's range
+            deadlines[i] = START + (long) (random.nextDouble() * 300_000_000L);
+            wheel.schedule(deadlines[i], i);
+        }
+
+        boolean[] fired = new boolean[deadlines.length];
+        for (long now = START; now <= START + 301_000_000L; now += 1000) {
+            long at = now;
+            wheel.advanceTo(now, timeout -> {
+                int i = timeout.getPayload();
+                assertFalse(fired[i], "fired twice");
+                assertTrue(at >= deadlines[i], "fired early");
+                assertTrue(at - deadlines[i] < 1000, "fired late");
+                fired[i] = true;
+            });
+        }
+        for (boolean f : fired) {
+            assertTrue(f);
+        }
+        assertEquals(0, wheel.pending());
+    }
+
+    // 2: Cancelled timers are skipped and overdue ones fire on the next tick
+    @Test
+    void cancelAndOverdue_handled() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 64, 3, START);
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule(START + 5_000, "cancelled");
+        wheel.schedule(START - 60_000, "overdue");
+        wheel.cancel(cancelled);
+        assertEquals(1, wheel.pending());
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 1_000, t -> fired.add(t.getPayload()));
+        wheel.advanceTo(START + 10_000, t -> fired.add(t.getPayload()));
+
+        assertEquals(List.of("overdue"), fired);
+        assertEquals(0, wheel.pending());
+    }
+}
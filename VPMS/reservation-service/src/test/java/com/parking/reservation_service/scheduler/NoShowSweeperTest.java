@@ -0,0 +1,154 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.dto.EntryLookupRequestDTO;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.feign.VehicleLogClient;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.outbox.SlotCommandOutbox;
+import com.parking.reservation_service.repository.ExpiredReservation;
+import com.parking.reservation_service.repository.NoShowCandidate;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.security.ServiceTokenProvider;
+import com.parking.reservation_service.utilization.UtilizationCube;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NoShowSweeperTest {
+
+    private static final String TOKEN = "Bearer service";
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private VehicleLogClient vehicleLogClient;
+
+    @Mock
+    private ServiceTokenProvider serviceToken;
+
+    @Mock
+    private SlotCommandOutbox slotOutbox;
+
+    @Mock
+    private SlotReservationIndex slotIndex;
+
+    @Mock
+    private ReservationTimerScheduler reservationTimers;
+
+    @Mock
+    private SchedulerLeaseManager leaseManager;
+
+    @Mock
+    private UtilizationCube utilizationCube;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NoShowSweeper sweeper;
+
+    private final LocalDateTime started = LocalDateTime.now().minusMinutes(20);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        sweeper = new NoShowSweeper(reservationRepo, vehicleLogClient, serviceToken, slotOutbox, slotIndex,
+                reservationTimers, leaseManager, utilizationCube, eventPublisher, transactionManager,
+                new SimpleMeterRegistry(), 15, 30, 30, 200);
+        when(leaseManager.ownedShards()).thenReturn(List.of(0, 1));
+        when(leaseManager.getShardCount()).thenReturn(2);
+        when(serviceToken.isConfigured()).thenReturn(true);
+        when(serviceToken.authorization()).thenReturn(TOKEN);
+    }
+
+    // 1: A reservation whose vehicle never entered is cancelled and its slot released, asked with the service token
+    @Test
+    void sweep_noEntry_cancelled() {
+        candidates(candidate(1L, 7L, "KA01AB1234"));
+        when(vehicleLogClient.findEntries(eq(TOKEN), any())).thenReturn(List.of());
+        when(reservationRepo.lockActiveByIds(List.of(1L))).thenReturn(List.of(expired(1L, 7L)));
+
+        assertEquals(1, sweeper.sweep());
+
+        verify(reservationRepo).transitionAll(List.of(1L), ReservationStatus.ACTIVE, ReservationStatus.CANCELLED);
+        verify(slotOutbox).releaseSlots(Map.of(1L, 7L), "NO_SHOW");
+        verify(slotIndex).remove(7L, 1L);
+    }
+
+    // 2: An arrived vehicle keeps its reservation and isn't looked up again on the next pass
+    @Test
+    void sweep_entered_keptAndRemembered() {
+        candidates(candidate(1L, 7L, "KA01AB1234"));
+        when(vehicleLogClient.findEntries(eq(TOKEN), any())).thenReturn(List.of(1L));
+
+        assertEquals(0, sweeper.sweep());
+        assertEquals(0, sweeper.sweep());
+
+        verify(vehicleLogClient, times(1)).findEntries(any(), any(EntryLookupRequestDTO.class));
+        verify(reservationRepo, never()).transitionAll(any(), any(), any());
+    }
+
+    // 3: A failed lookup cancels nothing, since a missing answer is not a no-show
+    @Test
+    void sweep_lookupFails_nothingCancelled() {
+        candidates(candidate(1L, 7L, "KA01AB1234"));
+        when(vehicleLogClient.findEntries(any(), any())).thenThrow(new RuntimeException("403 Forbidden"));
+
+        assertEquals(0, sweeper.sweep());
+
+        verify(reservationRepo, never()).lockActiveByIds(any());
+    }
+
+    // 4: A service token that can't be issued is a failed lookup: counted, and nothing cancelled
+    @Test
+    void sweep_tokenUnavailable_countedAsLookupFailure() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sweeper = new NoShowSweeper(reservationRepo, vehicleLogClient, serviceToken, slotOutbox, slotIndex,
+                reservationTimers, leaseManager, utilizationCube, eventPublisher, transactionManager,
+                registry, 15, 30, 30, 200);
+        candidates(candidate(1L, 7L, "KA01AB1234"));
+        when(serviceToken.authorization()).thenThrow(new RuntimeException("user-service down"));
+
+        assertEquals(0, sweeper.sweep());
+
+        assertEquals(1.0, registry.counter("reservation.noshow.lookup.failures").count());
+        verifyNoInteractions(vehicleLogClient);
+        verify(reservationRepo, never()).lockActiveByIds(any());
+    }
+
+    private void candidates(NoShowCandidate... batch) {
+        when(reservationRepo.findNoShowCandidates(any(), any(), any(), anyLong(), eq(2), eq(List.of(0, 1)), eq(200)))
+                .thenReturn(List.of(batch));
+    }
+
+    private NoShowCandidate candidate(Long reservationId, Long slotId, String plate) {
+        return new NoShowCandidate() {
+            public Long getReservationId() { return reservationId; }
+            public Long getSlotId() { return slotId; }
+            public String getVehicleNumber() { return plate; }
+            public LocalDateTime getStartTime() { return started; }
+            public LocalDateTime getEndTime() { return started.plusHours(2); }
+        };
+    }
+
+    private ExpiredReservation expired(Long reservationId, Long slotId) {
+        return new ExpiredReservation() {
+            public Long getReservationId() { return reservationId; }
+            public Long getSlotId() { return slotId; }
+        };
+    }
+}
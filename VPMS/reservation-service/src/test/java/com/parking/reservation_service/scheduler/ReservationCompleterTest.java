@@ -0,0 +1,93 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.booking.SlotFreedEvent;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.outbox.SlotCommandOutbox;
+import com.parking.reservation_service.repository.ExpiredReservation;
+import com.parking.reservation_service.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReservationCompleterTest {
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private SlotCommandOutbox slotOutbox;
+
+    @Mock
+    private SlotReservationIndex slotIndex;
+
+    @Mock
+    private SchedulerLeaseManager leaseManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReservationCompleter completer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        completer = new ReservationCompleter(reservationRepo, slotOutbox, slotIndex, leaseManager, eventPublisher,
+                transactionManager, new SimpleMeterRegistry(), 500);
+        when(leaseManager.ownedShards()).thenReturn(List.of(0));
+        when(leaseManager.getShardCount()).thenReturn(1);
+    }
+
+    // 1: Ended reservations are completed, their slots released and offered to the waitlist
+    @Test
+    void complete_vehicleGone_slotReleased() {
+        when(reservationRepo.lockExpiredByIds(eq(List.of(1L)), any(), eq(1), eq(List.of(0))))
+                .thenReturn(List.of(expired(1L, 7L)));
+        when(reservationRepo.findParkedSlots(List.of(7L))).thenReturn(Set.of());
+
+        assertEquals(1, completer.complete(List.of(1L)));
+
+        verify(reservationRepo).transitionAll(List.of(1L), ReservationStatus.ACTIVE, ReservationStatus.COMPLETED);
+        verify(slotOutbox).releaseSlots(Map.of(1L, 7L), "COMPLETED");
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof SlotFreedEvent f && f.slotId() == 7L));
+    }
+
+    // 2: A slot whose vehicle is still parked stays held: no release and no waitlist offer until it leaves
+    @Test
+    void complete_vehicleStillParked_releaseDeferred() {
+        when(reservationRepo.lockExpiredByIds(eq(List.of(1L, 2L)), any(), eq(1), eq(List.of(0))))
+                .thenReturn(List.of(expired(1L, 7L), expired(2L, 8L)));
+        when(reservationRepo.findParkedSlots(List.of(7L, 8L))).thenReturn(Set.of(7L));
+
+        assertEquals(2, completer.complete(List.of(1L, 2L)));
+
+        verify(reservationRepo).transitionAll(List.of(1L, 2L), ReservationStatus.ACTIVE, ReservationStatus.COMPLETED);
+        verify(slotOutbox).releaseSlots(Map.of(2L, 8L), "COMPLETED");
+        verify(eventPublisher, never()).publishEvent(argThat((Object e) -> e instanceof SlotFreedEvent f && f.slotId() == 7L));
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof SlotFreedEvent f && f.slotId() == 8L));
+        // Both leave the index and are handed to the overstay watcher
+        verify(slotIndex).remove(7L, 1L);
+        verify(eventPublisher).publishEvent(new ReservationsCompletedEvent(List.of(1L, 2L)));
+    }
+
+    private ExpiredReservation expired(Long reservationId, Long slotId) {
+        return new ExpiredReservation() {
+            public Long getReservationId() { return reservationId; }
+            public Long getSlotId() { return slotId; }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.parking.reservation_service.scheduler;
+
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.SchedulerLease;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchedulerLeaseManagerTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+    @EntityScan(basePackageClasses = Reservation.class)
+    static class Config {
+    }
+
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepo;
+
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        leaseRepo.deleteAll();
+        events.clear();
+    }
+
+    // 1: A lone instance acquires every shard and announces it
+    @Test
+    void rebalance_singleInstance_acquiresAllShards() {
+        SchedulerLeaseManager a = manager("node-a");
+
+        a.rebalance();
+
+        assertEquals(List.of(0, 1, 2, 3), a.ownedShards());
+        assertEquals(1, events.size());
+        assertEquals(Set.of(0, 1, 2, 3), Set.copyOf(((ShardOwnershipChangedEvent) events.get(0)).ownedShards()));
+        for (long slotId = 1; slotId <= 8; slotId++) {
+            assertTrue(a.ownsSlot(slotId));
+        }
+    }
+
+    // 2: Renewing extends the held leases without another ownership event
+    @Test
+    void rebalance_renew_extendsLeases() {
+        SchedulerLeaseManager a = manager("node-a");
+        a.rebalance();
+        LocalDateTime firstExpiry = leaseRepo.findById("expiry-shard-0").orElseThrow().getExpiresAt();
+
+        a.rebalance();
+
+        assertEquals(List.of(0, 1, 2, 3), a.ownedShards());
+        assertTrue(leaseRepo.findById("expiry-shard-0").orElseThrow().getExpiresAt().isAfter(firstExpiry));
+        assertEquals(1, events.size());
+    }
+
+    // 3: A second instance gets its fair share once the first sheds surplus; each slot has exactly one owner
+    @Test
+    void rebalance_twoInstances_splitShards() {
+        SchedulerLeaseManager a = manager("node-a");
+        SchedulerLeaseManager b = manager("node-b");
+
+        a.rebalance();
+        b.rebalance();
+        a.rebalance();
+        b.rebalance();
+
+        assertEquals(2, a.ownedShards().size());
+        assertEquals(2, b.ownedShards().size());
+        Set<Integer> all = new HashSet<>(a.ownedShards());
+        all.addAll(b.ownedShards());
+        assertEquals(Set.of(0, 1, 2, 3), all);
+        for (long slotId = 1; slotId <= 8; slotId++) {
+            assertTrue(a.ownsSlot(slotId) ^ b.ownsSlot(slotId), "Slot " + slotId + " must have exactly one owner");
+        }
+    }
+
+    // 4: Leases of an instance that stopped renewing are taken over, and it stops acting on them
+    @Test
+    void rebalance_expiredLeases_takenOver() {
+        SchedulerLeaseManager a = manager("node-a");
+        SchedulerLeaseManager b = manager("node-b");
+        a.rebalance();
+
+        // node-a stalls past its lease period
+        for (SchedulerLease lease : leaseRepo.findAll()) {
+            lease.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+            leaseRepo.save(lease);
+        }
+        b.rebalance();
+
+        assertEquals(List.of(0, 1, 2, 3), b.ownedShards());
+        a.rebalance();
+        assertEquals(List.of(), a.ownedShards());
+        assertFalse(a.ownsSlot(1L));
+    }
+
+    // 5: A clean shutdown hands the shards over at once
+    @Test
+    void releaseAll_shutdown_shardsFreeForOthers() {
+        SchedulerLeaseManager a = manager("node-a");
+        SchedulerLeaseManager b = manager("node-b");
+        a.rebalance();
+
+        a.releaseAll();
+        b.rebalance();
+
+        assertEquals(List.of(), a.ownedShards());
+        assertEquals(List.of(0, 1, 2, 3), b.ownedShards());
+    }
+
+    private SchedulerLeaseManager manager(String instanceId) {
+        return new SchedulerLeaseManager(leaseRepo, events::add, SHARDS, 15, instanceId);
+    }
+}
@@ -0,0 +1,190 @@
+package com.parking.reservation_service.search;
+
+import com.parking.reservation_service.dto.ReservationSearchDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.repository.ReservationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.parking.reservation_service.search.ReservationSearchTest$SqlCapture"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationSearchTest {
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+    @EntityScan(basePackageClasses = Reservation.class)
+    @Import(ReservationSearch.class)
+    static class Config {
+    }
+
+    // Records the SQL Hibernate generates, so the plans checked are those of the real queries
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Autowired
+    private ReservationSearch search;
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepo.deleteAll();
+        List<Reservation> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(Reservation.builder()
+                    .userId(1L + i % 4).slotId(1L + i % 5).vehicleNumber("KA01AB" + (1000 + i % 8))
+                    .type(i % 2 == 0 ? "4W" : "2W")
+                    .startTime(BASE.plusHours(i)).endTime(BASE.plusHours(i + 2))
+                    .status(i % 3 == 0 ? ReservationStatus.CANCELLED : ReservationStatus.ACTIVE)
+                    .build());
+        }
+        reservationRepo.saveAll(rows);
+    }
+
+    // 1: Combined filters are all applied, in start order
+    @Test
+    void search_combinedFilters_matchingRowsInStartOrder() {
+        ReservationSearchDTO criteria = criteria();
+        criteria.setUserId(2L);
+        criteria.setStatus("active");
+        criteria.setFrom(BASE);
+        criteria.setTo(BASE.plusHours(20));
+
+        List<Reservation> found = search.search(criteria).reservations();
+
+        assertFalse(found.isEmpty());
+        for (Reservation r : found) {
+            assertEquals(2L, r.getUserId());
+            assertEquals(ReservationStatus.ACTIVE, r.getStatus());
+            assertTrue(r.getStartTime().isBefore(BASE.plusHours(20)) && r.getEndTime().isAfter(BASE));
+        }
+        assertEquals(found.stream().map(Reservation::getStartTime).sorted().toList(),
+                found.stream().map(Reservation::getStartTime).toList());
+    }
+
+    // 2: Every page, including the has-more check, is exactly one statement
+    @Test
+    void search_eachPage_singleStatement() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ReservationSearchDTO criteria = criteria();
+        criteria.setType("4W");
+        criteria.setSize(7);
+
+        List<Long> seen = new ArrayList<>();
+        ReservationSearch.Page page;
+        do {
+            stats.clear();
+            page = search.search(criteria);
+            assertEquals(1, stats.getPrepareStatementCount());
+            page.reservations().forEach(r -> seen.add(r.getReservationId()));
+            Reservation last = page.reservations().get(page.reservations().size() - 1);
+            criteria.setAfterStart(last.getStartTime());
+            criteria.setAfterId(last.getReservationId());
+        } while (page.hasMore());
+
+        assertEquals(20, seen.size());
+        assertEquals(20, seen.stream().distinct().count());
+    }
+
+    // 3: The plate filter matches bookings typed with spacing or lower case
+    @Test
+    void search_plateWithSpacing_matchesNormalized() {
+        ReservationSearchDTO criteria = criteria();
+        criteria.setPlate("ka01 ab 1003");
+
+        List<Reservation> found = search.search(criteria).reservations();
+
+        assertEquals(5, found.size());
+        found.forEach(r -> assertEquals("KA01AB1003", r.getVehicleNumber()));
+    }
+
+    // 4: Without any filter the search is refused instead of scanning the table
+    @Test
+    void search_noFilter_throwsException() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> search.search(criteria()));
+        assertEquals("At least one filter is required.", e.getMessage());
+    }
+
+    // 5: Each access path, as Hibernate generates it, is served by its composite index
+    @Test
+    void explain_generatedQueries_useDeclaredIndexes() {
+        assertUsesIndex(c -> c.setUserId(2L), "idx_reservation_user_start");
+        assertUsesIndex(c -> {
+            c.setSlotId(3L);
+            c.setStatus("ACTIVE");
+        }, "idx_reservation_slot_window");
+        assertUsesIndex(c -> c.setPlate("ka01 ab 1003"), "idx_reservation_plate_start");
+        assertUsesIndex(c -> c.setType("4W"), "idx_reservation_type_start");
+        assertUsesIndex(c -> c.setStatus("CANCELLED"), "idx_reservation_status_");
+        assertUsesIndex(c -> { }, "idx_reservation_start_end");
+    }
+
+    private void assertUsesIndex(Consumer<ReservationSearchDTO> filter, String index) {
+        ReservationSearchDTO criteria = criteria();
+        filter.accept(criteria);
+        criteria.setFrom(BASE.minusHours(8));
+        criteria.setTo(BASE.plusHours(16));
+
+        SqlCapture.STATEMENTS.clear();
+        search.search(criteria);
+        List<String> selects = SqlCapture.STATEMENTS.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertEquals(1, selects.size(), () -> "Expected one query, got " + selects);
+
+        // Plain EXPLAIN only plans the statement, so its parameters can stay unbound
+        String plan = jdbcTemplate.query("EXPLAIN " + selects.get(0), ps -> { }, rs -> rs.next() ? rs.getString(1) : "");
+        assertTrue(plan.toLowerCase().contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private static ReservationSearchDTO criteria() {
+        return new ReservationSearchDTO();
+    }
+}
@@ -0,0 +1,315 @@
+package com.parking.reservation_service.service.impl;
+
+import com.parking.reservation_service.arrival.PlateIndex;
+import com.parking.reservation_service.booking.BulkReservationBooker;
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.booking.SlotFreedEvent;
+import com.parking.reservation_service.capacity.ArrivalAssigner;
+import com.parking.reservation_service.dto.ArrivalRequestDTO;
+import com.parking.reservation_service.dto.ReservationRequestDTO;
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.ReservationStatus;
+import com.parking.reservation_service.feign.SlotClient;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.index.SlotReservationIndex;
+import com.parking.reservation_service.outbox.SlotCommandOutbox;
+import com.parking.reservation_service.overstay.OverstayWatcher;
+import com.parking.reservation_service.pipeline.BookingPipeline;
+import com.parking.reservation_service.pipeline.BookingQueuedException;
+import com.parking.reservation_service.recurrence.RecurrenceIndex;
+import com.parking.reservation_service.repository.ReservationRepository;
+import com.parking.reservation_service.repository.SlotReassignmentRepository;
+import com.parking.reservation_service.scheduler.ReservationCompleter;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.search.ReservationSearch;
+import com.parking.reservation_service.utilization.UtilizationCube;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReservationServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+    private static final LocalDateTime END = START.plusHours(2);
+
+    @Mock
+    private ReservationRepository reservationRepo;
+
+    @Mock
+    private SlotClient slotClient;
+
+    @Mock
+    private SlotReservationIndex slotIndex;
+
+    @Mock
+    private ReservationBookingGuard bookingGuard;
+
+    @Mock
+    private ReservationTimerScheduler reservationTimers;
+
+    @Mock
+    private ReservationCompleter reservationCompleter;
+
+    @Mock
+    private FreeSlotFinder freeSlotFinder;
+
+    @Mock
+    private SlotDirectory slotDirectory;
+
+    @Mock
+    private SlotCommandOutbox slotOutbox;
+
+    @Mock
+    private BulkReservationBooker bulkBooker;
+
+    @Mock
+    private RecurrenceIndex recurrenceIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SlotHoldRegistry holds;
+
+    @Mock
+    private PlateIndex plateIndex;
+
+    @Mock
+    private ArrivalAssigner arrivalAssigner;
+
+    @Mock
+    private UtilizationCube utilizationCube;
+
+    @Mock
+    private BookingPipeline bookingPipeline;
+
+    @Mock
+    private OverstayWatcher overstayWatcher;
+
+    @Mock
+    private SlotReassignmentRepository reassignmentRepo;
+
+    @Mock
+    private ReservationSearch reservationSearch;
+
+    @InjectMocks
+    private ReservationServiceImpl reservationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(holds.find("h1")).thenReturn(new SlotHold("h1", 7L, START, END, 100L, null,
+                System.currentTimeMillis() + 300_000));
+        when(bookingGuard.saveIfFree(any(Reservation.class), eq("h1"))).thenAnswer(invocation -> {
+            Reservation r = invocation.getArgument(0);
+            r.setReservationId(50L);
+            return r;
+        });
+    }
+
+    // 1: The holder converts their hold for the held window
+    @Test
+    void createReservation_ownHoldWithinWindow_booked() {
+        ReservationResponseDTO response = reservationService.createReservation(request(100L, START, END));
+
+        assertEquals(50L, response.getReservationId());
+        verify(bookingGuard).saveIfFree(any(Reservation.class), eq("h1"));
+    }
+
+    // 2: Someone else's hold id can't be used to book the held slot
+    @Test
+    void createReservation_otherUsersHold_rejected() {
+        assertThrows(RuntimeException.class, () -> reservationService.createReservation(request(200L, START, END)));
+        verify(bookingGuard, never()).saveIfFree(any(), any());
+    }
+
+    // 3: A window reaching outside the hold is rejected, since only the held window was kept free
+    @Test
+    void createReservation_windowOutsideHold_rejected() {
+        assertThrows(RuntimeException.class, () ->
+                reservationService.createReservation(request(100L, START, END.plusHours(1))));
+        assertThrows(RuntimeException.class, () ->
+                reservationService.createReservation(request(100L, START.minusMinutes(30), END)));
+        verify(bookingGuard, never()).saveIfFree(any(), any());
+    }
+
+    // 4: Matching a vehicle at the gate finds its booking by normalized plate but doesn't record the arrival
+    @Test
+    void matchArrival_bookedSinceRefresh_foundByPlateKeyNotMarked() {
+        Reservation booked = booked();
+        when(plateIndex.getEarlyArrival()).thenReturn(Duration.ofMinutes(30));
+        when(reservationRepo.findForPlateAt(eq("KA01AB1234"), eq(ReservationStatus.ACTIVE), any(), eq(START)))
+                .thenReturn(List.of(booked));
+
+        ReservationResponseDTO response = reservationService.matchArrival(new ArrivalRequestDTO("ka-01 ab 1234", START));
+
+        assertEquals(50L, response.getReservationId());
+        verify(reservationRepo, never()).markArrived(any(), any(), any());
+    }
+
+    // 5: The arrival is recorded once the gate confirms the vehicle was logged in
+    @Test
+    void confirmArrival_marksArrived() {
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(booked()));
+
+        reservationService.confirmArrival(50L, START.plusMinutes(2));
+
+        verify(reservationRepo).markArrived(50L, ReservationStatus.ACTIVE, START.plusMinutes(2));
+    }
+
+    // 6: A direct booking still queued when the wait runs out hands back its ticket instead of failing
+    @Test
+    void createReservation_pipelineWaitExceeded_returnsTicket() {
+        when(bookingPipeline.isEnabled()).thenReturn(true);
+        when(bookingPipeline.submit(any())).thenReturn(new BookingPipeline.Ticket("t1", new CompletableFuture<>()));
+        ReservationRequestDTO request = new ReservationRequestDTO(100L, 7L, "KA01AB1234", START, END, "4W", null);
+
+        BookingQueuedException e = assertThrows(BookingQueuedException.class,
+                () -> reservationService.createReservation(request));
+
+        assertEquals("t1", e.getTicket().getTicketId());
+        assertEquals("QUEUED", e.getTicket().getStatus());
+        verify(bookingGuard, never()).saveIfFree(any(), any());
+    }
+
+    // 7: An empty or missing window is refused before anything is written, indexed or timed
+    @Test
+    void createReservation_endNotAfterStart_rejectedUpFront() {
+        assertThrows(RuntimeException.class, () -> reservationService.createReservation(
+                new ReservationRequestDTO(100L, 7L, "KA01AB1234", START, START, "4W", null)));
+        assertThrows(RuntimeException.class, () -> reservationService.createReservation(
+                new ReservationRequestDTO(100L, 7L, "KA01AB1234", START, null, "4W", null)));
+
+        verify(bookingGuard, never()).saveIfFree(any());
+        verify(bookingGuard, never()).saveIfFree(any(), any());
+        verifyNoInteractions(slotIndex, reservationTimers, utilizationCube);
+    }
+
+    // 8: Moving the start past the stored end is refused and nothing is saved
+    @Test
+    void updateReservation_startAfterEnd_rejectedUpFront() {
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(booked()));
+
+        assertThrows(RuntimeException.class, () -> reservationService.updateReservation(50L,
+                new ReservationRequestDTO(null, null, null, END.plusHours(1), null, null, null)));
+
+        verify(bookingGuard, never()).saveIfFree(any());
+        verify(reservationRepo, never()).save(any());
+        verifyNoInteractions(slotIndex, reservationTimers, utilizationCube);
+    }
+
+    // 9: The departure of an overstayed (already completed) booking releases the slot completion kept
+    @Test
+    void recordDeparture_completedOverstay_slotReleased() {
+        Reservation overstayed = booked();
+        overstayed.setStatus(ReservationStatus.COMPLETED);
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(overstayed));
+        when(reservationRepo.markDeparted(eq(50L), any())).thenReturn(1);
+
+        reservationService.recordDeparture(50L);
+
+        verify(overstayWatcher).departed(50L);
+        verify(slotOutbox).releaseSlot(50L, 7L, "DEPARTED");
+        verify(eventPublisher).publishEvent(any(SlotFreedEvent.class));
+    }
+
+    // 10: A vehicle leaving before its booking ends frees nothing; completion does that
+    @Test
+    void recordDeparture_activeBooking_nothingReleased() {
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(booked()));
+        when(reservationRepo.markDeparted(eq(50L), any())).thenReturn(1);
+
+        reservationService.recordDeparture(50L);
+
+        verifyNoInteractions(slotOutbox, eventPublisher);
+    }
+
+    // 11: The cancel that moves the reservation queues the release, frees the window and drops it from index and cube
+    @Test
+    void cancelReservation_applied_sideEffectsOnce() {
+        Reservation cancelled = booked();
+        cancelled.setStatus(ReservationStatus.CANCELLED);
+        when(reservationRepo.transition(50L, ReservationStatus.CANCELLED.allowedFrom(), ReservationStatus.CANCELLED))
+                .thenReturn(1);
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(cancelled));
+
+        reservationService.cancelReservation(50L);
+
+        verify(slotOutbox).releaseSlot(50L, 7L, "CANCELLED");
+        verify(eventPublisher).publishEvent(new SlotFreedEvent(7L, START, END));
+        verify(slotIndex).remove(7L, 50L);
+        verify(utilizationCube).remove(7L, START, END);
+    }
+
+    // 12: A second cancel finds the reservation already CANCELLED and writes nothing
+    @Test
+    void cancelReservation_repeated_noSideEffects() {
+        Reservation cancelled = booked();
+        cancelled.setStatus(ReservationStatus.CANCELLED);
+        when(reservationRepo.transition(eq(50L), any(), eq(ReservationStatus.CANCELLED))).thenReturn(0);
+        when(reservationRepo.findStatusById(50L)).thenReturn(Optional.of(ReservationStatus.CANCELLED));
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(cancelled));
+
+        reservationService.cancelReservation(50L);
+
+        verifyNoInteractions(slotOutbox, eventPublisher, slotIndex, utilizationCube, arrivalAssigner);
+    }
+
+    // 13: A cancel that lost the race to completion is refused and writes nothing
+    @Test
+    void cancelReservation_lostToCompletion_rejectedNoSideEffects() {
+        when(reservationRepo.transition(eq(50L), any(), eq(ReservationStatus.CANCELLED))).thenReturn(0);
+        when(reservationRepo.findStatusById(50L)).thenReturn(Optional.of(ReservationStatus.COMPLETED));
+
+        assertThrows(RuntimeException.class, () -> reservationService.cancelReservation(50L));
+
+        verifyNoInteractions(slotOutbox, eventPublisher, slotIndex, utilizationCube, arrivalAssigner);
+    }
+
+    // 14: Completing a reservation that is already COMPLETED through the status endpoint writes nothing
+    @Test
+    void updateReservationStatus_repeatedComplete_noSideEffects() {
+        Reservation completed = booked();
+        completed.setStatus(ReservationStatus.COMPLETED);
+        when(reservationRepo.transition(eq(50L), any(), eq(ReservationStatus.COMPLETED))).thenReturn(0);
+        when(reservationRepo.findStatusById(50L)).thenReturn(Optional.of(ReservationStatus.COMPLETED));
+        when(reservationRepo.findById(50L)).thenReturn(Optional.of(completed));
+
+        ReservationResponseDTO response = reservationService.updateReservationStatus(50L, "completed");
+
+        assertEquals(ReservationStatus.COMPLETED, response.getStatus());
+        verifyNoInteractions(slotOutbox, eventPublisher, slotIndex, utilizationCube, arrivalAssigner);
+    }
+
+    private ReservationRequestDTO request(Long userId, LocalDateTime start, LocalDateTime end) {
+        return new ReservationRequestDTO(userId, 7L, "KA01AB1234", start, end, "4W", "h1");
+    }
+
+    private Reservation booked() {
+        return Reservation.builder()
+                .reservationId(50L)
+                .userId(100L)
+                .slotId(7L)
+                .vehicleNumber("KA01AB1234")
+                .startTime(START)
+                .endTime(END)
+                .status(ReservationStatus.ACTIVE)
+                .type("4W")
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.parking.reservation_service.service.impl;
+
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.dto.ReservationResponseDTO;
+import com.parking.reservation_service.dto.WaitlistEntryDTO;
+import com.parking.reservation_service.dto.WaitlistRequestDTO;
+import com.parking.reservation_service.entity.Reservation;
+import com.parking.reservation_service.entity.WaitlistEntry;
+import com.parking.reservation_service.entity.WaitlistStatus;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.repository.WaitlistEntryRepository;
+import com.parking.reservation_service.scheduler.ReservationTimerScheduler;
+import com.parking.reservation_service.utilization.UtilizationCube;
+import com.parking.reservation_service.waitlist.WaitlistMatcher;
+import com.parking.reservation_service.waitlist.WaitlistNotifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WaitlistServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+    private static final LocalDateTime END = START.plusHours(2);
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepo;
+
+    @Mock
+    private WaitlistMatcher matcher;
+
+    @Mock
+    private WaitlistNotifier notifier;
+
+    @Mock
+    private SlotHoldRegistry holds;
+
+    @Mock
+    private ReservationBookingGuard bookingGuard;
+
+    @Mock
+    private ReservationTimerScheduler reservationTimers;
+
+    @Mock
+    private UtilizationCube utilizationCube;
+
+    @InjectMocks
+    private WaitlistServiceImpl waitlistService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    // 1: Joining stores a WAITING entry and hands it to the matcher
+    @Test
+    void join_validRequest_savedAndEnqueued() {
+        when(waitlistRepo.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        WaitlistEntryDTO dto = waitlistService.join(new WaitlistRequestDTO(100L, "KA01AB1234", " 4w ", START, END));
+
+        assertEquals(1L, dto.getId());
+        assertEquals("4W", dto.getType());
+        assertEquals(WaitlistStatus.WAITING, dto.getStatus());
+        verify(matcher).enqueue(argThat(e -> e.getId() == 1L));
+    }
+
+    // 2: A window that has already passed is rejected
+    @Test
+    void join_pastWindow_throwsException() {
+        LocalDateTime past = LocalDateTime.now().minusHours(3);
+
+        assertThrows(RuntimeException.class, () ->
+                waitlistService.join(new WaitlistRequestDTO(100L, "KA01AB1234", "4W", past, past.plusHours(1))));
+        verifyNoInteractions(matcher);
+    }
+
+    // 3: Claiming a live offer books the held slot and marks the entry BOOKED
+    @Test
+    void claim_liveOffer_booked() {
+        WaitlistEntry entry = offered();
+        when(waitlistRepo.findById(1L)).thenReturn(Optional.of(entry));
+        when(holds.find("h1")).thenReturn(new SlotHold("h1", 7L, START, END, 100L, 1L, System.currentTimeMillis() + 600_000));
+        when(bookingGuard.saveIfFree(any(Reservation.class), eq("h1"))).thenAnswer(invocation -> {
+            Reservation r = invocation.getArgument(0);
+            r.setReservationId(50L);
+            return r;
+        });
+
+        ReservationResponseDTO response = waitlistService.claim(1L);
+
+        assertEquals(50L, response.getReservationId());
+        assertEquals(7L, response.getSlotId());
+        verify(waitlistRepo).markBooked(1L, WaitlistStatus.OFFERED, WaitlistStatus.BOOKED, 50L);
+    }
+
+    // 4: An offer whose hold ran out can't be claimed
+    @Test
+    void claim_holdExpired_throwsException() {
+        when(waitlistRepo.findById(1L)).thenReturn(Optional.of(offered()));
+
+        assertThrows(RuntimeException.class, () -> waitlistService.claim(1L));
+        verify(bookingGuard, never()).saveIfFree(any(), any());
+    }
+
+    // 5: Declining an offer releases the hold and offers the window to the next waiter
+    @Test
+    void leave_offered_holdPassedOn() {
+        when(waitlistRepo.findById(1L)).thenReturn(Optional.of(offered()));
+        when(waitlistRepo.transition(1L, WaitlistStatus.OFFERED, WaitlistStatus.CANCELLED)).thenReturn(1);
+        when(holds.release("h1")).thenReturn(true);
+
+        waitlistService.leave(1L);
+
+        verify(matcher).remove(1L);
+        verify(matcher).match(7L, START, END);
+        verify(notifier).publish(argThat(dto -> dto.getStatus() == WaitlistStatus.CANCELLED));
+    }
+
+    private WaitlistEntry offered() {
+        return WaitlistEntry.builder()
+                .id(1L)
+                .userId(100L)
+                .vehicleNumber("KA01AB1234")
+                .type("4W")
+                .startTime(START)
+                .endTime(END)
+                .status(WaitlistStatus.OFFERED)
+                .createdAt(LocalDateTime.now())
+                .offeredSlotId(7L)
+                .holdId("h1")
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.parking.reservation_service.utilization;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeCellTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 7, 1, 0, 0);
+    private static final LocalDateTime FROM = DAY;
+    private static final LocalDateTime TO = DAY.plusDays(1);
+
+    // 1: A window is split into the minutes it spends in each hour; the booking counts on its start hour only
+    @Test
+    void accumulate_unalignedWindow_splitsMinutesPerHour() {
+        Map<CubeCell, long[]> cells = new HashMap<>();
+
+        CubeCell.accumulate(cells, "4W", DAY.withHour(9).withMinute(40), DAY.withHour(11).withMinute(15), FROM, TO, 1);
+
+        assertEquals(3, cells.size());
+        assertArrayEquals(new long[]{20, 1}, cells.get(new CubeCell(DAY.withHour(9), "4W")));
+        assertArrayEquals(new long[]{60, 0}, cells.get(new CubeCell(DAY.withHour(10), "4W")));
+        assertArrayEquals(new long[]{15, 0}, cells.get(new CubeCell(DAY.withHour(11), "4W")));
+    }
+
+    // 2: Only the part of the window inside [from, to) is counted
+    @Test
+    void accumulate_windowPastRange_isClipped() {
+        Map<CubeCell, long[]> cells = new HashMap<>();
+
+        CubeCell.accumulate(cells, "4W", DAY.minusMinutes(30), DAY.plusMinutes(45), FROM, TO, 1);
+
+        assertEquals(1, cells.size());
+        // Started before the range, so its booking belongs to the previous day
+        assertArrayEquals(new long[]{45, 0}, cells.get(new CubeCell(DAY, "4W")));
+    }
+
+    // 3: Removing a window undoes adding it
+    @Test
+    void accumulate_negativeSign_cancelsOut() {
+        Map<CubeCell, long[]> cells = new HashMap<>();
+        LocalDateTime start = DAY.withHour(18).withMinute(5);
+
+        CubeCell.accumulate(cells, "2W", start, start.plusHours(2), FROM, TO, 1);
+        CubeCell.accumulate(cells, "2W", start, start.plusHours(2), FROM, TO, -1);
+
+        cells.values().forEach(totals -> assertArrayEquals(new long[]{0, 0}, totals));
+    }
+
+    // 4: Slot types get separate cells for the same hour
+    @Test
+    void accumulate_differentTypes_separateCells() {
+        Map<CubeCell, long[]> cells = new HashMap<>();
+
+        CubeCell.accumulate(cells, "2W", DAY.withHour(8), DAY.withHour(9), FROM, TO, 1);
+        CubeCell.accumulate(cells, "4W", DAY.withHour(8), DAY.withHour(9), FROM, TO, 1);
+        CubeCell.accumulate(cells, "4W", DAY.withHour(8).withMinute(30), DAY.withHour(9), FROM, TO, 1);
+
+        assertArrayEquals(new long[]{60, 1}, cells.get(new CubeCell(DAY.withHour(8), "2W")));
+        assertArrayEquals(new long[]{90, 2}, cells.get(new CubeCell(DAY.withHour(8), "4W")));
+    }
+}
@@ -0,0 +1,173 @@
+package com.parking.reservation_service.waitlist;
+
+import com.parking.reservation_service.booking.ReservationBookingGuard;
+import com.parking.reservation_service.dto.SlotDTO;
+import com.parking.reservation_service.entity.WaitlistEntry;
+import com.parking.reservation_service.entity.WaitlistStatus;
+import com.parking.reservation_service.finder.FreeSlotFinder;
+import com.parking.reservation_service.finder.SlotDirectory;
+import com.parking.reservation_service.hold.SlotHold;
+import com.parking.reservation_service.hold.SlotHoldRegistry;
+import com.parking.reservation_service.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WaitlistMatcherTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+    private static final LocalDateTime END = START.plusHours(2);
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepo;
+
+    @Mock
+    private ReservationBookingGuard bookingGuard;
+
+    @Mock
+    private SlotHoldRegistry holds;
+
+    @Mock
+    private SlotDirectory slotDirectory;
+
+    @Mock
+    private FreeSlotFinder freeSlotFinder;
+
+    @Mock
+    private WaitlistNotifier notifier;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WaitlistMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        matcher = new WaitlistMatcher(waitlistRepo, bookingGuard, holds, slotDirectory, freeSlotFinder,
+                notifier, transactionManager, 10, 1440);
+        when(slotDirectory.find(7L)).thenReturn(new SlotDTO(7L, "A-7", "4W"));
+        when(freeSlotFinder.findFree(any(), any(), any(), anyInt())).thenReturn(List.of());
+    }
+
+    // 1: A freed window goes to the waiter that fits, recorded in a transaction of its own
+    @Test
+    void match_fittingWaiter_offeredInNewTransaction() {
+        matcher.enqueue(entry(1L));
+        when(bookingGuard.holdIfFree(eq(7L), eq(START), eq(END), eq(100L), eq(1L), any())).thenReturn(hold("h1", 1L));
+        when(waitlistRepo.offer(eq(1L), eq(WaitlistStatus.WAITING), eq(WaitlistStatus.OFFERED), eq(7L), eq("h1"), any()))
+                .thenReturn(1);
+
+        matcher.match(7L, START, END);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(notifier).publish(argThat(dto -> dto.getStatus() == WaitlistStatus.OFFERED && dto.getOfferedSlotId() == 7L));
+    }
+
+    // 2: When recording the offer fails the hold is released and the waiter stays queued
+    @Test
+    void match_offerFails_holdReleasedAndWaiterKept() {
+        matcher.enqueue(entry(1L));
+        when(bookingGuard.holdIfFree(eq(7L), any(), any(), any(), eq(1L), any())).thenReturn(hold("h1", 1L), hold("h2", 1L));
+        when(waitlistRepo.offer(anyLong(), any(), any(), any(), any(), any()))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(1);
+
+        matcher.match(7L, START, END);
+
+        verify(holds).release("h1");
+        verifyNoInteractions(notifier);
+
+        matcher.match(7L, START, END);
+
+        verify(notifier).publish(argThat(dto -> dto.getStatus() == WaitlistStatus.OFFERED));
+    }
+
+    // 3: A waiter whose window doesn't fit the freed one is left alone
+    @Test
+    void match_windowTooShort_nothingOffered() {
+        matcher.enqueue(entry(1L));
+
+        matcher.match(7L, START, END.minusHours(1));
+
+        verifyNoInteractions(bookingGuard);
+    }
+
+    // 4: The matcher's lock is not held while an offer talks to the database
+    @Test
+    void match_offerInProgress_queueStillUsable() throws Exception {
+        matcher.enqueue(entry(1L));
+        matcher.enqueue(entry(2L));
+        CompletableFuture<Void> removed = new CompletableFuture<>();
+        when(bookingGuard.holdIfFree(eq(7L), any(), any(), any(), eq(1L), any())).thenAnswer(invocation -> {
+            // Another request leaves the waitlist while this offer is being made
+            CompletableFuture.runAsync(() -> matcher.remove(2L)).thenRun(() -> removed.complete(null));
+            removed.get(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        matcher.match(7L, START, END);
+
+        assertTrue(removed.isDone());
+        verify(bookingGuard, never()).holdIfFree(any(), any(), any(), any(), eq(2L), any());
+    }
+
+    // 5: A new entry is offered a free slot right away instead of being queued
+    @Test
+    void enqueue_freeSlot_offeredImmediately() {
+        when(freeSlotFinder.findFree(START, END, "4W", 5)).thenReturn(List.of(new SlotDTO(7L, "A-7", "4W")));
+        when(bookingGuard.holdIfFree(eq(7L), any(), any(), any(), eq(1L), any())).thenReturn(hold("h1", 1L));
+        when(waitlistRepo.offer(anyLong(), any(), any(), any(), any(), any())).thenReturn(1);
+        WaitlistEntry entry = entry(1L);
+
+        matcher.enqueue(entry);
+
+        assertEquals(WaitlistStatus.OFFERED, entry.getStatus());
+        assertEquals(7L, entry.getOfferedSlotId());
+        // Not queued, so a later free doesn't offer it a second slot
+        matcher.match(7L, START, END);
+        verify(bookingGuard, times(1)).holdIfFree(any(), any(), any(), any(), any(), any());
+    }
+
+    // 6: A freed pooled slot is kept for any-slot arrivals and never offered to a waiter
+    @Test
+    void match_pooledSlot_notOffered() {
+        matcher.enqueue(entry(1L));
+        when(slotDirectory.isPooled(7L)).thenReturn(true);
+
+        matcher.match(7L, START, END);
+
+        verify(bookingGuard, never()).holdIfFree(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(notifier);
+    }
+
+    private WaitlistEntry entry(Long id) {
+        return WaitlistEntry.builder()
+                .id(id)
+                .userId(100L)
+                .vehicleNumber("KA01AB1234")
+                .type("4W")
+                .startTime(START)
+                .endTime(END)
+                .status(WaitlistStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private SlotHold hold(String holdId, Long entryId) {
+        return new SlotHold(holdId, 7L, START, END, 100L, entryId, System.currentTimeMillis() + 600_000);
+    }
+}
@@ -0,0 +1,69 @@
+package com.parking.reservation_service.waitlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistQueueTest {
+
+    // 1: Only windows lying inside the freed range qualify, earliest start first
+    @Test
+    void firstFitting_mixedWindows_earliestContained() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(1, 50, 200);   // ends too late
+        queue.add(2, 5, 20);     // starts too early
+        queue.add(3, 40, 60);
+        queue.add(4, 30, 90);
+
+        assertEquals(4, queue.firstFitting(10, 100));
+        queue.remove(4);
+        assertEquals(3, queue.firstFitting(10, 100));
+        assertEquals(-1, queue.firstFitting(10, 50));
+    }
+
+    // 2: Waiters with the same window are served in the order they joined
+    @Test
+    void firstFitting_sameWindow_lowestIdFirst() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(7, 10, 20);
+        queue.add(3, 10, 20);
+        queue.add(5, 10, 20);
+
+        assertEquals(3, queue.firstFitting(0, 100));
+    }
+
+    // 3: Matches a linear scan on random data, including after removals
+    @Test
+    void firstFitting_randomWindows_matchesLinearScan() {
+        Random random = new Random(42);
+        int n = 2000;
+        long[][] windows = new long[n][];
+        WaitlistQueue queue = new WaitlistQueue();
+        for (int id = 0; id < n; id++) {
+            long start = random.nextInt(10_000);
+            windows[id] = new long[]{start, start + 1 + random.nextInt(500)};
+            queue.add(id, windows[id][0], windows[id][1]);
+        }
+        for (int id = 0; id < n; id += 3) {
+            queue.remove(id);
+            windows[id] = null;
+        }
+
+        for (int q = 0; q < 1000; q++) {
+            long from = random.nextInt(10_000);
+            long to = from + random.nextInt(1000);
+            long expected = -1;
+            for (int id = 0; id < n; id++) {
+                long[] w = windows[id];
+                if (w != null && w[0] >= from && w[1] <= to
+                        && (expected < 0 || w[0] < windows[(int) expected][0])) {
+                    expected = id;
+                }
+            }
+            assertEquals(expected, queue.firstFitting(from, to));
+        }
+        assertEquals(n - (n + 2) / 3, queue.size());
+    }
+}
@@ -128,6 +128,13 @@ public ResponseEntity<Map<String, Object>> updateSlotOccupancy(
         return ResponseEntity.ok().build();
     }
 
+    // Feign-accessible endpoint to mark many slots as available in one call
+    @PutMapping("/mark-available")
+    public ResponseEntity<Map<String, Object>> markSlotsAvailable(@RequestBody List<Long> slotIds) {
+        int released = slotService.markSlotsAvailable(slotIds);
+        return ResponseEntity.ok(Map.of("released", released));
+    }
+
     // Feign-accessible endpoint to update slot occupancy via request params
     @PutMapping("/update-occupancy")
     public ResponseEntity<Void> updateSlotOccupancy(
@@ -2,11 +2,18 @@ package com.parking.slot_service.repository;
  
 import com.parking.slot_service.entity.Slot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
  
 import java.util.List;
  
 public interface SlotRepository extends JpaRepository<Slot, Long> {
     List<Slot> findByIsOccupiedFalse();
     List<Slot> findByTypeAndIsOccupiedFalse(String type); // For available slots
+
+    @Modifying
+    @Query("update Slot s set s.isOccupied = false where s.slotId in :slotIds")
+    int markAvailable(@Param("slotIds") List<Long> slotIds); // Bulk release in one statement
 }
  
\ No newline at end of file
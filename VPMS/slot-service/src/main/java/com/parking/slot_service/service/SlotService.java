@@ -23,5 +23,7 @@ public interface SlotService {
 
     SlotResponseDTO getSlotById(Long slotId);
 
+    int markSlotsAvailable(List<Long> slotIds);
+
 }
  
\ No newline at end of file
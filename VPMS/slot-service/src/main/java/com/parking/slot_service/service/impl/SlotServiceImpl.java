@@ -7,6 +7,7 @@ import com.parking.slot_service.repository.SlotRepository;
 import com.parking.slot_service.service.SlotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
  
 import java.util.List;
 import java.util.stream.Collectors;
@@ -100,5 +101,14 @@ public SlotResponseDTO getSlotById(Long slotId) {
     return mapToDTO(slot);
 }
 
+@Override
+@Transactional
+public int markSlotsAvailable(List<Long> slotIds) {
+    if (slotIds == null || slotIds.isEmpty()) {
+        return 0;
+    }
+    return slotRepository.markAvailable(slotIds);
+}
+
 }
  
\ No newline at end of file
@@ -119,5 +119,16 @@ void addSlot_validDetails_slotAdded() {
     
         assertThrows(IllegalArgumentException.class, () -> slotService.addSlot(req));
     }
+
+    // 9: Release many slots in one call
+    @Test
+    void markSlotsAvailable_multipleIds_singleBulkUpdate() {
+        when(slotRepository.markAvailable(List.of(1L, 2L, 3L))).thenReturn(3);
+
+        assertEquals(3, slotService.markSlotsAvailable(List.of(1L, 2L, 3L)));
+        assertEquals(0, slotService.markSlotsAvailable(List.of()));
+        verify(slotRepository, times(1)).markAvailable(anyList());
+        verify(slotRepository, never()).save(any(Slot.class));
+    }
     
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.parking.vehicle_log_service.controller;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,8 +14,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.parking.vehicle_log_service.dto.EntryLookupRequest;
 import com.parking.vehicle_log_service.dto.VehicleEntryRequest;
 import com.parking.vehicle_log_service.dto.VehicleExitRequest;
 import com.parking.vehicle_log_service.dto.VehicleLogResponse;
@@ -97,4 +101,44 @@ public ResponseEntity<List<VehicleLogResponse>> getLogsByUserId(@PathVariable Lo
     return ResponseEntity.ok(logs);
 }
 
+    // 🔹 Which of these plates entered within their window? One call for a whole batch (ADMIN and STAFF)
+    @PostMapping("/entries/lookup")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<List<Long>> findEntries(@RequestBody EntryLookupRequest request) {
+        return ResponseEntity.ok(logService.findEntries(request));
+    }
+
+    // 🔹 Walk-in logs closed in (since, until), oldest first, paged by the last changedAt/afterId (ADMIN and STAFF)
+    @GetMapping("/closed")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> getClosedWalkIns(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam(defaultValue = "500") int size) {
+        try {
+            return ResponseEntity.ok(logService.getClosedWalkIns(since, afterId, until, size));
+        } catch (RuntimeException ex) {
+            Map<String, Object> res = new HashMap<>();
+            res.put("error", ex.getMessage());
+            return ResponseEntity.badRequest().body(res);
+        }
+    }
+
+    // 🔹 Change feed: billable fields of logs changed after since/afterId, oldest change first (ADMIN and STAFF)
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'STAFF')")
+    public ResponseEntity<?> getLogChanges(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "500") int size) {
+        try {
+            return ResponseEntity.ok(logService.getLogChanges(since, afterId, size));
+        } catch (RuntimeException ex) {
+            Map<String, Object> res = new HashMap<>();
+            res.put("error", ex.getMessage());
+            return ResponseEntity.badRequest().body(res);
+        }
+    }
+
 }
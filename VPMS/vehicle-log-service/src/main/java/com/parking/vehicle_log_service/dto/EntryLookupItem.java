@@ -0,0 +1,18 @@
+package com.parking.vehicle_log_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// "Did this plate enter between from and to?"; key is echoed back for matches (e.g. a reservation id)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntryLookupItem {
+    private Long key;
+    private String vehicleNumber;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
@@ -0,0 +1,14 @@
+package com.parking.vehicle_log_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntryLookupRequest {
+    private List<EntryLookupItem> items;
+}
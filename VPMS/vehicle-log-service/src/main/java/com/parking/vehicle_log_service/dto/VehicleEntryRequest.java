@@ -7,5 +7,5 @@ import java.time.LocalDateTime;
 public class VehicleEntryRequest {
     private String vehicleNumber;
     private Long userId;
-    private Long slotId;
+    private Long slotId; // optional: taken from the vehicle's reservation when omitted
 }
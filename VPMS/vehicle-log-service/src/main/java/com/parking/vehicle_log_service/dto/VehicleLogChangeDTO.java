@@ -0,0 +1,20 @@
+package com.parking.vehicle_log_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleLogChangeDTO {
+    private Long logId;
+    private Long userId;
+    private String slotType;
+    private Long reservationId; // set when the stay is billed through the reservation
+    private LocalDateTime entryTime;
+    private LocalDateTime exitTime;
+    private LocalDateTime changedAt; // cursor for the next page, with logId
+}
@@ -3,9 +3,15 @@ package com.parking.vehicle_log_service.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "vehicle_logs")
+@Table(name = "vehicle_logs", indexes = {
+        @Index(name = "idx_vehicle_log_plate_entry", columnList = "vehicle_number, entry_time"),
+        @Index(name = "idx_vehicle_log_plate_key_entry", columnList = "plate_key, entry_time"),
+        @Index(name = "idx_vehicle_log_exit", columnList = "exit_time"),
+        @Index(name = "idx_vehicle_log_changed", columnList = "changed_at, log_id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,20 +21,43 @@ public class VehicleLog {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long logId;
 
-    @Column(nullable = false)
+    @Column(name = "vehicle_number", nullable = false)
     private String vehicleNumber;
 
-    @Column(nullable = false)
+    // vehicleNumber normalized ("ka-01 ab 1234" -> "KA01AB1234"), so plate lookups are one indexed IN
+    @Column(name = "plate_key", length = 32)
+    private String plateKey;
+
+    @Column(name = "entry_time", nullable = false)
     private LocalDateTime entryTime;
 
+    @Column(name = "exit_time")
     private LocalDateTime exitTime;
 
     private Long userId; // foreign key to user-service
 
     private Long slotId;
 
+    private Long reservationId; // set when the slot was taken from the vehicle's reservation
+
     private Long durationMinutes;
 
+    // Kept by the database on every insert and update; drives the change feed
+    @Column(name = "changed_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime changedAt;
+
+    @PrePersist
+    @PreUpdate
+    void updatePlateKey() {
+        plateKey = vehicleNumber == null ? null : plateKey(vehicleNumber);
+    }
+
+    // "ka-01 ab 1234" and "KA01AB1234" are the same plate
+    public static String plateKey(String plate) {
+        return plate.replaceAll("[^A-Za-z0-9]", "").toUpperCase(Locale.ROOT);
+    }
+
 //    @Column(nullable = false)
 //    private boolean isActive = true; // optional soft delete
 }
@@ -0,0 +1,23 @@
+package com.parking.vehicle_log_service.feign;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import java.util.Map;
+
+@FeignClient(name = "reservation-service")
+public interface ReservationClient {
+
+    // Matches the plate to its active reservation without recording the arrival; 404 if it has none
+    @PostMapping("/api/reservations/arrivals/match")
+    Map<String, Object> matchArrival(@RequestBody Map<String, Object> request);
+
+    // Records the arrival on a matched reservation, once the entry is logged
+    @PostMapping("/api/reservations/{id}/arrival")
+    Map<String, Object> confirmArrival(@PathVariable("id") Long reservationId, @RequestBody Map<String, Object> request);
+
+    // Marks the reservation's vehicle as gone, which frees its slot if it overstayed
+    @PostMapping("/api/reservations/{id}/departure")
+    Map<String, Object> recordDeparture(@PathVariable("id") Long reservationId);
+}
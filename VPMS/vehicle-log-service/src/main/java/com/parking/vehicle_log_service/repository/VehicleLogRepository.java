@@ -1,9 +1,15 @@
 package com.parking.vehicle_log_service.repository;
 
 import com.parking.vehicle_log_service.entity.VehicleLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +20,32 @@ public interface VehicleLogRepository extends JpaRepository<VehicleLog, Long> {
     List<VehicleLog> findBySlotId(Long slotId);
 
     List<VehicleLog> findByVehicleNumber(String vehicleNumber);
+
+    // Served by idx_vehicle_log_plate_key_entry
+    List<VehicleLog> findByPlateKeyInAndEntryTimeBetween(Collection<String> plateKeys,
+                                                         LocalDateTime from,
+                                                         LocalDateTime to);
+
+    // Fills plate_key for rows written before the column existed; same normalization as VehicleLog.plateKey
+    @Modifying
+    @Query(value = "UPDATE vehicle_logs SET plate_key = UPPER(REGEXP_REPLACE(vehicle_number, '[^A-Za-z0-9]', ''))"
+            + " WHERE plate_key IS NULL", nativeQuery = true)
+    int backfillPlateKeys();
+
+    // Closed walk-in logs (not taken from a reservation) last changed before "until", after the
+    // (changedAt, id) cursor, oldest change first; served by idx_vehicle_log_changed
+    @Query("select l from VehicleLog l where l.reservationId is null and l.exitTime is not null and l.changedAt < :until"
+            + " and (l.changedAt > :since or (l.changedAt = :since and l.logId > :afterId))"
+            + " order by l.changedAt, l.logId")
+    List<VehicleLog> findClosedWalkInsAfter(@Param("since") LocalDateTime since,
+                                           @Param("afterId") Long afterId,
+                                           @Param("until") LocalDateTime until,
+                                           Limit limit);
+
+    // Logs changed after the (changedAt, id) cursor, oldest change first; served by idx_vehicle_log_changed
+    @Query("select l from VehicleLog l where l.changedAt > :since or (l.changedAt = :since and l.logId > :afterId)"
+            + " order by l.changedAt, l.logId")
+    List<VehicleLog> findChangedAfter(@Param("since") LocalDateTime since,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
 }
@@ -1,9 +1,12 @@
 package com.parking.vehicle_log_service.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import com.parking.vehicle_log_service.dto.EntryLookupRequest;
 import com.parking.vehicle_log_service.dto.VehicleEntryRequest;
 import com.parking.vehicle_log_service.dto.VehicleExitRequest;
+import com.parking.vehicle_log_service.dto.VehicleLogChangeDTO;
 import com.parking.vehicle_log_service.dto.VehicleLogResponse;
 
 public interface VehicleLogService {
@@ -20,4 +23,10 @@ public interface VehicleLogService {
   
     List<VehicleLogResponse> getLogsByUserId(Long userId);
 
+    List<Long> findEntries(EntryLookupRequest request);
+
+    List<VehicleLogChangeDTO> getLogChanges(LocalDateTime since, Long afterId, int size);
+
+    List<VehicleLogChangeDTO> getClosedWalkIns(LocalDateTime since, Long afterId, LocalDateTime until, int size);
+
 }
@@ -1,34 +1,62 @@
 package com.parking.vehicle_log_service.service.impl;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.parking.vehicle_log_service.dto.EntryLookupItem;
+import com.parking.vehicle_log_service.dto.EntryLookupRequest;
 import com.parking.vehicle_log_service.dto.VehicleEntryRequest;
 import com.parking.vehicle_log_service.dto.VehicleExitRequest;
+import com.parking.vehicle_log_service.dto.VehicleLogChangeDTO;
 import com.parking.vehicle_log_service.dto.VehicleLogResponse;
 import com.parking.vehicle_log_service.entity.VehicleLog;
+import com.parking.vehicle_log_service.feign.ReservationClient;
 import com.parking.vehicle_log_service.feign.SlotServiceClient;
 import com.parking.vehicle_log_service.repository.VehicleLogRepository;
 import com.parking.vehicle_log_service.service.VehicleLogService;
 
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class VehicleLogServiceImpl implements VehicleLogService {
 
     private final VehicleLogRepository logRepo;
     private final SlotServiceClient slotServiceClient;
+    private final ReservationClient reservationClient;
     @Value("${slot.occupancy.field:occupied}")
     private String occupancyField;
 
   @Override
 public VehicleLogResponse logVehicleEntry(VehicleEntryRequest request) {
+    LocalDateTime entryTime = LocalDateTime.now();
+    Long reservationId = null;
+    if (request.getSlotId() == null) {
+        // No slot given: park the vehicle in the slot it booked (the arrival is recorded once the entry is logged)
+        Map<String, Object> reservation = findReservation(request.getVehicleNumber(), entryTime);
+        reservationId = ((Number) reservation.get("reservationId")).longValue();
+        request.setSlotId(((Number) reservation.get("slotId")).longValue());
+        if (request.getUserId() == null && reservation.get("userId") != null) {
+            request.setUserId(((Number) reservation.get("userId")).longValue());
+        }
+    }
+
     Map<String, Object> slotDetails = slotServiceClient.getSlotById(request.getSlotId());
     Map<String, Object> slot = (Map<String, Object>) slotDetails.get("slot");
     String slotType = slot != null ? (String) slot.getOrDefault("type", "UNKNOWN") : "UNKNOWN";
@@ -42,9 +70,13 @@ public VehicleLogResponse logVehicleEntry(VehicleEntryRequest request) {
     log.setVehicleNumber(request.getVehicleNumber());
     log.setUserId(request.getUserId());
     log.setSlotId(request.getSlotId());
-    log.setEntryTime(LocalDateTime.now());
+    log.setReservationId(reservationId);
+    log.setEntryTime(entryTime);
 
     logRepo.save(log);
+    if (reservationId != null) {
+        reportArrival(reservationId, entryTime);
+    }
     // Update slot occupancy to true
     slotServiceClient.updatedSlot(
         request.getSlotId(),
@@ -53,6 +85,35 @@ public VehicleLogResponse logVehicleEntry(VehicleEntryRequest request) {
     VehicleLogResponse response = mapToResponse(log, slotType);
     return response;
 }
+private Map<String, Object> findReservation(String vehicleNumber, LocalDateTime entryTime) {
+    Map<String, Object> arrival = new HashMap<>();
+    arrival.put("vehicleNumber", vehicleNumber);
+    arrival.put("arrivalTime", entryTime);
+    try {
+        return reservationClient.matchArrival(arrival);
+    } catch (FeignException.NotFound e) {
+        throw new RuntimeException("No slot given and no active reservation for " + vehicleNumber);
+    }
+}
+
+// The entry stands even if reservation-service can't be told; the no-show sweep still finds it in the log
+private void reportArrival(Long reservationId, LocalDateTime entryTime) {
+    try {
+        reservationClient.confirmArrival(reservationId, Map.of("arrivalTime", entryTime));
+    } catch (FeignException e) {
+        log.warn("Could not report arrival for reservation {}: {}", reservationId, e.getMessage());
+    }
+}
+
+// The exit stands even if reservation-service can't be told; it then treats the vehicle as parked until max-hours
+private void reportDeparture(Long reservationId) {
+    try {
+        reservationClient.recordDeparture(reservationId);
+    } catch (FeignException e) {
+        log.warn("Could not report departure for reservation {}: {}", reservationId, e.getMessage());
+    }
+}
+
 @Override
 public VehicleLogResponse logVehicleExit(VehicleExitRequest request) {
     VehicleLog log = logRepo.findById(request.getLogId())
@@ -67,6 +128,9 @@ public VehicleLogResponse logVehicleExit(VehicleExitRequest request) {
     long durationMinutes = duration.toMinutes(); // Calculate duration in minutes
     log.setDurationMinutes(durationMinutes); // Save duration in minutes to the database
     logRepo.save(log);
+    if (log.getReservationId() != null) {
+        reportDeparture(log.getReservationId());
+    }
 
     // Update slot occupancy to false (slot is now available)
     slotServiceClient.updatedSlot(
@@ -189,4 +253,102 @@ public List<VehicleLogResponse> getLogsByUserId(Long userId) {
 }
 
 
+// One page of the feed billing invoices walk-ins from, ordered by (changedAt, id)
+@Override
+public List<VehicleLogChangeDTO> getClosedWalkIns(LocalDateTime since, Long afterId, LocalDateTime until, int size) {
+    if (since == null) {
+        throw new RuntimeException("since is required");
+    }
+    if (size <= 0 || size > 1000) {
+        throw new RuntimeException("size must be between 1 and 1000");
+    }
+    return toChangeDTOs(logRepo.findClosedWalkInsAfter(since, afterId == null ? 0L : afterId,
+            until == null ? LocalDateTime.now() : until, Limit.of(size)));
+}
+
+// One page of the change feed billing keeps its copy of the logs current from
+@Override
+public List<VehicleLogChangeDTO> getLogChanges(LocalDateTime since, Long afterId, int size) {
+    if (since == null) {
+        throw new RuntimeException("since is required");
+    }
+    if (size <= 0 || size > 1000) {
+        throw new RuntimeException("size must be between 1 and 1000");
+    }
+    return toChangeDTOs(logRepo.findChangedAfter(since, afterId == null ? 0L : afterId, Limit.of(size)));
+}
+
+// Each slot is looked up once per page
+private List<VehicleLogChangeDTO> toChangeDTOs(List<VehicleLog> logs) {
+    Map<Long, String> slotTypes = new HashMap<>();
+    List<VehicleLogChangeDTO> page = new ArrayList<>(logs.size());
+    for (VehicleLog log : logs) {
+        String slotType = log.getSlotId() == null ? "UNKNOWN"
+                : slotTypes.computeIfAbsent(log.getSlotId(), this::slotTypeOf);
+        page.add(new VehicleLogChangeDTO(log.getLogId(), log.getUserId(), slotType, log.getReservationId(),
+                log.getEntryTime(), log.getExitTime(), log.getChangedAt()));
+    }
+    return page;
+}
+
+private String slotTypeOf(Long slotId) {
+    Map<String, Object> slotDetails = slotServiceClient.getSlotById(slotId);
+    Map<String, Object> slot = (Map<String, Object>) slotDetails.get("slot");
+    return slot != null ? (String) slot.getOrDefault("type", "UNKNOWN") : "UNKNOWN";
+}
+
+
+@Override
+public List<Long> findEntries(EntryLookupRequest request) {
+    List<EntryLookupItem> items = request.getItems() == null ? List.of() : request.getItems();
+    if (items.isEmpty()) {
+        return List.of();
+    }
+    if (items.size() > 1000) {
+        throw new RuntimeException("At most 1000 lookups per request");
+    }
+
+    // One indexed query over every normalized plate and the union of the windows, matched up in memory
+    Set<String> plates = new HashSet<>();
+    LocalDateTime from = null;
+    LocalDateTime to = null;
+    for (EntryLookupItem item : items) {
+        if (item.getVehicleNumber() == null || item.getFrom() == null || item.getTo() == null) {
+            continue;
+        }
+        plates.add(VehicleLog.plateKey(item.getVehicleNumber()));
+        from = from == null || item.getFrom().isBefore(from) ? item.getFrom() : from;
+        to = to == null || item.getTo().isAfter(to) ? item.getTo() : to;
+    }
+    if (plates.isEmpty()) {
+        return List.of();
+    }
+
+    Map<String, List<LocalDateTime>> entriesByPlate = new HashMap<>();
+    for (VehicleLog log : logRepo.findByPlateKeyInAndEntryTimeBetween(plates, from, to)) {
+        entriesByPlate.computeIfAbsent(log.getPlateKey(), k -> new ArrayList<>()).add(log.getEntryTime());
+    }
+    List<Long> matched = new ArrayList<>();
+    for (EntryLookupItem item : items) {
+        if (item.getVehicleNumber() == null || item.getFrom() == null || item.getTo() == null) {
+            continue;
+        }
+        List<LocalDateTime> entries = entriesByPlate.getOrDefault(VehicleLog.plateKey(item.getVehicleNumber()), List.of());
+        if (entries.stream().anyMatch(t -> !t.isBefore(item.getFrom()) && !t.isAfter(item.getTo()))) {
+            matched.add(item.getKey());
+        }
+    }
+    return matched;
+}
+
+// Logs written before plate_key existed get theirs once; new and updated rows set it themselves
+@EventListener(ApplicationReadyEvent.class)
+@Transactional
+public void backfillPlateKeys() {
+    int filled = logRepo.backfillPlateKeys();
+    if (filled > 0) {
+        log.info("Filled plate_key for {} vehicle logs", filled);
+    }
+}
+
 }
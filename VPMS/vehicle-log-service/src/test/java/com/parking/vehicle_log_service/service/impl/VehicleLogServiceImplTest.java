@@ -0,0 +1,128 @@
+package com.parking.vehicle_log_service.service.impl;
+
+import com.parking.vehicle_log_service.dto.EntryLookupItem;
+import com.parking.vehicle_log_service.dto.EntryLookupRequest;
+import com.parking.vehicle_log_service.dto.VehicleEntryRequest;
+import com.parking.vehicle_log_service.entity.VehicleLog;
+import com.parking.vehicle_log_service.feign.ReservationClient;
+import com.parking.vehicle_log_service.feign.SlotServiceClient;
+import com.parking.vehicle_log_service.repository.VehicleLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VehicleLogServiceImplTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.now().withHour(12).withMinute(0).withSecond(0).withNano(0);
+
+    @Mock
+    private VehicleLogRepository logRepo;
+
+    @Mock
+    private SlotServiceClient slotServiceClient;
+
+    @Mock
+    private ReservationClient reservationClient;
+
+    @InjectMocks
+    private VehicleLogServiceImpl vehicleLogService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(vehicleLogService, "occupancyField", "occupied");
+    }
+
+    // 1: Plates are matched on their normalized form, whichever way either side wrote them
+    @Test
+    void findEntries_differentlyFormattedPlate_matched() {
+        when(logRepo.findByPlateKeyInAndEntryTimeBetween(any(), any(), any()))
+                .thenReturn(List.of(log("ka-01 ab 1234", NOON.plusMinutes(5))));
+
+        List<Long> matched = vehicleLogService.findEntries(new EntryLookupRequest(List.of(
+                new EntryLookupItem(1L, "KA01AB1234", NOON, NOON.plusHours(1)),
+                new EntryLookupItem(2L, "KA02CD5678", NOON, NOON.plusHours(1)))));
+
+        assertEquals(List.of(1L), matched);
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(logRepo).findByPlateKeyInAndEntryTimeBetween(keys.capture(), eq(NOON), eq(NOON.plusHours(1)));
+        assertEquals(Set.of("KA01AB1234", "KA02CD5678"), Set.copyOf(keys.getValue()));
+    }
+
+    // 2: An entry outside an item's own window doesn't count for it
+    @Test
+    void findEntries_entryOutsideItemWindow_notMatched() {
+        when(logRepo.findByPlateKeyInAndEntryTimeBetween(any(), any(), any()))
+                .thenReturn(List.of(log("KA01AB1234", NOON.plusHours(2))));
+
+        List<Long> matched = vehicleLogService.findEntries(new EntryLookupRequest(List.of(
+                new EntryLookupItem(1L, "KA01AB1234", NOON, NOON.plusHours(1)),
+                new EntryLookupItem(2L, "ka01ab1234", NOON.plusHours(1), NOON.plusHours(3)))));
+
+        assertEquals(List.of(2L), matched);
+    }
+
+    // 3: An empty lookup doesn't query at all
+    @Test
+    void findEntries_noItems_noQuery() {
+        assertEquals(List.of(), vehicleLogService.findEntries(new EntryLookupRequest(List.of())));
+        verifyNoInteractions(logRepo);
+    }
+
+    // 4: Separators and case don't make a different plate key
+    @Test
+    void plateKey_separatorsAndCase_ignored() {
+        assertEquals("MH12XY0001", VehicleLog.plateKey(" mh 12-xy 0001 "));
+        assertEquals(VehicleLog.plateKey("KA01AB1234"), VehicleLog.plateKey("ka-01 ab 1234"));
+    }
+
+    // 5: A vehicle without a slot is parked in its booked one; the arrival is recorded only after the entry is saved
+    @Test
+    void logVehicleEntry_reservedSlot_arrivalConfirmedAfterSave() {
+        when(reservationClient.matchArrival(any())).thenReturn(Map.of("reservationId", 50, "slotId", 7, "userId", 100));
+        when(slotServiceClient.getSlotById(7L)).thenReturn(Map.of("slot", Map.of("type", "4W", "occupied", false)));
+
+        vehicleLogService.logVehicleEntry(entry("KA01AB1234"));
+
+        InOrder inOrder = inOrder(logRepo, reservationClient);
+        inOrder.verify(logRepo).save(any(VehicleLog.class));
+        inOrder.verify(reservationClient).confirmArrival(eq(50L), any());
+    }
+
+    // 6: When the entry is refused (slot still occupied) the reservation is not marked arrived
+    @Test
+    void logVehicleEntry_slotOccupied_arrivalNotRecorded() {
+        when(reservationClient.matchArrival(any())).thenReturn(Map.of("reservationId", 50, "slotId", 7, "userId", 100));
+        when(slotServiceClient.getSlotById(7L)).thenReturn(Map.of("slot", Map.of("type", "4W", "occupied", true)));
+
+        assertThrows(RuntimeException.class, () -> vehicleLogService.logVehicleEntry(entry("KA01AB1234")));
+
+        verify(logRepo, never()).save(any());
+        verify(reservationClient, never()).confirmArrival(any(), any());
+    }
+
+    private VehicleEntryRequest entry(String plate) {
+        VehicleEntryRequest request = new VehicleEntryRequest();
+        request.setVehicleNumber(plate);
+        return request;
+    }
+
+    private VehicleLog log(String plate, LocalDateTime entryTime) {
+        VehicleLog log = new VehicleLog();
+        log.setVehicleNumber(plate);
+        log.setEntryTime(entryTime);
+        log.setPlateKey(VehicleLog.plateKey(plate));
+        return log;
+    }
+}